@@ -0,0 +1,33 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib;
+
+import org.cloudfoundry.client.lib.domain.CloudEvent;
+
+/**
+ * Receives the results of an event query one at a time, as each page is retrieved.
+ */
+public interface CloudEventCallback {
+
+	/**
+	 * Called for each matching event, in the order requested.
+	 *
+	 * @param event the event
+	 * @return true to stop the query, in which case no further pages are requested
+	 */
+	boolean onEvent(CloudEvent event);
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib;
+
+import java.util.Date;
+import java.util.List;
+
+import org.cloudfoundry.client.lib.domain.CloudChange;
+
+/**
+ * Feed of the changes recorded by the cloud controller events API. Each poll requests only the events
+ * recorded since the last event seen, and reports them to the registered listeners as typed changes.
+ * <p>
+ * Register a {@link SpaceSnapshot} as a listener to keep it up to date without reloading it as a whole.
+ */
+public interface CloudEventFeed {
+
+	/**
+	 * Request the events recorded since the last poll and report them to the listeners.
+	 *
+	 * @return the new changes, in event order
+	 */
+	List<CloudChange> poll();
+
+	/**
+	 * Poll in the background at a fixed period until {@link #stop()} is called. Failed polls are logged
+	 * and retried at the next period.
+	 *
+	 * @param periodMillis time between polls in milliseconds
+	 */
+	void start(long periodMillis);
+
+	/**
+	 * Stop polling in the background.
+	 */
+	void stop();
+
+	/**
+	 * @return the timestamp of the last event seen, or null if no events have been seen yet
+	 */
+	Date getCursor();
+
+	void addChangeListener(CloudChangeListener listener);
+
+	void removeChangeListener(CloudChangeListener listener);
+
+}
@@ -20,11 +20,13 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
 import org.cloudfoundry.client.lib.archive.ApplicationArchive;
+import org.cloudfoundry.client.lib.archive.ArchiveFingerprinter;
 import org.cloudfoundry.client.lib.domain.ApplicationLog;
 import org.cloudfoundry.client.lib.domain.ApplicationStats;
 import org.cloudfoundry.client.lib.domain.CloudApplication;
@@ -44,8 +46,12 @@ import org.cloudfoundry.client.lib.domain.CloudSpace;
 import org.cloudfoundry.client.lib.domain.CloudStack;
 import org.cloudfoundry.client.lib.domain.CrashesInfo;
 import org.cloudfoundry.client.lib.domain.InstancesInfo;
+import org.cloudfoundry.client.lib.domain.RouteDeletionResult;
+import org.cloudfoundry.client.lib.domain.RouteMappingResult;
+import org.cloudfoundry.client.lib.domain.ServiceBindingResult;
 import org.cloudfoundry.client.lib.domain.Staging;
 import org.cloudfoundry.client.lib.domain.CloudUser;
+import org.cloudfoundry.client.lib.io.CompressionPolicy;
 import org.cloudfoundry.client.lib.rest.CloudControllerClient;
 import org.cloudfoundry.client.lib.rest.CloudControllerClientFactory;
 import org.springframework.security.oauth2.common.OAuth2AccessToken;
@@ -191,6 +197,32 @@ public class CloudFoundryClient implements CloudFoundryOperations {
 		cc.setResponseErrorHandler(errorHandler);
 	}
 
+	/**
+	 * Set the fingerprinter used to compute the digests of application files before they are uploaded,
+	 * for example to share one executor between clients or to change how much memory is used to keep small
+	 * files between hashing and uploading them.
+	 */
+	public void setArchiveFingerprinter(ArchiveFingerprinter archiveFingerprinter) {
+		cc.setArchiveFingerprinter(archiveFingerprinter);
+	}
+
+	/**
+	 * Set the number of threads compressing the files of an application while it is uploaded. Defaults to the
+	 * number of processors; 1 compresses the files one after the other as they are sent.
+	 */
+	public void setUploadCompressionThreads(int threads) {
+		cc.setUploadCompressionThreads(threads);
+	}
+
+	/**
+	 * Set the policy deciding how the files of an application are compressed while it is uploaded. Defaults to
+	 * {@link CompressionPolicy#DEFAULT}, which stores files that are already compressed such as jars and images;
+	 * {@link CompressionPolicy#FASTEST} trades upload size for speed on a fast network.
+	 */
+	public void setUploadCompressionPolicy(CompressionPolicy compressionPolicy) {
+		cc.setUploadCompressionPolicy(compressionPolicy);
+	}
+
 	public URL getCloudControllerUrl() {
 		return cc.getCloudControllerUrl();
 	}
@@ -206,6 +238,14 @@ public class CloudFoundryClient implements CloudFoundryOperations {
 		return cc.getSpaces();
 	}
 
+	public CloudFoundryClient forSpace(CloudSpace space) {
+		return new CloudFoundryClient(cc.forSpace(space));
+	}
+
+	public CloudFoundryClient withSpace(String orgName, String spaceName) {
+		return new CloudFoundryClient(cc.withSpace(orgName, spaceName));
+	}
+
 	public List<CloudOrganization> getOrganizations() {
 		return cc.getOrganizations();
 	}
@@ -237,10 +277,26 @@ public class CloudFoundryClient implements CloudFoundryOperations {
 	public List<CloudApplication> getApplications() {
 		return cc.getApplications();
 	}
+
+	public List<CloudApplication> getApplications(QueryOptions options) {
+		return cc.getApplications(options);
+	}
 	
 	public List<CloudApplication> getApplicationsWithBasicInfo() {
 		return cc.getApplicationsWithBasicInfo();
 	}
+
+	public List<CloudApplication> getLazyApplications() {
+		return cc.getLazyApplications();
+	}
+
+	public void prefetchApplicationDetails(List<CloudApplication> apps) {
+		cc.prefetchApplicationDetails(apps);
+	}
+
+	public SpaceSnapshot getSpaceSnapshot() {
+		return cc.getSpaceSnapshot();
+	}
 	
 	public Map<CloudApplication, ApplicationStats> getApplicationStats(List<CloudApplication> apps) {
 		return cc.getApplicationStats(apps);
@@ -250,6 +306,10 @@ public class CloudFoundryClient implements CloudFoundryOperations {
 		return cc.getApplication(appName);
 	}
 
+	public CloudApplication getApplication(String appName, QueryOptions options) {
+		return cc.getApplication(appName, options);
+	}
+
 	public CloudApplication getApplication(UUID appGuid) {
 		return cc.getApplication(appGuid);
 	}
@@ -292,11 +352,20 @@ public class CloudFoundryClient implements CloudFoundryOperations {
 		cc.createUserProvidedService(service, credentials, syslogDrainUrl);
 	}
 
+	public List<CloudRoute> getOrphanedRoutes() {
+		return cc.getOrphanedRoutes();
+	}
+
 	@Override
 	public List<CloudRoute> deleteOrphanedRoutes() {
     	return cc.deleteOrphanedRoutes();
 	}
 
+	@Override
+	public RouteDeletionResult deleteOrphanedRoutesWithResult() {
+		return cc.deleteOrphanedRoutesWithResult();
+	}
+
 	public void uploadApplication(String appName, String file) throws IOException {
 		cc.uploadApplication(appName, new File(file), null);
 	}
@@ -369,6 +438,10 @@ public class CloudFoundryClient implements CloudFoundryOperations {
 		cc.updateApplicationServices(appName, services);
 	}
 
+	public List<ServiceBindingResult> rebindApplicationServices(String appName, List<String> services) {
+		return cc.rebindApplicationServices(appName, services);
+	}
+
 	public void updateApplicationStaging(String appName, Staging staging) {
 		cc.updateApplicationStaging(appName, staging);
 	}
@@ -377,6 +450,15 @@ public class CloudFoundryClient implements CloudFoundryOperations {
 		cc.updateApplicationUris(appName, uris);
 	}
 
+	public List<RouteMappingResult> remapApplicationUris(String appName, List<String> uris) {
+		return cc.remapApplicationUris(appName, uris);
+	}
+
+	public List<RouteMappingResult> remapApplicationUris(String appName, List<String> addedUris,
+			List<String> removedUris) {
+		return cc.remapApplicationUris(appName, addedUris, removedUris);
+	}
+
 	public void updateApplicationEnv(String appName, Map<String, String> env) {
 		cc.updateApplicationEnv(appName, env);
 	}
@@ -393,6 +475,22 @@ public class CloudFoundryClient implements CloudFoundryOperations {
 		return cc.getApplicationEvents(appName);
 	}
 
+	public List<CloudEvent> getEvents(EventQuery query) {
+		return cc.getEvents(query);
+	}
+
+	public void getEvents(EventQuery query, CloudEventCallback callback) {
+		cc.getEvents(query, callback);
+	}
+
+	public CloudEventFeed getEventFeed() {
+		return cc.getEventFeed();
+	}
+
+	public CloudEventFeed getEventFeed(Date since) {
+		return cc.getEventFeed(since);
+	}
+
 	/**
 	 * @deprecated use {@link #streamLogs(String, ApplicationLogListener)} or {@link #getRecentLogs(String)}
 	 */
@@ -495,6 +593,22 @@ public class CloudFoundryClient implements CloudFoundryOperations {
 		return cc.getServiceOfferings();
 	}
 
+	public List<CloudServiceOffering> getServiceOfferingsByLabel(String label) {
+		return cc.getServiceOfferingsByLabel(label);
+	}
+
+	public List<CloudServiceOffering> getServiceOfferingsByProvider(String provider) {
+		return cc.getServiceOfferingsByProvider(provider);
+	}
+
+	public void setServiceCatalogTtl(long ttl) {
+		cc.setServiceCatalogTtl(ttl);
+	}
+
+	public List<CloudServiceOffering> getServiceOfferings(QueryOptions options) {
+		return cc.getServiceOfferings(options);
+	}
+
 	public void bindService(String appName, String serviceName) {
 		cc.bindService(appName, serviceName);
 	}
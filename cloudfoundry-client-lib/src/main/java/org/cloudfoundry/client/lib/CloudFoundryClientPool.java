@@ -0,0 +1,422 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudfoundry.client.lib.domain.CloudSpace;
+import org.cloudfoundry.client.lib.oauth2.OauthClient;
+import org.cloudfoundry.client.lib.rest.CloudControllerClientImpl;
+import org.cloudfoundry.client.lib.rest.LoggregatorClient;
+import org.cloudfoundry.client.lib.util.JsonUtil;
+import org.cloudfoundry.client.lib.util.ParallelTasks;
+import org.cloudfoundry.client.lib.util.RestUtil;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.util.Assert;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Pool of clients for one or more Cloud Foundry instances.
+ * <p>
+ * Clients handed out by the pool share one HTTP connection pool, and TLS setup, per cloud controller and
+ * UAA host. Clients for the same credentials share one token session, so a token is obtained and refreshed
+ * once for all of them, and are space-scoped views of one client, so they also share its caches (see
+ * {@link CloudFoundryClient#forSpace(CloudSpace)}). Asking for the same credentials and space again returns
+ * the same client. Clients are created, which involves logging in and looking up the space, outside the
+ * pool's lock; concurrent requests for the same client wait for the one creation in progress.
+ * <p>
+ * Every {@link #getClient} leases the client to the caller, who hands it back with
+ * {@link #releaseClient(CloudFoundryClient)} when done. Clients without outstanding leases that have not been
+ * asked for within the maximum idle time are evicted, together with the token sessions and connection pools
+ * no remaining client uses. An evicted client must not be used any more.
+ */
+public class CloudFoundryClientPool {
+
+	public static final long DEFAULT_MAX_IDLE_TIME = TimeUnit.MINUTES.toMillis(30);
+
+	private final RestUtil restUtil = new RestUtil();
+
+	private final HttpProxyConfiguration httpProxyConfiguration;
+
+	private final boolean trustSelfSignedCerts;
+
+	private final LoggregatorClient loggregatorClient;
+
+	private long maxIdleTime = DEFAULT_MAX_IDLE_TIME;
+
+	private final Map<String, ClientHttpRequestFactory> transports = new HashMap<String, ClientHttpRequestFactory>();
+
+	private final Map<String, FutureTask<URL>> authorizationEndpoints = new HashMap<String, FutureTask<URL>>();
+
+	private final Map<List<Object>, SharedOauthClient> sessions = new HashMap<List<Object>, SharedOauthClient>();
+
+	private final Map<List<Object>, FutureTask<CloudFoundryClient>> rootClients =
+			new HashMap<List<Object>, FutureTask<CloudFoundryClient>>();
+
+	private final Map<List<Object>, PooledClient> clients = new HashMap<List<Object>, PooledClient>();
+
+	public CloudFoundryClientPool() {
+		this(null, false);
+	}
+
+	public CloudFoundryClientPool(HttpProxyConfiguration httpProxyConfiguration, boolean trustSelfSignedCerts) {
+		this.httpProxyConfiguration = httpProxyConfiguration;
+		this.trustSelfSignedCerts = trustSelfSignedCerts;
+		this.loggregatorClient = new LoggregatorClient(trustSelfSignedCerts);
+	}
+
+	/**
+	 * Set how long a client without outstanding leases may go without being asked for before it is evicted.
+	 *
+	 * @param maxIdleTime the maximum idle time in milliseconds
+	 */
+	public synchronized void setMaxIdleTime(long maxIdleTime) {
+		Assert.isTrue(maxIdleTime >= 0, "Maximum idle time must not be negative");
+		this.maxIdleTime = maxIdleTime;
+	}
+
+	/**
+	 * Lease the client for the given credentials and session space, creating it if necessary.
+	 *
+	 * @param credentials the credentials to log in with
+	 * @param cloudControllerUrl the URL of the cloud controller
+	 * @param sessionSpace the space to work in, or null for operations that need no space
+	 * @return the pooled client, to be handed back with {@link #releaseClient(CloudFoundryClient)}
+	 */
+	public CloudFoundryClient getClient(CloudCredentials credentials, URL cloudControllerUrl,
+			CloudSpace sessionSpace) {
+		Object space = (sessionSpace != null ? sessionSpace.getMeta().getGuid() : null);
+		return getClient(credentials, cloudControllerUrl, space, sessionSpace, null, null);
+	}
+
+	/**
+	 * Lease the client for the given credentials, organization and space, creating it if necessary.
+	 *
+	 * @param credentials the credentials to log in with
+	 * @param cloudControllerUrl the URL of the cloud controller
+	 * @param orgName the name of the organization of the space, or null if the space name is unique
+	 * @param spaceName the name of the space to work in
+	 * @return the pooled client, to be handed back with {@link #releaseClient(CloudFoundryClient)}
+	 */
+	public CloudFoundryClient getClient(CloudCredentials credentials, URL cloudControllerUrl,
+			String orgName, String spaceName) {
+		Assert.notNull(spaceName, "Space name must not be null");
+		return getClient(credentials, cloudControllerUrl, orgName + "/" + spaceName, null, orgName, spaceName);
+	}
+
+	/**
+	 * Hand back a client leased with {@link #getClient}. The client may be evicted once all its leases are
+	 * released and it has been idle for longer than the maximum idle time.
+	 *
+	 * @param client the client to release
+	 */
+	public synchronized void releaseClient(CloudFoundryClient client) {
+		for (PooledClient pooledClient : clients.values()) {
+			if (pooledClient.client == client && pooledClient.leases > 0) {
+				pooledClient.leases--;
+				pooledClient.lastUsed = System.currentTimeMillis();
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Evict the clients without outstanding leases that have been idle for longer than the maximum idle time,
+	 * and close the connection pools no remaining client uses.
+	 */
+	public synchronized void evictIdleClients() {
+		long now = System.currentTimeMillis();
+		for (Iterator<PooledClient> iterator = clients.values().iterator(); iterator.hasNext(); ) {
+			PooledClient client = iterator.next();
+			if (client.leases == 0 && now - client.lastUsed > maxIdleTime) {
+				iterator.remove();
+			}
+		}
+		Set<List<Object>> rootClientsInUse = new HashSet<List<Object>>();
+		Set<Object> sessionsInUse = new HashSet<Object>();
+		Set<String> hostsInUse = new HashSet<String>();
+		for (PooledClient client : clients.values()) {
+			rootClientsInUse.add(client.rootKey);
+			sessionsInUse.add(client.rootKey.get(0));
+			hostsInUse.add(getHost(client.cloudControllerUrl));
+			FutureTask<URL> authorizationEndpoint = authorizationEndpoints.get(client.cloudControllerUrl.toString());
+			if (authorizationEndpoint != null && authorizationEndpoint.isDone()) {
+				try {
+					hostsInUse.add(getHost(authorizationEndpoint.get()));
+				} catch (Exception e) {
+					// the lookup failed, so no transport was created for the authorization endpoint
+				}
+			}
+		}
+		rootClients.keySet().retainAll(rootClientsInUse);
+		sessions.keySet().retainAll(sessionsInUse);
+		for (Iterator<Map.Entry<String, ClientHttpRequestFactory>> iterator = transports.entrySet().iterator();
+				iterator.hasNext(); ) {
+			Map.Entry<String, ClientHttpRequestFactory> transport = iterator.next();
+			if (!hostsInUse.contains(transport.getKey())) {
+				iterator.remove();
+				destroy(transport.getValue());
+			}
+		}
+	}
+
+	/**
+	 * Evict all clients, leased or not, and close all connection pools.
+	 */
+	public synchronized void close() {
+		clients.clear();
+		rootClients.clear();
+		sessions.clear();
+		for (ClientHttpRequestFactory transport : transports.values()) {
+			destroy(transport);
+		}
+		transports.clear();
+		authorizationEndpoints.clear();
+	}
+
+	/**
+	 * Create a request factory, and with it a connection pool. The pool creates one per cloud controller and
+	 * UAA host.
+	 */
+	protected ClientHttpRequestFactory createRequestFactory() {
+		return restUtil.createRequestFactory(httpProxyConfiguration, trustSelfSignedCerts);
+	}
+
+	private CloudFoundryClient getClient(final CloudCredentials credentials, final URL cloudControllerUrl,
+			Object space, final CloudSpace sessionSpace, final String orgName, final String spaceName) {
+		Assert.notNull(credentials, "Credentials must not be null");
+		Assert.notNull(cloudControllerUrl, "Cloud controller URL must not be null");
+
+		final List<Object> sessionKey = Arrays.<Object>asList(cloudControllerUrl.toString(), credentials.getEmail(),
+				credentials.getPassword(), credentials.getClientId(), credentials.getClientSecret(),
+				credentials.getToken() != null ? credentials.getToken().getValue() : null);
+		final List<Object> rootKey = Arrays.asList(sessionKey, credentials.getProxyUser());
+		List<Object> clientKey = Arrays.asList(rootKey, space);
+		PooledClient client;
+		boolean created = false;
+		synchronized (this) {
+			evictIdleClients();
+			client = clients.get(clientKey);
+			if (client == null) {
+				client = new PooledClient(new FutureTask<CloudFoundryClient>(new Callable<CloudFoundryClient>() {
+					public CloudFoundryClient call() {
+						CloudFoundryClient rootClient = getRootClient(sessionKey, rootKey, credentials,
+								cloudControllerUrl);
+						if (spaceName != null) {
+							return rootClient.withSpace(orgName, spaceName);
+						}
+						if (sessionSpace != null) {
+							return rootClient.forSpace(sessionSpace);
+						}
+						return rootClient;
+					}
+				}), rootKey, cloudControllerUrl);
+				clients.put(clientKey, client);
+				created = true;
+			}
+			client.leases++;
+			client.lastUsed = System.currentTimeMillis();
+		}
+		try {
+			CloudFoundryClient result = await(client.future, created);
+			synchronized (this) {
+				client.client = result;
+			}
+			return result;
+		} catch (RuntimeException e) {
+			synchronized (this) {
+				client.leases--;
+				// let the next caller try again
+				if (clients.get(clientKey) == client) {
+					clients.remove(clientKey);
+				}
+			}
+			throw e;
+		}
+	}
+
+	private CloudFoundryClient getRootClient(List<Object> sessionKey, List<Object> rootKey,
+			final CloudCredentials credentials, final URL cloudControllerUrl) {
+		final SharedOauthClient oauthClient = getSession(sessionKey, cloudControllerUrl);
+		return getOrCreate(rootClients, rootKey, new Callable<CloudFoundryClient>() {
+			public CloudFoundryClient call() {
+				// a template per root client, since the template carries the client's proxy user
+				RestTemplate restTemplate = restUtil.createRestTemplate(getTransport(getHost(cloudControllerUrl)));
+				return new CloudFoundryClient(new CloudControllerClientImpl(cloudControllerUrl, restTemplate,
+						oauthClient, loggregatorClient, credentials, (CloudSpace) null));
+			}
+		});
+	}
+
+	private SharedOauthClient getSession(List<Object> sessionKey, URL cloudControllerUrl) {
+		URL authorizationEndpoint = getAuthorizationEndpoint(cloudControllerUrl);
+		synchronized (this) {
+			SharedOauthClient oauthClient = sessions.get(sessionKey);
+			if (oauthClient == null) {
+				oauthClient = new SharedOauthClient(authorizationEndpoint,
+						restUtil.createRestTemplate(getTransport(getHost(authorizationEndpoint))));
+				sessions.put(sessionKey, oauthClient);
+			}
+			return oauthClient;
+		}
+	}
+
+	private URL getAuthorizationEndpoint(final URL cloudControllerUrl) {
+		return getOrCreate(authorizationEndpoints, cloudControllerUrl.toString(), new Callable<URL>() {
+			public URL call() {
+				RestTemplate restTemplate = restUtil.createRestTemplate(getTransport(getHost(cloudControllerUrl)));
+				String info = restTemplate.getForObject(cloudControllerUrl + "/info", String.class);
+				String endpoint = (String) JsonUtil.convertJsonToMap(info).get("authorization_endpoint");
+				try {
+					return new URL(endpoint);
+				} catch (MalformedURLException e) {
+					throw new IllegalArgumentException("Error creating auth endpoint URL for endpoint " + endpoint, e);
+				}
+			}
+		});
+	}
+
+	private synchronized ClientHttpRequestFactory getTransport(String host) {
+		ClientHttpRequestFactory transport = transports.get(host);
+		if (transport == null) {
+			transport = createRequestFactory();
+			transports.put(host, transport);
+		}
+		return transport;
+	}
+
+	/**
+	 * Get the value for the given key, creating it outside the pool's lock if necessary. Concurrent callers
+	 * for the same key wait for the one creation in progress; a failed creation is retried by the next caller.
+	 */
+	private <K, V> V getOrCreate(Map<K, FutureTask<V>> futures, K key, Callable<V> factory) {
+		FutureTask<V> future;
+		boolean created = false;
+		synchronized (this) {
+			future = futures.get(key);
+			if (future == null) {
+				future = new FutureTask<V>(factory);
+				futures.put(key, future);
+				created = true;
+			}
+		}
+		try {
+			return await(future, created);
+		} catch (RuntimeException e) {
+			synchronized (this) {
+				if (futures.get(key) == future) {
+					futures.remove(key);
+				}
+			}
+			throw e;
+		}
+	}
+
+	private static <V> V await(FutureTask<V> future, boolean created) {
+		if (created) {
+			future.run();
+		}
+		try {
+			return ParallelTasks.getResult(future);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CloudOperationException(e);
+		}
+	}
+
+	private static String getHost(URL url) {
+		return url.getProtocol() + "://" + url.getAuthority();
+	}
+
+	private static void destroy(ClientHttpRequestFactory transport) {
+		if (transport instanceof DisposableBean) {
+			try {
+				((DisposableBean) transport).destroy();
+			} catch (Exception e) {
+				// the connection pool is no longer used either way
+			}
+		}
+	}
+
+	private static class PooledClient {
+
+		private final FutureTask<CloudFoundryClient> future;
+
+		private final List<Object> rootKey;
+
+		private final URL cloudControllerUrl;
+
+		private CloudFoundryClient client;
+
+		private int leases;
+
+		private long lastUsed;
+
+		public PooledClient(FutureTask<CloudFoundryClient> future, List<Object> rootKey, URL cloudControllerUrl) {
+			this.future = future;
+			this.rootKey = rootKey;
+			this.cloudControllerUrl = cloudControllerUrl;
+		}
+	}
+
+	/**
+	 * OAuth client shared by all clients with the same credentials. The token is obtained when the first of
+	 * them is created, and refreshed by whichever client needs it first; logging out ends the session for
+	 * all of them.
+	 */
+	private static class SharedOauthClient extends OauthClient {
+
+		private boolean initialized;
+
+		public SharedOauthClient(URL authorizationUrl, RestTemplate restTemplate) {
+			super(authorizationUrl, restTemplate);
+		}
+
+		@Override
+		public synchronized void init(CloudCredentials credentials) {
+			if (!initialized) {
+				super.init(credentials);
+				initialized = (credentials != null);
+			}
+		}
+
+		@Override
+		public synchronized void clear() {
+			super.clear();
+			initialized = false;
+		}
+
+		@Override
+		public synchronized OAuth2AccessToken getToken() {
+			return super.getToken();
+		}
+	}
+
+}
@@ -20,6 +20,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -43,6 +44,9 @@ import org.cloudfoundry.client.lib.domain.CloudSpace;
 import org.cloudfoundry.client.lib.domain.CloudStack;
 import org.cloudfoundry.client.lib.domain.CrashesInfo;
 import org.cloudfoundry.client.lib.domain.InstancesInfo;
+import org.cloudfoundry.client.lib.domain.RouteDeletionResult;
+import org.cloudfoundry.client.lib.domain.RouteMappingResult;
+import org.cloudfoundry.client.lib.domain.ServiceBindingResult;
 import org.cloudfoundry.client.lib.domain.Staging;
 import org.cloudfoundry.client.lib.domain.CloudUser;
 import org.springframework.security.oauth2.common.OAuth2AccessToken;
@@ -88,6 +92,30 @@ public interface CloudFoundryOperations {
 	 */
 	List<CloudSpace> getSpaces();
 
+	/**
+	 * Get a client that works in the given space. The returned client shares the connection, login
+	 * session, caches and settings of this one, so switching spaces needs no further authentication, and
+	 * settings changed through either client apply to both.
+	 *
+	 * @param space the space to work in
+	 * @return the client for the space
+	 */
+	CloudFoundryOperations forSpace(CloudSpace space);
+
+	/**
+	 * Get a client that works in the space with the given name, as for {@link #forSpace(CloudSpace)}.
+	 * Spaces are resolved through a cache that is shared with this client and refreshed when the space
+	 * is not found.
+	 *
+	 * @param orgName the name of the organization of the space, or null if the space name is unique
+	 *        across organizations
+	 * @param spaceName the name of the space
+	 * @return the client for the space
+	 * @throws IllegalArgumentException if there is no such space, or if no organization name is given and
+	 *         the space name is not unique
+	 */
+	CloudFoundryOperations withSpace(String orgName, String spaceName);
+
 	/**
 	 * Get list of space manager UUID  for the space.
 	 *
@@ -295,8 +323,41 @@ public interface CloudFoundryOperations {
 	 * @return list of cloud applications
 	 */
 	List<CloudApplication> getApplications();
+
+	/**
+	 * Get all cloud applications, controlling which relations are embedded in the responses.
+	 *
+	 * @param options the relation depth, relations to resolve and page size to use
+	 * @return list of cloud applications
+	 */
+	List<CloudApplication> getApplications(QueryOptions options);
 	
 	List<CloudApplication> getApplicationsWithBasicInfo();
+
+	/**
+	 * Get all cloud applications, deferring the requests for their URIs, services and running instances
+	 * until these are first accessed on each application.
+	 *
+	 * @return list of lazily loaded cloud applications
+	 * @see #prefetchApplicationDetails(List)
+	 */
+	List<CloudApplication> getLazyApplications();
+
+	/**
+	 * Load the URIs, services and running instances of the given lazily loaded applications in bulk,
+	 * using a single route and service binding listing rather than requests per application.
+	 *
+	 * @param apps the applications to load the details for
+	 */
+	void prefetchApplicationDetails(List<CloudApplication> apps);
+
+	/**
+	 * Load the applications, routes, domains, services and stacks of the current space into an indexed
+	 * in-memory snapshot. The listings are requested in parallel.
+	 *
+	 * @return the snapshot of the current space
+	 */
+	SpaceSnapshot getSpaceSnapshot();
 	
 	Map<CloudApplication, ApplicationStats>  getApplicationStats(List<CloudApplication> apps);
 
@@ -308,6 +369,15 @@ public interface CloudFoundryOperations {
 	 */
 	CloudApplication getApplication(String appName);
 
+	/**
+	 * Get cloud application with the specified name, controlling which relations are embedded in the response.
+	 *
+	 * @param appName name of the app
+	 * @param options the relation depth and relations to resolve
+	 * @return the cloud application
+	 */
+	CloudApplication getApplication(String appName, QueryOptions options);
+
 	/**
 	 * Get cloud application with the specified GUID.
 	 *
@@ -391,11 +461,30 @@ public interface CloudFoundryOperations {
 	 */
 	void createUserProvidedService(CloudService service, Map<String, Object> credentials, String syslogDrainUrl);
 
+	/**
+	 * Get the routes of the current space that do not have any application assigned to them, without
+	 * deleting them.
+	 *
+	 * @return the orphaned routes
+	 */
+	List<CloudRoute> getOrphanedRoutes();
+
 	/**
 	 * Delete routes that do not have any application which is assigned to them.
+	 *
+	 * @return the deleted routes
+	 * @see #deleteOrphanedRoutesWithResult()
 	 */
 	List<CloudRoute> deleteOrphanedRoutes();
 
+	/**
+	 * Delete routes that do not have any application which is assigned to them. Every deletion is
+	 * attempted, even if some fail.
+	 *
+	 * @return the deleted routes and the routes that could not be deleted
+	 */
+	RouteDeletionResult deleteOrphanedRoutesWithResult();
+
 	/**
 	 * Upload an application to Cloud Foundry.
 	 *
@@ -551,6 +640,16 @@ public interface CloudFoundryOperations {
 	 */
 	void updateApplicationServices(String appName, List<String> services);
 
+	/**
+	 * Update application services, binding and unbinding the changed services concurrently. Unlike
+	 * {@link #updateApplicationServices(String, List)}, a service that fails does not stop the others.
+	 *
+	 * @param appName name of application
+	 * @param services list of services that should be bound to app
+	 * @return the outcome for each service that was bound or unbound
+	 */
+	List<ServiceBindingResult> rebindApplicationServices(String appName, List<String> services);
+
 	/**
 	 * Update application staging information.
 	 *
@@ -567,6 +666,27 @@ public interface CloudFoundryOperations {
 	 */
 	void updateApplicationUris(String appName, List<String> uris);
 
+	/**
+	 * Update application URIs, mapping and unmapping the changed URIs concurrently. Unlike
+	 * {@link #updateApplicationUris(String, List)}, a URI that fails does not stop the others.
+	 *
+	 * @param appName name of application
+	 * @param uris list of URIs the app should use
+	 * @return the outcome for each URI that was mapped or unmapped
+	 */
+	List<RouteMappingResult> remapApplicationUris(String appName, List<String> uris);
+
+	/**
+	 * Map and unmap the given URIs concurrently, leaving the other URIs of the application as they are. URIs
+	 * that are already mapped are not mapped again, and URIs that are not mapped are not unmapped.
+	 *
+	 * @param appName name of application
+	 * @param addedUris URIs to map to the application
+	 * @param removedUris URIs to unmap from the application
+	 * @return the outcome for each URI that was mapped or unmapped
+	 */
+	List<RouteMappingResult> remapApplicationUris(String appName, List<String> addedUris, List<String> removedUris);
+
 	/**
 	 * Update application env using a map where the key specifies the name of the environment variable
 	 * and the value the value of the environment variable..
@@ -599,6 +719,38 @@ public interface CloudFoundryOperations {
 	 */
 	List<CloudEvent> getApplicationEvents(String appName);
 
+	/**
+	 * Get the events matching the given query. Use a limit to avoid loading the full event history.
+	 *
+	 * @param query filters, order and limit of the events
+	 * @return the matching events
+	 */
+	List<CloudEvent> getEvents(EventQuery query);
+
+	/**
+	 * Get the events matching the given query, passing each one to the callback as its page is
+	 * retrieved rather than collecting them all in memory.
+	 *
+	 * @param query filters, order and limit of the events
+	 * @param callback receives the matching events and can stop the query
+	 */
+	void getEvents(EventQuery query, CloudEventCallback callback);
+
+	/**
+	 * Get a feed of the changes in the current space, starting after the most recent event.
+	 *
+	 * @return the event feed
+	 */
+	CloudEventFeed getEventFeed();
+
+	/**
+	 * Get a feed of the changes in the current space, starting at the given time.
+	 *
+	 * @param since time of the first events to report
+	 * @return the event feed
+	 */
+	CloudEventFeed getEventFeed(Date since);
+
 	/**
 	 * Get logs from the deployed application. The logs
 	 * will be returned in a Map keyed by the path of the log file
@@ -764,11 +916,50 @@ public interface CloudFoundryOperations {
 
 	/**
 	 * Get all service offerings.
+	 * <p>
+	 * The offerings are served from a cached catalog that may be stale by up to the time set with
+	 * {@link #setServiceCatalogTtl(long)}, 5 minutes by default, and that is refreshed earlier only when
+	 * service brokers are changed through this client. The returned offerings are copies that can be
+	 * modified freely.
 	 *
 	 * @return list of service offerings
 	 */
 	List<CloudServiceOffering> getServiceOfferings();
 
+	/**
+	 * Get the service offerings with the given label.
+	 *
+	 * @param label the service label
+	 * @return list of service offerings, empty if there are none
+	 */
+	List<CloudServiceOffering> getServiceOfferingsByLabel(String label);
+
+	/**
+	 * Get the service offerings of the given provider.
+	 *
+	 * @param provider the service provider
+	 * @return list of service offerings, empty if there are none
+	 */
+	List<CloudServiceOffering> getServiceOfferingsByProvider(String provider);
+
+	/**
+	 * Set how long the service catalog is cached before it is loaded again. Defaults to 5 minutes. Service
+	 * offerings and the plans used by {@link #createService(CloudService)} may be stale by up to that time;
+	 * a plan that is not found causes at most one reload until the catalog expires.
+	 *
+	 * @param ttl the time to live in milliseconds, 0 to load the catalog on every use
+	 */
+	void setServiceCatalogTtl(long ttl);
+
+	/**
+	 * Get all service offerings, controlling which relations are embedded in the responses. Service plans
+	 * are only included at an inline relations depth of 1 or more, or when listed as a relation to resolve.
+	 *
+	 * @param options the relation depth, relations to resolve and page size to use
+	 * @return list of service offerings
+	 */
+	List<CloudServiceOffering> getServiceOfferings(QueryOptions options);
+
 	/**
 	 * Get all service brokers.
 	 *
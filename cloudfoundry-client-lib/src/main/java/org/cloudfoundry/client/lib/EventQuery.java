@@ -0,0 +1,145 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.util.Assert;
+
+/**
+ * Filters and ordering for event queries. All filters are applied by the cloud controller, so only the
+ * matching events are transferred; unset filters match all events.
+ */
+public class EventQuery {
+
+	private Date since;
+
+	private Date until;
+
+	private UUID actee;
+
+	private UUID space;
+
+	private List<String> types = new ArrayList<String>();
+
+	private boolean descending;
+
+	private Integer limit;
+
+	/**
+	 * Query for the most recent events of the given resource, newest first.
+	 *
+	 * @param actee guid of the resource the events apply to
+	 * @param limit maximum number of events to return
+	 */
+	public static EventQuery latest(UUID actee, int limit) {
+		EventQuery query = new EventQuery();
+		query.setActee(actee);
+		query.setDescending(true);
+		query.setLimit(limit);
+		return query;
+	}
+
+	public Date getSince() {
+		return since;
+	}
+
+	/**
+	 * Only match events recorded at or after the given time.
+	 */
+	public void setSince(Date since) {
+		this.since = since;
+	}
+
+	public Date getUntil() {
+		return until;
+	}
+
+	/**
+	 * Only match events recorded before the given time.
+	 */
+	public void setUntil(Date until) {
+		this.until = until;
+	}
+
+	public UUID getActee() {
+		return actee;
+	}
+
+	/**
+	 * Only match events for the resource with the given guid.
+	 */
+	public void setActee(UUID actee) {
+		this.actee = actee;
+	}
+
+	public UUID getSpace() {
+		return space;
+	}
+
+	/**
+	 * Only match events in the space with the given guid.
+	 */
+	public void setSpace(UUID space) {
+		this.space = space;
+	}
+
+	public List<String> getTypes() {
+		return types;
+	}
+
+	/**
+	 * Only match events of the given types, such as {@code audit.app.update}.
+	 */
+	public void setTypes(String... types) {
+		this.types = new ArrayList<String>(Arrays.asList(types));
+	}
+
+	public boolean isDescending() {
+		return descending;
+	}
+
+	/**
+	 * Return the newest events first rather than the oldest.
+	 */
+	public void setDescending(boolean descending) {
+		this.descending = descending;
+	}
+
+	public Integer getLimit() {
+		return limit;
+	}
+
+	/**
+	 * Stop after the given number of events, or null to return all matching events.
+	 */
+	public void setLimit(Integer limit) {
+		Assert.isTrue(limit == null || limit > 0, "Limit must be positive");
+		this.limit = limit;
+	}
+
+	@Override
+	public String toString() {
+		return "EventQuery [since=" + since + ", until=" + until + ", actee=" + actee + ", space=" + space
+				+ ", types=" + types + ", descending=" + descending + ", limit=" + limit + "]";
+	}
+
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudfoundry.client.lib.domain.CloudApplication;
+import org.cloudfoundry.client.lib.domain.CloudService;
+import org.cloudfoundry.client.lib.domain.CloudSpace;
+import org.cloudfoundry.client.lib.util.ParallelTasks;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+
+/**
+ * Runs the same read against several Cloud Foundry targets at the same time.
+ * <p>
+ * Each target is queried on a thread of its own, so a query takes about as long as the slowest target, and
+ * never longer than the timeout. A target that fails or times out does not fail the query: its result
+ * carries the error instead, and the results of the other targets are still reported.
+ */
+public class FederatedQuery {
+
+	public static final long DEFAULT_TIMEOUT = TimeUnit.MINUTES.toMillis(5);
+
+	private final Map<String, CloudFoundryOperations> targets;
+
+	private long timeout = DEFAULT_TIMEOUT;
+
+	/**
+	 * @param targets the clients to query, by target name
+	 */
+	public FederatedQuery(Map<String, ? extends CloudFoundryOperations> targets) {
+		Assert.notEmpty(targets, "Targets must not be empty");
+		this.targets = new LinkedHashMap<String, CloudFoundryOperations>(targets);
+	}
+
+	/**
+	 * Set how long to wait for the targets to answer before reporting the remaining ones as timed out.
+	 *
+	 * @param timeout the timeout in milliseconds
+	 */
+	public void setTimeout(long timeout) {
+		Assert.isTrue(timeout > 0, "Timeout must be positive");
+		this.timeout = timeout;
+	}
+
+	/**
+	 * Run the query against all targets and wait for their results.
+	 *
+	 * @param query the query to run
+	 * @return the result of each target, in the order of the targets
+	 */
+	public <T> List<TargetResult<T>> execute(TargetQuery<T> query) {
+		final Map<String, TargetResult<T>> resultsByTarget = new HashMap<String, TargetResult<T>>();
+		execute(query, new TargetResultCallback<T>() {
+			public void onResult(TargetResult<T> result) {
+				resultsByTarget.put(result.getTarget(), result);
+			}
+		});
+		List<TargetResult<T>> results = new ArrayList<TargetResult<T>>();
+		for (String target : targets.keySet()) {
+			results.add(resultsByTarget.get(target));
+		}
+		return results;
+	}
+
+	/**
+	 * Run the query against all targets, passing the result of each target to the callback as soon as it is
+	 * available. Targets that have not answered within the timeout are reported last, with an error.
+	 *
+	 * @param query the query to run
+	 * @param callback receives the result of each target, on the calling thread
+	 */
+	public <T> void execute(final TargetQuery<T> query, TargetResultCallback<T> callback) {
+		Assert.notNull(query, "Query must not be null");
+		Assert.notNull(callback, "Callback must not be null");
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("federated-query-");
+		threadFactory.setDaemon(true);
+		ExecutorService executor = Executors.newFixedThreadPool(targets.size(), threadFactory);
+		CompletionService<TargetResult<T>> completionService = new ExecutorCompletionService<TargetResult<T>>(executor);
+		Map<Future<TargetResult<T>>, String> pending = new LinkedHashMap<Future<TargetResult<T>>, String>();
+		try {
+			for (final Map.Entry<String, CloudFoundryOperations> target : targets.entrySet()) {
+				Future<TargetResult<T>> future = completionService.submit(new Callable<TargetResult<T>>() {
+					public TargetResult<T> call() {
+						try {
+							return new TargetResult<T>(target.getKey(), query.execute(target.getValue()), null);
+						} catch (RuntimeException e) {
+							return new TargetResult<T>(target.getKey(), null, e);
+						}
+					}
+				});
+				pending.put(future, target.getKey());
+			}
+			long deadline = System.currentTimeMillis() + timeout;
+			while (!pending.isEmpty()) {
+				long remaining = deadline - System.currentTimeMillis();
+				Future<TargetResult<T>> done =
+						(remaining > 0 ? completionService.poll(remaining, TimeUnit.MILLISECONDS) : null);
+				if (done == null) {
+					break;
+				}
+				pending.remove(done);
+				callback.onResult(ParallelTasks.getResult(done));
+			}
+			for (Map.Entry<Future<TargetResult<T>>, String> timedOut : pending.entrySet()) {
+				timedOut.getKey().cancel(true);
+				callback.onResult(new TargetResult<T>(timedOut.getValue(), null, new CloudOperationException(
+						"Query of target " + timedOut.getValue() + " timed out after " + timeout + " ms")));
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CloudOperationException(e);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * @return a query for the applications of each target
+	 */
+	public static TargetQuery<CloudApplication> applications() {
+		return new TargetQuery<CloudApplication>() {
+			public List<CloudApplication> execute(CloudFoundryOperations client) {
+				return client.getApplications();
+			}
+		};
+	}
+
+	/**
+	 * @return a query for the services of each target
+	 */
+	public static TargetQuery<CloudService> services() {
+		return new TargetQuery<CloudService>() {
+			public List<CloudService> execute(CloudFoundryOperations client) {
+				return client.getServices();
+			}
+		};
+	}
+
+	/**
+	 * @return a query for the spaces of each target
+	 */
+	public static TargetQuery<CloudSpace> spaces() {
+		return new TargetQuery<CloudSpace>() {
+			public List<CloudSpace> execute(CloudFoundryOperations client) {
+				return client.getSpaces();
+			}
+		};
+	}
+
+}
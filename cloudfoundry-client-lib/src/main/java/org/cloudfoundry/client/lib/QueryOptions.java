@@ -0,0 +1,89 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.springframework.util.Assert;
+
+/**
+ * Controls how much of a resource graph the cloud controller returns for list and get calls.
+ * <p>
+ * The inline relations depth determines which relations are embedded in the response. Relations that are
+ * not embedded at that depth but are still needed can be listed as relation paths, such as {@code "stack"} or
+ * {@code "service_bindings.service_instance"}; these are then fetched separately, once per distinct URL.
+ */
+public class QueryOptions {
+
+	/**
+	 * Largest page size the cloud controller accepts.
+	 */
+	public static final int MAX_RESULTS_PER_PAGE = 100;
+
+	/**
+	 * Deepest relation inlining the cloud controller supports.
+	 */
+	public static final int MAX_INLINE_RELATIONS_DEPTH = 2;
+
+	private final int inlineRelationsDepth;
+
+	private final Set<String> relations;
+
+	private final Integer resultsPerPage;
+
+	public QueryOptions(int inlineRelationsDepth, String... relations) {
+		this(inlineRelationsDepth, null, relations);
+	}
+
+	public QueryOptions(int inlineRelationsDepth, Integer resultsPerPage, String... relations) {
+		Assert.isTrue(inlineRelationsDepth >= 0 && inlineRelationsDepth <= MAX_INLINE_RELATIONS_DEPTH,
+				"Inline relations depth must be between 0 and " + MAX_INLINE_RELATIONS_DEPTH);
+		Assert.isTrue(resultsPerPage == null || (resultsPerPage > 0 && resultsPerPage <= MAX_RESULTS_PER_PAGE),
+				"Results per page must be between 1 and " + MAX_RESULTS_PER_PAGE);
+		this.inlineRelationsDepth = inlineRelationsDepth;
+		this.resultsPerPage = resultsPerPage;
+		this.relations = Collections.unmodifiableSet(new LinkedHashSet<String>(Arrays.asList(relations)));
+	}
+
+	public int getInlineRelationsDepth() {
+		return inlineRelationsDepth;
+	}
+
+	/**
+	 * Relation paths to resolve when they are not embedded at the requested depth.
+	 */
+	public Set<String> getRelations() {
+		return relations;
+	}
+
+	/**
+	 * Page size to request, or null to use the cloud controller default.
+	 */
+	public Integer getResultsPerPage() {
+		return resultsPerPage;
+	}
+
+	@Override
+	public String toString() {
+		return "QueryOptions [inlineRelationsDepth=" + inlineRelationsDepth + ", relations=" + relations
+				+ ", resultsPerPage=" + resultsPerPage + "]";
+	}
+
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib;
+
+/**
+ * HTTP request statistics accumulated for a single {@link CloudFoundryOperations} method.
+ */
+public class RestCallStatistics {
+
+	private final String operation;
+
+	private long invocations;
+
+	private long requests;
+
+	private long failedRequests;
+
+	private long requestBytes;
+
+	private long responseBytes;
+
+	private long duration;
+
+	public RestCallStatistics(String operation) {
+		this(operation, 0);
+	}
+
+	RestCallStatistics(String operation, long invocations) {
+		this.operation = operation;
+		this.invocations = invocations;
+	}
+
+	/**
+	 * Name of the {@link CloudFoundryOperations} method the requests were issued for.
+	 */
+	public String getOperation() {
+		return operation;
+	}
+
+	/**
+	 * Number of times the operation was invoked.
+	 */
+	public long getInvocations() {
+		return invocations;
+	}
+
+	/**
+	 * Number of HTTP requests issued.
+	 */
+	public long getRequests() {
+		return requests;
+	}
+
+	/**
+	 * Number of HTTP requests that resulted in an error.
+	 */
+	public long getFailedRequests() {
+		return failedRequests;
+	}
+
+	/**
+	 * Number of request body bytes sent.
+	 */
+	public long getRequestBytes() {
+		return requestBytes;
+	}
+
+	/**
+	 * Number of response body bytes read.
+	 */
+	public long getResponseBytes() {
+		return responseBytes;
+	}
+
+	/**
+	 * Cumulative latency of the HTTP requests, in milliseconds.
+	 */
+	public long getDuration() {
+		return duration;
+	}
+
+	/**
+	 * Average number of HTTP requests per invocation of the operation.
+	 */
+	public double getRequestsPerInvocation() {
+		return (invocations == 0 ? 0 : (double) requests / invocations);
+	}
+
+	synchronized void addLogEntry(RestLogEntry logEntry) {
+		requests++;
+		if (!"OK".equals(logEntry.getStatus())) {
+			failedRequests++;
+		}
+		if (logEntry.getRequestBytes() > 0) {
+			requestBytes += logEntry.getRequestBytes();
+		}
+		if (logEntry.getResponseBytes() > 0) {
+			responseBytes += logEntry.getResponseBytes();
+		}
+		duration += logEntry.getDuration();
+	}
+
+	synchronized void add(RestCallStatistics other) {
+		synchronized (other) {
+			invocations += other.invocations;
+			requests += other.requests;
+			failedRequests += other.failedRequests;
+			requestBytes += other.requestBytes;
+			responseBytes += other.responseBytes;
+			duration += other.duration;
+		}
+	}
+
+	RestCallStatistics copy() {
+		RestCallStatistics copy = new RestCallStatistics(operation);
+		copy.add(this);
+		return copy;
+	}
+
+	@Override
+	public String toString() {
+		return operation + " :: INVOCATIONS: " + invocations + " :: REQUESTS: " + requests +
+				" (" + failedRequests + " failed) :: BYTES SENT: " + requestBytes +
+				" :: BYTES RECEIVED: " + responseBytes + " :: TIME: " + duration + "ms";
+	}
+
+}
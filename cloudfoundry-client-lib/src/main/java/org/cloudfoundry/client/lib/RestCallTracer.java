@@ -0,0 +1,219 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+import org.springframework.util.Assert;
+
+/**
+ * Attributes each REST call made by a {@link CloudFoundryOperations} instance to the public
+ * method that triggered it, and keeps request count, byte and latency totals per method.
+ * <p>
+ * Typical use is to wrap a client and assert call budgets in tests:
+ * <pre>
+ * RestCallTracer tracer = new RestCallTracer();
+ * CloudFoundryOperations client = tracer.trace(new CloudFoundryClient(...));
+ * client.getApplications();
+ * assertTrue(tracer.getStatistics("getApplications").getRequests() &lt;= 5);
+ * </pre>
+ * Requests issued through the client's {@link org.springframework.web.client.RestTemplate} are attributed, on the
+ * calling thread and on tasks the client runs concurrently through {@link #propagate(Callable)}; OAuth token
+ * requests are not.
+ */
+public class RestCallTracer implements RestLogCallback {
+
+	private static final String UNTRACED = "<untraced>";
+
+	/**
+	 * The operations being traced on the current thread, by tracer. The maps are never modified once set, so
+	 * {@link #propagate(Callable) propagated} tasks running concurrently can share them.
+	 */
+	private static final ThreadLocal<Map<RestCallTracer, RestCallStatistics>> currentOperations =
+			new ThreadLocal<Map<RestCallTracer, RestCallStatistics>>();
+
+	private final ConcurrentMap<String, RestCallStatistics> statistics = new ConcurrentHashMap<String, RestCallStatistics>();
+
+	private volatile RestCallStatistics untracedRequests = new RestCallStatistics(UNTRACED);
+
+	private final Set<RestCallStatisticsCallback> listeners = new CopyOnWriteArraySet<RestCallStatisticsCallback>();
+
+	/**
+	 * Register this tracer as a REST log listener on the given client, and return a view of
+	 * the client that attributes REST calls to the invoked operation.
+	 *
+	 * @param operations the client to trace
+	 * @return the traced client
+	 */
+	public CloudFoundryOperations trace(final CloudFoundryOperations operations) {
+		Assert.notNull(operations, "CloudFoundryOperations must not be null");
+		operations.registerRestLogListener(this);
+		return (CloudFoundryOperations) Proxy.newProxyInstance(CloudFoundryOperations.class.getClassLoader(),
+				new Class<?>[] {CloudFoundryOperations.class},
+				new InvocationHandler() {
+					public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+						if (method.getDeclaringClass() == Object.class) {
+							return invokeTarget(operations, method, args);
+						}
+						return traceOperation(method.getName(), operations, method, args);
+					}
+				});
+	}
+
+	/**
+	 * Get the accumulated statistics for the given operation.
+	 *
+	 * @param operation name of the {@link CloudFoundryOperations} method
+	 * @return a snapshot of the statistics, with zero counts if the operation was never invoked
+	 */
+	public RestCallStatistics getStatistics(String operation) {
+		RestCallStatistics operationStatistics = statistics.get(operation);
+		return (operationStatistics != null ? operationStatistics.copy() : new RestCallStatistics(operation));
+	}
+
+	/**
+	 * Get the accumulated statistics for all invoked operations, keyed by operation name.
+	 */
+	public Map<String, RestCallStatistics> getStatistics() {
+		Map<String, RestCallStatistics> snapshot = new TreeMap<String, RestCallStatistics>();
+		for (Map.Entry<String, RestCallStatistics> entry : statistics.entrySet()) {
+			snapshot.put(entry.getKey(), entry.getValue().copy());
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Get the statistics for REST calls that were made outside of a traced operation.
+	 */
+	public RestCallStatistics getUntracedStatistics() {
+		return untracedRequests.copy();
+	}
+
+	/**
+	 * Discard all accumulated statistics.
+	 */
+	public void reset() {
+		statistics.clear();
+		untracedRequests = new RestCallStatistics(UNTRACED);
+	}
+
+	public void registerRestCallStatisticsListener(RestCallStatisticsCallback callBack) {
+		listeners.add(callBack);
+	}
+
+	public void unRegisterRestCallStatisticsListener(RestCallStatisticsCallback callBack) {
+		listeners.remove(callBack);
+	}
+
+	/**
+	 * Return a task that attributes the REST calls it makes to the operations traced on the calling thread, for
+	 * tasks that a traced operation runs on other threads.
+	 *
+	 * @param task the task
+	 * @return the task, or a task that runs it within the traced operations of the calling thread
+	 */
+	public static <T> Callable<T> propagate(final Callable<T> task) {
+		final Map<RestCallTracer, RestCallStatistics> captured = currentOperations.get();
+		if (captured == null || captured.isEmpty()) {
+			return task;
+		}
+		return new Callable<T>() {
+			public T call() throws Exception {
+				Map<RestCallTracer, RestCallStatistics> previous = currentOperations.get();
+				currentOperations.set(captured);
+				try {
+					return task.call();
+				} finally {
+					if (previous != null) {
+						currentOperations.set(previous);
+					} else {
+						currentOperations.remove();
+					}
+				}
+			}
+		};
+	}
+
+	public void onNewLogEntry(RestLogEntry logEntry) {
+		RestCallStatistics current = getCurrentOperation();
+		if (current != null) {
+			current.addLogEntry(logEntry);
+		} else {
+			untracedRequests.addLogEntry(logEntry);
+		}
+	}
+
+	private Object traceOperation(String operation, CloudFoundryOperations operations, Method method, Object[] args)
+			throws Throwable {
+		if (getCurrentOperation() != null) {
+			// nested call, attribute requests to the outermost operation
+			return invokeTarget(operations, method, args);
+		}
+		RestCallStatistics invocation = new RestCallStatistics(operation, 1);
+		Map<RestCallTracer, RestCallStatistics> previous = currentOperations.get();
+		Map<RestCallTracer, RestCallStatistics> traced = (previous != null ?
+				new HashMap<RestCallTracer, RestCallStatistics>(previous) : new HashMap<RestCallTracer, RestCallStatistics>());
+		traced.put(this, invocation);
+		currentOperations.set(Collections.unmodifiableMap(traced));
+		try {
+			return invokeTarget(operations, method, args);
+		} finally {
+			if (previous != null) {
+				currentOperations.set(previous);
+			} else {
+				currentOperations.remove();
+			}
+			RestCallStatistics total = statistics.get(operation);
+			if (total == null) {
+				RestCallStatistics existing = statistics.putIfAbsent(operation, total = new RestCallStatistics(operation));
+				if (existing != null) {
+					total = existing;
+				}
+			}
+			total.add(invocation);
+			for (RestCallStatisticsCallback listener : listeners) {
+				listener.onOperationComplete(invocation);
+			}
+		}
+	}
+
+	private RestCallStatistics getCurrentOperation() {
+		Map<RestCallTracer, RestCallStatistics> operations = currentOperations.get();
+		return (operations != null ? operations.get(this) : null);
+	}
+
+	private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getTargetException();
+		}
+	}
+
+}
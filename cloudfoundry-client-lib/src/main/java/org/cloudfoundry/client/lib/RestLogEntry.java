@@ -33,13 +33,24 @@ public class RestLogEntry {
 	private String status;
 	private HttpStatus httpStatus;
 	private String message;
+	private long duration;
+	private long requestBytes;
+	private long responseBytes;
 
 	public RestLogEntry(HttpMethod method, URI uri, String status, HttpStatus httpStatus, String message) {
+		this(method, uri, status, httpStatus, message, 0, -1, -1);
+	}
+
+	public RestLogEntry(HttpMethod method, URI uri, String status, HttpStatus httpStatus, String message,
+	                    long duration, long requestBytes, long responseBytes) {
 		this.method = method;
 		this.uri = uri;
 		this.status = status;
 		this.httpStatus = httpStatus;
 		this.message = message;
+		this.duration = duration;
+		this.requestBytes = requestBytes;
+		this.responseBytes = responseBytes;
 	}
 
 	public HttpMethod getMethod() {
@@ -61,4 +72,25 @@ public class RestLogEntry {
 	public String getMessage() {
 		return message;
 	}
+
+	/**
+	 * @return the time taken by the call in milliseconds
+	 */
+	public long getDuration() {
+		return duration;
+	}
+
+	/**
+	 * @return the number of bytes sent in the request body, or -1 if unknown
+	 */
+	public long getRequestBytes() {
+		return requestBytes;
+	}
+
+	/**
+	 * @return the number of bytes read from the response body, or -1 if unknown
+	 */
+	public long getResponseBytes() {
+		return responseBytes;
+	}
 }
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import org.cloudfoundry.client.lib.domain.CloudApplication;
+import org.cloudfoundry.client.lib.domain.CloudDomain;
+import org.cloudfoundry.client.lib.domain.CloudRoute;
+import org.cloudfoundry.client.lib.domain.CloudService;
+import org.cloudfoundry.client.lib.domain.CloudSpace;
+import org.cloudfoundry.client.lib.domain.CloudStack;
+
+/**
+ * In-memory view of the applications, routes, domains, services and stacks of a space, loaded in a few
+ * listing requests and indexed for lookups by name and GUID. The snapshot does not change until
+ * {@link #refresh()} is called.
+ * <p>
+ * Applications in the snapshot have their URIs and bound services set. Their running instances are not
+ * loaded, as that requires a stats request per application.
+ * <p>
+ * A snapshot can be kept up to date by registering it with a {@link CloudEventFeed}.
+ */
+public interface SpaceSnapshot extends CloudChangeListener {
+
+	CloudSpace getSpace();
+
+	/**
+	 * @return the time the snapshot was last loaded
+	 */
+	Date getLoadTime();
+
+	/**
+	 * Reload the snapshot from the cloud controller.
+	 */
+	void refresh();
+
+	List<CloudApplication> getApplications();
+
+	/**
+	 * @return the application with the given name, or null if there is none in the space
+	 */
+	CloudApplication getApplication(String appName);
+
+	/**
+	 * @return the application with the given GUID, or null if there is none in the space
+	 */
+	CloudApplication getApplication(UUID appGuid);
+
+	/**
+	 * @return the applications bound to the service with the given name
+	 */
+	List<CloudApplication> getApplicationsBoundToService(String serviceName);
+
+	List<CloudRoute> getRoutes();
+
+	/**
+	 * @return the routes of the space in the domain with the given name
+	 */
+	List<CloudRoute> getRoutes(String domainName);
+
+	/**
+	 * @return the routes mapped to the application with the given name
+	 */
+	List<CloudRoute> getApplicationRoutes(String appName);
+
+	/**
+	 * @return the routes of the space that are not mapped to any application
+	 */
+	List<CloudRoute> getOrphanedRoutes();
+
+	List<CloudDomain> getDomains();
+
+	/**
+	 * @return the domain with the given name, or null if it is not available to the space
+	 */
+	CloudDomain getDomain(String domainName);
+
+	List<CloudService> getServices();
+
+	/**
+	 * @return the service instance with the given name, or null if there is none in the space
+	 */
+	CloudService getService(String serviceName);
+
+	List<CloudStack> getStacks();
+
+	/**
+	 * @return the stack with the given name, or null if there is none
+	 */
+	CloudStack getStack(String stackName);
+
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib;
+
+import java.util.List;
+
+/**
+ * A read run against each target of a {@link FederatedQuery}.
+ *
+ * @param <T> the type of the results
+ */
+public interface TargetQuery<T> {
+
+	/**
+	 * Run the query against one target. Called concurrently for different targets.
+	 *
+	 * @param client the client of the target
+	 * @return the results of the target
+	 */
+	List<T> execute(CloudFoundryOperations client);
+}
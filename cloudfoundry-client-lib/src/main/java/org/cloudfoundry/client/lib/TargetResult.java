@@ -0,0 +1,69 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Results of a {@link FederatedQuery} for one target, tagged with the name of the target.
+ *
+ * @param <T> the type of the results
+ */
+public class TargetResult<T> {
+
+	private final String target;
+
+	private final List<T> results;
+
+	private final RuntimeException error;
+
+	public TargetResult(String target, List<T> results, RuntimeException error) {
+		this.target = target;
+		this.results = (results != null ? results : Collections.<T>emptyList());
+		this.error = error;
+	}
+
+	public String getTarget() {
+		return target;
+	}
+
+	/**
+	 * @return the results of the target, empty if the query failed
+	 */
+	public List<T> getResults() {
+		return results;
+	}
+
+	/**
+	 * @return the reason the query failed or timed out for the target, or null if it succeeded
+	 */
+	public RuntimeException getError() {
+		return error;
+	}
+
+	public boolean isSuccessful() {
+		return error == null;
+	}
+
+	@Override
+	public String toString() {
+		return "TargetResult [target=" + target + ", results=" + results.size() +
+				(error != null ? ", error=" + error.getMessage() : "") + "]";
+	}
+
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib;
+
+/**
+ * Receives the result of a {@link FederatedQuery} for each target, as soon as the target has answered, failed
+ * or timed out.
+ *
+ * @param <T> the type of the results
+ */
+public interface TargetResultCallback<T> {
+
+	/**
+	 * Called once for each target, on the thread that runs the query.
+	 *
+	 * @param result the result of the target
+	 */
+	void onResult(TargetResult<T> result);
+}
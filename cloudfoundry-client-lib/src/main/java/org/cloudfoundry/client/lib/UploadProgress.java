@@ -0,0 +1,141 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib;
+
+/**
+ * Progress of the upload of application bits, reported to an {@link UploadProgressCallback}. The size of the
+ * compressed upload is not known until it has been sent, so it is estimated from the ratio of compressed to
+ * uncompressed bytes sent so far.
+ */
+public class UploadProgress {
+
+	/**
+	 * The default interval between progress reports, in milliseconds.
+	 */
+	public static final long DEFAULT_INTERVAL = 500;
+
+	private final long bytesSent;
+
+	private final long uncompressedBytesSent;
+
+	private final long totalUncompressedBytes;
+
+	private final long elapsedMillis;
+
+	private final double bytesPerSecond;
+
+	private final boolean complete;
+
+	public UploadProgress(long bytesSent, long uncompressedBytesSent, long totalUncompressedBytes,
+			long elapsedMillis, double bytesPerSecond, boolean complete) {
+		this.bytesSent = bytesSent;
+		this.uncompressedBytesSent = uncompressedBytesSent;
+		this.totalUncompressedBytes = totalUncompressedBytes;
+		this.elapsedMillis = elapsedMillis;
+		this.bytesPerSecond = bytesPerSecond;
+		this.complete = complete;
+	}
+
+	/**
+	 * @return the number of compressed bytes sent
+	 */
+	public long getBytesSent() {
+		return bytesSent;
+	}
+
+	/**
+	 * @return the number of compressed bytes to send, which is estimated until the upload is complete, or -1 if it
+	 * cannot be estimated yet
+	 */
+	public long getTotalBytes() {
+		if (complete) {
+			return bytesSent;
+		}
+		if (uncompressedBytesSent <= 0 || totalUncompressedBytes < 0) {
+			return -1;
+		}
+		return Math.max(bytesSent, (long) ((double) bytesSent * totalUncompressedBytes / uncompressedBytesSent));
+	}
+
+	/**
+	 * @return the number of uncompressed bytes sent, or -1 if not known
+	 */
+	public long getUncompressedBytesSent() {
+		return uncompressedBytesSent;
+	}
+
+	/**
+	 * @return the number of uncompressed bytes to send, or -1 if not known
+	 */
+	public long getTotalUncompressedBytes() {
+		return totalUncompressedBytes;
+	}
+
+	/**
+	 * @return the time since the upload started, in milliseconds
+	 */
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+
+	/**
+	 * @return the number of bytes sent per second since the previous report
+	 */
+	public double getBytesPerSecond() {
+		return bytesPerSecond;
+	}
+
+	/**
+	 * @return the number of bytes sent per second since the upload started
+	 */
+	public double getAverageBytesPerSecond() {
+		if (elapsedMillis <= 0) {
+			return 0;
+		}
+		return bytesSent * 1000.0 / elapsedMillis;
+	}
+
+	/**
+	 * @return the estimated time until the upload is complete at the average rate, in milliseconds, or -1 if it
+	 * cannot be estimated yet
+	 */
+	public long getEstimatedRemainingMillis() {
+		if (complete) {
+			return 0;
+		}
+		long totalBytes = getTotalBytes();
+		double averageBytesPerSecond = getAverageBytesPerSecond();
+		if (totalBytes == -1 || averageBytesPerSecond <= 0) {
+			return -1;
+		}
+		return (long) ((totalBytes - bytesSent) * 1000 / averageBytesPerSecond);
+	}
+
+	/**
+	 * @return <tt>true</tt> if all the bytes have been sent
+	 */
+	public boolean isComplete() {
+		return complete;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d/%d bytes (%d/%d uncompressed), %.0f B/s, %.0f B/s average, %d ms remaining",
+				bytesSent, getTotalBytes(), uncompressedBytesSent, totalUncompressedBytes, bytesPerSecond,
+				getAverageBytesPerSecond(), getEstimatedRemainingMillis());
+	}
+}
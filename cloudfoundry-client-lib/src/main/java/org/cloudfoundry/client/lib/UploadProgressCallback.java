@@ -0,0 +1,32 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib;
+
+/**
+ * {@link UploadStatusCallback} that is also told how the upload of the application bits is progressing, byte by
+ * byte, to help tell a slow network from slow processing on the server.
+ */
+public interface UploadProgressCallback extends UploadStatusCallback {
+
+	/**
+	 * Called periodically while the application bits are sent, at most once per
+	 * {@link UploadProgress#DEFAULT_INTERVAL} milliseconds, and once more when they have all been sent.
+	 *
+	 * @param progress the progress of the upload
+	 */
+	void onUploadProgress(UploadProgress progress);
+}
@@ -16,13 +16,15 @@
 
 package org.cloudfoundry.client.lib.archive;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.security.MessageDigest;
+import java.util.zip.CRC32;
 
 /**
  * Base implementation of {@link ApplicationArchive.Entry} that is reads the input stream to deduce the size and SHA
- * digest.
+ * digest, computing the CRC-32 of the content on the way.
  *
  * @author Phillip Webb
  */
@@ -36,6 +38,10 @@ public abstract class AbstractApplicationArchiveEntry implements ApplicationArch
 
     private byte[] sha1Digest;
 
+    private long crc = -1;
+
+    private ContentCache contentCache;
+
     /**
      * Sets the size that should be returned. If this method is not called the size will be deduced by reading the
      * stream.
@@ -76,26 +82,83 @@ public abstract class AbstractApplicationArchiveEntry implements ApplicationArch
         return sha1Digest;
     }
 
-    private void deduceMissingData() {
+    /**
+     * Sets the CRC-32 of the content, computed along with the SHA1 digest.
+     *
+     * @param crc the CRC-32
+     */
+    protected void setCrc(long crc) {
+        this.crc = crc;
+    }
+
+    /**
+     * Returns the CRC-32 of the content if it was computed along with the SHA1 digest. Unlike the digest it is never
+     * computed on demand, since it is only needed to store the entry uncompressed in the upload.
+     *
+     * @return the CRC-32 or <tt>-1</tt> if it is not known
+     */
+    public long getCrc() {
+        return crc;
+    }
+
+    /**
+     * Sets the cache that keeps the content read by {@link #deduceMissingData()}, or <tt>null</tt> to keep none.
+     *
+     * @param contentCache the content cache
+     */
+    void setContentCache(ContentCache contentCache) {
+        this.contentCache = contentCache;
+    }
+
+    /**
+     * Returns the cache that keeps the content read by {@link #deduceMissingData()}.
+     *
+     * @return the content cache or <tt>null</tt>
+     */
+    protected ContentCache getContentCache() {
+        return contentCache;
+    }
+
+    /**
+     * Deduce the size and SHA1 digest that have not been set by reading the input stream, keeping the content in
+     * the {@link #getContentCache() content cache} if it fits. Subclasses with faster access to the content may
+     * override this method, calling {@link #setSize(long)} and {@link #setSha1Digest(byte[])}.
+     */
+    protected void deduceMissingData() {
         try {
             InputStream inputStream = getInputStream();
             try {
                 try {
                     MessageDigest digest = (this.sha1Digest == null ? MessageDigest.getInstance("SHA") : null);
+                    CRC32 checksum = (digest != null ? new CRC32() : null);
                     byte[] buffer = new byte[BUFFER_SIZE];
-                    int byteCount = 0;
+                    ByteArrayOutputStream content = (contentCache != null && contentCache.getMaxEntrySize() > 0 ?
+                            new ByteArrayOutputStream() : null);
+                    long byteCount = 0;
                     int bytesRead = -1;
                     while ((bytesRead = inputStream.read(buffer)) != -1) {
                         byteCount += bytesRead;
                         if (digest != null) {
                             digest.update(buffer, 0, bytesRead);
+                            checksum.update(buffer, 0, bytesRead);
+                        }
+                        if (content != null) {
+                            if (byteCount > contentCache.getMaxEntrySize()) {
+                                content = null;
+                            } else {
+                                content.write(buffer, 0, bytesRead);
+                            }
                         }
                     }
+                    if (content != null) {
+                        contentCache.put(this, content.toByteArray());
+                    }
                     if (this.size == UNDEFINED_SIZE) {
                         this.size = byteCount;
                     }
                     if (this.sha1Digest == null) {
                         this.sha1Digest = digest.digest();
+                        this.crc = checksum.getValue();
                     }
                 } catch (Exception e) {
                     throw new IllegalStateException(e);
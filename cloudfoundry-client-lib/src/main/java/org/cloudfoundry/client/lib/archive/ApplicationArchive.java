@@ -18,6 +18,7 @@ package org.cloudfoundry.client.lib.archive;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.zip.ZipEntry;
 
 /**
  * Interface that represents an application archive (for example a WAR file) that can be uploaded to Cloud Foundry.
@@ -86,4 +87,42 @@ public interface ApplicationArchive {
          */
         InputStream getInputStream() throws IOException;
     }
+
+    /**
+     * An {@link Entry} whose content is also available exactly as it is compressed in a zip file, so that it can be
+     * copied into another zip file without being inflated and deflated again.
+     */
+    public static interface RawEntry extends Entry {
+
+        /**
+         * Returns the compression method of the {@link #getRawInputStream() raw content}, {@link ZipEntry#STORED} or
+         * {@link ZipEntry#DEFLATED}, or <tt>-1</tt> if the raw content is not available.
+         *
+         * @return the compression method
+         */
+        int getMethod();
+
+        /**
+         * Returns the CRC-32 of the uncompressed content.
+         *
+         * @return the CRC-32
+         */
+        long getCrc();
+
+        /**
+         * Returns the size of the {@link #getRawInputStream() raw content}.
+         *
+         * @return the compressed size
+         */
+        long getCompressedSize();
+
+        /**
+         * Returns the content of the entry as it is compressed with the {@link #getMethod() method}. The caller is
+         * responsible for closing the stream.
+         *
+         * @return the raw content
+         * @throws IOException
+         */
+        InputStream getRawInputStream() throws IOException;
+    }
 }
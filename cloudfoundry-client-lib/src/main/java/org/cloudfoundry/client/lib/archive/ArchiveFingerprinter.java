@@ -0,0 +1,162 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.archive;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import org.cloudfoundry.client.lib.CloudOperationException;
+import org.cloudfoundry.client.lib.util.ParallelTasks;
+import org.springframework.util.Assert;
+
+/**
+ * Computes the sizes and SHA1 digests of all entries of an {@link ApplicationArchive} concurrently, so that
+ * they are known before the archive is matched against the resources already on the server.
+ * <p>
+ * Each entry is read by one task, which keeps one file and one read buffer open while it runs. The number of
+ * entries read at the same time is bounded by {@code maxOpenFiles}, whether the tasks run on threads of the
+ * fingerprinter's own or on a given executor.
+ * <p>
+ * The contents of small entries are kept in a {@link ContentCache} returned to the caller, so that they can be
+ * uploaded without being read a second time.
+ */
+public class ArchiveFingerprinter {
+
+    public static final int DEFAULT_MAX_OPEN_FILES = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    private final ExecutorService executor;
+
+    private final int maxOpenFiles;
+
+    private final int maxCachedEntrySize;
+
+    private final long maxCachedSize;
+
+    /**
+     * Create a fingerprinter that reads up to {@link #DEFAULT_MAX_OPEN_FILES} entries at a time and keeps the
+     * contents of small entries within the {@link ContentCache} defaults.
+     */
+    public ArchiveFingerprinter() {
+        this(null, DEFAULT_MAX_OPEN_FILES);
+    }
+
+    /**
+     * Create a fingerprinter that reads up to <tt>maxOpenFiles</tt> entries at a time.
+     *
+     * @param executor the executor to run the tasks on, or <tt>null</tt> to start <tt>maxOpenFiles</tt> threads
+     * for each archive
+     * @param maxOpenFiles the maximum number of entries read at the same time
+     */
+    public ArchiveFingerprinter(ExecutorService executor, int maxOpenFiles) {
+        this(executor, maxOpenFiles, ContentCache.DEFAULT_MAX_ENTRY_SIZE, ContentCache.DEFAULT_MAX_TOTAL_SIZE);
+    }
+
+    /**
+     * Create a fingerprinter that reads up to <tt>maxOpenFiles</tt> entries at a time and keeps the contents of
+     * entries of up to <tt>maxCachedEntrySize</tt> bytes, up to <tt>maxCachedSize</tt> bytes in all.
+     *
+     * @param executor the executor to run the tasks on, or <tt>null</tt> to start <tt>maxOpenFiles</tt> threads
+     * for each archive
+     * @param maxOpenFiles the maximum number of entries read at the same time
+     * @param maxCachedEntrySize the size of the largest entry whose content is kept, or 0 to keep none
+     * @param maxCachedSize the maximum number of bytes of content kept for each archive
+     */
+    public ArchiveFingerprinter(ExecutorService executor, int maxOpenFiles, int maxCachedEntrySize,
+            long maxCachedSize) {
+        Assert.isTrue(maxOpenFiles > 0, "Maximum number of open files must be positive");
+        Assert.isTrue(maxCachedEntrySize >= 0, "Maximum cached entry size must not be negative");
+        Assert.isTrue(maxCachedSize >= 0, "Maximum cached size must not be negative");
+        this.executor = executor;
+        this.maxOpenFiles = maxOpenFiles;
+        this.maxCachedEntrySize = maxCachedEntrySize;
+        this.maxCachedSize = maxCachedSize;
+    }
+
+    /**
+     * Compute the size and digest of each file entry of the archive. Once this method returns, the entries
+     * answer {@link ApplicationArchive.Entry#getSize()} and {@link ApplicationArchive.Entry#getSha1Digest()}
+     * without reading their contents again.
+     * <p>
+     * The contents of the small entries read are returned in a cache, which the caller should
+     * {@link ContentCache#clear() clear} once it has uploaded the archive. Only entries extending
+     * {@link AbstractApplicationArchiveEntry} can be cached.
+     *
+     * @param archive the archive
+     * @return the contents of the small entries
+     * @throws IllegalStateException if an entry cannot be read
+     */
+    public ContentCache fingerprint(ApplicationArchive archive) {
+        Assert.notNull(archive, "Archive must not be null");
+        final ContentCache contentCache = new ContentCache(maxCachedEntrySize, maxCachedSize);
+        final Semaphore openFiles = new Semaphore(maxOpenFiles);
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for (final ApplicationArchive.Entry entry : archive.getEntries()) {
+            if (!entry.isDirectory()) {
+                tasks.add(new Callable<Void>() {
+                    public Void call() throws InterruptedException {
+                        openFiles.acquire();
+                        try {
+                            fingerprint(entry, contentCache);
+                        } finally {
+                            openFiles.release();
+                        }
+                        return null;
+                    }
+                });
+            }
+        }
+        if (executor == null) {
+            ParallelTasks.invokeAll(tasks, maxOpenFiles);
+            return contentCache;
+        }
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                ParallelTasks.getResult(future);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CloudOperationException(e);
+        }
+        return contentCache;
+    }
+
+    private void fingerprint(ApplicationArchive.Entry entry, ContentCache contentCache) {
+        // entries that are copied raw into the upload never need their inflated content
+        if (!(entry instanceof AbstractApplicationArchiveEntry) || isRawCopy(entry)) {
+            entry.getSha1Digest();
+            entry.getSize();
+            return;
+        }
+        AbstractApplicationArchiveEntry cachingEntry = (AbstractApplicationArchiveEntry) entry;
+        cachingEntry.setContentCache(contentCache);
+        try {
+            entry.getSha1Digest();
+            entry.getSize();
+        } finally {
+            cachingEntry.setContentCache(null);
+        }
+    }
+
+    private static boolean isRawCopy(ApplicationArchive.Entry entry) {
+        return entry instanceof ApplicationArchive.RawEntry && ((ApplicationArchive.RawEntry) entry).getMethod() != -1;
+    }
+
+}
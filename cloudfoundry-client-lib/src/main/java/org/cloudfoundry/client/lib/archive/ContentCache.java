@@ -0,0 +1,129 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.archive;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.util.Assert;
+
+/**
+ * Bounded in-memory cache of the contents of small archive entries, filled while the entries are read to compute
+ * their digests (see {@link ArchiveFingerprinter}) so that the upload can send them without reading them again.
+ * <p>
+ * Only entries of up to {@code maxEntrySize} bytes are kept, and no more than {@code maxTotalSize} bytes in all.
+ * Entries that do not fit are simply read again when they are uploaded. The cache may be filled concurrently.
+ */
+public class ContentCache {
+
+    public static final int DEFAULT_MAX_ENTRY_SIZE = 64 * 1024;
+
+    public static final long DEFAULT_MAX_TOTAL_SIZE = 32 * 1024 * 1024;
+
+    private final int maxEntrySize;
+
+    private final long maxTotalSize;
+
+    private final AtomicLong totalSize = new AtomicLong();
+
+    private final Map<ApplicationArchive.Entry, byte[]> contents =
+            new ConcurrentHashMap<ApplicationArchive.Entry, byte[]>();
+
+    /**
+     * Create a cache with {@link #DEFAULT_MAX_ENTRY_SIZE} and {@link #DEFAULT_MAX_TOTAL_SIZE}.
+     */
+    public ContentCache() {
+        this(DEFAULT_MAX_ENTRY_SIZE, DEFAULT_MAX_TOTAL_SIZE);
+    }
+
+    /**
+     * Create a cache.
+     *
+     * @param maxEntrySize the size of the largest entry to keep, or 0 to keep none
+     * @param maxTotalSize the maximum number of bytes kept
+     */
+    public ContentCache(int maxEntrySize, long maxTotalSize) {
+        Assert.isTrue(maxEntrySize >= 0, "Maximum entry size must not be negative");
+        Assert.isTrue(maxTotalSize >= 0, "Maximum total size must not be negative");
+        this.maxEntrySize = maxEntrySize;
+        this.maxTotalSize = maxTotalSize;
+    }
+
+    public int getMaxEntrySize() {
+        return maxEntrySize;
+    }
+
+    public long getMaxTotalSize() {
+        return maxTotalSize;
+    }
+
+    /**
+     * Returns the number of bytes currently kept.
+     *
+     * @return the total size of the cached contents
+     */
+    public long getTotalSize() {
+        return totalSize.get();
+    }
+
+    /**
+     * Keep the content of an entry if it is small enough and fits in the remaining budget.
+     *
+     * @param entry the entry
+     * @param content the complete content of the entry
+     * @return <tt>true</tt> if the content was kept
+     */
+    public boolean put(ApplicationArchive.Entry entry, byte[] content) {
+        if (content.length > maxEntrySize) {
+            return false;
+        }
+        if (totalSize.addAndGet(content.length) > maxTotalSize) {
+            totalSize.addAndGet(-content.length);
+            return false;
+        }
+        byte[] previous = contents.put(entry, content);
+        if (previous != null) {
+            totalSize.addAndGet(-previous.length);
+        }
+        return true;
+    }
+
+    /**
+     * Remove the content of an entry from the cache, releasing its share of the budget.
+     *
+     * @param entry the entry
+     * @return the content, or <tt>null</tt> if it was not kept
+     */
+    public byte[] remove(ApplicationArchive.Entry entry) {
+        byte[] content = contents.remove(entry);
+        if (content != null) {
+            totalSize.addAndGet(-content.length);
+        }
+        return content;
+    }
+
+    /**
+     * Remove all contents from the cache.
+     */
+    public void clear() {
+        for (ApplicationArchive.Entry entry : contents.keySet()) {
+            remove(entry);
+        }
+    }
+
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.archive;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.util.Assert;
+
+/**
+ * On-disk cache of the SHA1 digests of the files of a {@link DirectoryApplicationArchive}, so that files that
+ * have not changed since the previous push are not read again.
+ * <p>
+ * A cached digest is used only while the file has the same size, modification time and, where the file system
+ * provides one, file key (the inode on Unix). Files modified within {@link #RACY_WINDOW} of saving the cache
+ * are not saved, since a later change in the same clock tick would go unnoticed.
+ * <p>
+ * The cache is read when it is created and must be {@link #save() saved} once the archive has been uploaded.
+ * It only keeps the files that were looked up since it was read, so deleted files drop out. A cache file that
+ * cannot be read is ignored.
+ */
+public class DigestCache {
+
+    public static final long RACY_WINDOW = 2000;
+
+    private static final int MAGIC = 0x43464443;
+
+    private static final int VERSION = 1;
+
+    private static final int DIGEST_LENGTH = 20;
+
+    private final File file;
+
+    private final Map<String, Stamp> loaded = new ConcurrentHashMap<String, Stamp>();
+
+    private final Map<String, Stamp> current = new ConcurrentHashMap<String, Stamp>();
+
+    /**
+     * Create a cache stored in the given file, reading the digests saved there by a previous push.
+     *
+     * @param file the cache file, which need not exist
+     */
+    public DigestCache(File file) {
+        Assert.notNull(file, "File must not be null");
+        this.file = file;
+        if (file.isFile()) {
+            try {
+                load();
+            } catch (IOException e) {
+                loaded.clear();
+            }
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Take the size, modification time and file key of a file, to be passed to {@link #get(String, Stamp)} and
+     * {@link #put(String, Stamp, byte[])}. Take the stamp before reading the file, so that a change made while
+     * it is read invalidates the digest.
+     *
+     * @param file the file
+     * @return the stamp of the file
+     * @throws IOException if the attributes of the file cannot be read
+     */
+    public static Stamp stamp(File file) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+        Object fileKey = attributes.fileKey();
+        return new Stamp(attributes.size(), attributes.lastModifiedTime().toMillis(),
+                fileKey != null ? fileKey.toString() : "", null);
+    }
+
+    /**
+     * Get the cached digest of a file.
+     *
+     * @param path the path of the file, relative to the archive
+     * @param stamp the current stamp of the file
+     * @return the digest, or <tt>null</tt> if the file is not cached or has changed
+     */
+    public byte[] get(String path, Stamp stamp) {
+        Stamp cached = current.get(path);
+        if (cached == null) {
+            cached = loaded.get(path);
+        }
+        if (cached == null || !cached.matches(stamp)) {
+            return null;
+        }
+        current.put(path, cached);
+        return cached.digest.clone();
+    }
+
+    /**
+     * Cache the digest of a file.
+     *
+     * @param path the path of the file, relative to the archive
+     * @param stamp the stamp of the file, taken before it was read
+     * @param digest the digest of the file
+     */
+    public void put(String path, Stamp stamp, byte[] digest) {
+        Assert.isTrue(digest != null && digest.length == DIGEST_LENGTH, "Digest must be a SHA1 digest");
+        current.put(path, new Stamp(stamp.size, stamp.lastModified, stamp.fileKey, digest.clone()));
+    }
+
+    /**
+     * Write the digests looked up or added since the cache was read to the cache file, replacing it.
+     *
+     * @throws IOException if the cache file cannot be written
+     */
+    public void save() throws IOException {
+        long racyLimit = System.currentTimeMillis() - RACY_WINDOW;
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Unable to create directory " + directory);
+        }
+        File temp = File.createTempFile(file.getName(), ".tmp", directory);
+        try {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+            try {
+                Map<String, Stamp> saved = new LinkedHashMap<String, Stamp>();
+                for (Map.Entry<String, Stamp> entry : current.entrySet()) {
+                    if (entry.getValue().lastModified < racyLimit) {
+                        saved.put(entry.getKey(), entry.getValue());
+                    }
+                }
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(saved.size());
+                for (Map.Entry<String, Stamp> entry : saved.entrySet()) {
+                    Stamp stamp = entry.getValue();
+                    out.writeUTF(entry.getKey());
+                    out.writeLong(stamp.size);
+                    out.writeLong(stamp.lastModified);
+                    out.writeUTF(stamp.fileKey);
+                    out.write(stamp.digest);
+                }
+            } finally {
+                out.close();
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            temp.delete();
+        }
+    }
+
+    private void load() throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String path = in.readUTF();
+                long size = in.readLong();
+                long lastModified = in.readLong();
+                String fileKey = in.readUTF();
+                byte[] digest = new byte[DIGEST_LENGTH];
+                in.readFully(digest);
+                loaded.put(path, new Stamp(size, lastModified, fileKey, digest));
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Size, modification time and file key of a file, and the digest it had when they were taken.
+     */
+    public static final class Stamp {
+
+        private final long size;
+
+        private final long lastModified;
+
+        private final String fileKey;
+
+        private final byte[] digest;
+
+        private Stamp(long size, long lastModified, String fileKey, byte[] digest) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.fileKey = fileKey;
+            this.digest = digest;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        private boolean matches(Stamp other) {
+            return size == other.size && lastModified == other.lastModified && fileKey.equals(other.fileKey);
+        }
+    }
+
+}
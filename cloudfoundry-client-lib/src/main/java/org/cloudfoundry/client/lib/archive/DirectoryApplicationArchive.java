@@ -20,9 +20,12 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.zip.CRC32;
 import java.util.zip.ZipFile;
 
 import org.springframework.util.Assert;
@@ -39,10 +42,24 @@ public class DirectoryApplicationArchive implements ApplicationArchive {
 
     private List<Entry> entries;
 
+    private DigestCache digestCache;
+
     public DirectoryApplicationArchive(File directory) {
+        this(directory, null);
+    }
+
+    /**
+     * Create a new {@link DirectoryApplicationArchive} that takes the digests of unchanged files from the given
+     * cache. The cache should be {@link DigestCache#save() saved} once the archive has been uploaded.
+     *
+     * @param directory the directory
+     * @param digestCache the digest cache, or <tt>null</tt> to read every file
+     */
+    public DirectoryApplicationArchive(File directory, DigestCache digestCache) {
         Assert.notNull(directory, "Directory must not be null");
         Assert.isTrue(directory.isDirectory(), "File must reference a directory");
         this.directory = directory;
+        this.digestCache = digestCache;
         List<Entry> entries = new ArrayList<Entry>();
         collectEntries(entries, directory);
         this.entries = Collections.unmodifiableList(entries);
@@ -77,6 +94,7 @@ public class DirectoryApplicationArchive implements ApplicationArchive {
 
         private File file;
         private String name;
+        private boolean cacheChecked;
 
         public EntryAdapter(File file) {
             this.file = file;
@@ -100,5 +118,55 @@ public class DirectoryApplicationArchive implements ApplicationArchive {
             }
             return new FileInputStream(file);
         }
+
+        @Override
+        public long getSize() {
+            if (digestCache != null && !isDirectory()) {
+                // a cached digest comes with the size, so the file need not be read for it
+                getSha1Digest();
+            }
+            return super.getSize();
+        }
+
+        @Override
+        public byte[] getSha1Digest() {
+            if (digestCache != null && !cacheChecked && !isDirectory()) {
+                cacheChecked = true;
+                try {
+                    DigestCache.Stamp stamp = DigestCache.stamp(file);
+                    byte[] digest = digestCache.get(name, stamp);
+                    if (digest != null) {
+                        setSize(stamp.getSize());
+                        setSha1Digest(digest);
+                    } else {
+                        digestCache.put(name, stamp, super.getSha1Digest());
+                    }
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            return super.getSha1Digest();
+        }
+
+        @Override
+        protected void deduceMissingData() {
+            ContentCache contentCache = getContentCache();
+            if (contentCache != null && file.length() <= contentCache.getMaxEntrySize()) {
+                // small enough to be kept, so read it as a stream into the cache
+                super.deduceMissingData();
+                return;
+            }
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA");
+                CRC32 checksum = new CRC32();
+                setSize(FileDigester.digest(file, digest, checksum));
+                setSha1Digest(digest.digest());
+                setCrc(checksum.getValue());
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
     }
 }
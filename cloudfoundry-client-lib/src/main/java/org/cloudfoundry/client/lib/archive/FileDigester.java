@@ -0,0 +1,73 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.archive;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.util.zip.Checksum;
+
+/**
+ * Computes digests and CRC-32 checksums of files by reading them into a large buffer, so that a large file takes a
+ * few hundred reads rather than one read per 4 KB.
+ * <p>
+ * Each thread reuses one heap buffer, which the digest and checksum read directly. Heap memory is reclaimed with
+ * its thread, and reading into an array from a {@link FileInputStream} needs no direct buffer. Only files too large
+ * for the {@link ContentCache} are read this way.
+ */
+final class FileDigester {
+
+    static final int BUFFER_SIZE = 1024 * 1024;
+
+    private static final ThreadLocal<byte[]> buffers = new ThreadLocal<byte[]>() {
+        @Override
+        protected byte[] initialValue() {
+            return new byte[BUFFER_SIZE];
+        }
+    };
+
+    private FileDigester() {
+    }
+
+    /**
+     * Update a digest and a checksum with the content of a file.
+     *
+     * @param file the file
+     * @param digest the digest to update
+     * @param checksum the checksum to update
+     * @return the number of bytes read
+     * @throws IOException if the file cannot be read
+     */
+    static long digest(File file, MessageDigest digest, Checksum checksum) throws IOException {
+        byte[] buffer = buffers.get();
+        FileInputStream inputStream = new FileInputStream(file);
+        try {
+            long byteCount = 0;
+            int bytesRead;
+            while ((bytesRead = inputStream.read(buffer)) != -1) {
+                digest.update(buffer, 0, bytesRead);
+                checksum.update(buffer, 0, bytesRead);
+                byteCount += bytesRead;
+            }
+            return byteCount;
+        } finally {
+            inputStream.close();
+        }
+    }
+
+}
@@ -41,6 +41,8 @@ public class ZipApplicationArchive implements ApplicationArchive {
 
     private String fileName;
 
+    private ZipLocalHeaders localHeaders;
+
     /**
      * Create a new {@link ZipApplicationArchive} instance for the given <tt>zipFile</tt>.
      * @param zipFile The underling zip file
@@ -69,7 +71,19 @@ public class ZipApplicationArchive implements ApplicationArchive {
         return fileName;
     }
 
-    private class EntryAdapter extends AbstractApplicationArchiveEntry {
+    private synchronized ZipLocalHeaders getLocalHeaders() {
+        if (localHeaders == null) {
+            try {
+                localHeaders = ZipLocalHeaders.read(new File(zipFile.getName()));
+            } catch (IOException e) {
+                // the entries can still be read through the zip file
+                localHeaders = ZipLocalHeaders.NONE;
+            }
+        }
+        return localHeaders;
+    }
+
+    private class EntryAdapter extends AbstractApplicationArchiveEntry implements RawEntry {
 
         private ZipEntry entry;
 
@@ -95,5 +109,26 @@ public class ZipApplicationArchive implements ApplicationArchive {
             }
             return zipFile.getInputStream(entry);
         }
+
+        public int getMethod() {
+            int method = entry.getMethod();
+            if (isDirectory() || (method != ZipEntry.STORED && method != ZipEntry.DEFLATED)
+                    || !getLocalHeaders().contains(entry.getName())) {
+                return -1;
+            }
+            return method;
+        }
+
+        public long getCrc() {
+            return entry.getCrc();
+        }
+
+        public long getCompressedSize() {
+            return entry.getCompressedSize();
+        }
+
+        public InputStream getRawInputStream() throws IOException {
+            return getLocalHeaders().openRawInputStream(entry.getName(), entry.getCompressedSize());
+        }
     }
 }
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.archive;
+
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Locates the compressed data of the entries of a zip file by reading its central directory, which
+ * {@link java.util.zip.ZipFile} does not expose.
+ * <p>
+ * Only plain zip files are supported: entries of zip64 files and encrypted entries are not located, and are read
+ * through {@link java.util.zip.ZipFile} instead.
+ */
+class ZipLocalHeaders {
+
+    private static final int END_SIGNATURE = 0x06054b50;
+
+    private static final int CENTRAL_SIGNATURE = 0x02014b50;
+
+    private static final int LOCAL_SIGNATURE = 0x04034b50;
+
+    private static final int END_SIZE = 22;
+
+    private static final int CENTRAL_SIZE = 46;
+
+    private static final int LOCAL_SIZE = 30;
+
+    private static final int MAX_COMMENT_SIZE = 0xFFFF;
+
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+
+    private static final int ENCRYPTED = 1;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * Local headers of a zip file whose central directory could not be read.
+     */
+    public static final ZipLocalHeaders NONE = new ZipLocalHeaders(null, Collections.<String, Long>emptyMap());
+
+    private final File file;
+
+    private final Map<String, Long> offsets;
+
+    private ZipLocalHeaders(File file, Map<String, Long> offsets) {
+        this.file = file;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Read the central directory of a zip file.
+     *
+     * @param file the zip file
+     * @return the local headers of the entries
+     * @throws IOException if the file cannot be read
+     */
+    public static ZipLocalHeaders read(File file) throws IOException {
+        Map<String, Long> offsets = new HashMap<String, Long>();
+        RandomAccessFile zip = new RandomAccessFile(file, "r");
+        try {
+            long end = findEnd(zip);
+            if (end != -1) {
+                byte[] record = readFully(zip, end, END_SIZE);
+                long size = getInt(record, 12);
+                long offset = getInt(record, 16);
+                if (getShort(record, 10) != 0xFFFF && size != ZIP64_MAGIC && offset != ZIP64_MAGIC) {
+                    readCentralDirectory(readFully(zip, offset, (int) size), offsets);
+                }
+            }
+        } finally {
+            zip.close();
+        }
+        return new ZipLocalHeaders(file, offsets);
+    }
+
+    private static long findEnd(RandomAccessFile zip) throws IOException {
+        long length = zip.length();
+        if (length < END_SIZE) {
+            return -1;
+        }
+        long start = Math.max(0, length - END_SIZE - MAX_COMMENT_SIZE);
+        byte[] tail = readFully(zip, start, (int) (length - start));
+        for (int i = tail.length - END_SIZE; i >= 0; i--) {
+            if (getInt(tail, i) == END_SIGNATURE) {
+                return start + i;
+            }
+        }
+        return -1;
+    }
+
+    private static void readCentralDirectory(byte[] directory, Map<String, Long> offsets) {
+        int position = 0;
+        while (position + CENTRAL_SIZE <= directory.length && getInt(directory, position) == CENTRAL_SIGNATURE) {
+            int flag = getShort(directory, position + 8);
+            long compressedSize = getInt(directory, position + 20);
+            long size = getInt(directory, position + 24);
+            int nameLength = getShort(directory, position + 28);
+            int extraLength = getShort(directory, position + 30);
+            int commentLength = getShort(directory, position + 32);
+            long offset = getInt(directory, position + 42);
+            String name = new String(directory, position + CENTRAL_SIZE, nameLength, UTF_8);
+            if ((flag & ENCRYPTED) == 0 && compressedSize != ZIP64_MAGIC && size != ZIP64_MAGIC
+                    && offset != ZIP64_MAGIC) {
+                offsets.put(name, offset);
+            }
+            position += CENTRAL_SIZE + nameLength + extraLength + commentLength;
+        }
+    }
+
+    /**
+     * Returns <tt>true</tt> if the compressed data of an entry can be {@link #openRawInputStream read}.
+     *
+     * @param name the name of the entry
+     * @return if the entry was located
+     */
+    public boolean contains(String name) {
+        return offsets.containsKey(name);
+    }
+
+    /**
+     * Open the compressed data of an entry.
+     *
+     * @param name the name of the entry
+     * @param compressedSize the compressed size of the entry
+     * @return the compressed data
+     * @throws IOException if the entry was not located or cannot be read
+     */
+    public InputStream openRawInputStream(String name, long compressedSize) throws IOException {
+        Long offset = offsets.get(name);
+        if (offset == null) {
+            throw new IOException("Unable to locate zip entry " + name);
+        }
+        RandomAccessFile zip = new RandomAccessFile(file, "r");
+        try {
+            byte[] header = readFully(zip, offset, LOCAL_SIZE);
+            if (getInt(header, 0) != LOCAL_SIGNATURE) {
+                throw new IOException("Invalid local header for zip entry " + name);
+            }
+            zip.seek(offset + LOCAL_SIZE + getShort(header, 26) + getShort(header, 28));
+            return new BoundedInputStream(Channels.newInputStream(zip.getChannel()), compressedSize);
+        } catch (IOException e) {
+            zip.close();
+            throw e;
+        }
+    }
+
+    private static byte[] readFully(RandomAccessFile zip, long position, int length) throws IOException {
+        byte[] bytes = new byte[length];
+        zip.seek(position);
+        zip.readFully(bytes);
+        return bytes;
+    }
+
+    private static int getShort(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFF) | (bytes[offset + 1] & 0xFF) << 8;
+    }
+
+    private static long getInt(byte[] bytes, int offset) {
+        return getShort(bytes, offset) | ((long) getShort(bytes, offset + 2)) << 16;
+    }
+
+    /**
+     * Stream over the first bytes of another stream, which it closes.
+     */
+    private static class BoundedInputStream extends FilterInputStream {
+
+        private long remaining;
+
+        public BoundedInputStream(InputStream in, long length) {
+            super(in);
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining == 0) {
+                return -1;
+            }
+            int b = super.read();
+            if (b != -1) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining == 0) {
+                return -1;
+            }
+            int count = super.read(b, off, (int) Math.min(len, remaining));
+            if (count != -1) {
+                remaining -= count;
+            }
+            return count;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), remaining);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+
+}
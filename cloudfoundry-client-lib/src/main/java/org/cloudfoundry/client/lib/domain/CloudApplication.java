@@ -26,6 +26,7 @@ import java.util.Map;
 
 import org.codehaus.jackson.annotate.JsonAutoDetect;
 import org.codehaus.jackson.annotate.JsonAutoDetect.Visibility;
+import org.codehaus.jackson.annotate.JsonIgnore;
 
 @JsonAutoDetect(fieldVisibility = Visibility.ANY, getterVisibility = Visibility.NONE, creatorVisibility = Visibility.NONE)
 public class CloudApplication extends CloudEntity {
@@ -48,6 +49,15 @@ public class CloudApplication extends CloudEntity {
 	private int runningInstances;
 	private List<String> env = new ArrayList<String>();
 
+	@JsonIgnore
+	private transient CloudApplicationLoader loader;
+	@JsonIgnore
+	private transient volatile boolean urisPending;
+	@JsonIgnore
+	private transient volatile boolean servicesPending;
+	@JsonIgnore
+	private transient volatile boolean runningInstancesPending;
+
 	public CloudApplication(Meta meta, String name) {
 		super(meta, name);
 	}
@@ -169,11 +179,15 @@ public class CloudApplication extends CloudEntity {
 	}
 
 	public List<String> getUris() {
+		if (urisPending) {
+			loadUris();
+		}
 		return uris;
 	}
 
-	public void setUris(List<String> uris) {
+	public synchronized void setUris(List<String> uris) {
 		this.uris = uris;
+		this.urisPending = false;
 	}
 
 	public AppState getState() {
@@ -193,19 +207,65 @@ public class CloudApplication extends CloudEntity {
 	}
 
 	public List<String> getServices() {
+		if (servicesPending) {
+			loadServices();
+		}
 		return services;
 	}
 
-	public void setServices(List<String> services) {
+	public synchronized void setServices(List<String> services) {
 		this.services = services;
+		this.servicesPending = false;
 	}
 
 	public int getRunningInstances() {
+		if (runningInstancesPending) {
+			loadRunningInstances();
+		}
 		return runningInstances;
 	}
 
-	public void setRunningInstances(int runningInstances) {
+	public synchronized void setRunningInstances(int runningInstances) {
 		this.runningInstances = runningInstances;
+		this.runningInstancesPending = false;
+	}
+
+	/**
+	 * Defer loading of the URIs, services and running instances of this application to the given loader.
+	 * Each attribute is loaded on first access and then kept, unless it has been set in the meantime.
+	 *
+	 * @param loader the loader to resolve the attributes with
+	 */
+	public synchronized void setLoader(CloudApplicationLoader loader) {
+		this.loader = loader;
+		this.urisPending = true;
+		this.servicesPending = true;
+		this.runningInstancesPending = true;
+	}
+
+	/**
+	 * Whether any of the URIs, services or running instances are still to be loaded.
+	 */
+	public boolean isLoadPending() {
+		return urisPending || servicesPending || runningInstancesPending;
+	}
+
+	private synchronized void loadUris() {
+		if (urisPending) {
+			setUris(loader.loadUris(this));
+		}
+	}
+
+	private synchronized void loadServices() {
+		if (servicesPending) {
+			setServices(loader.loadServices(this));
+		}
+	}
+
+	private synchronized void loadRunningInstances() {
+		if (runningInstancesPending) {
+			setRunningInstances(loader.loadRunningInstances(this));
+		}
 	}
 
 	public Map<String, String> getEnvAsMap() {
@@ -249,6 +309,6 @@ public class CloudApplication extends CloudEntity {
 				+ instances + ", name=" + getName() 
 				+ ", memory=" + memory + ", diskQuota=" + diskQuota
 				+ ", state=" + state + ", debug=" + debug + ", uris=" + uris + ", services=" + services
-				+ ", env=" + env + ", space=" + space.getName() + "]";
+				+ ", env=" + env + ", space=" + (space != null ? space.getName() : null) + "]";
 	}
 }
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.domain;
+
+import java.util.List;
+
+/**
+ * Resolves the attributes of a lazily loaded {@link CloudApplication} that require additional requests
+ * to the cloud controller.
+ *
+ * @see CloudApplication#setLoader(CloudApplicationLoader)
+ */
+public interface CloudApplicationLoader {
+
+	/**
+	 * Get the URIs mapped to the application.
+	 */
+	List<String> loadUris(CloudApplication application);
+
+	/**
+	 * Get the number of running instances of the application.
+	 */
+	int loadRunningInstances(CloudApplication application);
+
+	/**
+	 * Get the names of the services bound to the application.
+	 */
+	List<String> loadServices(CloudApplication application);
+
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.domain;
+
+import java.util.UUID;
+
+/**
+ * Typed view of a {@link CloudEvent}, identifying the kind of resource that changed and how.
+ */
+public class CloudChange {
+
+	public enum ResourceType {
+		APPLICATION, SERVICE_INSTANCE, SERVICE_BINDING, SERVICE_OFFERING, ROUTE, SPACE, ORGANIZATION, OTHER
+	}
+
+	public enum Action {
+		CREATED, UPDATED, DELETED, CRASHED, OTHER
+	}
+
+	private final CloudEvent event;
+
+	private final ResourceType resourceType;
+
+	private final Action action;
+
+	public CloudChange(CloudEvent event, ResourceType resourceType, Action action) {
+		this.event = event;
+		this.resourceType = resourceType;
+		this.action = action;
+	}
+
+	/**
+	 * Classify the given event by its type, such as {@code audit.app.update} or {@code app.crash}.
+	 */
+	public static CloudChange fromEvent(CloudEvent event) {
+		String type = (event.getType() != null ? event.getType() : "");
+		if (type.equals("app.crash")) {
+			return new CloudChange(event, ResourceType.APPLICATION, Action.CRASHED);
+		}
+		String[] parts = type.split("\\.");
+		if (parts.length != 3 || !parts[0].equals("audit")) {
+			return new CloudChange(event, ResourceType.OTHER, Action.OTHER);
+		}
+		return new CloudChange(event, getResourceType(parts[1]), getAction(parts[2]));
+	}
+
+	private static ResourceType getResourceType(String resource) {
+		if (resource.equals("app")) {
+			return ResourceType.APPLICATION;
+		}
+		if (resource.equals("service_instance") || resource.equals("user_provided_service_instance")) {
+			return ResourceType.SERVICE_INSTANCE;
+		}
+		if (resource.equals("service_binding")) {
+			return ResourceType.SERVICE_BINDING;
+		}
+		if (resource.equals("service") || resource.equals("service_plan") || resource.equals("service_broker")
+				|| resource.equals("service_plan_visibility")) {
+			return ResourceType.SERVICE_OFFERING;
+		}
+		if (resource.equals("route")) {
+			return ResourceType.ROUTE;
+		}
+		if (resource.equals("space")) {
+			return ResourceType.SPACE;
+		}
+		if (resource.equals("organization")) {
+			return ResourceType.ORGANIZATION;
+		}
+		return ResourceType.OTHER;
+	}
+
+	private static Action getAction(String action) {
+		if (action.equals("create")) {
+			return Action.CREATED;
+		}
+		if (action.equals("update") || action.equals("map-route") || action.equals("unmap-route")
+				|| action.equals("restage")) {
+			return Action.UPDATED;
+		}
+		if (action.equals("delete-request") || action.equals("delete")) {
+			return Action.DELETED;
+		}
+		return Action.OTHER;
+	}
+
+	public CloudEvent getEvent() {
+		return event;
+	}
+
+	public ResourceType getResourceType() {
+		return resourceType;
+	}
+
+	public Action getAction() {
+		return action;
+	}
+
+	/**
+	 * @return the GUID of the changed resource, or null if the event does not identify it by GUID
+	 */
+	public UUID getResourceGuid() {
+		return event.getActeeGuid();
+	}
+
+	public String getResourceName() {
+		return event.getActeeName();
+	}
+
+	@Override
+	public String toString() {
+		return "CloudChange [resourceType=" + resourceType + ", action=" + action + ", resourceName="
+				+ getResourceName() + ", type=" + event.getType() + "]";
+	}
+
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.domain;
+
+/**
+ * Outcome of one item of a batch of changes, such as a URI mapping or a service binding. The other items
+ * of the batch are attempted even if this one fails.
+ */
+public abstract class OperationResult {
+
+	private final RuntimeException error;
+
+	protected OperationResult(RuntimeException error) {
+		this.error = error;
+	}
+
+	/**
+	 * @return the reason the change could not be made, or null if it succeeded
+	 */
+	public RuntimeException getError() {
+		return error;
+	}
+
+	public boolean isSuccessful() {
+		return error == null;
+	}
+
+}
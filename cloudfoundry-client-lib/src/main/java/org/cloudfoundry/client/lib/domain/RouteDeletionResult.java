@@ -0,0 +1,62 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.domain;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of deleting a batch of routes, with the routes that were deleted and those that could not be.
+ */
+public class RouteDeletionResult {
+
+	private final List<CloudRoute> deletedRoutes = new ArrayList<CloudRoute>();
+
+	private final Map<CloudRoute, RuntimeException> failedRoutes = new LinkedHashMap<CloudRoute, RuntimeException>();
+
+	public void addDeletedRoute(CloudRoute route) {
+		deletedRoutes.add(route);
+	}
+
+	public void addFailedRoute(CloudRoute route, RuntimeException error) {
+		failedRoutes.put(route, error);
+	}
+
+	public List<CloudRoute> getDeletedRoutes() {
+		return Collections.unmodifiableList(deletedRoutes);
+	}
+
+	/**
+	 * @return the routes that could not be deleted, in request order, with the reason for each
+	 */
+	public Map<CloudRoute, RuntimeException> getFailedRoutes() {
+		return Collections.unmodifiableMap(failedRoutes);
+	}
+
+	public boolean isSuccessful() {
+		return failedRoutes.isEmpty();
+	}
+
+	@Override
+	public String toString() {
+		return "RouteDeletionResult [deleted=" + deletedRoutes.size() + ", failed=" + failedRoutes.size() + "]";
+	}
+
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.domain;
+
+/**
+ * Outcome of mapping a URI to an application or unmapping it, as part of a batch of route changes.
+ */
+public class RouteMappingResult extends OperationResult {
+
+	public enum Operation {
+		MAP, UNMAP
+	}
+
+	private final String uri;
+
+	private final Operation operation;
+
+	public RouteMappingResult(String uri, Operation operation, RuntimeException error) {
+		super(error);
+		this.uri = uri;
+		this.operation = operation;
+	}
+
+	public String getUri() {
+		return uri;
+	}
+
+	public Operation getOperation() {
+		return operation;
+	}
+
+	@Override
+	public String toString() {
+		return "RouteMappingResult [uri=" + uri + ", operation=" + operation +
+				(!isSuccessful() ? ", error=" + getError().getMessage() : "") + "]";
+	}
+
+}
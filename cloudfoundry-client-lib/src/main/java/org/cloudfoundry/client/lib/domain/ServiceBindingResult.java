@@ -0,0 +1,52 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.domain;
+
+/**
+ * Outcome of binding a service to an application or unbinding it, as part of a batch of service changes.
+ */
+public class ServiceBindingResult extends OperationResult {
+
+	public enum Operation {
+		BIND, UNBIND
+	}
+
+	private final String serviceName;
+
+	private final Operation operation;
+
+	public ServiceBindingResult(String serviceName, Operation operation, RuntimeException error) {
+		super(error);
+		this.serviceName = serviceName;
+		this.operation = operation;
+	}
+
+	public String getServiceName() {
+		return serviceName;
+	}
+
+	public Operation getOperation() {
+		return operation;
+	}
+
+	@Override
+	public String toString() {
+		return "ServiceBindingResult [serviceName=" + serviceName + ", operation=" + operation +
+				(!isSuccessful() ? ", error=" + getError().getMessage() : "") + "]";
+	}
+
+}
@@ -16,12 +16,17 @@
 
 package org.cloudfoundry.client.lib.domain;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Set;
 
+import org.cloudfoundry.client.lib.UploadProgressCallback;
+import org.cloudfoundry.client.lib.archive.AbstractApplicationArchiveEntry;
 import org.cloudfoundry.client.lib.archive.ApplicationArchive;
+import org.cloudfoundry.client.lib.archive.ContentCache;
+import org.cloudfoundry.client.lib.io.CompressionPolicy;
 import org.cloudfoundry.client.lib.io.DynamicZipInputStream;
 import org.cloudfoundry.client.lib.io.DynamicZipInputStream.Entry;
 
@@ -33,11 +38,22 @@ import org.cloudfoundry.client.lib.io.DynamicZipInputStream.Entry;
  */
 public class UploadApplicationPayload {
 
+    /**
+     * The default number of threads compressing the payload, one per processor.
+     */
+    public static final int DEFAULT_COMPRESSION_THREADS = Runtime.getRuntime().availableProcessors();
+
     private ApplicationArchive archive;
 
     private ArrayList<Entry> entriesToUpload;
 
-    private int totalUncompressedSize;
+    private long totalUncompressedSize;
+
+    private int compressionThreads = DEFAULT_COMPRESSION_THREADS;
+
+    private CompressionPolicy compressionPolicy = CompressionPolicy.DEFAULT;
+
+    private UploadProgressCallback progressCallback;
 
     /**
      * Create a new {@link UploadApplicationPayload}.
@@ -47,18 +63,46 @@ public class UploadApplicationPayload {
      * @throws IOException
      */
     public UploadApplicationPayload(ApplicationArchive archive, CloudResources knownRemoteResources) throws IOException {
+        this(archive, knownRemoteResources, null);
+    }
+
+    /**
+     * Create a new {@link UploadApplicationPayload} that takes the contents of entries from the given cache rather
+     * than reading them again. Contents of entries already known to the remote server are dropped from the cache.
+     *
+     * @param archive the source archive
+     * @param knownRemoteResources resources that are already known on the remote server
+     * @param contentCache contents of entries read while fingerprinting the archive, or <tt>null</tt>
+     * @throws IOException
+     */
+    public UploadApplicationPayload(ApplicationArchive archive, CloudResources knownRemoteResources,
+            ContentCache contentCache) throws IOException {
         this.archive = archive;
         this.totalUncompressedSize = 0;
         Set<String> matches = knownRemoteResources.getFilenames();
         this.entriesToUpload = new ArrayList<DynamicZipInputStream.Entry>();
         for (ApplicationArchive.Entry entry : archive.getEntries()) {
             if (entry.isDirectory() || !matches.contains(entry.getName())) {
-                entriesToUpload.add(new DynamicZipInputStreamEntryAdapter(entry));
+                if (isRaw(entry)) {
+                    // copied as it is compressed in the source archive rather than from the cache
+                    entriesToUpload.add(new DynamicZipInputStreamRawEntryAdapter((ApplicationArchive.RawEntry) entry));
+                    if (contentCache != null) {
+                        contentCache.remove(entry);
+                    }
+                } else {
+                    entriesToUpload.add(new DynamicZipInputStreamEntryAdapter(entry, contentCache));
+                }
                 totalUncompressedSize += entry.getSize();
+            } else if (contentCache != null) {
+                contentCache.remove(entry);
             }
         }
     }
 
+    private static boolean isRaw(ApplicationArchive.Entry entry) {
+        return entry instanceof ApplicationArchive.RawEntry && ((ApplicationArchive.RawEntry) entry).getMethod() != -1;
+    }
+
     /**
      * Returns the source archive.
      * @return the archive
@@ -69,9 +113,18 @@ public class UploadApplicationPayload {
 
     /**
      * Returns the total size of the entries to be transfered (before compression).
-     * @return the uncompressed size of the entries.
+     * @return the uncompressed size of the entries, or {@link Integer#MAX_VALUE} if it does not fit in an int.
+     * @see #getTotalUncompressedBytes()
      */
     public int getTotalUncompressedSize() {
+        return (int) Math.min(totalUncompressedSize, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the total size of the entries to be transfered (before compression), even if it does not fit in an int.
+     * @return the uncompressed size of the entries.
+     */
+    public long getTotalUncompressedBytes() {
         return totalUncompressedSize;
     }
 
@@ -83,31 +136,121 @@ public class UploadApplicationPayload {
 		return entriesToUpload.size();
     }
 
+    /**
+     * Sets the number of threads compressing the payload data as it is read.
+     * @param compressionThreads the number of threads, or 1 to compress entries as they are read
+     */
+    public void setCompressionThreads(int compressionThreads) {
+        this.compressionThreads = compressionThreads;
+    }
+
+    /**
+     * Sets the policy deciding how the payload data is compressed.
+     * @param compressionPolicy the compression policy
+     */
+    public void setCompressionPolicy(CompressionPolicy compressionPolicy) {
+        this.compressionPolicy = compressionPolicy;
+    }
+
+    /**
+     * Sets the callback told how sending the payload data is progressing.
+     * @param progressCallback the callback, or <tt>null</tt> if progress should not be reported
+     */
+    public void setProgressCallback(UploadProgressCallback progressCallback) {
+        this.progressCallback = progressCallback;
+    }
+
+    /**
+     * Returns the callback told how sending the payload data is progressing.
+     * @return the callback, or <tt>null</tt>
+     */
+    public UploadProgressCallback getProgressCallback() {
+        return progressCallback;
+    }
+
     /**
      * Returns the payload data as an input stream.
      * @return the payload data
      */
     public InputStream getInputStream() {
-        return new DynamicZipInputStream(entriesToUpload);
+        return new DynamicZipInputStream(entriesToUpload, compressionThreads, compressionPolicy);
     }
 
     /**
-     * Internal adapter used to convert {@link ApplicationArchive.Entry} into {@link DynamicZipInputStream.Entry}.
+     * Internal adapter used to convert {@link ApplicationArchive.Entry} into {@link DynamicZipInputStream.SizedEntry}.
      */
-    private static class DynamicZipInputStreamEntryAdapter implements DynamicZipInputStream.Entry {
+    private static class DynamicZipInputStreamEntryAdapter implements DynamicZipInputStream.SizedEntry {
 
         private ApplicationArchive.Entry entry;
 
-        public DynamicZipInputStreamEntryAdapter(ApplicationArchive.Entry entry) {
+        private ContentCache contentCache;
+
+        public DynamicZipInputStreamEntryAdapter(ApplicationArchive.Entry entry, ContentCache contentCache) {
             this.entry = entry;
+            this.contentCache = contentCache;
         }
 
         public String getName() {
             return entry.getName();
         }
 
+        public long getSize() {
+            return entry.getSize();
+        }
+
+        public long getCrc() {
+            if (entry instanceof AbstractApplicationArchiveEntry) {
+                return ((AbstractApplicationArchiveEntry) entry).getCrc();
+            }
+            return -1;
+        }
+
         public InputStream getInputStream() throws IOException {
+            byte[] content = (contentCache != null ? contentCache.remove(entry) : null);
+            if (content != null) {
+                return new ByteArrayInputStream(content);
+            }
             return entry.getInputStream();
         }
     }
+
+    /**
+     * Internal adapter used to convert {@link ApplicationArchive.RawEntry} into {@link DynamicZipInputStream.RawEntry}.
+     */
+    private static class DynamicZipInputStreamRawEntryAdapter implements DynamicZipInputStream.RawEntry {
+
+        private ApplicationArchive.RawEntry entry;
+
+        public DynamicZipInputStreamRawEntryAdapter(ApplicationArchive.RawEntry entry) {
+            this.entry = entry;
+        }
+
+        public String getName() {
+            return entry.getName();
+        }
+
+        public InputStream getInputStream() throws IOException {
+            return entry.getInputStream();
+        }
+
+        public int getMethod() {
+            return entry.getMethod();
+        }
+
+        public long getCrc() {
+            return entry.getCrc();
+        }
+
+        public long getCompressedSize() {
+            return entry.getCompressedSize();
+        }
+
+        public long getSize() {
+            return entry.getSize();
+        }
+
+        public InputStream getRawInputStream() throws IOException {
+            return entry.getRawInputStream();
+        }
+    }
 }
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.io;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.Deflater;
+
+import org.springframework.util.Assert;
+
+/**
+ * Decides how the entries of a {@link DynamicZipInputStream} are compressed: the deflate level, and which entries are
+ * stored without compression because their content is compressed already.
+ * <p>
+ * Entries are stored when their name has one of the stored extensions or, if sampling is enabled, when the first
+ * {@link #SAMPLE_SIZE} bytes of their content look random, with an entropy of more than
+ * {@link #MAX_COMPRESSIBLE_ENTROPY} bits per byte.
+ */
+public class CompressionPolicy {
+
+	/**
+	 * Extensions of files whose content is usually compressed already.
+	 */
+	public static final Set<String> COMPRESSED_EXTENSIONS = Collections.unmodifiableSet(new HashSet<String>(
+			Arrays.asList("jar", "war", "ear", "zip", "gz", "tgz", "bz2", "xz", "7z", "png", "jpg", "jpeg", "gif",
+					"webp", "ico", "woff", "woff2", "mp3", "mp4", "ogg", "pdf")));
+
+	/**
+	 * The number of bytes sampled to decide whether an entry is compressible.
+	 */
+	public static final int SAMPLE_SIZE = 4096;
+
+	/**
+	 * The entropy above which a sample is considered not worth compressing, in bits per byte.
+	 */
+	public static final double MAX_COMPRESSIBLE_ENTROPY = 7.5;
+
+	/**
+	 * Deflates every entry at the default level.
+	 */
+	public static final CompressionPolicy DEFLATE_ALL = new CompressionPolicy(Deflater.DEFAULT_COMPRESSION,
+			Collections.<String>emptySet(), false);
+
+	/**
+	 * Stores entries with {@link #COMPRESSED_EXTENSIONS} and deflates the others at the default level.
+	 */
+	public static final CompressionPolicy DEFAULT = new CompressionPolicy(Deflater.DEFAULT_COMPRESSION,
+			COMPRESSED_EXTENSIONS, false);
+
+	/**
+	 * Stores entries with {@link #COMPRESSED_EXTENSIONS} or with random looking content, and deflates the others
+	 * at the fastest level. Suited to uploads over a fast network, where compression rather than the network is
+	 * the bottleneck.
+	 */
+	public static final CompressionPolicy FASTEST = new CompressionPolicy(Deflater.BEST_SPEED,
+			COMPRESSED_EXTENSIONS, true);
+
+	private final int level;
+
+	private final Set<String> storedExtensions;
+
+	private final boolean sampling;
+
+	/**
+	 * Create a new {@link CompressionPolicy}.
+	 *
+	 * @param level the deflate level, from {@link Deflater#BEST_SPEED} to {@link Deflater#BEST_COMPRESSION}, or
+	 * {@link Deflater#DEFAULT_COMPRESSION}
+	 * @param storedExtensions extensions, without the dot, of the entries to store
+	 * @param sampling whether to store entries with random looking content
+	 */
+	public CompressionPolicy(int level, Collection<String> storedExtensions, boolean sampling) {
+		Assert.isTrue(level == Deflater.DEFAULT_COMPRESSION || (level >= 0 && level <= Deflater.BEST_COMPRESSION),
+				"Invalid deflate level " + level);
+		Assert.notNull(storedExtensions, "Stored extensions must not be null");
+		this.level = level;
+		Set<String> extensions = new HashSet<String>();
+		for (String extension : storedExtensions) {
+			extensions.add(extension.toLowerCase(Locale.ENGLISH));
+		}
+		this.storedExtensions = Collections.unmodifiableSet(extensions);
+		this.sampling = sampling;
+	}
+
+	public int getLevel() {
+		return level;
+	}
+
+	public Set<String> getStoredExtensions() {
+		return storedExtensions;
+	}
+
+	public boolean isSampling() {
+		return sampling;
+	}
+
+	/**
+	 * Returns <tt>true</tt> if an entry should be stored because of its name.
+	 *
+	 * @param name the name of the entry
+	 * @return if the entry should be stored
+	 */
+	public boolean isStored(String name) {
+		int dot = name.lastIndexOf('.');
+		if (dot == -1 || dot < name.lastIndexOf('/')) {
+			return false;
+		}
+		return storedExtensions.contains(name.substring(dot + 1).toLowerCase(Locale.ENGLISH));
+	}
+
+	/**
+	 * Returns <tt>true</tt> if an entry should be stored because of its content. Always <tt>false</tt> unless
+	 * {@link #isSampling() sampling} is enabled.
+	 *
+	 * @param sample the first bytes of the content, up to {@link #SAMPLE_SIZE}
+	 * @param length the number of bytes in the sample
+	 * @return if the entry should be stored
+	 */
+	public boolean isStored(byte[] sample, int length) {
+		if (!sampling || length == 0) {
+			return false;
+		}
+		int[] counts = new int[256];
+		for (int i = 0; i < length; i++) {
+			counts[sample[i] & 0xFF]++;
+		}
+		double entropy = 0;
+		for (int count : counts) {
+			if (count > 0) {
+				double p = (double) count / length;
+				entropy -= p * Math.log(p) / Math.log(2);
+			}
+		}
+		return entropy > MAX_COMPRESSIBLE_ENTROPY;
+	}
+
+}
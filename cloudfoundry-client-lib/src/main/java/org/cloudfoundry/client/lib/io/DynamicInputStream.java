@@ -16,7 +16,6 @@
 
 package org.cloudfoundry.client.lib.io;
 
-import java.io.ByteArrayOutputStream;
 import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -27,15 +26,42 @@ import org.springframework.util.Assert;
 /**
  * InputStream that dynamically loads data on demand as the stream is read. Subclasses must implement the
  * {@link #writeMoreData()} method.
+ * <p>
+ * Data written while a read is waiting for it goes straight into the buffer passed to the read. Only data that does
+ * not fit is staged in a ring buffer of fixed capacity, which grows only while a single {@link #writeMoreData()} call
+ * writes more than the capacity and shrinks back once it has been read.
  *
  * @author Phillip Webb
  */
 public abstract class DynamicInputStream extends InputStream {
 
-	private BufferedOutputStream outputStream = new BufferedOutputStream();
+	/**
+	 * The default capacity of the ring buffer staging data that does not fit in the reader's buffer.
+	 */
+	public static final int DEFAULT_CAPACITY = 64 * 1024;
+
+	private RingBufferOutputStream outputStream;
 
 	private byte[] singleByte = new byte[1];
 
+	private long bytesRead;
+
+	private long writeNanos;
+
+	public DynamicInputStream() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Create a new {@link DynamicInputStream} that stages data in a ring buffer of the given capacity.
+	 *
+	 * @param capacity the capacity of the ring buffer
+	 */
+	public DynamicInputStream(int capacity) {
+		Assert.isTrue(capacity > 0, "Capacity must be positive");
+		this.outputStream = new RingBufferOutputStream(capacity);
+	}
+
 	@Override
 	public int read() throws IOException {
 		int s = read(singleByte);
@@ -56,7 +82,11 @@ public abstract class DynamicInputStream extends InputStream {
 		if (len == 0) {
 			return 0;
 		}
-		return doRead(b, off, len, true);
+		int count = doRead(b, off, len, true);
+		if (count > 0) {
+			bytesRead += count;
+		}
+		return count;
 	}
 
 	private int doRead(byte[] b, int off, int len, boolean lastWriteWasSuccessful) throws IOException {
@@ -66,16 +96,26 @@ public abstract class DynamicInputStream extends InputStream {
 		if (!lastWriteWasSuccessful) {
 			return -1;
 		}
-		outputStream.clear();
-		boolean writeSuccess = writeMoreData();
+		boolean writeSuccess;
+		long start = System.nanoTime();
+		outputStream.setTarget(b, off, len);
+		try {
+			writeSuccess = writeMoreData();
+		} finally {
+			writeNanos += System.nanoTime() - start;
+		}
+		int count = outputStream.clearTarget();
+		if (count > 0) {
+			return count;
+		}
 		return doRead(b, off, len, writeSuccess);
 	}
 
 	/**
 	 * Returns the {@link OutputStream} that should be used when {@link #writeMoreData() writing} data. The output
 	 * stream instance will not change during the life of the object and so can be used as the source to a a
-	 * {@link FilterInputStream}. This is an in-memory stream so care should be taken to not write large amounts of
-	 * data.
+	 * {@link FilterInputStream}. Data that cannot be passed straight to the reader is held in memory so care should
+	 * be taken to not write large amounts of data.
 	 *
 	 * @return the output stream
 	 * @see #writeMoreData()
@@ -95,28 +135,165 @@ public abstract class DynamicInputStream extends InputStream {
 	protected abstract boolean writeMoreData() throws IOException;
 
 	/**
-	 * Internal buffered {@link OutputStream} implementation.
+	 * Returns the number of bytes read from this stream.
+	 *
+	 * @return the number of bytes read
+	 */
+	public long getBytesRead() {
+		return bytesRead;
+	}
+
+	/**
+	 * Returns the number of bytes that were staged in the ring buffer rather than written straight to the reader.
+	 *
+	 * @return the number of staged bytes
+	 */
+	public long getBytesStaged() {
+		return outputStream.staged;
+	}
+
+	/**
+	 * Returns the largest capacity the ring buffer has had, which is more than its initial capacity if a single
+	 * {@link #writeMoreData()} call wrote more than it holds.
+	 *
+	 * @return the largest capacity of the ring buffer
+	 */
+	public int getPeakCapacity() {
+		return outputStream.peakCapacity;
+	}
+
+	/**
+	 * Returns the time spent in {@link #writeMoreData()} producing data, in nanoseconds. Together with
+	 * {@link #getBytesRead()} this gives the throughput of the producer, regardless of how fast the stream is read.
+	 *
+	 * @return the time spent producing data
+	 */
+	public long getWriteNanos() {
+		return writeNanos;
+	}
+
+	/**
+	 * Internal {@link OutputStream} that writes to the buffer of the pending read and stages what does not fit in a
+	 * ring buffer.
 	 */
-	private static class BufferedOutputStream extends ByteArrayOutputStream {
+	private static class RingBufferOutputStream extends OutputStream {
+
+		private final int capacity;
+
+		private byte[] buffer;
+
+		private int head;
+
+		private int available;
+
+		private byte[] target;
+
+		private int targetOffset;
 
-		private int offset;
+		private int targetRemaining;
+
+		private int targetWritten;
+
+		private long staged;
+
+		private int peakCapacity;
+
+		public RingBufferOutputStream(int capacity) {
+			this.capacity = capacity;
+			this.buffer = new byte[capacity];
+			this.peakCapacity = capacity;
+		}
 
 		public int getAvailable() {
-			return count - offset;
+			return available;
+		}
+
+		public void setTarget(byte[] b, int off, int len) {
+			Assert.state(available == 0, "Data is still buffered");
+			this.target = b;
+			this.targetOffset = off;
+			this.targetRemaining = len;
+			this.targetWritten = 0;
 		}
 
-		public void clear() {
-			this.count = 0;
-			this.offset = 0;
+		public int clearTarget() {
+			int count = targetWritten;
+			this.target = null;
+			this.targetRemaining = 0;
+			this.targetWritten = 0;
+			return count;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			if (targetRemaining > 0) {
+				target[targetOffset++] = (byte) b;
+				targetRemaining--;
+				targetWritten++;
+				return;
+			}
+			ensureCapacity(1);
+			buffer[(head + available) % buffer.length] = (byte) b;
+			available++;
+			staged++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if (targetRemaining > 0) {
+				int length = Math.min(targetRemaining, len);
+				System.arraycopy(b, off, target, targetOffset, length);
+				targetOffset += length;
+				targetRemaining -= length;
+				targetWritten += length;
+				off += length;
+				len -= length;
+			}
+			if (len == 0) {
+				return;
+			}
+			ensureCapacity(len);
+			int tail = (head + available) % buffer.length;
+			int length = Math.min(len, buffer.length - tail);
+			System.arraycopy(b, off, buffer, tail, length);
+			System.arraycopy(b, off + length, buffer, 0, len - length);
+			available += len;
+			staged += len;
 		}
 
 		public int read(byte[] b, int off, int len) {
-			int length = Math.min(getAvailable(), len);
+			int length = Math.min(available, len);
 			Assert.state(length > 0, "No data available in buffer");
-			System.arraycopy(this.buf, this.offset, b, off, length);
-			offset += length;
+			int first = Math.min(length, buffer.length - head);
+			System.arraycopy(buffer, head, b, off, first);
+			System.arraycopy(buffer, 0, b, off + first, length - first);
+			head = (head + length) % buffer.length;
+			available -= length;
+			if (available == 0) {
+				head = 0;
+				if (buffer.length > capacity) {
+					buffer = new byte[capacity];
+				}
+			}
 			return length;
 		}
+
+		private void ensureCapacity(int len) {
+			if (available + len <= buffer.length) {
+				return;
+			}
+			int size = buffer.length;
+			while (size < available + len) {
+				size *= 2;
+			}
+			byte[] grown = new byte[size];
+			int first = Math.min(available, buffer.length - head);
+			System.arraycopy(buffer, head, grown, 0, first);
+			System.arraycopy(buffer, 0, grown, first, available - first);
+			buffer = grown;
+			head = 0;
+			peakCapacity = Math.max(peakCapacity, size);
+		}
 	}
 
 }
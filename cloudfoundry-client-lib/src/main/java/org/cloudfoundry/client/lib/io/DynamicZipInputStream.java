@@ -16,17 +16,40 @@
 
 package org.cloudfoundry.client.lib.io;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.SequenceInputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
 
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.util.Assert;
 
 /**
  * InputStream that dynamically creates ZIP contents as the stream is read without consuming too much memory. Zip
- * {@link Entry entries} should be provided on {@link #DynamicZipInputStream(Iterable) construction}.
+ * {@link Entry entries} should be provided on {@link #DynamicZipInputStream(Iterable) construction}. The content of
+ * {@link RawEntry raw entries} is copied as it is, without being compressed again.
+ * <p>
+ * Entries can be {@link #DynamicZipInputStream(Iterable, int) compressed concurrently}. {@link SizedEntry Entries}
+ * known to have up to {@link #MAX_PARALLEL_ENTRY_SIZE} bytes are then deflated ahead of the reader on a pool of daemon
+ * threads, a few entries per thread at a time, and written in order once they are needed. Larger entries, and
+ * entries of unknown size, are deflated as they are read.
+ * <p>
+ * A {@link CompressionPolicy} sets the deflate level and which entries are stored rather than deflated. The CRC-32
+ * of a stored entry has to be written before its content, so a large stored entry is read twice unless it is a
+ * {@link SizedEntry} that knows its CRC-32.
  *
  * @author Phillip Webb
  */
@@ -34,6 +57,18 @@ public class DynamicZipInputStream extends DynamicInputStream {
 
 	private static final int BUFFER_SIZE = 4096;
 
+	private static final int CENTRAL_RECORDS_PER_WRITE = 32;
+
+	/**
+	 * The size of the largest entry that is compressed ahead of the reader.
+	 */
+	public static final int MAX_PARALLEL_ENTRY_SIZE = 1024 * 1024;
+
+	/**
+	 * The number of entries compressed ahead of the reader for each thread.
+	 */
+	private static final int ENTRIES_PER_THREAD = 2;
+
 	private static InputStream EMPTY_STREAM = new InputStream() {
 
 		@Override
@@ -45,7 +80,7 @@ public class DynamicZipInputStream extends DynamicInputStream {
 	/**
 	 * The underlying ZIP stream.
 	 */
-	private ZipOutputStream zipStream;
+	private PassthroughZipOutputStream zipStream;
 
 	/**
 	 * Entries to be written.
@@ -67,15 +102,73 @@ public class DynamicZipInputStream extends DynamicInputStream {
 	 */
 	private long fileCount = 0;
 
+	/**
+	 * The number of threads compressing entries.
+	 */
+	private int threads;
+
+	/**
+	 * Threads compressing entries ahead of the reader, started on the first read.
+	 */
+	private ExecutorService executor;
+
+	/**
+	 * Entries taken from {@link #entries} and possibly being compressed, in order.
+	 */
+	private Deque<PendingEntry> pendingEntries = new ArrayDeque<PendingEntry>();
+
+	/**
+	 * Policy deciding how entries are compressed.
+	 */
+	private CompressionPolicy compressionPolicy;
+
+	/**
+	 * The uncompressed size of the current entry if its content is written compressed, or -1.
+	 */
+	private long entrySize = -1;
+
+	/**
+	 * The number of uncompressed bytes of the entries written so far.
+	 */
+	private long uncompressedBytes;
+
 	/**
 	 * Create a new {@link DynamicZipInputStream} instance.
 	 *
 	 * @param entries the zip entries that should be written to the stream
 	 */
 	public DynamicZipInputStream(Iterable<Entry> entries) {
+		this(entries, 1);
+	}
+
+	/**
+	 * Create a new {@link DynamicZipInputStream} instance that compresses entries on the given number of threads.
+	 * The threads are stopped when the stream has been read or is closed.
+	 *
+	 * @param entries the zip entries that should be written to the stream
+	 * @param threads the number of threads, or 1 to compress entries as they are read
+	 */
+	public DynamicZipInputStream(Iterable<Entry> entries, int threads) {
+		this(entries, threads, CompressionPolicy.DEFAULT);
+	}
+
+	/**
+	 * Create a new {@link DynamicZipInputStream} instance that compresses entries on the given number of threads
+	 * according to the given policy. The threads are stopped when the stream has been read or is closed.
+	 *
+	 * @param entries the zip entries that should be written to the stream
+	 * @param threads the number of threads, or 1 to compress entries as they are read
+	 * @param compressionPolicy the policy deciding how entries are compressed
+	 */
+	public DynamicZipInputStream(Iterable<Entry> entries, int threads, CompressionPolicy compressionPolicy) {
 		Assert.notNull(entries, "Entries must not be null");
-		this.zipStream = new ZipOutputStream(getOutputStream());
+		Assert.isTrue(threads > 0, "Threads must be positive");
+		Assert.notNull(compressionPolicy, "CompressionPolicy must not be null");
+		this.zipStream = new PassthroughZipOutputStream(getOutputStream());
+		this.zipStream.setLevel(compressionPolicy.getLevel());
 		this.entries = entries.iterator();
+		this.threads = threads;
+		this.compressionPolicy = compressionPolicy;
 	}
 
 	@Override
@@ -85,6 +178,9 @@ public class DynamicZipInputStream extends DynamicInputStream {
 		int count = entryStream.read(buffer);
 		if (count != -1) {
 			zipStream.write(buffer, 0, count);
+			if (entrySize == -1) {
+				uncompressedBytes += count;
+			}
 			return true;
 		}
 
@@ -94,13 +190,39 @@ public class DynamicZipInputStream extends DynamicInputStream {
 			entryStream.close();
 			entryStream = EMPTY_STREAM;
 		}
+		if (entrySize != -1) {
+			uncompressedBytes += entrySize;
+			entrySize = -1;
+		}
 
 		// Move to the next entry if there is one (no need to write data as returning true causes another call)
-		if (entries.hasNext()) {
+		if (!pendingEntries.isEmpty() || entries.hasNext()) {
 			fileCount++;
-			Entry entry = entries.next();
-			zipStream.putNextEntry(new UtcAdjustedZipEntry(entry.getName()));
-			entryStream = entry.getInputStream();
+			PendingEntry pendingEntry = nextEntry();
+			Entry entry = pendingEntry.entry;
+			CompressedContent content = (pendingEntry.content != null ? getResult(pendingEntry.content) : null);
+			if (content != null) {
+				ZipEntry zipEntry = new UtcAdjustedZipEntry(entry.getName());
+				zipEntry.setMethod(content.method);
+				zipEntry.setCrc(content.crc);
+				zipEntry.setCompressedSize(content.bytes.length);
+				zipEntry.setSize(content.size);
+				zipStream.putNextRawEntry(zipEntry);
+				entryStream = new ByteArrayInputStream(content.bytes);
+				entrySize = content.size;
+			} else if (isRaw(entry)) {
+				RawEntry rawEntry = (RawEntry) entry;
+				ZipEntry zipEntry = new UtcAdjustedZipEntry(entry.getName());
+				zipEntry.setMethod(rawEntry.getMethod());
+				zipEntry.setCrc(rawEntry.getCrc());
+				zipEntry.setCompressedSize(rawEntry.getCompressedSize());
+				zipEntry.setSize(rawEntry.getSize());
+				zipStream.putNextRawEntry(zipEntry);
+				entryStream = rawEntry.getRawInputStream();
+				entrySize = rawEntry.getSize();
+			} else {
+				entryStream = putNextEntry(entry);
+			}
 			if (entryStream == null) {
 				entryStream = EMPTY_STREAM;
 			}
@@ -115,16 +237,260 @@ public class DynamicZipInputStream extends DynamicInputStream {
 			return true;
 		}
 
-		// No more entries, close and flush the stream
+		// No more entries, write the central directory a few records at a time then close and flush the stream
+		if (!zipStream.finish(CENTRAL_RECORDS_PER_WRITE)) {
+			return true;
+		}
 		zipStream.flush();
 		zipStream.close();
+		stopCompressing();
 		return false;
 	}
 
+	/**
+	 * Returns the number of uncompressed bytes of the entries written to the stream so far, which can be compared with
+	 * the total size of the entries to tell how far the stream has been read.
+	 *
+	 * @return the number of uncompressed bytes written
+	 */
+	public long getUncompressedBytes() {
+		return uncompressedBytes;
+	}
+
+	private boolean isRaw(Entry entry) {
+		return entry instanceof RawEntry && ((RawEntry) entry).getMethod() != -1;
+	}
+
+	private InputStream putNextEntry(Entry entry) throws IOException {
+		InputStream inputStream = entry.getInputStream();
+		if (inputStream == null) {
+			zipStream.putNextEntry(new UtcAdjustedZipEntry(entry.getName()));
+			return null;
+		}
+		boolean stored = compressionPolicy.isStored(entry.getName());
+		if (!stored && compressionPolicy.isSampling()) {
+			byte[] sample = new byte[CompressionPolicy.SAMPLE_SIZE];
+			int length = readSample(inputStream, sample);
+			stored = compressionPolicy.isStored(sample, length);
+			inputStream = new SequenceInputStream(new ByteArrayInputStream(sample, 0, length), inputStream);
+		}
+		if (!stored) {
+			zipStream.putNextEntry(new UtcAdjustedZipEntry(entry.getName()));
+			return inputStream;
+		}
+		if (entry instanceof SizedEntry && ((SizedEntry) entry).getSize() >= 0 && ((SizedEntry) entry).getCrc() != -1) {
+			SizedEntry sizedEntry = (SizedEntry) entry;
+			ZipEntry zipEntry = new UtcAdjustedZipEntry(entry.getName());
+			zipEntry.setMethod(ZipEntry.STORED);
+			zipEntry.setCrc(sizedEntry.getCrc());
+			zipEntry.setCompressedSize(sizedEntry.getSize());
+			zipEntry.setSize(sizedEntry.getSize());
+			zipStream.putNextRawEntry(zipEntry);
+			return inputStream;
+		}
+		// the CRC-32 of a stored entry precedes its content, so read it once to compute the CRC-32
+		CRC32 crc = new CRC32();
+		long size = 0;
+		try {
+			int count;
+			while ((count = inputStream.read(buffer)) != -1) {
+				crc.update(buffer, 0, count);
+				size += count;
+			}
+		} finally {
+			inputStream.close();
+		}
+		ZipEntry zipEntry = new UtcAdjustedZipEntry(entry.getName());
+		zipEntry.setMethod(ZipEntry.STORED);
+		zipEntry.setCrc(crc.getValue());
+		zipEntry.setCompressedSize(size);
+		zipEntry.setSize(size);
+		zipStream.putNextRawEntry(zipEntry);
+		return entry.getInputStream();
+	}
+
+	private static int readSample(InputStream inputStream, byte[] sample) throws IOException {
+		int length = 0;
+		int count;
+		while (length < sample.length && (count = inputStream.read(sample, length, sample.length - length)) != -1) {
+			length += count;
+		}
+		return length;
+	}
+
+	private PendingEntry nextEntry() {
+		if (threads == 1) {
+			return new PendingEntry(entries.next(), null);
+		}
+		if (executor == null) {
+			// daemon threads, so that a stream that is never closed does not keep the JVM alive
+			CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("zip-compression-");
+			threadFactory.setDaemon(true);
+			executor = Executors.newFixedThreadPool(threads, threadFactory);
+		}
+		while (pendingEntries.size() < threads * ENTRIES_PER_THREAD && entries.hasNext()) {
+			Entry entry = entries.next();
+			Future<CompressedContent> content = (isCompressedAhead(entry) ?
+					executor.submit(new Compression(entry, compressionPolicy)) : null);
+			pendingEntries.add(new PendingEntry(entry, content));
+		}
+		return pendingEntries.poll();
+	}
+
+	/**
+	 * Whether the entry is compressed ahead of the reader, decided from its size so that no entry is read again.
+	 */
+	private boolean isCompressedAhead(Entry entry) {
+		if (isRaw(entry) || !(entry instanceof SizedEntry)) {
+			return false;
+		}
+		long size = ((SizedEntry) entry).getSize();
+		return size >= 0 && size <= MAX_PARALLEL_ENTRY_SIZE;
+	}
+
+	private CompressedContent getResult(Future<CompressedContent> content) throws IOException {
+		try {
+			return content.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while compressing zip entries");
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IOException(cause);
+		}
+	}
+
+	private void stopCompressing() {
+		for (PendingEntry pendingEntry : pendingEntries) {
+			if (pendingEntry.content != null) {
+				pendingEntry.content.cancel(true);
+			}
+		}
+		pendingEntries.clear();
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+	}
+
 	@Override
 	public void close() throws IOException {
-		super.close();
-		zipStream.close();
+		try {
+			super.close();
+			// the reader is done, so there is no point writing the rest of the zip
+			zipStream.discard();
+		} finally {
+			stopCompressing();
+		}
+	}
+
+	/**
+	 * An entry to be written, with its content if it is compressed ahead of the reader.
+	 */
+	private static class PendingEntry {
+
+		private final Entry entry;
+
+		private final Future<CompressedContent> content;
+
+		public PendingEntry(Entry entry, Future<CompressedContent> content) {
+			this.entry = entry;
+			this.content = content;
+		}
+	}
+
+	/**
+	 * The compressed content of an entry, with the CRC-32 and size of its uncompressed content.
+	 */
+	private static class CompressedContent {
+
+		private final int method;
+
+		private final byte[] bytes;
+
+		private final long crc;
+
+		private final long size;
+
+		public CompressedContent(int method, byte[] bytes, long crc, long size) {
+			this.method = method;
+			this.bytes = bytes;
+			this.crc = crc;
+			this.size = size;
+		}
+	}
+
+	/**
+	 * Task compressing the content of an entry according to the policy, which yields <tt>null</tt> if the entry has
+	 * grown beyond {@link #MAX_PARALLEL_ENTRY_SIZE} since its size was taken and should be compressed as it is read
+	 * instead.
+	 */
+	private static class Compression implements Callable<CompressedContent> {
+
+		private final Entry entry;
+
+		private final CompressionPolicy compressionPolicy;
+
+		public Compression(Entry entry, CompressionPolicy compressionPolicy) {
+			this.entry = entry;
+			this.compressionPolicy = compressionPolicy;
+		}
+
+		public CompressedContent call() throws IOException {
+			byte[] content = read();
+			if (content == null) {
+				return null;
+			}
+			CRC32 crc = new CRC32();
+			crc.update(content);
+			if (compressionPolicy.isStored(entry.getName())
+					|| compressionPolicy.isStored(content, Math.min(content.length, CompressionPolicy.SAMPLE_SIZE))) {
+				return new CompressedContent(ZipEntry.STORED, content, crc.getValue(), content.length);
+			}
+			Deflater deflater = new Deflater(compressionPolicy.getLevel(), true);
+			try {
+				ByteArrayOutputStream deflated = new ByteArrayOutputStream();
+				byte[] output = new byte[BUFFER_SIZE];
+				deflater.setInput(content);
+				deflater.finish();
+				while (!deflater.finished()) {
+					deflated.write(output, 0, deflater.deflate(output));
+				}
+				return new CompressedContent(ZipEntry.DEFLATED, deflated.toByteArray(), crc.getValue(),
+						content.length);
+			} finally {
+				deflater.end();
+			}
+		}
+
+		private byte[] read() throws IOException {
+			InputStream inputStream = entry.getInputStream();
+			if (inputStream == null) {
+				return new byte[0];
+			}
+			try {
+				ByteArrayOutputStream content = new ByteArrayOutputStream();
+				byte[] buffer = new byte[BUFFER_SIZE];
+				int count;
+				while ((count = inputStream.read(buffer)) != -1) {
+					if (content.size() + count > MAX_PARALLEL_ENTRY_SIZE) {
+						return null;
+					}
+					content.write(buffer, 0, count);
+				}
+				return content.toByteArray();
+			} finally {
+				inputStream.close();
+			}
+		}
 	}
 
 	/**
@@ -148,4 +514,56 @@ public class DynamicZipInputStream extends DynamicInputStream {
 		 */
 		InputStream getInputStream() throws IOException;
 	}
+
+	/**
+	 * An {@link Entry} whose uncompressed size, and possibly CRC-32, are known before it is read.
+	 */
+	public static interface SizedEntry extends Entry {
+
+		/**
+		 * Returns the size of the uncompressed content.
+		 *
+		 * @return the size, or <tt>-1</tt> if it is not known
+		 */
+		long getSize();
+
+		/**
+		 * Returns the CRC-32 of the uncompressed content. If it is known, an entry that is stored rather than
+		 * deflated is read only once.
+		 *
+		 * @return the CRC-32, or <tt>-1</tt> if it is not known
+		 */
+		long getCrc();
+	}
+
+	/**
+	 * An {@link Entry} whose content is also available already compressed, for example as it is stored in another
+	 * zip file.
+	 */
+	public static interface RawEntry extends SizedEntry {
+
+		/**
+		 * Returns the compression method of the raw content, {@link ZipEntry#STORED} or {@link ZipEntry#DEFLATED},
+		 * or <tt>-1</tt> if the raw content is not available and the entry should be read from
+		 * {@link #getInputStream()}.
+		 *
+		 * @return the compression method
+		 */
+		int getMethod();
+
+		/**
+		 * Returns the size of the raw content.
+		 *
+		 * @return the compressed size
+		 */
+		long getCompressedSize();
+
+		/**
+		 * Opens a new stream over the raw content. The stream will be closed by the caller.
+		 *
+		 * @return the raw content
+		 * @throws IOException
+		 */
+		InputStream getRawInputStream() throws IOException;
+	}
 }
@@ -0,0 +1,395 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+import org.springframework.util.Assert;
+
+/**
+ * Zip writer that, besides deflating entries like {@link java.util.zip.ZipOutputStream}, can
+ * {@link #putNextRawEntry(ZipEntry) copy} entries that are already compressed, such as entries of another zip file,
+ * without inflating and deflating them again.
+ * <p>
+ * Deflated entries are written in the same layout as {@link java.util.zip.ZipOutputStream} writes them. Zip64
+ * extensions are not supported, so archives are limited to 65535 entries and 4 GB.
+ */
+class PassthroughZipOutputStream extends OutputStream {
+
+	private static final int LOCAL_SIGNATURE = 0x04034b50;
+
+	private static final int DESCRIPTOR_SIGNATURE = 0x08074b50;
+
+	private static final int CENTRAL_SIGNATURE = 0x02014b50;
+
+	private static final int END_SIGNATURE = 0x06054b50;
+
+	private static final int DATA_DESCRIPTOR = 0x0008;
+
+	private static final int UTF8_NAMES = 0x0800;
+
+	private static final long MAX_SIZE = 0xFFFFFFFFL;
+
+	private static final int MAX_ENTRIES = 0xFFFF;
+
+	private static final int BUFFER_SIZE = 4096;
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private final OutputStream out;
+
+	private final List<Record> records = new ArrayList<Record>();
+
+	private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+
+	private int level = Deflater.DEFAULT_COMPRESSION;
+
+	private final CRC32 crc = new CRC32();
+
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+
+	private final byte[] singleByte = new byte[1];
+
+	private long written;
+
+	private Record current;
+
+	private long currentWritten;
+
+	private int centralIndex = -1;
+
+	private long centralOffset;
+
+	private boolean finished;
+
+	public PassthroughZipOutputStream(OutputStream out) {
+		Assert.notNull(out, "OutputStream must not be null");
+		this.out = out;
+	}
+
+	/**
+	 * Set the deflate level of the entries deflated by this stream.
+	 *
+	 * @param level the deflate level
+	 */
+	public void setLevel(int level) {
+		// setting even the same level changes the deflated bytes, which should match those of ZipOutputStream
+		if (level != this.level) {
+			this.level = level;
+			deflater.setLevel(level);
+		}
+	}
+
+	/**
+	 * Begin an entry whose content is written uncompressed and deflated by this stream.
+	 *
+	 * @param entry the entry, of which the name and time are used
+	 * @throws IOException
+	 */
+	public void putNextEntry(ZipEntry entry) throws IOException {
+		beginEntry(new Record(entry.getName(), ZipEntry.DEFLATED, DATA_DESCRIPTOR | UTF8_NAMES,
+				toDosTime(entry.getTime())));
+		writeLocalHeader(current, 0, 0, 0);
+		deflater.reset();
+		crc.reset();
+	}
+
+	/**
+	 * Begin an entry whose content is written exactly as it is compressed with the method of the entry. The raw
+	 * content must then be written in full before the entry is closed.
+	 *
+	 * @param entry the entry, of which the name, time, method, CRC-32 and sizes are used
+	 * @throws IOException
+	 */
+	public void putNextRawEntry(ZipEntry entry) throws IOException {
+		Assert.isTrue(entry.getMethod() == ZipEntry.STORED || entry.getMethod() == ZipEntry.DEFLATED,
+				"Unsupported compression method " + entry.getMethod());
+		beginEntry(new Record(entry.getName(), entry.getMethod(), UTF8_NAMES, toDosTime(entry.getTime())));
+		current.crc = entry.getCrc();
+		current.compressedSize = checkSize(entry.getCompressedSize());
+		current.size = checkSize(entry.getSize());
+		writeLocalHeader(current, current.crc, current.compressedSize, current.size);
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		singleByte[0] = (byte) b;
+		write(singleByte, 0, 1);
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		Assert.state(current != null, "No current zip entry");
+		if (len == 0) {
+			return;
+		}
+		if (isRaw(current)) {
+			if (currentWritten + len > current.compressedSize) {
+				throw new ZipException("Raw content of " + current.name + " exceeds its compressed size");
+			}
+			writeBytes(b, off, len);
+			currentWritten += len;
+			return;
+		}
+		crc.update(b, off, len);
+		currentWritten += len;
+		deflater.setInput(b, off, len);
+		while (!deflater.needsInput()) {
+			deflate();
+		}
+	}
+
+	/**
+	 * Close the current entry.
+	 *
+	 * @throws IOException
+	 */
+	public void closeEntry() throws IOException {
+		if (current == null) {
+			return;
+		}
+		if (isRaw(current)) {
+			if (currentWritten != current.compressedSize) {
+				throw new ZipException("Raw content of " + current.name + " is shorter than its compressed size");
+			}
+		} else {
+			deflater.finish();
+			while (!deflater.finished()) {
+				deflate();
+			}
+			current.crc = crc.getValue();
+			current.compressedSize = checkSize(deflater.getBytesWritten());
+			current.size = checkSize(currentWritten);
+			writeInt(DESCRIPTOR_SIGNATURE);
+			writeInt(current.crc);
+			writeInt(current.compressedSize);
+			writeInt(current.size);
+		}
+		current = null;
+	}
+
+	/**
+	 * Close the current entry and write the central directory, without closing the underlying stream.
+	 *
+	 * @throws IOException
+	 */
+	public void finish() throws IOException {
+		finish(records.size());
+	}
+
+	/**
+	 * Close the current entry and write part of the central directory, without closing the underlying stream. Once
+	 * this has been called no more entries can be added.
+	 *
+	 * @param maxRecords the largest number of central directory records to write
+	 * @return <tt>true</tt> if the central directory has been written completely
+	 * @throws IOException
+	 */
+	public boolean finish(int maxRecords) throws IOException {
+		if (finished) {
+			return true;
+		}
+		if (centralIndex == -1) {
+			closeEntry();
+			centralOffset = written;
+			centralIndex = 0;
+		}
+		for (int i = 0; i < maxRecords && centralIndex < records.size(); i++) {
+			writeCentralHeader(records.get(centralIndex++));
+		}
+		if (centralIndex < records.size()) {
+			return false;
+		}
+		long size = written - centralOffset;
+		writeInt(END_SIGNATURE);
+		writeShort(0);
+		writeShort(0);
+		writeShort(records.size());
+		writeShort(records.size());
+		writeInt(checkSize(size));
+		writeInt(checkSize(centralOffset));
+		writeShort(0);
+		finished = true;
+		return true;
+	}
+
+	@Override
+	public void flush() throws IOException {
+		out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			finish();
+		} finally {
+			deflater.end();
+			out.close();
+		}
+	}
+
+	/**
+	 * Close the underlying stream without writing the central directory, for when the zip content is no longer
+	 * needed.
+	 *
+	 * @throws IOException
+	 */
+	public void discard() throws IOException {
+		finished = true;
+		current = null;
+		try {
+			deflater.end();
+		} finally {
+			out.close();
+		}
+	}
+
+	private void beginEntry(Record record) throws IOException {
+		Assert.state(!finished && centralIndex == -1, "Zip stream has been finished");
+		closeEntry();
+		if (records.size() == MAX_ENTRIES) {
+			throw new ZipException("Too many zip entries, zip64 is not supported");
+		}
+		record.offset = checkSize(written);
+		records.add(record);
+		current = record;
+		currentWritten = 0;
+	}
+
+	private boolean isRaw(Record record) {
+		return (record.flag & DATA_DESCRIPTOR) == 0;
+	}
+
+	private void deflate() throws IOException {
+		int count = deflater.deflate(buffer, 0, buffer.length);
+		if (count > 0) {
+			writeBytes(buffer, 0, count);
+		}
+	}
+
+	private void writeLocalHeader(Record record, long crc, long compressedSize, long size) throws IOException {
+		writeInt(LOCAL_SIGNATURE);
+		writeShort(version(record));
+		writeShort(record.flag);
+		writeShort(record.method);
+		writeInt(record.time);
+		writeInt(crc);
+		writeInt(compressedSize);
+		writeInt(size);
+		writeShort(record.name.length);
+		writeShort(0);
+		writeBytes(record.name, 0, record.name.length);
+	}
+
+	private void writeCentralHeader(Record record) throws IOException {
+		writeInt(CENTRAL_SIGNATURE);
+		writeShort(version(record));
+		writeShort(version(record));
+		writeShort(record.flag);
+		writeShort(record.method);
+		writeInt(record.time);
+		writeInt(record.crc);
+		writeInt(record.compressedSize);
+		writeInt(record.size);
+		writeShort(record.name.length);
+		writeShort(0);
+		writeShort(0);
+		writeShort(0);
+		writeShort(0);
+		writeInt(0);
+		writeInt(record.offset);
+		writeBytes(record.name, 0, record.name.length);
+	}
+
+	private int version(Record record) {
+		return (record.method == ZipEntry.DEFLATED ? 20 : 10);
+	}
+
+	private long checkSize(long size) throws ZipException {
+		if (size < 0 || size >= MAX_SIZE) {
+			throw new ZipException("Zip content too large, zip64 is not supported");
+		}
+		return size;
+	}
+
+	private void writeShort(int value) throws IOException {
+		out.write(value & 0xFF);
+		out.write((value >>> 8) & 0xFF);
+		written += 2;
+	}
+
+	private void writeInt(long value) throws IOException {
+		writeShort((int) (value & 0xFFFF));
+		writeShort((int) ((value >>> 16) & 0xFFFF));
+	}
+
+	private void writeBytes(byte[] b, int off, int len) throws IOException {
+		out.write(b, off, len);
+		written += len;
+	}
+
+	private static long toDosTime(long time) {
+		Calendar calendar = Calendar.getInstance();
+		calendar.setTimeInMillis(time);
+		int year = calendar.get(Calendar.YEAR);
+		if (year < 1980) {
+			return (1 << 21) | (1 << 16);
+		}
+		return ((long) (year - 1980) << 25) | ((calendar.get(Calendar.MONTH) + 1) << 21)
+				| (calendar.get(Calendar.DAY_OF_MONTH) << 16) | (calendar.get(Calendar.HOUR_OF_DAY) << 11)
+				| (calendar.get(Calendar.MINUTE) << 5) | (calendar.get(Calendar.SECOND) >> 1);
+	}
+
+	/**
+	 * Central directory information of a written entry.
+	 */
+	private static class Record {
+
+		private final byte[] name;
+
+		private final int method;
+
+		private final int flag;
+
+		private final long time;
+
+		private long crc;
+
+		private long compressedSize;
+
+		private long size;
+
+		private long offset;
+
+		public Record(String name, int method, int flag, long time) {
+			this.name = name.getBytes(UTF_8);
+			this.method = method;
+			this.flag = flag;
+			this.time = time;
+		}
+	}
+
+}
@@ -20,6 +20,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -27,11 +28,17 @@ import java.util.UUID;
 import org.cloudfoundry.client.lib.ApplicationLogListener;
 import org.cloudfoundry.client.lib.ClientHttpResponseCallback;
 import org.cloudfoundry.client.lib.CloudCredentials;
+import org.cloudfoundry.client.lib.CloudEventCallback;
+import org.cloudfoundry.client.lib.CloudEventFeed;
+import org.cloudfoundry.client.lib.EventQuery;
+import org.cloudfoundry.client.lib.QueryOptions;
 import org.cloudfoundry.client.lib.RestLogCallback;
+import org.cloudfoundry.client.lib.SpaceSnapshot;
 import org.cloudfoundry.client.lib.StartingInfo;
 import org.cloudfoundry.client.lib.StreamingLogToken;
 import org.cloudfoundry.client.lib.UploadStatusCallback;
 import org.cloudfoundry.client.lib.archive.ApplicationArchive;
+import org.cloudfoundry.client.lib.archive.ArchiveFingerprinter;
 import org.cloudfoundry.client.lib.domain.ApplicationLog;
 import org.cloudfoundry.client.lib.domain.ApplicationStats;
 import org.cloudfoundry.client.lib.domain.CloudApplication;
@@ -50,8 +57,12 @@ import org.cloudfoundry.client.lib.domain.CloudSpace;
 import org.cloudfoundry.client.lib.domain.CloudStack;
 import org.cloudfoundry.client.lib.domain.CrashesInfo;
 import org.cloudfoundry.client.lib.domain.InstancesInfo;
+import org.cloudfoundry.client.lib.domain.RouteDeletionResult;
+import org.cloudfoundry.client.lib.domain.RouteMappingResult;
+import org.cloudfoundry.client.lib.domain.ServiceBindingResult;
 import org.cloudfoundry.client.lib.domain.Staging;
 import org.cloudfoundry.client.lib.domain.CloudUser;
+import org.cloudfoundry.client.lib.io.CompressionPolicy;
 import org.springframework.security.oauth2.common.OAuth2AccessToken;
 import org.springframework.web.client.ResponseErrorHandler;
 
@@ -66,12 +77,22 @@ public interface CloudControllerClient {
 
 	void setResponseErrorHandler(ResponseErrorHandler errorHandler);
 
+	void setArchiveFingerprinter(ArchiveFingerprinter archiveFingerprinter);
+
+	void setUploadCompressionThreads(int threads);
+
+	void setUploadCompressionPolicy(CompressionPolicy compressionPolicy);
+
 	URL getCloudControllerUrl();
 
 	CloudInfo getInfo();
 
 	List<CloudSpace> getSpaces();
 
+	CloudControllerClient forSpace(CloudSpace space);
+
+	CloudControllerClient withSpace(String orgName, String spaceName);
+
 	List<CloudOrganization> getOrganizations();
 
 	OAuth2AccessToken login();
@@ -106,6 +127,14 @@ public interface CloudControllerClient {
 
 	List<CloudServiceOffering> getServiceOfferings();
 
+	List<CloudServiceOffering> getServiceOfferings(QueryOptions options);
+
+	List<CloudServiceOffering> getServiceOfferingsByLabel(String label);
+
+	List<CloudServiceOffering> getServiceOfferingsByProvider(String provider);
+
+	void setServiceCatalogTtl(long ttl);
+
 	List<CloudServiceBroker> getServiceBrokers();
 
     CloudServiceBroker getServiceBroker(String name);
@@ -121,13 +150,23 @@ public interface CloudControllerClient {
     // App methods
 
 	List<CloudApplication> getApplications();
+
+	List<CloudApplication> getApplications(QueryOptions options);
 	
 	List<CloudApplication> getApplicationsWithBasicInfo();
+
+	List<CloudApplication> getLazyApplications();
+
+	void prefetchApplicationDetails(List<CloudApplication> apps);
+
+	SpaceSnapshot getSpaceSnapshot();
 	
 	Map<CloudApplication, ApplicationStats>  getApplicationStats(List<CloudApplication> apps);
 
 	CloudApplication getApplication(String appName);
 
+	CloudApplication getApplication(String appName, QueryOptions options);
+
 	CloudApplication getApplication(UUID appGuid);
 
 	ApplicationStats getApplicationStats(String appName);
@@ -170,10 +209,16 @@ public interface CloudControllerClient {
 
 	void updateApplicationServices(String appName, List<String> services);
 
+	List<ServiceBindingResult> rebindApplicationServices(String appName, List<String> services);
+
 	void updateApplicationStaging(String appName, Staging staging);
 
 	void updateApplicationUris(String appName, List<String> uris);
 
+	List<RouteMappingResult> remapApplicationUris(String appName, List<String> uris);
+
+	List<RouteMappingResult> remapApplicationUris(String appName, List<String> addedUris, List<String> removedUris);
+
 	void updateApplicationEnv(String appName, Map<String, String> env);
 
 	void updateApplicationEnv(String appName, List<String> env);
@@ -182,6 +227,14 @@ public interface CloudControllerClient {
 
 	List<CloudEvent> getApplicationEvents(String appName);
 
+	List<CloudEvent> getEvents(EventQuery query);
+
+	void getEvents(EventQuery query, CloudEventCallback callback);
+
+	CloudEventFeed getEventFeed();
+
+	CloudEventFeed getEventFeed(Date since);
+
 	Map<String, String> getLogs(String appName);
 
 	StreamingLogToken streamLogs(String appName, ApplicationLogListener listener);
@@ -245,8 +298,12 @@ public interface CloudControllerClient {
 
 	void deleteRoute(String host, String domainName);
 
+	List<CloudRoute> getOrphanedRoutes();
+
 	List<CloudRoute> deleteOrphanedRoutes();
 
+	RouteDeletionResult deleteOrphanedRoutesWithResult();
+
 	// Misc. utility methods
 
 	void registerRestLogListener(RestLogCallback callBack);
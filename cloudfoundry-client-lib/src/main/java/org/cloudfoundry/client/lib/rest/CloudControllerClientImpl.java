@@ -28,13 +28,18 @@ import java.net.URL;
 import java.net.URLDecoder;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
 import java.util.zip.ZipFile;
 
@@ -45,19 +50,29 @@ import org.apache.commons.logging.LogFactory;
 import org.cloudfoundry.client.lib.ApplicationLogListener;
 import org.cloudfoundry.client.lib.ClientHttpResponseCallback;
 import org.cloudfoundry.client.lib.CloudCredentials;
+import org.cloudfoundry.client.lib.CloudEventCallback;
+import org.cloudfoundry.client.lib.CloudEventFeed;
 import org.cloudfoundry.client.lib.CloudFoundryException;
 import org.cloudfoundry.client.lib.CloudOperationException;
+import org.cloudfoundry.client.lib.EventQuery;
+import org.cloudfoundry.client.lib.QueryOptions;
 import org.cloudfoundry.client.lib.RestLogCallback;
+import org.cloudfoundry.client.lib.SpaceSnapshot;
 import org.cloudfoundry.client.lib.StartingInfo;
 import org.cloudfoundry.client.lib.StreamingLogToken;
+import org.cloudfoundry.client.lib.UploadProgressCallback;
 import org.cloudfoundry.client.lib.UploadStatusCallback;
 import org.cloudfoundry.client.lib.archive.ApplicationArchive;
+import org.cloudfoundry.client.lib.archive.ArchiveFingerprinter;
+import org.cloudfoundry.client.lib.archive.ContentCache;
 import org.cloudfoundry.client.lib.archive.DirectoryApplicationArchive;
 import org.cloudfoundry.client.lib.archive.ZipApplicationArchive;
 import org.cloudfoundry.client.lib.domain.ApplicationLog;
 import org.cloudfoundry.client.lib.domain.ApplicationLogs;
 import org.cloudfoundry.client.lib.domain.ApplicationStats;
 import org.cloudfoundry.client.lib.domain.CloudApplication;
+import org.cloudfoundry.client.lib.domain.CloudApplicationLoader;
+import org.cloudfoundry.client.lib.domain.CloudChange;
 import org.cloudfoundry.client.lib.domain.CloudDomain;
 import org.cloudfoundry.client.lib.domain.CloudEvent;
 import org.cloudfoundry.client.lib.domain.CloudInfo;
@@ -81,14 +96,20 @@ import org.cloudfoundry.client.lib.domain.CrashesInfo;
 import org.cloudfoundry.client.lib.domain.InstanceState;
 import org.cloudfoundry.client.lib.domain.InstanceStats;
 import org.cloudfoundry.client.lib.domain.InstancesInfo;
+import org.cloudfoundry.client.lib.domain.OperationResult;
+import org.cloudfoundry.client.lib.domain.RouteDeletionResult;
+import org.cloudfoundry.client.lib.domain.RouteMappingResult;
 import org.cloudfoundry.client.lib.domain.SecurityGroupRule;
+import org.cloudfoundry.client.lib.domain.ServiceBindingResult;
 import org.cloudfoundry.client.lib.domain.Staging;
 import org.cloudfoundry.client.lib.domain.UploadApplicationPayload;
+import org.cloudfoundry.client.lib.io.CompressionPolicy;
 import org.cloudfoundry.client.lib.oauth2.OauthClient;
 import org.cloudfoundry.client.lib.util.CloudEntityResourceMapper;
 import org.cloudfoundry.client.lib.util.CloudUtil;
 import org.cloudfoundry.client.lib.util.JsonUtil;
 import org.cloudfoundry.client.lib.util.MessageSorter;
+import org.cloudfoundry.client.lib.util.ParallelTasks;
 import org.codehaus.jackson.map.ObjectMapper;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
@@ -106,6 +127,7 @@ import org.springframework.util.Assert;
 import org.springframework.util.FileCopyUtils;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import org.springframework.util.StringUtils;
 import org.springframework.web.client.RequestCallback;
 import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.ResponseErrorHandler;
@@ -131,13 +153,41 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 	private static final String LOGS_LOCATION = "logs";
 	private static final long JOB_POLLING_PERIOD = TimeUnit.SECONDS.toMillis(5);
 	private static final long JOB_TIMEOUT = TimeUnit.MINUTES.toMillis(3);
+	private static final int MAX_PARALLEL_ROUTE_REQUESTS = 8;
+	private static final int MAX_PARALLEL_DELETIONS = 8;
+	private static final int MAX_PARALLEL_SERVICE_BINDINGS = 8;
+	private static final int MAX_PARALLEL_PLAN_UPDATES = 8;
+	private static final int MAX_PARALLEL_APP_DETAILS = 8;
+	private static final int MAX_INLINED_RESOURCES = 50;
+
+	private static final long ROUTE_INDEX_TTL = TimeUnit.MINUTES.toMillis(1);
+
+	private static final int ROUTE_NOT_FOUND_ERROR_CODE = 210002;
+
+	private static final QueryOptions APPLICATION_DETAILS =
+			new QueryOptions(1, "service_bindings.service_instance", "stack");
+
+	private static final QueryOptions APPLICATION_SUMMARY = new QueryOptions(1, "stack");
+
+	private static final QueryOptions APPLICATION_BASIC_INFO =
+			new QueryOptions(0, QueryOptions.MAX_RESULTS_PER_PAGE, "stack", "space");
 
 	private OauthClient oauthClient;
 
 	private CloudSpace sessionSpace;
 
+	private volatile RouteIndex routeIndex;
+
+	private final Object routeIndexLock = new Object();
+
+	private final SharedClientState sharedState;
+
+	private final Map<String, CloudSpace> spaceCache;
+
 	private CloudEntityResourceMapper resourceMapper = new CloudEntityResourceMapper();
 
+	private final CloudApplicationLoader applicationLoader = new ApplicationDetailsLoader();
+
 	private RestTemplate restTemplate;
 
 	private URL cloudControllerUrl;
@@ -154,12 +204,16 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 	 */
 	protected CloudControllerClientImpl() {
 		logger = LogFactory.getLog(getClass().getName());
+		this.sharedState = new SharedClientState();
+		this.spaceCache = sharedState.getSpaceCache();
 	}
 
 	public CloudControllerClientImpl(URL cloudControllerUrl, RestTemplate restTemplate,
 	                                 OauthClient oauthClient, LoggregatorClient loggregatorClient,
 	                                 CloudCredentials cloudCredentials, CloudSpace sessionSpace) {
 		logger = LogFactory.getLog(getClass().getName());
+		this.sharedState = new SharedClientState();
+		this.spaceCache = sharedState.getSpaceCache();
 
 		initialize(cloudControllerUrl, restTemplate, oauthClient, loggregatorClient, cloudCredentials);
 
@@ -170,13 +224,28 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 	                                 OauthClient oauthClient, LoggregatorClient loggregatorClient,
 	                                 CloudCredentials cloudCredentials, String orgName, String spaceName) {
 		logger = LogFactory.getLog(getClass().getName());
-		CloudControllerClientImpl tempClient =
-				new CloudControllerClientImpl(cloudControllerUrl, restTemplate,
-						oauthClient, loggregatorClient, cloudCredentials, null);
+		this.sharedState = new SharedClientState();
+		this.spaceCache = sharedState.getSpaceCache();
 
 		initialize(cloudControllerUrl, restTemplate, oauthClient, loggregatorClient, cloudCredentials);
 
-		this.sessionSpace = validateSpaceAndOrg(spaceName, orgName, tempClient);
+		this.sessionSpace = resolveSpace(orgName, spaceName);
+	}
+
+	/**
+	 * Create a view of the given client that works in another space. The view shares the parent's rest
+	 * template, OAuth session, caches and settings; only the space-scoped state is its own.
+	 */
+	private CloudControllerClientImpl(CloudControllerClientImpl parent, CloudSpace sessionSpace) {
+		logger = LogFactory.getLog(getClass().getName());
+		this.cloudControllerUrl = parent.cloudControllerUrl;
+		this.restTemplate = parent.restTemplate;
+		this.oauthClient = parent.oauthClient;
+		this.loggregatorClient = parent.loggregatorClient;
+		this.cloudCredentials = parent.cloudCredentials;
+		this.sharedState = parent.sharedState;
+		this.spaceCache = parent.spaceCache;
+		this.sessionSpace = sessionSpace;
 	}
 
 	private void initialize(URL cloudControllerUrl, RestTemplate restTemplate, OauthClient oauthClient,
@@ -199,19 +268,56 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 		this.loggregatorClient = loggregatorClient;
 	}
 
-	private CloudSpace validateSpaceAndOrg(String spaceName, String orgName, CloudControllerClientImpl client) {
-		List<CloudSpace> spaces = client.getSpaces();
+	/**
+	 * Find the space with the given name in the given organization, or in any organization if the
+	 * organization name is null, in which case the space name must be unique. Spaces are looked up in the space cache, which is refreshed from one
+	 * listing of all spaces when the space is not found.
+	 */
+	private CloudSpace resolveSpace(String orgName, String spaceName) {
+		Assert.notNull(spaceName, "Space name must not be null");
+		CloudSpace space = findCachedSpace(orgName, spaceName);
+		if (space == null) {
+			for (CloudSpace candidate : getSpaces()) {
+				spaceCache.put(getSpaceCacheKey(candidate.getOrganization(), candidate.getName()), candidate);
+			}
+			space = findCachedSpace(orgName, spaceName);
+		}
+		if (space == null) {
+			throw new IllegalArgumentException("No matching organization and space found for org: " + orgName + " space: " + spaceName);
+		}
+		return space;
+	}
 
-		for (CloudSpace space : spaces) {
+	private CloudSpace findCachedSpace(String orgName, String spaceName) {
+		if (orgName != null) {
+			return spaceCache.get(orgName + "/" + spaceName);
+		}
+		CloudSpace match = null;
+		for (CloudSpace space : spaceCache.values()) {
 			if (space.getName().equals(spaceName)) {
-				CloudOrganization org = space.getOrganization();
-				if (orgName == null || org.getName().equals(orgName)) {
-					return space;
+				if (match != null) {
+					throw new IllegalArgumentException("Space " + spaceName +
+							" exists in more than one organization, an organization name is required");
 				}
+				match = space;
 			}
 		}
+		return match;
+	}
 
-		throw new IllegalArgumentException("No matching organization and space found for org: " + orgName + " space: " + spaceName);
+	private static String getSpaceCacheKey(CloudOrganization org, String spaceName) {
+		return (org != null ? org.getName() : null) + "/" + spaceName;
+	}
+
+	@Override
+	public CloudControllerClient forSpace(CloudSpace space) {
+		Assert.notNull(space, "Space must not be null");
+		return new CloudControllerClientImpl(this, space);
+	}
+
+	@Override
+	public CloudControllerClient withSpace(String orgName, String spaceName) {
+		return new CloudControllerClientImpl(this, resolveSpace(orgName, spaceName));
 	}
 
 	@Override
@@ -219,6 +325,24 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 		this.restTemplate.setErrorHandler(errorHandler);
 	}
 
+	@Override
+	public void setArchiveFingerprinter(ArchiveFingerprinter archiveFingerprinter) {
+		Assert.notNull(archiveFingerprinter, "ArchiveFingerprinter must not be null");
+		sharedState.setArchiveFingerprinter(archiveFingerprinter);
+	}
+
+	@Override
+	public void setUploadCompressionThreads(int threads) {
+		Assert.isTrue(threads > 0, "Threads must be positive");
+		sharedState.setUploadCompressionThreads(threads);
+	}
+
+	@Override
+	public void setUploadCompressionPolicy(CompressionPolicy compressionPolicy) {
+		Assert.notNull(compressionPolicy, "CompressionPolicy must not be null");
+		sharedState.setUploadCompressionPolicy(compressionPolicy);
+	}
+
 	@Override
 	public URL getCloudControllerUrl() {
 		return this.cloudControllerUrl;
@@ -369,6 +493,58 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 		}
 	}
 
+	/**
+	 * Maps or unmaps one URI of an application.
+	 */
+	private class RouteMappingTask implements Callable<Void> {
+
+		private final UUID appGuid;
+
+		private final String uri;
+
+		private final RouteMappingResult.Operation operation;
+
+		private final Map<String, UUID> domains;
+
+		public RouteMappingTask(UUID appGuid, String uri, RouteMappingResult.Operation operation,
+				Map<String, UUID> domains) {
+			this.appGuid = appGuid;
+			this.uri = uri;
+			this.operation = operation;
+			this.domains = domains;
+		}
+
+		public Void call() {
+			Map<String, String> uriInfo = new HashMap<String, String>(2);
+			extractUriInfo(domains, uri, uriInfo);
+			UUID domainGuid = domains.get(uriInfo.get("domainName"));
+			if (operation == RouteMappingResult.Operation.MAP) {
+				bindRoute(uriInfo.get("host"), domainGuid, appGuid);
+			} else {
+				unbindRoute(uriInfo.get("host"), domainGuid, appGuid);
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Loads the details of applications returned by {@link #getLazyApplications()} on first access.
+	 */
+	private class ApplicationDetailsLoader implements CloudApplicationLoader {
+
+		public List<String> loadUris(CloudApplication application) {
+			return findApplicationUris(application.getMeta().getGuid());
+		}
+
+		public int loadRunningInstances(CloudApplication application) {
+			return getRunningInstances(application.getMeta().getGuid(), application.getState());
+		}
+
+		public List<String> loadServices(CloudApplication application) {
+			return findApplicationServices(application.getMeta().getGuid());
+		}
+	}
+
 	private class CloudFoundryClientHttpRequestFactory implements ClientHttpRequestFactory {
 
 		private ClientHttpRequestFactory delegate;
@@ -608,6 +784,15 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 		UUID spaceGuid = getSpaceGuid(spaceName, orgGuid);
 		if (spaceGuid != null) {
 			doDeleteSpace(spaceGuid);
+			evictCachedSpace(spaceGuid);
+		}
+	}
+
+	private void evictCachedSpace(UUID spaceGuid) {
+		for (Iterator<CloudSpace> iterator = spaceCache.values().iterator(); iterator.hasNext(); ) {
+			if (iterator.next().getMeta().getGuid().equals(spaceGuid)) {
+				iterator.remove();
+			}
 		}
 	}
 
@@ -836,17 +1021,57 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 	}
 
 	private CloudServicePlan findPlanForService(CloudService service) {
-		List<CloudServiceOffering> offerings = getServiceOfferings(service.getLabel());
-		for (CloudServiceOffering offering : offerings) {
-			if (service.getVersion() == null || service.getVersion().equals(offering.getVersion())) {
-				for (CloudServicePlan plan : offering.getCloudServicePlans()) {
-					if (service.getPlan() != null && service.getPlan().equals(plan.getName())) {
-						return plan;
-					}
+		ServiceCatalog cachedCatalog = sharedState.getServiceCatalog();
+		ServiceCatalog catalog = getServiceCatalog();
+		CloudServicePlan plan = catalog.findPlan(service.getLabel(), service.getVersion(), service.getPlan());
+		if (plan == null && catalog == cachedCatalog && !catalog.isLoadedForMissingPlan()) {
+			// the plan may have been added since the cached catalog was loaded
+			plan = reloadServiceCatalog(catalog).findPlan(service.getLabel(), service.getVersion(), service.getPlan());
+		}
+		if (plan == null) {
+			throw new IllegalArgumentException("Service plan " + service.getPlan() + " not found");
+		}
+		return plan;
+	}
+
+	private ServiceCatalog getServiceCatalog() {
+		ServiceCatalog catalog = sharedState.getServiceCatalog();
+		if (catalog == null || catalog.isExpired(System.currentTimeMillis(), sharedState.getServiceCatalogTtl())) {
+			synchronized (sharedState.getServiceCatalogLock()) {
+				catalog = sharedState.getServiceCatalog();
+				if (catalog == null || catalog.isExpired(System.currentTimeMillis(), sharedState.getServiceCatalogTtl())) {
+					catalog = loadServiceCatalog(false);
+					sharedState.setServiceCatalog(catalog);
 				}
 			}
 		}
-		throw new IllegalArgumentException("Service plan " + service.getPlan() + " not found");
+		return catalog;
+	}
+
+	private ServiceCatalog reloadServiceCatalog(ServiceCatalog missingPlanCatalog) {
+		synchronized (sharedState.getServiceCatalogLock()) {
+			ServiceCatalog catalog = sharedState.getServiceCatalog();
+			if (catalog == null || catalog == missingPlanCatalog) {
+				catalog = loadServiceCatalog(true);
+				sharedState.setServiceCatalog(catalog);
+			}
+			return catalog;
+		}
+	}
+
+	private ServiceCatalog loadServiceCatalog(boolean loadedForMissingPlan) {
+		long loadTime = System.currentTimeMillis();
+		List<Map<String, Object>> resourceList =
+				getAllResources("/v2/services?inline-relations-depth=1&results-per-page=100", null);
+		List<CloudServiceOffering> offerings = new ArrayList<CloudServiceOffering>();
+		for (Map<String, Object> resource : resourceList) {
+			offerings.add(resourceMapper.mapResource(resource, CloudServiceOffering.class));
+		}
+		return new ServiceCatalog(offerings, loadTime, loadedForMissingPlan);
+	}
+
+	private void invalidateServiceCatalog() {
+		sharedState.setServiceCatalog(null);
 	}
 
 	@Override
@@ -935,16 +1160,122 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 
 	@Override
 	public void deleteAllServices() {
-		List<CloudService> cloudServices = getServices();
-		for (CloudService cloudService : cloudServices) {
-			doDeleteService(cloudService);
+		Map<String, Object> urlVars = new HashMap<String, Object>();
+		String urlPath = "/v2";
+		if (sessionSpace != null) {
+			urlVars.put("space", sessionSpace.getMeta().getGuid());
+			urlPath = urlPath + "/spaces/{space}";
+		}
+		urlPath = urlPath + "/service_instances?inline-relations-depth=0&return_user_provided_service_instances=true" +
+				"&results-per-page=100";
+		List<String> names = new ArrayList<String>();
+		List<Callable<Void>> deletions = new ArrayList<Callable<Void>>();
+		for (final Map<String, Object> resource : getAllResources(urlPath, urlVars)) {
+			final UUID serviceGuid = resourceMapper.getGuidOfResource(resource);
+			names.add(resourceMapper.getNameOfResource(resource));
+			deletions.add(new Callable<Void>() {
+				public Void call() {
+					// bindings are not inlined at depth 0, so they are listed from the service_bindings_url
+					for (Map<String, Object> binding : getServiceBindingResources(resource)) {
+						getRestTemplate().delete(getUrl("/v2/service_bindings/{guid}"),
+								resourceMapper.getGuidOfResource(binding));
+					}
+					ResponseEntity<Map<String, Object>> response =
+						getRestTemplate().exchange(getUrl("/v2/service_instances/{guid}?async=true"),
+							HttpMethod.DELETE, HttpEntity.EMPTY,
+							new ParameterizedTypeReference<Map<String, Object>>() {}, serviceGuid);
+					waitForAsyncJobCompletion(response.getBody());
+					return null;
+				}
+			});
+		}
+		invokeAllDeletions("services", names, deletions);
+	}
+
+	/**
+	 * Run the given tasks on at most {@code maxThreads} threads. Every task is attempted; a failing task does
+	 * not stop the others.
+	 *
+	 * @return the runtime exception thrown by each task, or null for the tasks that succeeded, in task order
+	 */
+	private static List<RuntimeException> invokeAllCatching(List<? extends Callable<Void>> tasks, int maxThreads) {
+		List<Callable<RuntimeException>> guardedTasks = new ArrayList<Callable<RuntimeException>>();
+		for (final Callable<Void> task : tasks) {
+			guardedTasks.add(new Callable<RuntimeException>() {
+				public RuntimeException call() throws Exception {
+					try {
+						task.call();
+						return null;
+					} catch (RuntimeException e) {
+						return e;
+					}
+				}
+			});
+		}
+		return ParallelTasks.invokeAll(guardedTasks, maxThreads);
+	}
+
+	/**
+	 * Run the given deletions on a bounded number of threads. All deletions are attempted; if any fail, a
+	 * single exception listing them is thrown, with the individual failures attached as suppressed exceptions.
+	 */
+	private void invokeAllDeletions(String resourceType, List<String> names, List<Callable<Void>> deletions) {
+		invokeAll("delete", resourceType, names, deletions, MAX_PARALLEL_DELETIONS);
+	}
+
+	/**
+	 * Run the given operations on at most {@code maxThreads} threads, reporting failures as for
+	 * {@link #invokeAllDeletions(String, List, List)}.
+	 */
+	private void invokeAll(String action, String resourceType, List<String> names, List<Callable<Void>> operations,
+			int maxThreads) {
+		List<RuntimeException> errors = invokeAllCatching(operations, maxThreads);
+		List<String> failed = new ArrayList<String>();
+		List<RuntimeException> failures = new ArrayList<RuntimeException>();
+		for (int i = 0; i < errors.size(); i++) {
+			if (errors.get(i) != null) {
+				failed.add(names.get(i));
+				failures.add(errors.get(i));
+			}
+		}
+		if (!failures.isEmpty()) {
+			CloudOperationException exception = new CloudOperationException("Failed to " + action + " " + failures.size() +
+					" of " + names.size() + " " + resourceType + ": " + StringUtils.collectionToCommaDelimitedString(failed));
+			for (RuntimeException failure : failures) {
+				exception.addSuppressed(failure);
+			}
+			throw exception;
 		}
 	}
 
 	@Override
 	public List<CloudServiceOffering> getServiceOfferings() {
-		String urlPath = "/v2/services?inline-relations-depth=1";
+		return ServiceCatalog.copyOf(getServiceCatalog().getOfferings());
+	}
+
+	@Override
+	public List<CloudServiceOffering> getServiceOfferingsByLabel(String label) {
+		Assert.notNull(label, "Service label must not be null");
+		return ServiceCatalog.copyOf(getServiceCatalog().getOfferingsByLabel(label));
+	}
+
+	@Override
+	public List<CloudServiceOffering> getServiceOfferingsByProvider(String provider) {
+		Assert.notNull(provider, "Service provider must not be null");
+		return ServiceCatalog.copyOf(getServiceCatalog().getOfferingsByProvider(provider));
+	}
+
+	@Override
+	public void setServiceCatalogTtl(long ttl) {
+		Assert.isTrue(ttl >= 0, "Service catalog TTL must not be negative");
+		sharedState.setServiceCatalogTtl(ttl);
+	}
+
+	@Override
+	public List<CloudServiceOffering> getServiceOfferings(QueryOptions options) {
+		String urlPath = "/v2/services" + getQueryString(options);
 		List<Map<String, Object>> resourceList = getAllResources(urlPath, null);
+		fillInEmbeddedResources(resourceList, options);
 		List<CloudServiceOffering> serviceOfferings = new ArrayList<CloudServiceOffering>();
 		for (Map<String, Object> resource : resourceList) {
 			CloudServiceOffering serviceOffering = resourceMapper.mapResource(resource, CloudServiceOffering.class);
@@ -993,6 +1324,7 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 		serviceRequest.put("auth_username", serviceBroker.getUsername());
 		serviceRequest.put("auth_password", serviceBroker.getPassword());
 		getRestTemplate().postForObject(getUrl("/v2/service_brokers"), serviceRequest, String.class);
+		invalidateServiceCatalog();
 	}
 
 	@Override
@@ -1012,6 +1344,7 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 		serviceRequest.put("auth_username", serviceBroker.getUsername());
 		serviceRequest.put("auth_password", serviceBroker.getPassword());
 		getRestTemplate().put(getUrl("/v2/service_brokers/{guid}"), serviceRequest, existingBroker.getMeta().getGuid());
+		invalidateServiceCatalog();
 	}
 
 	@Override
@@ -1020,73 +1353,375 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 		Assert.notNull(existingBroker, "Cannot update broker if it does not first exist");
 
 		getRestTemplate().delete(getUrl("/v2/service_brokers/{guid}"), existingBroker.getMeta().getGuid());
+		invalidateServiceCatalog();
 	}
 
 	@Override
 	public void updateServicePlanVisibilityForBroker(String name, boolean visibility) {
 		CloudServiceBroker broker = getServiceBroker(name);
+		Assert.notNull(broker, "Service broker " + name + " not found");
 
-		String urlPath = "/v2/services?q={q}";
+		// one listing of the broker's services brings their plans along
+		String urlPath = "/v2/services?inline-relations-depth=1&results-per-page=100&q={q}";
 		Map<String, Object> urlVars = new HashMap<>();
 		urlVars.put("q", "service_broker_guid:" + broker.getMeta().getGuid());
 		List<Map<String, Object>> serviceResourceList = getAllResources(urlPath, urlVars);
 
+		final HashMap<String, Object> planUpdateRequest = new HashMap<>();
+		planUpdateRequest.put("public", visibility);
+		List<String> planNames = new ArrayList<String>();
+		List<Callable<Void>> updates = new ArrayList<Callable<Void>>();
 		for (Map<String, Object> serviceResource : serviceResourceList) {
-			Map<String, Object> metadata = (Map<String, Object>) serviceResource.get("metadata");
-			String serviceGuid = (String) metadata.get("guid");
-
-			urlPath = "/v2/service_plans?q={q}";
-			urlVars = new HashMap<>();
-			urlVars.put("q", "service_guid:" + serviceGuid);
-			List<Map<String, Object>> planResourceList = getAllResources(urlPath, urlVars);
-			for (Map<String, Object> planResource : planResourceList) {
-				metadata = (Map<String, Object>) planResource.get("metadata");
-				String planGuid = (String) metadata.get("guid");
-
-				HashMap<String, Object> planUpdateRequest = new HashMap<>();
-				planUpdateRequest.put("public", visibility);
-				getRestTemplate().put(getUrl("/v2/service_plans/{guid}"), planUpdateRequest, planGuid);
+			CloudServiceOffering offering = resourceMapper.mapResource(serviceResource, CloudServiceOffering.class);
+			for (CloudServicePlan plan : offering.getCloudServicePlans()) {
+				final UUID planGuid = plan.getMeta().getGuid();
+				planNames.add(offering.getLabel() + "/" + plan.getName());
+				updates.add(new Callable<Void>() {
+					public Void call() {
+						getRestTemplate().put(getUrl("/v2/service_plans/{guid}"), planUpdateRequest, planGuid);
+						return null;
+					}
+				});
 			}
 		}
+		try {
+			invokeAll("update", "service plans", planNames, updates, MAX_PARALLEL_PLAN_UPDATES);
+		} finally {
+			invalidateServiceCatalog();
+		}
 	}
 
 	@Override
 	public List<CloudApplication> getApplications() {
+		return getApplications(APPLICATION_DETAILS);
+	}
+
+	@Override
+	public List<CloudApplication> getApplications(QueryOptions options) {
 		Map<String, Object> urlVars = new HashMap<String, Object>();
+		List<Map<String, Object>> resourceList = getAllResources(getApplicationsUrlPath(urlVars, options), urlVars);
+		fillInEmbeddedResources(resourceList, options);
+		List<CloudApplication> apps = new ArrayList<CloudApplication>();
+		for (Map<String, Object> resource : resourceList) {
+			apps.add(mapCloudApplication(resource));
+		}
+		return apps;
+	}
+
+	public List<CloudApplication> getApplicationsWithBasicInfo() {
+		Map<String, Object> urlVars = new HashMap<String, Object>();
+		List<Map<String, Object>> resourceList =
+				getAllResources(getApplicationsUrlPath(urlVars, APPLICATION_BASIC_INFO), urlVars);
+		fillInEmbeddedResources(resourceList, APPLICATION_BASIC_INFO);
+		List<CloudApplication> apps = new ArrayList<CloudApplication>();
+		for (Map<String, Object> resource : resourceList) {
+			CloudApplication app = getCloudApplication(resource);
+			if (app != null) {
+				apps.add(app);
+			}
+		}
+		return apps;
+	}
+
+	private String getApplicationsUrlPath(Map<String, Object> urlVars, QueryOptions options) {
 		String urlPath = "/v2";
 		if (sessionSpace != null) {
 			urlVars.put("space", sessionSpace.getMeta().getGuid());
 			urlPath = urlPath + "/spaces/{space}";
 		}
-		urlPath = urlPath + "/apps?inline-relations-depth=1";
-		List<Map<String, Object>> resourceList = getAllResources(urlPath, urlVars);
+		return urlPath + "/apps" + getQueryString(options);
+	}
+
+	private String getQueryString(QueryOptions options) {
+		String query = "?inline-relations-depth=" + options.getInlineRelationsDepth();
+		if (options.getResultsPerPage() != null) {
+			query = query + "&results-per-page=" + options.getResultsPerPage();
+		}
+		return query;
+	}
+
+	@Override
+	public List<CloudApplication> getLazyApplications() {
+		Map<String, Object> urlVars = new HashMap<String, Object>();
+		List<Map<String, Object>> resourceList =
+				getAllResources(getApplicationsUrlPath(urlVars, APPLICATION_BASIC_INFO), urlVars);
+		fillInEmbeddedResources(resourceList, APPLICATION_BASIC_INFO);
 		List<CloudApplication> apps = new ArrayList<CloudApplication>();
 		for (Map<String, Object> resource : resourceList) {
-			processApplicationResource(resource, true);
-			apps.add(mapCloudApplication(resource));
+			CloudApplication app = resourceMapper.mapResource(resource, CloudApplication.class);
+			app.setLoader(applicationLoader);
+			apps.add(app);
 		}
 		return apps;
 	}
 
-	public List<CloudApplication> getApplicationsWithBasicInfo() {
+	@Override
+	public void prefetchApplicationDetails(List<CloudApplication> apps) {
+		Map<UUID, CloudApplication> pendingApps = new LinkedHashMap<UUID, CloudApplication>();
+		for (CloudApplication app : apps) {
+			if (app.isLoadPending()) {
+				pendingApps.put(app.getMeta().getGuid(), app);
+			}
+		}
+		if (pendingApps.isEmpty()) {
+			return;
+		}
+
+		Map<UUID, List<String>> urisByApp = new HashMap<UUID, List<String>>();
 		Map<String, Object> urlVars = new HashMap<String, Object>();
 		String urlPath = "/v2";
 		if (sessionSpace != null) {
 			urlVars.put("space", sessionSpace.getMeta().getGuid());
 			urlPath = urlPath + "/spaces/{space}";
 		}
-		urlPath = urlPath + "/apps?inline-relations-depth=1";
-		List<Map<String, Object>> resourceList = getAllResources(urlPath, urlVars);
+		for (Map<String, Object> route : getAllResources(urlPath + "/routes?inline-relations-depth=1", urlVars)) {
+			String uri = getUri(route);
+			List<Map<String, Object>> routeApps = CloudEntityResourceMapper.getEmbeddedResourceList(
+					CloudEntityResourceMapper.getEntity(route), "apps");
+			if (routeApps != null) {
+				for (Map<String, Object> routeApp : routeApps) {
+					addToListValue(urisByApp, resourceMapper.getGuidOfResource(routeApp), uri);
+				}
+			}
+		}
+
+		// without a space to scope the service instances to, the bindings are looked up per application
+		Map<UUID, List<String>> servicesByApp = null;
+		if (sessionSpace != null) {
+			servicesByApp = new HashMap<UUID, List<String>>();
+			for (Map<String, Object> serviceInstance : getAllResources("/v2/spaces/{space}/service_instances" +
+					"?inline-relations-depth=1&return_user_provided_service_instances=true", urlVars)) {
+				String serviceName = resourceMapper.getNameOfResource(serviceInstance);
+				for (Map<String, Object> binding : getServiceBindingResources(serviceInstance)) {
+					UUID appGuid = CloudEntityResourceMapper.getEntityAttribute(binding, "app_guid", UUID.class);
+					if (appGuid != null && pendingApps.containsKey(appGuid)) {
+						addToListValue(servicesByApp, appGuid, serviceName);
+					}
+				}
+			}
+		}
+
+		List<Callable<Void>> detailRequests = new ArrayList<Callable<Void>>();
+		for (Map.Entry<UUID, CloudApplication> entry : pendingApps.entrySet()) {
+			final UUID appGuid = entry.getKey();
+			final CloudApplication app = entry.getValue();
+			List<String> uris = urisByApp.get(appGuid);
+			app.setUris(uris != null ? uris : new ArrayList<String>());
+			final boolean findServices = (servicesByApp == null);
+			if (!findServices) {
+				List<String> services = servicesByApp.get(appGuid);
+				app.setServices(services != null ? services : new ArrayList<String>());
+			}
+			if (findServices || app.getState() == CloudApplication.AppState.STARTED) {
+				detailRequests.add(new Callable<Void>() {
+					public Void call() {
+						if (findServices) {
+							app.setServices(findApplicationServices(appGuid));
+						}
+						app.setRunningInstances(getRunningInstances(appGuid, app.getState()));
+						return null;
+					}
+				});
+			} else {
+				app.setRunningInstances(0);
+			}
+		}
+		ParallelTasks.invokeAll(detailRequests, MAX_PARALLEL_APP_DETAILS);
+	}
+
+	@Override
+	public SpaceSnapshot getSpaceSnapshot() {
+		assertSpaceProvided("load a space snapshot");
+		SpaceSnapshotImpl snapshot = new SpaceSnapshotImpl(this, sessionSpace);
+		loadSpaceSnapshot(snapshot);
+		return snapshot;
+	}
+
+	@SuppressWarnings("unchecked")
+	void loadSpaceSnapshot(SpaceSnapshotImpl snapshot) {
+		final Map<String, Object> urlVars = new HashMap<String, Object>();
+		urlVars.put("space", sessionSpace.getMeta().getGuid());
+		String domainsPath = "/v2/domains?results-per-page=100";
+		if (sessionSpace.getOrganization() != null) {
+			urlVars.put("org", sessionSpace.getOrganization().getMeta().getGuid());
+			domainsPath = "/v2/organizations/{org}/domains?results-per-page=100";
+		}
+		List<Callable<List<Map<String, Object>>>> listings = new ArrayList<Callable<List<Map<String, Object>>>>();
+		for (final String urlPath : Arrays.asList(
+				"/v2/spaces/{space}/apps?inline-relations-depth=0&results-per-page=100",
+				"/v2/spaces/{space}/routes?inline-relations-depth=1&results-per-page=100",
+				domainsPath,
+				"/v2/spaces/{space}/service_instances?inline-relations-depth=2" +
+						"&return_user_provided_service_instances=true&results-per-page=100",
+				"/v2/stacks")) {
+			listings.add(new Callable<List<Map<String, Object>>>() {
+				public List<Map<String, Object>> call() {
+					return getAllResources(urlPath, urlVars);
+				}
+			});
+		}
+		List<List<Map<String, Object>>> resources = ParallelTasks.invokeAll(listings, listings.size());
+		List<Map<String, Object>> appResources = resources.get(0);
+		List<Map<String, Object>> routeResources = resources.get(1);
+		List<Map<String, Object>> domainResources = resources.get(2);
+		List<Map<String, Object>> serviceResources = resources.get(3);
+		List<Map<String, Object>> stackResources = resources.get(4);
+
+		List<CloudStack> stacks = new ArrayList<CloudStack>();
+		Map<String, Map<String, Object>> stackResourcesByGuid = new HashMap<String, Map<String, Object>>();
+		for (Map<String, Object> resource : stackResources) {
+			stacks.add(resourceMapper.mapResource(resource, CloudStack.class));
+			stackResourcesByGuid.put(resourceMapper.getGuidOfResource(resource).toString(), resource);
+		}
+
+		List<CloudRoute> routes = new ArrayList<CloudRoute>();
+		Map<UUID, List<String>> urisByApp = new HashMap<UUID, List<String>>();
+		for (Map<String, Object> resource : routeResources) {
+			List<Map<String, Object>> routeApps = CloudEntityResourceMapper.getEntityAttribute(resource, "apps", List.class);
+			if (routeApps == null) {
+				// the controller leaves out relations it would have to truncate, so list them from the route
+				String appsUrl = CloudEntityResourceMapper.getEntityAttribute(resource, "apps_url", String.class);
+				routeApps = (appsUrl != null ? getAllResources(appsUrl, null) : new ArrayList<Map<String, Object>>());
+				CloudEntityResourceMapper.getEntity(resource).put("apps", routeApps);
+			}
+			CloudRoute route = resourceMapper.mapResource(resource, CloudRoute.class);
+			routes.add(route);
+			for (Map<String, Object> routeApp : routeApps) {
+				addToListValue(urisByApp, resourceMapper.getGuidOfResource(routeApp), route.getName());
+			}
+		}
+
+		List<CloudDomain> domains = new ArrayList<CloudDomain>();
+		for (Map<String, Object> resource : domainResources) {
+			domains.add(resourceMapper.mapResource(resource, CloudDomain.class));
+		}
+
+		List<CloudService> services = new ArrayList<CloudService>();
+		Map<UUID, List<String>> servicesByApp = new HashMap<UUID, List<String>>();
+		for (Map<String, Object> resource : serviceResources) {
+			CloudService service = resourceMapper.mapResource(resource, CloudService.class);
+			services.add(service);
+			for (Map<String, Object> binding : getServiceBindingResources(resource)) {
+				UUID appGuid = CloudEntityResourceMapper.getEntityAttribute(binding, "app_guid", UUID.class);
+				if (appGuid != null) {
+					addToListValue(servicesByApp, appGuid, service.getName());
+				}
+			}
+		}
+
 		List<CloudApplication> apps = new ArrayList<CloudApplication>();
-		for (Map<String, Object> resource : resourceList) {
-			CloudApplication app = getCloudApplication(resource);
+		for (Map<String, Object> resource : appResources) {
+			Map<String, Object> entity = CloudEntityResourceMapper.getEntity(resource);
+			Object stackGuid = entity.get("stack_guid");
+			if (stackGuid != null && stackResourcesByGuid.containsKey(stackGuid.toString())) {
+				entity.put("stack", stackResourcesByGuid.get(stackGuid.toString()));
+			}
+			CloudApplication app = resourceMapper.mapResource(resource, CloudApplication.class);
+			app.setSpace(sessionSpace);
+			List<String> uris = urisByApp.get(app.getMeta().getGuid());
+			app.setUris(uris != null ? uris : new ArrayList<String>());
+			List<String> appServices = servicesByApp.get(app.getMeta().getGuid());
+			app.setServices(appServices != null ? appServices : new ArrayList<String>());
+			apps.add(app);
+		}
+
+		snapshot.update(apps, routes, domains, services, stacks);
+	}
+
+	/**
+	 * Load applications of the given space that changed since a {@link SpaceSnapshot} was loaded. The applications
+	 * are requested in parallel at inline-relations-depth 0, with their stack resolved from the snapshot's stacks;
+	 * only their routes are requested in addition.
+	 *
+	 * @return the applications by GUID, with no entry for applications that no longer exist or are not in the space
+	 */
+	Map<UUID, CloudApplication> findSnapshotApplications(Collection<UUID> appGuids, final CloudSpace space,
+			List<CloudStack> stacks) {
+		final Map<UUID, String> stackNames = new HashMap<UUID, String>();
+		for (CloudStack stack : stacks) {
+			stackNames.put(stack.getMeta().getGuid(), stack.getName());
+		}
+		List<Callable<CloudApplication>> lookups = new ArrayList<Callable<CloudApplication>>();
+		for (final UUID appGuid : appGuids) {
+			lookups.add(new Callable<CloudApplication>() {
+				public CloudApplication call() {
+					return findSnapshotApplication(appGuid, space, stackNames);
+				}
+			});
+		}
+		Map<UUID, CloudApplication> apps = new LinkedHashMap<UUID, CloudApplication>();
+		for (CloudApplication app : ParallelTasks.invokeAll(lookups, MAX_PARALLEL_APP_DETAILS)) {
 			if (app != null) {
-				apps.add(app);
+				apps.put(app.getMeta().getGuid(), app);
 			}
 		}
 		return apps;
 	}
 
+	private CloudApplication findSnapshotApplication(UUID appGuid, CloudSpace space, Map<UUID, String> stackNames) {
+		Map<String, Object> urlVars = new HashMap<String, Object>();
+		urlVars.put("app", appGuid);
+		Map<String, Object> resource;
+		try {
+			String resp = getRestTemplate().getForObject(getUrl("/v2/apps/{app}?inline-relations-depth=0"),
+					String.class, urlVars);
+			resource = JsonUtil.convertJsonToMap(resp);
+		} catch (CloudFoundryException e) {
+			if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
+				return null;
+			}
+			throw e;
+		}
+		UUID spaceGuid = CloudEntityResourceMapper.getEntityAttribute(resource, "space_guid", UUID.class);
+		if (spaceGuid != null && !spaceGuid.equals(space.getMeta().getGuid())) {
+			return null;
+		}
+		CloudApplication app = resourceMapper.mapResource(resource, CloudApplication.class);
+		UUID stackGuid = CloudEntityResourceMapper.getEntityAttribute(resource, "stack_guid", UUID.class);
+		Staging staging = app.getStaging();
+		if (stackGuid != null && staging != null) {
+			app.setStaging(new Staging(staging.getCommand(), staging.getBuildpackUrl(), stackNames.get(stackGuid),
+					staging.getHealthCheckTimeout(), staging.getDetectedBuildpack()));
+		}
+		app.setSpace(space);
+		app.setUris(findApplicationUris(appGuid));
+		return app;
+	}
+
+	/**
+	 * Keep the caches of this client consistent with changes reported by a {@link CloudEventFeed}: changed routes
+	 * drop the route index, changed service offerings drop the service catalog, and renamed or deleted spaces are
+	 * evicted from the space cache.
+	 */
+	void applyChanges(List<CloudChange> changes) {
+		for (CloudChange change : changes) {
+			switch (change.getResourceType()) {
+				case ROUTE:
+					invalidateRouteIndex();
+					break;
+				case SERVICE_OFFERING:
+					invalidateServiceCatalog();
+					break;
+				case SPACE:
+					if (change.getResourceGuid() != null && change.getAction() != CloudChange.Action.CREATED) {
+						evictCachedSpace(change.getResourceGuid());
+					}
+					break;
+				default:
+					// not cached by the client
+			}
+		}
+	}
+
+	private static <K, V> void addToListValue(Map<K, List<V>> map, K key, V value) {
+		List<V> values = map.get(key);
+		if (values == null) {
+			values = new ArrayList<V>();
+			map.put(key, values);
+		}
+		values.add(value);
+	}
+
 	public Map<CloudApplication, ApplicationStats> getApplicationStats(List<CloudApplication> apps) {
 		Map<CloudApplication, ApplicationStats> appsWithStats = new HashMap<CloudApplication, ApplicationStats>();
 		for (CloudApplication existingApp : apps) {
@@ -1109,6 +1744,15 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 		return mapCloudApplication(resource);
 	}
 
+	@Override
+	public CloudApplication getApplication(String appName, QueryOptions options) {
+		Map<String, Object> resource = findApplicationResource(appName, options);
+		if (resource == null) {
+			throw new CloudFoundryException(HttpStatus.NOT_FOUND, "Not Found", "Application not found");
+		}
+		return mapCloudApplication(resource);
+	}
+
 	@Override
 	public CloudApplication getApplication(UUID appGuid) {
 		Map<String, Object> resource = findApplicationResource(appGuid, true);
@@ -1287,22 +1931,46 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 	}
 
 	private void addUris(List<String> uris, UUID appGuid) {
+		throwFirstError(mapUris(appGuid, uris, Collections.<String>emptyList()));
+	}
+
+	/**
+	 * Map and unmap the given URIs, resolving the domains once and binding the routes on a bounded number
+	 * of concurrent requests. Failures are reported per URI and do not stop the other mappings.
+	 */
+	private List<RouteMappingResult> mapUris(UUID appGuid, List<String> addedUris, List<String> removedUris) {
+		if (addedUris.isEmpty() && removedUris.isEmpty()) {
+			return new ArrayList<RouteMappingResult>();
+		}
 		Map<String, UUID> domains = getDomainGuids();
-		for (String uri : uris) {
-			Map<String, String> uriInfo = new HashMap<String, String>(2);
-			extractUriInfo(domains, uri, uriInfo);
-			UUID domainGuid = domains.get(uriInfo.get("domainName"));
-			bindRoute(uriInfo.get("host"), domainGuid, appGuid);
+		// load the route index before the tasks need it
+		getRouteIndex();
+		List<String> uris = new ArrayList<String>();
+		List<RouteMappingResult.Operation> operations = new ArrayList<RouteMappingResult.Operation>();
+		List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+		for (String uri : removedUris) {
+			uris.add(uri);
+			operations.add(RouteMappingResult.Operation.UNMAP);
+			tasks.add(new RouteMappingTask(appGuid, uri, RouteMappingResult.Operation.UNMAP, domains));
+		}
+		for (String uri : addedUris) {
+			uris.add(uri);
+			operations.add(RouteMappingResult.Operation.MAP);
+			tasks.add(new RouteMappingTask(appGuid, uri, RouteMappingResult.Operation.MAP, domains));
+		}
+		List<RuntimeException> errors = invokeAllCatching(tasks, MAX_PARALLEL_ROUTE_REQUESTS);
+		List<RouteMappingResult> results = new ArrayList<RouteMappingResult>();
+		for (int i = 0; i < errors.size(); i++) {
+			results.add(new RouteMappingResult(uris.get(i), operations.get(i), errors.get(i)));
 		}
+		return results;
 	}
 
-	private void removeUris(List<String> uris, UUID appGuid) {
-		Map<String, UUID> domains = getDomainGuids();
-		for (String uri : uris) {
-			Map<String, String> uriInfo = new HashMap<String, String>(2);
-			extractUriInfo(domains, uri, uriInfo);
-			UUID domainGuid = domains.get(uriInfo.get("domainName"));
-			unbindRoute(uriInfo.get("host"), domainGuid, appGuid);
+	private static void throwFirstError(List<? extends OperationResult> results) {
+		for (OperationResult result : results) {
+			if (!result.isSuccessful()) {
+				throw result.getError();
+			}
 		}
 	}
 
@@ -1369,8 +2037,21 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 	private void bindRoute(String host, UUID domainGuid, UUID appGuid) {
 		UUID routeGuid = getRouteGuid(host, domainGuid);
 		if (routeGuid == null) {
-			routeGuid = doAddRoute(host, domainGuid);
+			doBindRoute(doAddRoute(host, domainGuid), appGuid);
+			return;
+		}
+		try {
+			doBindRoute(routeGuid, appGuid);
+		} catch (CloudFoundryException e) {
+			if (!isRouteNotFound(e)) {
+				throw e;
+			}
+			UUID currentGuid = findCurrentRouteGuid(host, domainGuid, routeGuid);
+			doBindRoute(currentGuid != null ? currentGuid : doAddRoute(host, domainGuid), appGuid);
 		}
+	}
+
+	private void doBindRoute(UUID routeGuid, UUID appGuid) {
 		String bindPath = "/v2/apps/{app}/routes/{route}";
 		Map<String, Object> bindVars = new HashMap<String, Object>();
 		bindVars.put("app", appGuid);
@@ -1381,16 +2062,92 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 
 	private void unbindRoute(String host, UUID domainGuid, UUID appGuid) {
 		UUID routeGuid = getRouteGuid(host, domainGuid);
-		if (routeGuid != null) {
-			String bindPath = "/v2/apps/{app}/routes/{route}";
-			Map<String, Object> bindVars = new HashMap<String, Object>();
-			bindVars.put("app", appGuid);
-			bindVars.put("route", routeGuid);
-			getRestTemplate().delete(getUrl(bindPath), bindVars);
+		if (routeGuid == null) {
+			routeGuid = findRouteGuid(host, domainGuid);
+		}
+		if (routeGuid == null) {
+			return;
+		}
+		try {
+			doUnbindRoute(routeGuid, appGuid);
+		} catch (CloudFoundryException e) {
+			if (!isRouteNotFound(e)) {
+				throw e;
+			}
+			UUID currentGuid = findCurrentRouteGuid(host, domainGuid, routeGuid);
+			if (currentGuid != null) {
+				doUnbindRoute(currentGuid, appGuid);
+			}
 		}
 	}
 
+	private void doUnbindRoute(UUID routeGuid, UUID appGuid) {
+		String bindPath = "/v2/apps/{app}/routes/{route}";
+		Map<String, Object> bindVars = new HashMap<String, Object>();
+		bindVars.put("app", appGuid);
+		bindVars.put("route", routeGuid);
+		getRestTemplate().delete(getUrl(bindPath), bindVars);
+	}
+
+	private static boolean isRouteNotFound(CloudFoundryException e) {
+		return e.getStatusCode() == HttpStatus.NOT_FOUND && e.getCloudFoundryErrorCode() == ROUTE_NOT_FOUND_ERROR_CODE;
+	}
+
+	/**
+	 * Drop a route guid that the cloud controller no longer knows from the index, and look the route up again
+	 * in case it was recreated by another client.
+	 *
+	 * @return the guid of the route now registered for the host and domain, or null if there is none
+	 */
+	private UUID findCurrentRouteGuid(String host, UUID domainGuid, UUID staleRouteGuid) {
+		getRouteIndex().remove(staleRouteGuid);
+		UUID routeGuid = findRouteGuid(host, domainGuid);
+		return (staleRouteGuid.equals(routeGuid) ? null : routeGuid);
+	}
+
+	/**
+	 * Look up a route of the session space in the route index. Routes created by other clients after the
+	 * index was loaded are not found until it expires; use {@link #findRouteGuid(String, UUID)} where that
+	 * matters. Routes deleted by other clients may still be returned, so callers handle a route-not-found
+	 * error by looking the route up again.
+	 */
 	private UUID getRouteGuid(String host, UUID domainGuid) {
+		return getRouteIndex().get(host, domainGuid);
+	}
+
+	private RouteIndex getRouteIndex() {
+		RouteIndex index = routeIndex;
+		if (index == null || index.isExpired(System.currentTimeMillis(), ROUTE_INDEX_TTL)) {
+			synchronized (routeIndexLock) {
+				index = routeIndex;
+				if (index == null || index.isExpired(System.currentTimeMillis(), ROUTE_INDEX_TTL)) {
+					index = loadRouteIndex();
+					routeIndex = index;
+				}
+			}
+		}
+		return index;
+	}
+
+	private void invalidateRouteIndex() {
+		routeIndex = null;
+	}
+
+	private RouteIndex loadRouteIndex() {
+		assertSpaceProvided("get routes");
+		Map<String, Object> urlVars = new HashMap<String, Object>();
+		urlVars.put("space", sessionSpace.getMeta().getGuid());
+		String urlPath = "/v2/spaces/{space}/routes?inline-relations-depth=0&results-per-page=100";
+		RouteIndex index = new RouteIndex(System.currentTimeMillis());
+		for (Map<String, Object> route : getAllResources(urlPath, urlVars)) {
+			index.put(CloudEntityResourceMapper.getEntityAttribute(route, "host", String.class),
+					CloudEntityResourceMapper.getEntityAttribute(route, "domain_guid", UUID.class),
+					CloudEntityResourceMapper.getMeta(route).getGuid());
+		}
+		return index;
+	}
+
+	private UUID findRouteGuid(String host, UUID domainGuid) {
 		Map<String, Object> urlVars = new HashMap<String, Object>();
 		String urlPath = "/v2";
 		urlPath = urlPath + "/routes?inline-relations-depth=0&q=host:{host}";
@@ -1405,6 +2162,9 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 				routeGuid = CloudEntityResourceMapper.getMeta(route).getGuid();
 			}
 		}
+		if (routeGuid != null) {
+			getRouteIndex().put(host, domainGuid, routeGuid);
+		}
 		return routeGuid;
 	}
 
@@ -1415,9 +2175,21 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 		routeRequest.put("host", host);
 		routeRequest.put("domain_guid", domainGuid);
 		routeRequest.put("space_guid", sessionSpace.getMeta().getGuid());
-		String routeResp = getRestTemplate().postForObject(getUrl("/v2/routes"), routeRequest, String.class);
+		String routeResp;
+		try {
+			routeResp = getRestTemplate().postForObject(getUrl("/v2/routes"), routeRequest, String.class);
+		} catch (CloudFoundryException e) {
+			// the route may have been created by another client since the index was loaded
+			UUID routeGuid = (e.getStatusCode() == HttpStatus.BAD_REQUEST ? findRouteGuid(host, domainGuid) : null);
+			if (routeGuid == null) {
+				throw e;
+			}
+			return routeGuid;
+		}
 		Map<String, Object> routeEntity = JsonUtil.convertJsonToMap(routeResp);
-		return CloudEntityResourceMapper.getMeta(routeEntity).getGuid();
+		UUID routeGuid = CloudEntityResourceMapper.getMeta(routeEntity).getGuid();
+		getRouteIndex().put(host, domainGuid, routeGuid);
+		return routeGuid;
 	}
 
 	@Override
@@ -1459,16 +2231,27 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 		if (callback == null) {
 			callback = UploadStatusCallback.NONE;
 		}
-		CloudResources knownRemoteResources = getKnownRemoteResources(archive);
-		callback.onCheckResources();
-		callback.onMatchedFileNames(knownRemoteResources.getFilenames());
-		UploadApplicationPayload payload = new UploadApplicationPayload(archive, knownRemoteResources);
-		callback.onProcessMatchedResources(payload.getTotalUncompressedSize());
-		HttpEntity<?> entity = generatePartialResourceRequest(payload, knownRemoteResources);
-		ResponseEntity<Map<String, Object>> responseEntity =
-			getRestTemplate().exchange(getUrl("/v2/apps/{guid}/bits?async=true"),
-				HttpMethod.PUT, entity,
-				new ParameterizedTypeReference<Map<String, Object>>() {}, appId);
+		ResponseEntity<Map<String, Object>> responseEntity;
+		// small files read while fingerprinting are uploaded from memory rather than read again
+		ContentCache contentCache = sharedState.getArchiveFingerprinter().fingerprint(archive);
+		try {
+			CloudResources knownRemoteResources = getKnownRemoteResources(archive);
+			callback.onCheckResources();
+			callback.onMatchedFileNames(knownRemoteResources.getFilenames());
+			UploadApplicationPayload payload = new UploadApplicationPayload(archive, knownRemoteResources, contentCache);
+			payload.setCompressionThreads(sharedState.getUploadCompressionThreads());
+			payload.setCompressionPolicy(sharedState.getUploadCompressionPolicy());
+			if (callback instanceof UploadProgressCallback) {
+				payload.setProgressCallback((UploadProgressCallback) callback);
+			}
+			callback.onProcessMatchedResources(payload.getTotalUncompressedSize());
+			HttpEntity<?> entity = generatePartialResourceRequest(payload, knownRemoteResources);
+			responseEntity = getRestTemplate().exchange(getUrl("/v2/apps/{guid}/bits?async=true"),
+					HttpMethod.PUT, entity,
+					new ParameterizedTypeReference<Map<String, Object>>() {}, appId);
+		} finally {
+			contentCache.clear();
+		}
 		processAsyncJob(responseEntity.getBody(), callback);
 	}
 
@@ -1593,10 +2376,25 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 
 	@Override
 	public void deleteAllApplications() {
-		List<CloudApplication> cloudApps = getApplications();
-		for (CloudApplication cloudApp : cloudApps) {
-			deleteApplication(cloudApp.getName());
+		Map<String, Object> urlVars = new HashMap<String, Object>();
+		String urlPath = getApplicationsUrlPath(urlVars, new QueryOptions(0, QueryOptions.MAX_RESULTS_PER_PAGE));
+		List<String> names = new ArrayList<String>();
+		List<Callable<Void>> deletions = new ArrayList<Callable<Void>>();
+		for (Map<String, Object> resource : getAllResources(urlPath, urlVars)) {
+			final UUID appGuid = resourceMapper.getGuidOfResource(resource);
+			names.add(resourceMapper.getNameOfResource(resource));
+			deletions.add(new Callable<Void>() {
+				public Void call() {
+					ResponseEntity<Map<String, Object>> response =
+						getRestTemplate().exchange(getUrl("/v2/apps/{guid}?recursive=true&async=true"),
+							HttpMethod.DELETE, HttpEntity.EMPTY,
+							new ParameterizedTypeReference<Map<String, Object>>() {}, appGuid);
+					waitForAsyncJobCompletion(response.getBody());
+					return null;
+				}
+			});
 		}
+		invokeAllDeletions("applications", names, deletions);
 	}
 
 	@Override
@@ -1625,37 +2423,113 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 
 	@Override
 	public void updateApplicationServices(String appName, List<String> services) {
-		CloudApplication app = getApplication(appName);
-		List<UUID> addServices = new ArrayList<UUID>();
-		List<UUID> deleteServices = new ArrayList<UUID>();
-		// services to add
-		for (String serviceName : services) {
-			if (!app.getServices().contains(serviceName)) {
-				CloudService cloudService = getService(serviceName);
-				if (cloudService != null) {
-					addServices.add(cloudService.getMeta().getGuid());
-				}
-				else {
+		throwFirstError(rebindServices(appName, services, true));
+	}
+
+	@Override
+	public List<ServiceBindingResult> rebindApplicationServices(String appName, List<String> services) {
+		return rebindServices(appName, services, false);
+	}
+
+	/**
+	 * Bind and unbind services so that the application is bound to exactly the given services.
+	 *
+	 * @param failOnMissingService whether to throw before changing any binding if a service to bind does not
+	 * exist, rather than reporting it as a failed binding
+	 */
+	private List<ServiceBindingResult> rebindServices(String appName, List<String> services,
+			boolean failOnMissingService) {
+		final UUID appGuid = getRequiredAppId(appName);
+		Map<String, UUID> serviceGuidsByName = getServiceInstanceGuids();
+		Map<UUID, UUID> bindingGuidsByService = getServiceBindingGuids(appGuid);
+		if (failOnMissingService) {
+			for (String serviceName : services) {
+				if (!serviceGuidsByName.containsKey(serviceName)) {
 					throw new CloudFoundryException(HttpStatus.NOT_FOUND, "Service with name " + serviceName +
 							" not found in current space " + sessionSpace.getName());
 				}
 			}
 		}
-		// services to delete
-		for (String serviceName : app.getServices()) {
-			if (!services.contains(serviceName)) {
-				CloudService cloudService = getService(serviceName);
-				if (cloudService != null) {
-					deleteServices.add(cloudService.getMeta().getGuid());
+
+		List<String> serviceNames = new ArrayList<String>();
+		List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+		List<ServiceBindingResult.Operation> operations = new ArrayList<ServiceBindingResult.Operation>();
+		// services to add
+		for (String serviceName : new LinkedHashSet<String>(services)) {
+			final UUID serviceGuid = serviceGuidsByName.get(serviceName);
+			if (serviceGuid != null && bindingGuidsByService.containsKey(serviceGuid)) {
+				continue;
+			}
+			final String missingService = (serviceGuid == null ? serviceName : null);
+			serviceNames.add(serviceName);
+			operations.add(ServiceBindingResult.Operation.BIND);
+			tasks.add(new Callable<Void>() {
+				public Void call() {
+					if (missingService != null) {
+						throw new CloudFoundryException(HttpStatus.NOT_FOUND, "Service with name " + missingService +
+								" not found in current space " + sessionSpace.getName());
+					}
+					doBindService(appGuid, serviceGuid);
+					return null;
 				}
+			});
+		}
+		// services to delete
+		for (Map.Entry<String, UUID> service : serviceGuidsByName.entrySet()) {
+			final UUID bindingGuid = bindingGuidsByService.get(service.getValue());
+			if (bindingGuid != null && !services.contains(service.getKey())) {
+				serviceNames.add(service.getKey());
+				operations.add(ServiceBindingResult.Operation.UNBIND);
+				tasks.add(new Callable<Void>() {
+					public Void call() {
+						getRestTemplate().delete(getUrl("/v2/service_bindings/{guid}"), bindingGuid);
+						return null;
+					}
+				});
 			}
 		}
-		for (UUID serviceId : addServices) {
-			doBindService(app.getMeta().getGuid(), serviceId);
+
+		List<RuntimeException> errors = invokeAllCatching(tasks, MAX_PARALLEL_SERVICE_BINDINGS);
+		List<ServiceBindingResult> results = new ArrayList<ServiceBindingResult>();
+		for (int i = 0; i < errors.size(); i++) {
+			results.add(new ServiceBindingResult(serviceNames.get(i), operations.get(i), errors.get(i)));
+		}
+		return results;
+	}
+
+	/**
+	 * Map the names of the service instances in the session space to their guids, from a single listing.
+	 */
+	private Map<String, UUID> getServiceInstanceGuids() {
+		Map<String, Object> urlVars = new HashMap<String, Object>();
+		String urlPath = "/v2";
+		if (sessionSpace != null) {
+			urlVars.put("space", sessionSpace.getMeta().getGuid());
+			urlPath = urlPath + "/spaces/{space}";
+		}
+		urlPath = urlPath + "/service_instances?inline-relations-depth=0&return_user_provided_service_instances=true" +
+				"&results-per-page=100";
+		Map<String, UUID> serviceGuids = new LinkedHashMap<String, UUID>();
+		for (Map<String, Object> resource : getAllResources(urlPath, urlVars)) {
+			serviceGuids.put(resourceMapper.getNameOfResource(resource), resourceMapper.getGuidOfResource(resource));
 		}
-		for (UUID serviceId : deleteServices) {
-			doUnbindService(app.getMeta().getGuid(), serviceId);
+		return serviceGuids;
+	}
+
+	/**
+	 * Map the guids of the service instances bound to the given application to the guids of the bindings.
+	 */
+	private Map<UUID, UUID> getServiceBindingGuids(UUID appGuid) {
+		Map<String, Object> urlVars = new HashMap<String, Object>();
+		urlVars.put("guid", appGuid);
+		Map<UUID, UUID> bindingGuids = new HashMap<UUID, UUID>();
+		for (Map<String, Object> resource :
+				getAllResources("/v2/apps/{guid}/service_bindings?results-per-page=100", urlVars)) {
+			UUID serviceGuid =
+					CloudEntityResourceMapper.getEntityAttribute(resource, "service_instance_guid", UUID.class);
+			bindingGuids.put(serviceGuid, resourceMapper.getGuidOfResource(resource));
 		}
+		return bindingGuids;
 	}
 
 	public List<CloudQuota> getQuotas() {
@@ -1808,13 +2682,39 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 
 	@Override
 	public void updateApplicationUris(String appName, List<String> uris) {
-		CloudApplication app = getApplication(appName);
-		List<String> newUris = new ArrayList<String>(uris);
-		newUris.removeAll(app.getUris());
-		List<String> removeUris = app.getUris();
+		throwFirstError(remapApplicationUris(appName, uris));
+	}
+
+	@Override
+	public List<RouteMappingResult> remapApplicationUris(String appName, List<String> uris) {
+		UUID appGuid = getRequiredAppId(appName);
+		List<String> currentUris = findApplicationUris(appGuid);
+		List<String> newUris = new ArrayList<String>(new LinkedHashSet<String>(uris));
+		newUris.removeAll(currentUris);
+		List<String> removeUris = new ArrayList<String>(currentUris);
 		removeUris.removeAll(uris);
-		removeUris(removeUris, app.getMeta().getGuid());
-		addUris(newUris, app.getMeta().getGuid());
+		return mapUris(appGuid, newUris, removeUris);
+	}
+
+	@Override
+	public List<RouteMappingResult> remapApplicationUris(String appName, List<String> addedUris,
+			List<String> removedUris) {
+		UUID appGuid = getRequiredAppId(appName);
+		List<String> currentUris = findApplicationUris(appGuid);
+		List<String> newUris = new ArrayList<String>(new LinkedHashSet<String>(addedUris));
+		newUris.removeAll(currentUris);
+		List<String> removeUris = new ArrayList<String>(currentUris);
+		removeUris.retainAll(removedUris);
+		removeUris.removeAll(addedUris);
+		return mapUris(appGuid, newUris, removeUris);
+	}
+
+	private UUID getRequiredAppId(String appName) {
+		UUID appGuid = getAppId(appName);
+		if (appGuid == null) {
+			throw new CloudFoundryException(HttpStatus.NOT_FOUND, "Not Found", "Application not found");
+		}
+		return appGuid;
 	}
 
 	@Override
@@ -1841,30 +2741,122 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 
 	@Override
 	public List<CloudEvent> getEvents() {
-		String urlPath = "/v2/events";
-		return doGetEvents(urlPath, null);
+		return getEvents(new EventQuery());
 	}
 
 	@Override
 	public List<CloudEvent> getApplicationEvents(String appName) {
-		UUID appId = getAppId(appName);
-		Map<String, Object> urlVars = new HashMap<String, Object>();
-		urlVars.put("appId", appId);
-		String urlPath = "/v2/events?q=actee:{appId}";
-		return doGetEvents(urlPath, urlVars);
+		EventQuery query = new EventQuery();
+		query.setActee(getAppId(appName));
+		return getEvents(query);
 	}
 
-	private List<CloudEvent> doGetEvents(String urlPath, Map<String, Object> urlVars) {
-		List<Map<String, Object>> resourceList = getAllResources(urlPath, urlVars);
-		List<CloudEvent> events = new ArrayList<CloudEvent>();
-		for (Map<String, Object> resource : resourceList) {
-			if (resource != null) {
-				events.add(resourceMapper.mapResource(resource, CloudEvent.class));
+	@Override
+	public List<CloudEvent> getEvents(EventQuery query) {
+		final List<CloudEvent> events = new ArrayList<CloudEvent>();
+		getEvents(query, new CloudEventCallback() {
+			public boolean onEvent(CloudEvent event) {
+				events.add(event);
+				return false;
 			}
-		}
+		});
 		return events;
 	}
 
+	@Override
+	@SuppressWarnings("unchecked")
+	public void getEvents(EventQuery query, CloudEventCallback callback) {
+		Assert.notNull(query, "Event query must not be null");
+		Assert.notNull(callback, "Event callback must not be null");
+		Map<String, Object> urlVars = new HashMap<String, Object>();
+		String urlPath = getEventsUrlPath(query, urlVars);
+		int remaining = (query.getLimit() != null ? query.getLimit() : Integer.MAX_VALUE);
+		String resp = getRestTemplate().getForObject(getUrl(urlPath), String.class, urlVars);
+		while (true) {
+			Map<String, Object> respMap = JsonUtil.convertJsonToMap(resp);
+			List<Map<String, Object>> resources = (List<Map<String, Object>>) respMap.get("resources");
+			if (resources != null) {
+				for (Map<String, Object> resource : resources) {
+					if (resource == null) {
+						continue;
+					}
+					if (callback.onEvent(resourceMapper.mapResource(resource, CloudEvent.class)) || --remaining == 0) {
+						return;
+					}
+				}
+			}
+			String nextUrl = (String) respMap.get("next_url");
+			if (nextUrl == null || nextUrl.length() == 0) {
+				return;
+			}
+			resp = getRestTemplate().getForObject(getUrl(nextUrl), String.class);
+		}
+	}
+
+	private String getEventsUrlPath(EventQuery query, Map<String, Object> urlVars) {
+		int resultsPerPage = QueryOptions.MAX_RESULTS_PER_PAGE;
+		if (query.getLimit() != null) {
+			resultsPerPage = Math.min(query.getLimit(), resultsPerPage);
+		}
+		StringBuilder urlPath = new StringBuilder("/v2/events?order-direction=")
+				.append(query.isDescending() ? "desc" : "asc")
+				.append("&results-per-page=").append(resultsPerPage);
+		if (query.getSince() != null) {
+			urlVars.put("since", "timestamp>=" + CloudUtil.formatTimestamp(query.getSince()));
+			urlPath.append("&q={since}");
+		}
+		if (query.getUntil() != null) {
+			urlVars.put("until", "timestamp<" + CloudUtil.formatTimestamp(query.getUntil()));
+			urlPath.append("&q={until}");
+		}
+		if (query.getActee() != null) {
+			urlVars.put("actee", "actee:" + query.getActee());
+			urlPath.append("&q={actee}");
+		}
+		if (query.getTypes().size() == 1) {
+			urlVars.put("type", "type:" + query.getTypes().get(0));
+			urlPath.append("&q={type}");
+		} else if (query.getTypes().size() > 1) {
+			urlVars.put("type", "type IN " + StringUtils.collectionToCommaDelimitedString(query.getTypes()));
+			urlPath.append("&q={type}");
+		}
+		if (query.getSpace() != null) {
+			urlVars.put("space", "space_guid:" + query.getSpace());
+			urlPath.append("&q={space}");
+		}
+		return urlPath.toString();
+	}
+
+	@Override
+	public CloudEventFeed getEventFeed() {
+		return new CloudEventFeedImpl(this, getLatestEvent());
+	}
+
+	@Override
+	public CloudEventFeed getEventFeed(Date since) {
+		Assert.notNull(since, "Start of event feed must not be null");
+		return new CloudEventFeedImpl(this, since);
+	}
+
+	/**
+	 * Get the events of the session space recorded at or after the given time, oldest first.
+	 */
+	List<CloudEvent> getEventsSince(Date since) {
+		EventQuery query = new EventQuery();
+		query.setSince(since);
+		query.setSpace(sessionSpace != null ? sessionSpace.getMeta().getGuid() : null);
+		return getEvents(query);
+	}
+
+	private CloudEvent getLatestEvent() {
+		EventQuery query = new EventQuery();
+		query.setSpace(sessionSpace != null ? sessionSpace.getMeta().getGuid() : null);
+		query.setDescending(true);
+		query.setLimit(1);
+		List<CloudEvent> events = getEvents(query);
+		return (events.isEmpty() ? null : events.get(0));
+	}
+
 	@Override
 	public void bindService(String appName, String serviceName) {
 		CloudService cloudService = getService(serviceName);
@@ -2045,10 +3037,24 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 		assertSpaceProvided("delete route for domain");
 		UUID domainGuid = getDomainGuid(domainName, true);
 		UUID routeGuid = getRouteGuid(host, domainGuid);
+		if (routeGuid == null) {
+			routeGuid = findRouteGuid(host, domainGuid);
+		}
 		if (routeGuid == null) {
 			throw new IllegalArgumentException("Host '" + host + "' not found for domain '" + domainName + "'.");
 		}
-		doDeleteRoute(routeGuid);
+		try {
+			doDeleteRoute(routeGuid);
+		} catch (CloudFoundryException e) {
+			if (!isRouteNotFound(e)) {
+				throw e;
+			}
+			UUID currentGuid = findCurrentRouteGuid(host, domainGuid, routeGuid);
+			if (currentGuid == null) {
+				throw new IllegalArgumentException("Host '" + host + "' not found for domain '" + domainName + "'.");
+			}
+			doDeleteRoute(currentGuid);
+		}
 	}
 
 	protected String getFileUrlPath() {
@@ -2068,38 +3074,69 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 		String urlPath = "/v2/routes/{route}";
 		urlVars.put("route", routeGuid);
 		getRestTemplate().delete(getUrl(urlPath), urlVars);
+		RouteIndex index = routeIndex;
+		if (index != null) {
+			index.remove(routeGuid);
+		}
+	}
+
+	@Override
+	public List<CloudRoute> getOrphanedRoutes() {
+		assertSpaceProvided("get orphaned routes");
+		List<CloudRoute> orphanRoutes = new ArrayList<CloudRoute>();
+		for (CloudRoute cloudRoute : doGetSpaceRoutes()) {
+			if (isOrphanRoute(cloudRoute)) {
+				orphanRoutes.add(cloudRoute);
+			}
+		}
+		return orphanRoutes;
 	}
 
 	/**
-	 * Delete routes that do not have any application which is assigned to them.
+	 * Delete routes that do not have any application which is assigned to them, failing with the
+	 * first error if any route could not be deleted.
 	 *
-	 * @return deleted routes or an empty list if no routes have been found
+	 * @return the deleted routes
 	 */
 	@Override
 	public List<CloudRoute> deleteOrphanedRoutes() {
-		List<CloudRoute> orphanRoutes = new ArrayList<>();
-		for (CloudDomain cloudDomain : getDomainsForOrg()) {
-			orphanRoutes.addAll(fetchOrphanRoutes(cloudDomain.getName()));
+		RouteDeletionResult result = deleteOrphanedRoutesWithResult();
+		if (!result.isSuccessful()) {
+			throw result.getFailedRoutes().values().iterator().next();
 		}
-
-		List<CloudRoute> deletedCloudRoutes = new ArrayList<>();
-		for (CloudRoute orphanRoute : orphanRoutes) {
-			deleteRoute(orphanRoute.getHost(), orphanRoute.getDomain().getName());
-			deletedCloudRoutes.add(orphanRoute);
-		}
-
-		return deletedCloudRoutes;
+		return new ArrayList<CloudRoute>(result.getDeletedRoutes());
 	}
 
-	private List<CloudRoute> fetchOrphanRoutes(String domainName) {
-		List<CloudRoute> orphanRoutes = new ArrayList<>();
-		for (CloudRoute cloudRoute : getRoutes(domainName)) {
-			if (isOrphanRoute(cloudRoute)) {
-				orphanRoutes.add(cloudRoute);
+	/**
+	 * Delete routes that do not have any application which is assigned to them.
+	 * <p>
+	 * The routes of the space are listed once and the orphans are deleted by guid, using up to
+	 * a bounded number of concurrent requests. Every deletion is attempted, even if some fail.
+	 *
+	 * @return the deleted routes and the routes that could not be deleted
+	 */
+	@Override
+	public RouteDeletionResult deleteOrphanedRoutesWithResult() {
+		List<CloudRoute> orphanRoutes = getOrphanedRoutes();
+		List<Callable<Void>> deletions = new ArrayList<Callable<Void>>();
+		for (final CloudRoute orphanRoute : orphanRoutes) {
+			deletions.add(new Callable<Void>() {
+				public Void call() {
+					doDeleteRoute(orphanRoute.getMeta().getGuid());
+					return null;
+				}
+			});
+		}
+		List<RuntimeException> errors = invokeAllCatching(deletions, MAX_PARALLEL_ROUTE_REQUESTS);
+		RouteDeletionResult result = new RouteDeletionResult();
+		for (int i = 0; i < orphanRoutes.size(); i++) {
+			if (errors.get(i) == null) {
+				result.addDeletedRoute(orphanRoutes.get(i));
+			} else {
+				result.addFailedRoute(orphanRoutes.get(i), errors.get(i));
 			}
 		}
-
-		return orphanRoutes;
+		return result;
 	}
 
 	private boolean isOrphanRoute(CloudRoute cloudRoute) {
@@ -2149,28 +3186,29 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 	}
 
 	private List<CloudRoute> doGetRoutes(UUID domainGuid) {
-		Map<String, Object> urlVars = new HashMap<String, Object>();
-		String urlPath = "/v2";
-//		TODO: NOT implemented ATM:
-//		if (sessionSpace != null) {
-//			urlVars.put("space", sessionSpace.getMeta().getGuid());
-//			urlPath = urlPath + "/spaces/{space}";
-//		}
-		urlPath = urlPath + "/routes?inline-relations-depth=1";
-		List<Map<String, Object>> allRoutes = getAllResources(urlPath, urlVars);
 		List<CloudRoute> routes = new ArrayList<CloudRoute>();
-		for (Map<String, Object> route : allRoutes) {
-//			TODO: move space_guid to path once implemented (see above):
-			UUID space = CloudEntityResourceMapper.getEntityAttribute(route, "space_guid", UUID.class);
-			UUID domain = CloudEntityResourceMapper.getEntityAttribute(route, "domain_guid", UUID.class);
-			if (sessionSpace.getMeta().getGuid().equals(space) && domainGuid.equals(domain)) {
-				//routes.add(CloudEntityResourceMapper.getEntityAttribute(route, "host", String.class));
-				routes.add(resourceMapper.mapResource(route, CloudRoute.class));
+		for (CloudRoute route : doGetSpaceRoutes()) {
+			if (domainGuid.equals(route.getDomain().getMeta().getGuid())) {
+				routes.add(route);
 			}
 		}
 		return routes;
 	}
 
+	/**
+	 * List the routes of the session space, with their domain and applications embedded.
+	 */
+	private List<CloudRoute> doGetSpaceRoutes() {
+		Map<String, Object> urlVars = new HashMap<String, Object>();
+		urlVars.put("space", sessionSpace.getMeta().getGuid());
+		String urlPath = "/v2/spaces/{space}/routes?inline-relations-depth=1&results-per-page=100";
+		List<CloudRoute> routes = new ArrayList<CloudRoute>();
+		for (Map<String, Object> route : getAllResources(urlPath, urlVars)) {
+			routes.add(resourceMapper.mapResource(route, CloudRoute.class));
+		}
+		return routes;
+	}
+
 	private void doDeleteService(CloudService cloudService) {
 		List<UUID> appIds = getAppsBoundToService(cloudService);
 		if (appIds.size() > 0) {
@@ -2187,6 +3225,10 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 	}
 
 	private void waitForAsyncJobCompletion(Map<String, Object> jobResponse) {
+		if (jobResponse == null) {
+			// the cloud controller completed the request synchronously
+			return;
+		}
 		long timeout = System.currentTimeMillis() + JOB_TIMEOUT;
 		while (System.currentTimeMillis() < timeout) {
 			CloudJob job = resourceMapper.mapResource(jobResponse, CloudJob.class);
@@ -2241,20 +3283,6 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 		getRestTemplate().delete(getUrl("/v2/apps/{guid}?recursive=true"), appId);
 	}
 
-	private List<CloudServiceOffering> getServiceOfferings(String label) {
-		Assert.notNull(label, "Service label must not be null");
-		List<Map<String, Object>> resourceList = getAllResources("/v2/services?inline-relations-depth=1", null);
-		List<CloudServiceOffering> results = new ArrayList<CloudServiceOffering>();
-		for (Map<String, Object> resource : resourceList) {
-			CloudServiceOffering cloudServiceOffering =
-					resourceMapper.mapResource(resource, CloudServiceOffering.class);
-			if (cloudServiceOffering.getLabel() != null && label.equals(cloudServiceOffering.getLabel())) {
-				results.add(cloudServiceOffering);
-			}
-		}
-		return results;
-	}
-
 	@SuppressWarnings("unchecked")
 	private UUID getServiceBindingId(UUID appId, UUID serviceId ) {
 		Map<String, Object> urlVars = new HashMap<String, Object>();
@@ -2342,18 +3370,19 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 
 
 	private Map<String, Object> findApplicationResource(String appName, boolean fetchServiceInfo) {
+		return findApplicationResource(appName, fetchServiceInfo ? APPLICATION_DETAILS : APPLICATION_SUMMARY);
+	}
+
+	private Map<String, Object> findApplicationResource(String appName, QueryOptions options) {
 		Map<String, Object> urlVars = new HashMap<String, Object>();
-		String urlPath = "/v2";
-		if (sessionSpace != null) {
-			urlVars.put("space", sessionSpace.getMeta().getGuid());
-			urlPath = urlPath + "/spaces/{space}";
-		}
+		String urlPath = getApplicationsUrlPath(urlVars, options) + "&q={q}";
 		urlVars.put("q", "name:" + appName);
-		urlPath = urlPath + "/apps?inline-relations-depth=1&q={q}";
 
 		List<Map<String, Object>> allResources = getAllResources(urlPath, urlVars);
 		if(!allResources.isEmpty()) {
-			return processApplicationResource(allResources.get(0), fetchServiceInfo);
+			List<Map<String, Object>> resource = allResources.subList(0, 1);
+			fillInEmbeddedResources(resource, options);
+			return resource.get(0);
 		}
 		return null;
 	}
@@ -2373,17 +3402,56 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 		List<Map<String, Object>> resourceList = getAllResources(urlPath, urlVars);
 		List<String> uris =  new ArrayList<String>();
 		for (Map<String, Object> resource : resourceList) {
-			Map<String, Object> domainResource = CloudEntityResourceMapper.getEmbeddedResource(resource, "domain");
-			String host = CloudEntityResourceMapper.getEntityAttribute(resource, "host", String.class);
-			String domain = CloudEntityResourceMapper.getEntityAttribute(domainResource, "name", String.class);
-			if (host != null && host.length() > 0)
-				uris.add(host + "." + domain);
-			else
-				uris.add(domain);
+			uris.add(getUri(resource));
 		}
 		return uris;
 	}
 
+	private String getUri(Map<String, Object> routeResource) {
+		Map<String, Object> domainResource = CloudEntityResourceMapper.getEmbeddedResource(routeResource, "domain");
+		String host = CloudEntityResourceMapper.getEntityAttribute(routeResource, "host", String.class);
+		String domain = CloudEntityResourceMapper.getEntityAttribute(domainResource, "name", String.class);
+		if (host != null && host.length() > 0)
+			return host + "." + domain;
+		else
+			return domain;
+	}
+
+	/**
+	 * Returns the bindings of a service instance listed at inline-relations-depth 1, following the bindings URL
+	 * when the controller did not inline them all.
+	 */
+	@SuppressWarnings("unchecked")
+	private List<Map<String, Object>> getServiceBindingResources(Map<String, Object> serviceInstance) {
+		List<Map<String, Object>> bindings =
+				CloudEntityResourceMapper.getEntityAttribute(serviceInstance, "service_bindings", List.class);
+		if (bindings != null && bindings.size() < MAX_INLINED_RESOURCES) {
+			return bindings;
+		}
+		String bindingsUrl =
+				CloudEntityResourceMapper.getEntityAttribute(serviceInstance, "service_bindings_url", String.class);
+		if (bindingsUrl == null) {
+			return (bindings != null ? bindings : new ArrayList<Map<String, Object>>());
+		}
+		return getAllResources(bindingsUrl, null);
+	}
+
+	private List<String> findApplicationServices(UUID appGuid) {
+		String urlPath = "/v2/apps/{app}/service_bindings?inline-relations-depth=1";
+		Map<String, Object> urlVars = new HashMap<String, Object>();
+		urlVars.put("app", appGuid);
+		List<Map<String, Object>> resourceList = getAllResources(urlPath, urlVars);
+		List<String> services = new ArrayList<String>();
+		for (Map<String, Object> resource : resourceList) {
+			Map<String, Object> serviceInstance =
+					CloudEntityResourceMapper.getEmbeddedResource(resource, "service_instance");
+			if (serviceInstance != null) {
+				services.add(resourceMapper.getNameOfResource(serviceInstance));
+			}
+		}
+		return services;
+	}
+
 	@SuppressWarnings("restriction")
 	private Map<String, Object> getUserInfo(String user) {
 //		String userJson = getRestTemplate().getForObject(getUrl("/v2/users/{guid}"), String.class, user);
@@ -2405,8 +3473,27 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 		return(JsonUtil.convertJsonToMap(userJson));
 	}
 
-	@SuppressWarnings("unchecked")
 	private void fillInEmbeddedResource(Map<String, Object> resource, String... resourcePath) {
+		fillInEmbeddedResource(resource, null, resourcePath);
+	}
+
+	/**
+	 * Fill in the relations of the given resources that are not embedded at the requested depth, fetching
+	 * each distinct relation URL only once.
+	 */
+	private void fillInEmbeddedResources(List<Map<String, Object>> resources, QueryOptions options) {
+		Map<String, Object> responseCache = new HashMap<String, Object>();
+		for (String relation : options.getRelations()) {
+			String[] resourcePath = relation.split("\\.");
+			for (Map<String, Object> resource : resources) {
+				fillInEmbeddedResource(resource, responseCache, resourcePath);
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void fillInEmbeddedResource(Map<String, Object> resource, Map<String, Object> responseCache,
+	                                    String... resourcePath) {
 		if (resourcePath.length == 0) {
 			return;
 		}
@@ -2416,12 +3503,22 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 		String[] tailPath = Arrays.copyOfRange(resourcePath, 1, resourcePath.length);
 
 		if (!entity.containsKey(headKey)) {
-			String pathUrl = entity.get(headKey + "_url").toString();
-			Object response = getRestTemplate().getForObject(getUrl(pathUrl), Object.class);
-			if (response instanceof Map) {
-				Map<String, Object> responseMap = (Map<String, Object>) response;
-				if (responseMap.containsKey("resources")) {
-					response = responseMap.get("resources");
+			Object pathUrl = entity.get(headKey + "_url");
+			if (pathUrl == null && responseCache != null) {
+				// not a relation of this resource
+				return;
+			}
+			Object response = (responseCache != null ? responseCache.get(pathUrl.toString()) : null);
+			if (response == null) {
+				response = getRestTemplate().getForObject(getUrl(pathUrl.toString()), Object.class);
+				if (response instanceof Map) {
+					Map<String, Object> responseMap = (Map<String, Object>) response;
+					if (responseMap.containsKey("resources")) {
+						response = responseMap.get("resources");
+					}
+				}
+				if (responseCache != null && response != null) {
+					responseCache.put(pathUrl.toString(), response);
 				}
 			}
 			entity.put(headKey, response);
@@ -2431,11 +3528,11 @@ public class CloudControllerClientImpl implements CloudControllerClient {
 		if (embeddedResource instanceof Map) {
 			Map<String, Object> embeddedResourceMap = (Map<String, Object>) embeddedResource;
 			//entity = (Map<String, Object>) embeddedResourceMap.get("entity");
-			fillInEmbeddedResource(embeddedResourceMap, tailPath);
+			fillInEmbeddedResource(embeddedResourceMap, responseCache, tailPath);
 		} else if (embeddedResource instanceof List) {
 			List<Object> embeddedResourcesList = (List<Object>) embeddedResource;
 			for (Object r: embeddedResourcesList) {
-				fillInEmbeddedResource((Map<String, Object>)r, tailPath);
+				fillInEmbeddedResource((Map<String, Object>)r, responseCache, tailPath);
 			}
 		} else {
 			// no way to proceed
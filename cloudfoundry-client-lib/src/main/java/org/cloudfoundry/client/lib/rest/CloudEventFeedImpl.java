@@ -0,0 +1,135 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.rest;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.cloudfoundry.client.lib.CloudChangeListener;
+import org.cloudfoundry.client.lib.CloudEventFeed;
+import org.cloudfoundry.client.lib.domain.CloudChange;
+import org.cloudfoundry.client.lib.domain.CloudEvent;
+
+/**
+ * {@link CloudEventFeed} polling the events of the session space of a {@link CloudControllerClientImpl}.
+ * <p>
+ * Events are requested with a {@code timestamp>=} filter on the cursor rather than {@code timestamp>}, since
+ * timestamps have a resolution of one second and further events may be recorded within the second of the
+ * last event seen. Events at the cursor that were already reported are skipped.
+ */
+public class CloudEventFeedImpl implements CloudEventFeed {
+
+	private final Log logger = LogFactory.getLog(getClass().getName());
+
+	private final CloudControllerClientImpl client;
+
+	private final Set<CloudChangeListener> listeners = new CopyOnWriteArraySet<CloudChangeListener>();
+
+	private Date cursor;
+
+	private Set<UUID> eventsAtCursor = new HashSet<UUID>();
+
+	private Timer timer;
+
+	CloudEventFeedImpl(CloudControllerClientImpl client, CloudEvent lastEvent) {
+		this.client = client;
+		if (lastEvent != null) {
+			this.cursor = lastEvent.getTimestamp();
+			this.eventsAtCursor.add(lastEvent.getMeta().getGuid());
+		}
+	}
+
+	CloudEventFeedImpl(CloudControllerClientImpl client, Date since) {
+		this.client = client;
+		this.cursor = since;
+	}
+
+	public synchronized List<CloudChange> poll() {
+		List<CloudChange> changes = new ArrayList<CloudChange>();
+		for (CloudEvent event : client.getEventsSince(cursor)) {
+			Date timestamp = event.getTimestamp();
+			UUID eventGuid = event.getMeta().getGuid();
+			if (timestamp == null) {
+				continue;
+			}
+			if (cursor != null && timestamp.equals(cursor) && eventsAtCursor.contains(eventGuid)) {
+				continue;
+			}
+			if (cursor == null || timestamp.after(cursor)) {
+				cursor = timestamp;
+				eventsAtCursor = new HashSet<UUID>();
+			}
+			if (timestamp.equals(cursor)) {
+				eventsAtCursor.add(eventGuid);
+			}
+			changes.add(CloudChange.fromEvent(event));
+		}
+		if (!changes.isEmpty()) {
+			client.applyChanges(changes);
+			for (CloudChangeListener listener : listeners) {
+				listener.onChanges(changes);
+			}
+		}
+		return changes;
+	}
+
+	public synchronized void start(long periodMillis) {
+		stop();
+		timer = new Timer("cloud-event-feed", true);
+		timer.schedule(new PollTask(), periodMillis, periodMillis);
+	}
+
+	public synchronized void stop() {
+		if (timer != null) {
+			timer.cancel();
+			timer = null;
+		}
+	}
+
+	public synchronized Date getCursor() {
+		return cursor;
+	}
+
+	public void addChangeListener(CloudChangeListener listener) {
+		listeners.add(listener);
+	}
+
+	public void removeChangeListener(CloudChangeListener listener) {
+		listeners.remove(listener);
+	}
+
+	private class PollTask extends TimerTask {
+		@Override
+		public void run() {
+			try {
+				poll();
+			} catch (RuntimeException e) {
+				logger.warn("Polling cloud controller events failed, retrying at next period", e);
+			}
+		}
+	}
+
+}
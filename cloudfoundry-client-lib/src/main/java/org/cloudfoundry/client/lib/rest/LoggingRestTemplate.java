@@ -18,8 +18,10 @@ package org.cloudfoundry.client.lib.rest;
 
 import org.cloudfoundry.client.lib.RestLogCallback;
 import org.cloudfoundry.client.lib.RestLogEntry;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequest;
 import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RequestCallback;
@@ -27,11 +29,16 @@ import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
-import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.TimeUnit;
 
 /**
  * RestTemplate that provides for logging of any REST calls made
@@ -40,25 +47,40 @@ import java.util.Set;
  */
 public class LoggingRestTemplate extends RestTemplate {
 
-	private Set<RestLogCallback> listeners = new LinkedHashSet<RestLogCallback>();
+	/**
+	 * Listeners are notified from the threads of parallel REST calls and may be registered while calls are running.
+	 */
+	private final Set<RestLogCallback> listeners = new CopyOnWriteArraySet<RestLogCallback>();
 
 	@Override
-	protected <T> T doExecute(URI url, HttpMethod method, RequestCallback requestCallback, final ResponseExtractor<T> responseExtractor) throws RestClientException {
+	protected <T> T doExecute(URI url, HttpMethod method, final RequestCallback requestCallback, final ResponseExtractor<T> responseExtractor) throws RestClientException {
 		final String[] status = new String[1];
 		final HttpStatus[] httpStatus = new HttpStatus[1];
 		final Object[] headers = new Object[1];
 		final String[] message = new String[1];
+		final CountingClientHttpRequest[] countingRequest = new CountingClientHttpRequest[1];
+		final CountingClientHttpResponse[] countingResponse = new CountingClientHttpResponse[1];
 		T results = null;
 		RestClientException exception = null;
+		long start = System.nanoTime();
 		try {
-			results = super.doExecute(url, method, requestCallback,
+			results = super.doExecute(url, method,
+					new RequestCallback() {
+						public void doWithRequest(ClientHttpRequest clientHttpRequest) throws IOException {
+							countingRequest[0] = new CountingClientHttpRequest(clientHttpRequest);
+							if (requestCallback != null) {
+								requestCallback.doWithRequest(countingRequest[0]);
+							}
+						}
+					},
 					new ResponseExtractor<T>() {
 						@SuppressWarnings("rawtypes")
 						public T extractData(ClientHttpResponse response) throws IOException {
 							httpStatus[0] = response.getStatusCode();
 							headers[0] = response.getHeaders();
 							T data = null;
-							if (responseExtractor != null && (data = responseExtractor.extractData(response)) != null) {
+							countingResponse[0] = new CountingClientHttpResponse(response);
+							if (responseExtractor != null && (data = responseExtractor.extractData(countingResponse[0])) != null) {
 								if (data instanceof String) {
 									message[0] = ((String)data).length() + " bytes";
 								} else if (data instanceof Map) {
@@ -83,7 +105,10 @@ public class LoggingRestTemplate extends RestTemplate {
 				httpStatus[0] = ((HttpStatusCodeException)e).getStatusCode();
 			}
 		}
-		addLogMessage(method, url, status[0], httpStatus[0], message[0]);
+		long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		long requestBytes = (countingRequest[0] != null ? countingRequest[0].getBytesWritten() : -1);
+		long responseBytes = (countingResponse[0] != null ? countingResponse[0].getBytesRead() : -1);
+		addLogMessage(method, url, status[0], httpStatus[0], message[0], duration, requestBytes, responseBytes);
 		if (exception != null) {
 			throw exception;
 		}
@@ -91,7 +116,13 @@ public class LoggingRestTemplate extends RestTemplate {
 	}
 
 	public void addLogMessage(HttpMethod method, URI url, String status, HttpStatus httpStatus, String message) {
-		RestLogEntry logEntry = new RestLogEntry(method, url, status, httpStatus, message);
+		addLogMessage(method, url, status, httpStatus, message, 0, -1, -1);
+	}
+
+	public void addLogMessage(HttpMethod method, URI url, String status, HttpStatus httpStatus, String message,
+	                          long duration, long requestBytes, long responseBytes) {
+		RestLogEntry logEntry = new RestLogEntry(method, url, status, httpStatus, message,
+				duration, requestBytes, responseBytes);
 		for (RestLogCallback callback : listeners) {
 			callback.onNewLogEntry(logEntry);
 		}
@@ -107,4 +138,144 @@ public class LoggingRestTemplate extends RestTemplate {
 		listeners.remove(callBack);
 	}
 
+	/**
+	 * {@link ClientHttpRequest} that counts the bytes written to the request body.
+	 */
+	private static class CountingClientHttpRequest implements ClientHttpRequest {
+
+		private final ClientHttpRequest delegate;
+
+		private CountingOutputStream body;
+
+		public CountingClientHttpRequest(ClientHttpRequest delegate) {
+			this.delegate = delegate;
+		}
+
+		public OutputStream getBody() throws IOException {
+			if (body == null) {
+				body = new CountingOutputStream(delegate.getBody());
+			}
+			return body;
+		}
+
+		public long getBytesWritten() {
+			return (body != null ? body.count : 0);
+		}
+
+		public ClientHttpResponse execute() throws IOException {
+			return delegate.execute();
+		}
+
+		public HttpHeaders getHeaders() {
+			return delegate.getHeaders();
+		}
+
+		public HttpMethod getMethod() {
+			return delegate.getMethod();
+		}
+
+		public URI getURI() {
+			return delegate.getURI();
+		}
+	}
+
+	/**
+	 * {@link ClientHttpResponse} that counts the bytes read from the response body.
+	 */
+	private static class CountingClientHttpResponse implements ClientHttpResponse {
+
+		private final ClientHttpResponse delegate;
+
+		private CountingInputStream body;
+
+		public CountingClientHttpResponse(ClientHttpResponse delegate) {
+			this.delegate = delegate;
+		}
+
+		public InputStream getBody() throws IOException {
+			if (body == null) {
+				body = new CountingInputStream(delegate.getBody());
+			}
+			return body;
+		}
+
+		public long getBytesRead() {
+			return (body != null ? body.count : 0);
+		}
+
+		public HttpHeaders getHeaders() {
+			return delegate.getHeaders();
+		}
+
+		public HttpStatus getStatusCode() throws IOException {
+			return delegate.getStatusCode();
+		}
+
+		public int getRawStatusCode() throws IOException {
+			return delegate.getRawStatusCode();
+		}
+
+		public String getStatusText() throws IOException {
+			return delegate.getStatusText();
+		}
+
+		public void close() {
+			delegate.close();
+		}
+	}
+
+	private static class CountingOutputStream extends FilterOutputStream {
+
+		private long count;
+
+		public CountingOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			count += len;
+		}
+	}
+
+	private static class CountingInputStream extends FilterInputStream {
+
+		private long count;
+
+		public CountingInputStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = super.read();
+			if (b != -1) {
+				count++;
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int n = super.read(b, off, len);
+			if (n > 0) {
+				count += n;
+			}
+			return n;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long skipped = super.skip(n);
+			count += skipped;
+			return skipped;
+		}
+	}
 }
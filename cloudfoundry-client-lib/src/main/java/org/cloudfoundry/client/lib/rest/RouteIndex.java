@@ -0,0 +1,65 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.rest;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Guids of the routes of a space, keyed by host and domain guid, so that resolving the route of a URI
+ * does not need a request to the cloud controller.
+ */
+class RouteIndex {
+
+	private final ConcurrentMap<String, UUID> routeGuids = new ConcurrentHashMap<String, UUID>();
+
+	private final long loadTime;
+
+	public RouteIndex(long loadTime) {
+		this.loadTime = loadTime;
+	}
+
+	public UUID get(String host, UUID domainGuid) {
+		return routeGuids.get(key(host, domainGuid));
+	}
+
+	public void put(String host, UUID domainGuid, UUID routeGuid) {
+		routeGuids.put(key(host, domainGuid), routeGuid);
+	}
+
+	public void remove(UUID routeGuid) {
+		routeGuids.values().remove(routeGuid);
+	}
+
+	public int size() {
+		return routeGuids.size();
+	}
+
+	/**
+	 * Routes created or deleted by other clients are only picked up when the index is reloaded, so it is
+	 * discarded after a while.
+	 */
+	public boolean isExpired(long now, long timeToLive) {
+		return now - loadTime >= timeToLive;
+	}
+
+	private static String key(String host, UUID domainGuid) {
+		return (host != null ? host : "") + "@" + domainGuid;
+	}
+
+}
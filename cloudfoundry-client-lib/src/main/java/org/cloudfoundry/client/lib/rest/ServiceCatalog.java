@@ -0,0 +1,151 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.rest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudfoundry.client.lib.domain.CloudServiceOffering;
+import org.cloudfoundry.client.lib.domain.CloudServicePlan;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * Immutable snapshot of the service offerings and plans of the marketplace, indexed by label, provider and
+ * plan name.
+ */
+class ServiceCatalog {
+
+	private final List<CloudServiceOffering> offerings;
+
+	private final Map<String, List<CloudServiceOffering>> offeringsByLabel =
+			new HashMap<String, List<CloudServiceOffering>>();
+
+	private final Map<String, List<CloudServiceOffering>> offeringsByProvider =
+			new HashMap<String, List<CloudServiceOffering>>();
+
+	private final Map<String, List<CloudServicePlan>> plansByName = new HashMap<String, List<CloudServicePlan>>();
+
+	private final long loadTime;
+
+	private final boolean loadedForMissingPlan;
+
+	public ServiceCatalog(List<CloudServiceOffering> offerings, long loadTime) {
+		this(offerings, loadTime, false);
+	}
+
+	/**
+	 * @param loadedForMissingPlan whether the catalog was reloaded because a plan was not found in the previous one
+	 */
+	public ServiceCatalog(List<CloudServiceOffering> offerings, long loadTime, boolean loadedForMissingPlan) {
+		this.offerings = Collections.unmodifiableList(new ArrayList<CloudServiceOffering>(offerings));
+		this.loadTime = loadTime;
+		this.loadedForMissingPlan = loadedForMissingPlan;
+		for (CloudServiceOffering offering : offerings) {
+			addToIndex(offeringsByLabel, offering.getLabel(), offering);
+			addToIndex(offeringsByProvider, offering.getProvider(), offering);
+			for (CloudServicePlan plan : offering.getCloudServicePlans()) {
+				addToIndex(plansByName, plan.getName(), plan);
+			}
+		}
+	}
+
+	public List<CloudServiceOffering> getOfferings() {
+		return offerings;
+	}
+
+	public List<CloudServiceOffering> getOfferingsByLabel(String label) {
+		return getFromIndex(offeringsByLabel, label);
+	}
+
+	public List<CloudServiceOffering> getOfferingsByProvider(String provider) {
+		return getFromIndex(offeringsByProvider, provider);
+	}
+
+	public List<CloudServicePlan> getPlansByName(String planName) {
+		return getFromIndex(plansByName, planName);
+	}
+
+	/**
+	 * Find the plan with the given name of the offering with the given label and, if not null, version.
+	 *
+	 * @return the plan, or null if there is no such plan
+	 */
+	public CloudServicePlan findPlan(String label, String version, String planName) {
+		for (CloudServicePlan plan : getPlansByName(planName)) {
+			CloudServiceOffering offering = plan.getServiceOffering();
+			if (offering != null && ObjectUtils.nullSafeEquals(offering.getLabel(), label) &&
+					(version == null || version.equals(offering.getVersion()))) {
+				return plan;
+			}
+		}
+		return null;
+	}
+
+	public boolean isExpired(long now, long timeToLive) {
+		return now - loadTime >= timeToLive;
+	}
+
+	/**
+	 * Whether the catalog was loaded because a plan was not found. A plan missing from such a catalog does not
+	 * cause another reload, so that unknown plans cause at most one reload until the catalog expires.
+	 */
+	public boolean isLoadedForMissingPlan() {
+		return loadedForMissingPlan;
+	}
+
+	/**
+	 * Copy the given offerings and their plans, so that callers can't modify the instances held by the catalog.
+	 */
+	public static List<CloudServiceOffering> copyOf(List<CloudServiceOffering> offerings) {
+		List<CloudServiceOffering> copies = new ArrayList<CloudServiceOffering>(offerings.size());
+		for (CloudServiceOffering offering : offerings) {
+			CloudServiceOffering copy = new CloudServiceOffering(offering.getMeta(), offering.getName(),
+					offering.getProvider(), offering.getVersion(), offering.getDescription(), offering.isActive(),
+					offering.isBindable(), offering.getUrl(), offering.getInfoUrl(), offering.getUniqueId(),
+					offering.getExtra(), offering.getDocumentationUrl());
+			for (CloudServicePlan plan : offering.getCloudServicePlans()) {
+				CloudServicePlan planCopy = new CloudServicePlan(plan.getMeta(), plan.getName(),
+						plan.getDescription(), plan.isFree(), plan.isPublic(), plan.getExtra(), plan.getUniqueId());
+				planCopy.setServiceOffering(copy);
+				copy.addCloudServicePlan(planCopy);
+			}
+			copies.add(copy);
+		}
+		return copies;
+	}
+
+	private static <T> void addToIndex(Map<String, List<T>> index, String key, T value) {
+		if (key == null) {
+			return;
+		}
+		List<T> values = index.get(key);
+		if (values == null) {
+			values = new ArrayList<T>();
+			index.put(key, values);
+		}
+		values.add(value);
+	}
+
+	private static <T> List<T> getFromIndex(Map<String, List<T>> index, String key) {
+		List<T> values = index.get(key);
+		return (values != null ? Collections.unmodifiableList(values) : Collections.<T>emptyList());
+	}
+
+}
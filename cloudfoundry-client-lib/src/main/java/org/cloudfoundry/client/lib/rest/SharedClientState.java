@@ -0,0 +1,104 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.rest;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudfoundry.client.lib.archive.ArchiveFingerprinter;
+import org.cloudfoundry.client.lib.domain.CloudSpace;
+import org.cloudfoundry.client.lib.domain.UploadApplicationPayload;
+import org.cloudfoundry.client.lib.io.CompressionPolicy;
+
+/**
+ * Caches and settings that a client shares with the views it creates for other spaces. A setting changed
+ * through the client or any of its views applies to all of them.
+ */
+class SharedClientState {
+
+	private static final long DEFAULT_SERVICE_CATALOG_TTL = TimeUnit.MINUTES.toMillis(5);
+
+	private final Map<String, CloudSpace> spaceCache = new ConcurrentHashMap<String, CloudSpace>();
+
+	private volatile ServiceCatalog serviceCatalog;
+
+	private final Object serviceCatalogLock = new Object();
+
+	private volatile long serviceCatalogTtl = DEFAULT_SERVICE_CATALOG_TTL;
+
+	private volatile ArchiveFingerprinter archiveFingerprinter = new ArchiveFingerprinter();
+
+	private volatile int uploadCompressionThreads = UploadApplicationPayload.DEFAULT_COMPRESSION_THREADS;
+
+	private volatile CompressionPolicy uploadCompressionPolicy = CompressionPolicy.DEFAULT;
+
+	/**
+	 * Spaces by organization and space name.
+	 */
+	public Map<String, CloudSpace> getSpaceCache() {
+		return spaceCache;
+	}
+
+	public ServiceCatalog getServiceCatalog() {
+		return serviceCatalog;
+	}
+
+	public void setServiceCatalog(ServiceCatalog serviceCatalog) {
+		this.serviceCatalog = serviceCatalog;
+	}
+
+	/**
+	 * Lock held while the service catalog is loaded, so that concurrent users wait for one load.
+	 */
+	public Object getServiceCatalogLock() {
+		return serviceCatalogLock;
+	}
+
+	public long getServiceCatalogTtl() {
+		return serviceCatalogTtl;
+	}
+
+	public void setServiceCatalogTtl(long serviceCatalogTtl) {
+		this.serviceCatalogTtl = serviceCatalogTtl;
+	}
+
+	public ArchiveFingerprinter getArchiveFingerprinter() {
+		return archiveFingerprinter;
+	}
+
+	public void setArchiveFingerprinter(ArchiveFingerprinter archiveFingerprinter) {
+		this.archiveFingerprinter = archiveFingerprinter;
+	}
+
+	public int getUploadCompressionThreads() {
+		return uploadCompressionThreads;
+	}
+
+	public void setUploadCompressionThreads(int uploadCompressionThreads) {
+		this.uploadCompressionThreads = uploadCompressionThreads;
+	}
+
+	public CompressionPolicy getUploadCompressionPolicy() {
+		return uploadCompressionPolicy;
+	}
+
+	public void setUploadCompressionPolicy(CompressionPolicy uploadCompressionPolicy) {
+		this.uploadCompressionPolicy = uploadCompressionPolicy;
+	}
+
+}
@@ -0,0 +1,285 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.rest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.cloudfoundry.client.lib.SpaceSnapshot;
+import org.cloudfoundry.client.lib.domain.CloudApplication;
+import org.cloudfoundry.client.lib.domain.CloudChange;
+import org.cloudfoundry.client.lib.domain.CloudDomain;
+import org.cloudfoundry.client.lib.domain.CloudEntity;
+import org.cloudfoundry.client.lib.domain.CloudRoute;
+import org.cloudfoundry.client.lib.domain.CloudService;
+import org.cloudfoundry.client.lib.domain.CloudSpace;
+import org.cloudfoundry.client.lib.domain.CloudStack;
+
+/**
+ * {@link SpaceSnapshot} loaded by {@link CloudControllerClientImpl}. The indexes are rebuilt on each refresh
+ * and replaced as a whole, so concurrent readers always see a consistent snapshot.
+ */
+public class SpaceSnapshotImpl implements SpaceSnapshot {
+
+	private final CloudControllerClientImpl client;
+
+	private final CloudSpace space;
+
+	private volatile Contents contents;
+
+	SpaceSnapshotImpl(CloudControllerClientImpl client, CloudSpace space) {
+		this.client = client;
+		this.space = space;
+	}
+
+	public CloudSpace getSpace() {
+		return space;
+	}
+
+	public Date getLoadTime() {
+		return contents.loadTime;
+	}
+
+	public synchronized void refresh() {
+		client.loadSpaceSnapshot(this);
+	}
+
+	void update(List<CloudApplication> applications, List<CloudRoute> routes, List<CloudDomain> domains,
+	            List<CloudService> services, List<CloudStack> stacks) {
+		this.contents = new Contents(applications, routes, domains, services, stacks);
+	}
+
+	/**
+	 * Apply the changes of one poll of a {@link org.cloudfoundry.client.lib.CloudEventFeed}. Application
+	 * changes are applied by reloading or removing the affected applications only, in one parallel lookup
+	 * that keeps their services from the snapshot; changes to routes, services and bindings reload the whole
+	 * snapshot, once per batch.
+	 */
+	public synchronized void onChanges(List<CloudChange> changes) {
+		Map<UUID, CloudChange> applicationChanges = new LinkedHashMap<UUID, CloudChange>();
+		for (CloudChange change : changes) {
+			switch (change.getResourceType()) {
+				case APPLICATION:
+					if (change.getResourceGuid() != null) {
+						applicationChanges.put(change.getResourceGuid(), change);
+					}
+					break;
+				case ROUTE:
+				case SERVICE_INSTANCE:
+				case SERVICE_BINDING:
+					refresh();
+					return;
+				default:
+					// not reflected in the snapshot
+			}
+		}
+		if (applicationChanges.isEmpty()) {
+			return;
+		}
+		Contents current = contents;
+		List<UUID> changedGuids = new ArrayList<UUID>();
+		for (CloudChange change : applicationChanges.values()) {
+			if (change.getAction() != CloudChange.Action.DELETED) {
+				changedGuids.add(change.getResourceGuid());
+			}
+		}
+		Map<UUID, CloudApplication> changedApplications =
+				client.findSnapshotApplications(changedGuids, space, current.stacks);
+		Map<UUID, CloudApplication> applications = new LinkedHashMap<UUID, CloudApplication>(current.applicationsByGuid);
+		for (UUID appGuid : applicationChanges.keySet()) {
+			CloudApplication application = changedApplications.get(appGuid);
+			if (application != null) {
+				CloudApplication previous = applications.get(appGuid);
+				application.setServices(previous != null ? previous.getServices() : new ArrayList<String>());
+				applications.put(appGuid, application);
+			} else {
+				applications.remove(appGuid);
+			}
+		}
+		this.contents = new Contents(new ArrayList<CloudApplication>(applications.values()), current.routes,
+				current.domains, current.services, current.stacks);
+	}
+
+	public List<CloudApplication> getApplications() {
+		return contents.applications;
+	}
+
+	public CloudApplication getApplication(String appName) {
+		return contents.applicationsByName.get(appName);
+	}
+
+	public CloudApplication getApplication(UUID appGuid) {
+		return contents.applicationsByGuid.get(appGuid);
+	}
+
+	public List<CloudApplication> getApplicationsBoundToService(String serviceName) {
+		Contents current = contents;
+		List<CloudApplication> applications = new ArrayList<CloudApplication>();
+		List<UUID> appGuids = current.boundAppsByService.get(serviceName);
+		if (appGuids != null) {
+			for (UUID appGuid : appGuids) {
+				CloudApplication application = current.applicationsByGuid.get(appGuid);
+				if (application != null) {
+					applications.add(application);
+				}
+			}
+		}
+		return applications;
+	}
+
+	public List<CloudRoute> getRoutes() {
+		return contents.routes;
+	}
+
+	public List<CloudRoute> getRoutes(String domainName) {
+		return valueOrEmpty(contents.routesByDomain.get(domainName));
+	}
+
+	public List<CloudRoute> getApplicationRoutes(String appName) {
+		Contents current = contents;
+		CloudApplication application = current.applicationsByName.get(appName);
+		if (application == null) {
+			return Collections.emptyList();
+		}
+		return valueOrEmpty(current.routesByApp.get(application.getMeta().getGuid()));
+	}
+
+	public List<CloudRoute> getOrphanedRoutes() {
+		return Collections.unmodifiableList(contents.orphanedRoutes);
+	}
+
+	public List<CloudDomain> getDomains() {
+		return contents.domains;
+	}
+
+	public CloudDomain getDomain(String domainName) {
+		return contents.domainsByName.get(domainName);
+	}
+
+	public List<CloudService> getServices() {
+		return contents.services;
+	}
+
+	public CloudService getService(String serviceName) {
+		return contents.servicesByName.get(serviceName);
+	}
+
+	public List<CloudStack> getStacks() {
+		return contents.stacks;
+	}
+
+	public CloudStack getStack(String stackName) {
+		return contents.stacksByName.get(stackName);
+	}
+
+	private static <T> List<T> valueOrEmpty(List<T> list) {
+		return (list != null ? list : Collections.<T>emptyList());
+	}
+
+	private static <T extends CloudEntity> Map<String, T> indexByName(List<T> entities) {
+		Map<String, T> index = new HashMap<String, T>();
+		for (T entity : entities) {
+			index.put(entity.getName(), entity);
+		}
+		return index;
+	}
+
+	private static class Contents {
+
+		private final Date loadTime = new Date();
+
+		private final List<CloudApplication> applications;
+
+		private final Map<String, CloudApplication> applicationsByName;
+
+		private final Map<UUID, CloudApplication> applicationsByGuid = new LinkedHashMap<UUID, CloudApplication>();
+
+		private final Map<String, List<UUID>> boundAppsByService = new HashMap<String, List<UUID>>();
+
+		private final List<CloudRoute> routes;
+
+		private final Map<UUID, List<CloudRoute>> routesByApp = new HashMap<UUID, List<CloudRoute>>();
+
+		private final Map<String, List<CloudRoute>> routesByDomain = new HashMap<String, List<CloudRoute>>();
+
+		private final List<CloudRoute> orphanedRoutes = new ArrayList<CloudRoute>();
+
+		private final List<CloudDomain> domains;
+
+		private final Map<String, CloudDomain> domainsByName;
+
+		private final List<CloudService> services;
+
+		private final Map<String, CloudService> servicesByName;
+
+		private final List<CloudStack> stacks;
+
+		private final Map<String, CloudStack> stacksByName;
+
+		Contents(List<CloudApplication> applications, List<CloudRoute> routes, List<CloudDomain> domains,
+		         List<CloudService> services, List<CloudStack> stacks) {
+			this.applications = Collections.unmodifiableList(applications);
+			this.applicationsByName = indexByName(applications);
+			this.routes = Collections.unmodifiableList(routes);
+			Map<String, CloudRoute> routesByUri = indexByName(routes);
+			Set<String> mappedUris = new HashSet<String>();
+			for (CloudApplication application : applications) {
+				UUID appGuid = application.getMeta().getGuid();
+				applicationsByGuid.put(appGuid, application);
+				for (String serviceName : application.getServices()) {
+					addToListValue(boundAppsByService, serviceName, appGuid);
+				}
+				for (String uri : application.getUris()) {
+					mappedUris.add(uri);
+					if (routesByUri.containsKey(uri)) {
+						addToListValue(routesByApp, appGuid, routesByUri.get(uri));
+					}
+				}
+			}
+			for (CloudRoute route : routes) {
+				addToListValue(routesByDomain, route.getDomain().getName(), route);
+				if (!mappedUris.contains(route.getName())) {
+					orphanedRoutes.add(route);
+				}
+			}
+			this.domains = Collections.unmodifiableList(domains);
+			this.domainsByName = indexByName(domains);
+			this.services = Collections.unmodifiableList(services);
+			this.servicesByName = indexByName(services);
+			this.stacks = Collections.unmodifiableList(stacks);
+			this.stacksByName = indexByName(stacks);
+		}
+
+		private static <K, V> void addToListValue(Map<K, List<V>> map, K key, V value) {
+			List<V> values = map.get(key);
+			if (values == null) {
+				values = new ArrayList<V>();
+				map.put(key, values);
+			}
+			values.add(value);
+		}
+	}
+
+}
@@ -19,12 +19,19 @@ package org.cloudfoundry.client.lib.rest;
 import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Collections;
 import java.util.List;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.cloudfoundry.client.lib.UploadProgress;
+import org.cloudfoundry.client.lib.UploadProgressCallback;
 import org.cloudfoundry.client.lib.domain.UploadApplicationPayload;
+import org.cloudfoundry.client.lib.io.DynamicZipInputStream;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpInputMessage;
 import org.springframework.http.HttpOutputMessage;
@@ -42,6 +49,8 @@ import org.springframework.util.FileCopyUtils;
  */
 public class UploadApplicationPayloadHttpMessageConverter implements HttpMessageConverter<UploadApplicationPayload> {
 
+	private static final Log logger = LogFactory.getLog(UploadApplicationPayloadHttpMessageConverter.class);
+
 	public boolean canRead(Class<?> clazz, MediaType mediaType) {
 		return false;
 	}
@@ -63,10 +72,23 @@ public class UploadApplicationPayloadHttpMessageConverter implements HttpMessage
 		throws IOException, HttpMessageNotWritableException {
 		setOutputContentType(contentType, outputMessage);
 
-		FileCopyUtils.copy(t.getInputStream(), outputMessage.getBody());
+		InputStream inputStream = t.getInputStream();
+		OutputStream body = outputMessage.getBody();
+		OutputStream applicationZipFile = openApplicationZipFile();
+		if (applicationZipFile != null) {
+			body = new TeeOutputStream(body, applicationZipFile);
+		}
+		ProgressOutputStream progressStream = null;
+		if (t.getProgressCallback() != null) {
+			progressStream = new ProgressOutputStream(body, t.getProgressCallback(), inputStream,
+					t.getTotalUncompressedBytes());
+			body = progressStream;
+		}
+		FileCopyUtils.copy(inputStream, body);
 		outputMessage.getBody().flush();
-
-		writeApplicationZipToFile(t.getInputStream());
+		if (progressStream != null) {
+			progressStream.complete();
+		}
 	}
 
 	private void setOutputContentType(MediaType contentType, HttpOutputMessage outputMessage) {
@@ -79,19 +101,156 @@ public class UploadApplicationPayloadHttpMessageConverter implements HttpMessage
 		}
 	}
 
-	private void writeApplicationZipToFile(InputStream inputStream) {
-		// for testing/debugging purposes, write the zip file being uploaded to a path specified
+	private OutputStream openApplicationZipFile() {
+		// for testing/debugging purposes, copy the zip file being uploaded to a path specified
 		// in the following environment variable
-		String uploadFilePath = System.getenv("CF_APP_UPLOAD_FILE");
+		String uploadFilePath = getUploadFilePath();
 		if (uploadFilePath != null) {
 			try {
-				File outputFile = new File(uploadFilePath);
-				BufferedOutputStream outputStream = new BufferedOutputStream(new FileOutputStream(outputFile));
-				FileCopyUtils.copy(inputStream, outputStream);
-				outputStream.close();
+				return new BufferedOutputStream(new FileOutputStream(new File(uploadFilePath)));
 			} catch (IOException e) {
-				System.err.println("Error writing application upload to file: " + e);
+				logger.warn("Error writing application upload to file", e);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the path of the file the uploaded zip is copied to, from the <tt>CF_APP_UPLOAD_FILE</tt> environment
+	 * variable.
+	 *
+	 * @return the path, or <tt>null</tt> if the upload should not be copied
+	 */
+	protected String getUploadFilePath() {
+		return System.getenv("CF_APP_UPLOAD_FILE");
+	}
+
+	/**
+	 * {@link OutputStream} that counts the bytes of the upload as they are written and reports progress at most once
+	 * per {@link UploadProgress#DEFAULT_INTERVAL}.
+	 */
+	private static class ProgressOutputStream extends FilterOutputStream {
+
+		private static final long INTERVAL_NANOS = UploadProgress.DEFAULT_INTERVAL * 1000000L;
+
+		private final UploadProgressCallback callback;
+
+		private final DynamicZipInputStream zipInputStream;
+
+		private final long totalUncompressedBytes;
+
+		private final long start = System.nanoTime();
+
+		private long bytesSent;
+
+		private long lastReport = start;
+
+		private long lastReportBytesSent;
+
+		public ProgressOutputStream(OutputStream out, UploadProgressCallback callback, InputStream inputStream,
+				long totalUncompressedBytes) {
+			super(out);
+			this.callback = callback;
+			this.zipInputStream = (inputStream instanceof DynamicZipInputStream ?
+					(DynamicZipInputStream) inputStream : null);
+			this.totalUncompressedBytes = totalUncompressedBytes;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			sent(1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			sent(len);
+		}
+
+		private void sent(int count) {
+			bytesSent += count;
+			long now = System.nanoTime();
+			if (now - lastReport >= INTERVAL_NANOS) {
+				report(now, false);
+			}
+		}
+
+		public void complete() {
+			report(System.nanoTime(), true);
+		}
+
+		private void report(long now, boolean complete) {
+			double bytesPerSecond = (now > lastReport ?
+					(bytesSent - lastReportBytesSent) * 1e9 / (now - lastReport) : 0);
+			long uncompressedBytesSent = (zipInputStream != null ? zipInputStream.getUncompressedBytes() : -1);
+			lastReport = now;
+			lastReportBytesSent = bytesSent;
+			callback.onUploadProgress(new UploadProgress(bytesSent, uncompressedBytesSent, totalUncompressedBytes,
+					(now - start) / 1000000L, bytesPerSecond, complete));
+		}
+	}
+
+	/**
+	 * {@link OutputStream} that copies the upload to a file as it is written. The upload is not affected if the file
+	 * cannot be written.
+	 */
+	private static class TeeOutputStream extends FilterOutputStream {
+
+		private OutputStream copy;
+
+		public TeeOutputStream(OutputStream out, OutputStream copy) {
+			super(out);
+			this.copy = copy;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			if (copy != null) {
+				try {
+					copy.write(b);
+				} catch (IOException e) {
+					failed(e);
+				}
+			}
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			if (copy != null) {
+				try {
+					copy.write(b, off, len);
+				} catch (IOException e) {
+					failed(e);
+				}
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				super.close();
+			} finally {
+				if (copy != null) {
+					try {
+						copy.close();
+					} catch (IOException e) {
+						failed(e);
+					}
+				}
+			}
+		}
+
+		private void failed(IOException e) {
+			logger.warn("Error writing application upload to file", e);
+			try {
+				copy.close();
+			} catch (IOException ex) {
+				// ignore
 			}
+			copy = null;
 		}
 	}
 
@@ -53,7 +53,7 @@ import java.util.UUID;
 @SuppressWarnings("ConstantConditions")
 public class CloudEntityResourceMapper {
 
-	private static SimpleDateFormat dateFormatter = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssZ");
+	private static final String DATE_FORMAT = "yyyy-MM-dd'T'HH:mm:ssZ";
 
 	public String getNameOfResource(Map<String, Object> resource) {
 		return getEntityAttribute(resource, "name", String.class);
@@ -192,14 +192,15 @@ public class CloudEntityResourceMapper {
 		String buildpack = getEntityAttribute(resource, "buildpack", String.class);
 		String detectedBuildpack = getEntityAttribute(resource, "detected_buildpack", String.class);
 		Map<String, Object> stackResource = getEmbeddedResource(resource, "stack");
-		CloudStack stack = mapStackResource(stackResource);
+		String stackName = (stackResource != null ? mapStackResource(stackResource).getName() : null);
 		Integer healthCheckTimeout = getEntityAttribute(resource, "health_check_timeout", Integer.class);
-		Staging staging = new Staging(command, buildpack, stack.getName(), healthCheckTimeout, detectedBuildpack);
+		Staging staging = new Staging(command, buildpack, stackName, healthCheckTimeout, detectedBuildpack);
 		app.setStaging(staging);
 
 		Map<String, Object> spaceResource = getEmbeddedResource(resource, "space");
-		CloudSpace space = mapSpaceResource(spaceResource);
-		app.setSpace(space);
+		if (spaceResource != null) {
+			app.setSpace(mapSpaceResource(spaceResource));
+		}
 
 		Map envMap = getEntityAttribute(resource, "environment_json", Map.class);
 		if (envMap.size() > 0) {
@@ -209,6 +210,10 @@ public class CloudEntityResourceMapper {
 		app.setDiskQuota(getEntityAttribute(resource, "disk_quota", Integer.class));
 		List<Map<String, Object>> serviceBindings = getEntityAttribute(resource, "service_bindings", List.class);
 		List<String> serviceList = new ArrayList<String>();
+		if (serviceBindings == null) {
+			// bindings are not embedded at inline-relations-depth 0
+			serviceBindings = new ArrayList<Map<String, Object>>();
+		}
 		for (Map<String, Object> binding : serviceBindings) {
 			Map<String, Object> service = getEntityAttribute(binding, "service_instance", Map.class);
 			String serviceName = getNameOfResource(service);
@@ -400,7 +405,8 @@ public class CloudEntityResourceMapper {
 				// if the time zone part of the dateString contains a colon (e.g. 2013-09-19T21:56:36+00:00)
 				// then remove it before parsing
 				String isoDateString = dateString.replaceFirst(":(?=[0-9]{2}$)", "").replaceFirst("Z$", "+0000");
-				return dateFormatter.parse(isoDateString);
+				// SimpleDateFormat is not thread-safe, and resources may be mapped from concurrent requests
+				return new SimpleDateFormat(DATE_FORMAT).parse(isoDateString);
 			} catch (Exception ignore) {}
 		}
 		return null;
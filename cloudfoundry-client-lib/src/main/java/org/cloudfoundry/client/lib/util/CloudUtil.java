@@ -25,6 +25,7 @@ import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Locale;
+import java.util.TimeZone;
 
 /**
  * Some helper utilities used by the Cloud Foundry Java client.
@@ -55,6 +56,15 @@ public class CloudUtil {
 		throw new AssertionError("Helper class should not be instantiated.");
 	}
 
+	/**
+	 * Format the given date as an ISO 8601 UTC timestamp, as used in cloud controller query filters.
+	 */
+	public static String formatTimestamp(Date date) {
+		SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.US);
+		format.setTimeZone(TimeZone.getTimeZone("UTC"));
+		return format.format(date);
+	}
+
 	@SuppressWarnings("unchecked")
 	public static <T> T parse(Class<T> clazz, Object object) {
 		T defaultValue = null;
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.cloudfoundry.client.lib.CloudOperationException;
+import org.cloudfoundry.client.lib.RestCallTracer;
+
+/**
+ * Utility for running independent cloud controller requests concurrently on a bounded number of threads. Requests
+ * made by the tasks are attributed to the operation a {@link RestCallTracer} traces on the calling thread.
+ */
+public class ParallelTasks {
+
+	/**
+	 * Run the given tasks concurrently, using at most {@code maxThreads} threads, and wait for all of them
+	 * to complete.
+	 *
+	 * @param tasks the tasks to run
+	 * @param maxThreads the maximum number of tasks to run at the same time
+	 * @return the results of the tasks, in the order of the tasks
+	 * @throws RuntimeException the exception thrown by the first failed task, in the order of the tasks
+	 */
+	public static <T> List<T> invokeAll(List<? extends Callable<T>> tasks, int maxThreads) {
+		if (tasks.isEmpty()) {
+			return new ArrayList<T>();
+		}
+		List<Callable<T>> tracedTasks = new ArrayList<Callable<T>>(tasks.size());
+		for (Callable<T> task : tasks) {
+			tracedTasks.add(RestCallTracer.propagate(task));
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(maxThreads, tasks.size())));
+		try {
+			List<Future<T>> futures = executor.invokeAll(tracedTasks);
+			List<T> results = new ArrayList<T>(futures.size());
+			for (Future<T> future : futures) {
+				results.add(getResult(future));
+			}
+			return results;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CloudOperationException(e);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Get the result of a completed task, rethrowing unchecked exceptions of the task as is.
+	 */
+	public static <T> T getResult(Future<T> future) throws InterruptedException {
+		try {
+			return future.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new CloudOperationException(cause);
+		}
+	}
+
+}
@@ -45,17 +45,20 @@ import org.springframework.web.client.RestTemplate;
 public class RestUtil {
 	
 	public RestTemplate createRestTemplate(HttpProxyConfiguration httpProxyConfiguration, boolean trustSelfSignedCerts) {
-		RestTemplate restTemplate = new LoggingRestTemplate();
-		restTemplate.setRequestFactory(createRequestFactory(httpProxyConfiguration, trustSelfSignedCerts));
-		restTemplate.setErrorHandler(new CloudControllerResponseErrorHandler());
-		restTemplate.setMessageConverters(getHttpMessageConverters());
-
-		return restTemplate;
+		return createRestTemplate(createRequestFactory(httpProxyConfiguration, trustSelfSignedCerts));
 	}
 
 	public RestTemplate createRestTemplate(HttpProxyConfiguration httpProxyConfiguration, boolean trustSelfSignedCerts, boolean disableConnectionPool) {
+		return createRestTemplate(createRequestFactory(httpProxyConfiguration, trustSelfSignedCerts, disableConnectionPool));
+	}
+
+	/**
+	 * Create a rest template that sends its requests through the given request factory, so that several
+	 * templates can share one HTTP connection pool.
+	 */
+	public RestTemplate createRestTemplate(ClientHttpRequestFactory requestFactory) {
 		RestTemplate restTemplate = new LoggingRestTemplate();
-		restTemplate.setRequestFactory(createRequestFactory(httpProxyConfiguration, trustSelfSignedCerts, disableConnectionPool));
+		restTemplate.setRequestFactory(requestFactory);
 		restTemplate.setErrorHandler(new CloudControllerResponseErrorHandler());
 		restTemplate.setMessageConverters(getHttpMessageConverters());
 
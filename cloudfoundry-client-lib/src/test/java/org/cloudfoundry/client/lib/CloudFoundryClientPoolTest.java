@@ -0,0 +1,172 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib;
+
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.SPACE_GUID;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.page;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.space;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.net.URL;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.cloudfoundry.client.lib.domain.CloudEntity;
+import org.cloudfoundry.client.lib.domain.CloudSpace;
+import org.cloudfoundry.client.lib.rest.StubClientHttpRequestFactory;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.web.client.HttpServerErrorException;
+
+public class CloudFoundryClientPoolTest {
+
+	private static final String OTHER_SPACE_GUID = "9a1f3c2e-7b6d-4e5f-8a9b-0c1d2e3f4a5b";
+
+	private StubClientHttpRequestFactory requestFactory;
+
+	private final AtomicInteger transports = new AtomicInteger();
+
+	private CloudFoundryClientPool pool;
+
+	private URL cloudControllerUrl;
+
+	@Before
+	public void setUp() throws Exception {
+		requestFactory = new StubClientHttpRequestFactory()
+				.respond(HttpMethod.POST, "/oauth/token",
+						"{'access_token':'abc','token_type':'bearer','expires_in':3600,'refresh_token':'def'}")
+				.respond(HttpMethod.GET, "/v2/spaces?inline-relations-depth=1", page(space()));
+		respondToInfo();
+		pool = new CloudFoundryClientPool() {
+			@Override
+			protected ClientHttpRequestFactory createRequestFactory() {
+				transports.incrementAndGet();
+				return requestFactory;
+			}
+		};
+		cloudControllerUrl = new URL(StubClientHttpRequestFactory.CLOUD_CONTROLLER_URL);
+	}
+
+	@Test
+	public void clientsShareTransportsAndTokenSessions() {
+		CloudCredentials credentials = new CloudCredentials("user@example.com", "secret");
+		CloudFoundryClient first = pool.getClient(credentials, cloudControllerUrl, sessionSpace(SPACE_GUID));
+		CloudFoundryClient second = pool.getClient(new CloudCredentials("user@example.com", "secret"),
+				cloudControllerUrl, sessionSpace(OTHER_SPACE_GUID));
+
+		assertNotSame(first, second);
+		assertThat(transports.get(), is(2));
+		assertThat(count("GET /info"), is(1));
+		assertThat(count("POST /oauth/token"), is(1));
+	}
+
+	@Test
+	public void sameSpaceAndCredentialsReturnSameClient() {
+		CloudCredentials credentials = new CloudCredentials("user@example.com", "secret");
+		CloudFoundryClient first = pool.getClient(credentials, cloudControllerUrl, null, "development");
+		CloudFoundryClient second = pool.getClient(credentials, cloudControllerUrl, null, "development");
+
+		assertSame(first, second);
+		assertThat(first.getCloudControllerUrl(), is(cloudControllerUrl));
+		assertThat(count("GET /v2/spaces?inline-relations-depth=1"), is(1));
+	}
+
+	@Test
+	public void idleClientsAndTheirSessionsAreEvicted() {
+		CloudCredentials credentials = new CloudCredentials("user@example.com", "secret");
+		CloudFoundryClient first = pool.getClient(credentials, cloudControllerUrl, sessionSpace(SPACE_GUID));
+		pool.releaseClient(first);
+		pool.setMaxIdleTime(0);
+		sleep();
+		CloudFoundryClient second = pool.getClient(credentials, cloudControllerUrl, sessionSpace(SPACE_GUID));
+
+		assertNotSame(first, second);
+		assertThat(transports.get(), is(4));
+		assertThat(count("POST /oauth/token"), is(2));
+	}
+
+	@Test
+	public void leasedClientsAreNotEvicted() {
+		CloudCredentials credentials = new CloudCredentials("user@example.com", "secret");
+		CloudFoundryClient first = pool.getClient(credentials, cloudControllerUrl, sessionSpace(SPACE_GUID));
+		pool.getClient(credentials, cloudControllerUrl, sessionSpace(SPACE_GUID));
+		pool.releaseClient(first);
+		pool.setMaxIdleTime(0);
+		sleep();
+		pool.evictIdleClients();
+
+		assertSame(first, pool.getClient(credentials, cloudControllerUrl, sessionSpace(SPACE_GUID)));
+		assertThat(transports.get(), is(2));
+		assertThat(count("POST /oauth/token"), is(1));
+	}
+
+	@Test
+	public void failedCreationIsRetried() {
+		CloudCredentials credentials = new CloudCredentials("user@example.com", "secret");
+		requestFactory.respondWithError(HttpMethod.GET, "/info", HttpStatus.SERVICE_UNAVAILABLE,
+				"{'code':10001,'description':'Unavailable'}");
+		try {
+			pool.getClient(credentials, cloudControllerUrl, sessionSpace(SPACE_GUID));
+			fail("Expected the failed info request to be reported");
+		} catch (HttpServerErrorException e) {
+			assertThat(e.getStatusCode(), is(HttpStatus.SERVICE_UNAVAILABLE));
+		}
+		respondToInfo();
+
+		assertThat(pool.getClient(credentials, cloudControllerUrl, sessionSpace(SPACE_GUID)).getCloudControllerUrl(),
+				is(cloudControllerUrl));
+		assertThat(count("GET /info"), is(2));
+	}
+
+	@Test
+	public void differentCredentialsGetSeparateSessions() {
+		pool.getClient(new CloudCredentials("user@example.com", "secret"), cloudControllerUrl, sessionSpace(SPACE_GUID));
+		pool.getClient(new CloudCredentials("admin@example.com", "secret"), cloudControllerUrl, sessionSpace(SPACE_GUID));
+
+		assertThat(transports.get(), is(2));
+		assertThat(count("POST /oauth/token"), is(2));
+	}
+
+	private void respondToInfo() {
+		requestFactory.respond(HttpMethod.GET, "/info", "{'authorization_endpoint':'http://uaa.cloud.example.com'}");
+	}
+
+	private static CloudSpace sessionSpace(String guid) {
+		return new CloudSpace(new CloudEntity.Meta(UUID.fromString(guid), null, null), "development", null);
+	}
+
+	private int count(String request) {
+		return Collections.frequency(requestFactory.getRequests(), request);
+	}
+
+	private static void sleep() {
+		try {
+			Thread.sleep(5);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib;
+
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.page;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.space;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudfoundry.client.lib.domain.CloudSpace;
+import org.cloudfoundry.client.lib.rest.StubClientHttpRequestFactory;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+
+public class FederatedQueryTest {
+
+	private Map<String, CloudFoundryClient> targets;
+
+	@Before
+	public void setUp() {
+		targets = new LinkedHashMap<String, CloudFoundryClient>();
+		targets.put("east", client(page(space())));
+		targets.put("broken", client(null));
+		targets.put("west", client(page(space(), space())));
+	}
+
+	@Test
+	public void resultsAreTaggedWithTheirTargetAndFailuresReported() {
+		List<TargetResult<CloudSpace>> results = new FederatedQuery(targets).execute(FederatedQuery.spaces());
+
+		assertThat(results.size(), is(3));
+		assertThat(results.get(0).getTarget(), is("east"));
+		assertThat(results.get(0).getResults().size(), is(1));
+		assertThat(results.get(1).getTarget(), is("broken"));
+		assertThat(results.get(1).isSuccessful(), is(false));
+		assertThat(results.get(1).getResults().isEmpty(), is(true));
+		assertThat(results.get(2).getTarget(), is("west"));
+		assertThat(results.get(2).getResults().size(), is(2));
+	}
+
+	@Test
+	public void targetsAreQueriedConcurrently() {
+		// each query waits until all targets are being queried
+		final CountDownLatch started = new CountDownLatch(targets.size());
+		List<TargetResult<String>> results = new FederatedQuery(targets).execute(new TargetQuery<String>() {
+			public List<String> execute(CloudFoundryOperations client) {
+				started.countDown();
+				assertThat("all targets are queried at once", await(started), is(true));
+				assertThat(Thread.currentThread().isDaemon(), is(true));
+				List<String> urls = new ArrayList<String>();
+				urls.add(client.getCloudControllerUrl().toString());
+				return urls;
+			}
+		});
+
+		for (TargetResult<String> result : results) {
+			assertThat(result.isSuccessful(), is(true));
+		}
+	}
+
+	@Test
+	public void slowTargetsTimeOutWithoutLosingOtherResults() {
+		final CountDownLatch release = new CountDownLatch(1);
+		final CloudFoundryClient slow = targets.get("west");
+		FederatedQuery query = new FederatedQuery(targets);
+		query.setTimeout(200);
+		final List<String> order = new ArrayList<String>();
+		try {
+			query.execute(new TargetQuery<CloudSpace>() {
+				public List<CloudSpace> execute(CloudFoundryOperations client) {
+					if (client == slow) {
+						await(release);
+					}
+					return client.getSpaces();
+				}
+			}, new TargetResultCallback<CloudSpace>() {
+				public void onResult(TargetResult<CloudSpace> result) {
+					order.add(result.getTarget() + (result.isSuccessful() ? "" : ":" + result.getError().getMessage()));
+				}
+			});
+		} finally {
+			release.countDown();
+		}
+
+		assertThat(order.size(), is(3));
+		assertThat(order.get(2), is("west:Query of target west timed out after 200 ms"));
+		assertThat(order.contains("east"), is(true));
+	}
+
+	private static CloudFoundryClient client(String spacesJson) {
+		StubClientHttpRequestFactory requestFactory = new StubClientHttpRequestFactory();
+		if (spacesJson != null) {
+			requestFactory.respond(HttpMethod.GET, "/v2/spaces?inline-relations-depth=1", spacesJson);
+		}
+		return new CloudFoundryClient(requestFactory.createClient(null));
+	}
+
+	private static boolean await(CountDownLatch latch) {
+		try {
+			return latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib;
+
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.SPACE_GUID;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.app;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.page;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.cloudfoundry.client.lib.domain.CloudEntity;
+import org.cloudfoundry.client.lib.domain.CloudSpace;
+import org.cloudfoundry.client.lib.rest.StubClientHttpRequestFactory;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+
+public class RestCallTracerTest {
+
+	private static final String APPS = page(
+			app("7ad7ee5c-5fb5-4a3a-a1b5-0d1c1f7e5e01", "app1", "STOPPED"),
+			app("7ad7ee5c-5fb5-4a3a-a1b5-0d1c1f7e5e02", "app2", "STOPPED"));
+
+	private static final String NO_ROUTES = page();
+
+	private StubClientHttpRequestFactory requestFactory;
+
+	private CloudFoundryOperations client;
+
+	private RestCallTracer tracer;
+
+	@Before
+	public void setUp() {
+		requestFactory = new StubClientHttpRequestFactory()
+				.respond(HttpMethod.GET, "/v2/apps?inline-relations-depth=1", APPS)
+				.respond(HttpMethod.GET, "/v2/apps/7ad7ee5c-5fb5-4a3a-a1b5-0d1c1f7e5e01/routes?inline-relations-depth=1", NO_ROUTES)
+				.respond(HttpMethod.GET, "/v2/apps/7ad7ee5c-5fb5-4a3a-a1b5-0d1c1f7e5e02/routes?inline-relations-depth=1", NO_ROUTES);
+		client = new CloudFoundryClient(requestFactory.createClient(null));
+		tracer = new RestCallTracer();
+	}
+
+	@Test
+	public void requestsAreAttributedToOperation() {
+		CloudFoundryOperations traced = tracer.trace(client);
+		assertThat(traced.getApplications().size(), is(2));
+		traced.getApplications();
+
+		RestCallStatistics statistics = tracer.getStatistics("getApplications");
+		assertThat(statistics.getInvocations(), is(2L));
+		assertThat(statistics.getRequests(), is(6L));
+		assertThat(statistics.getFailedRequests(), is(0L));
+		assertEquals(3.0, statistics.getRequestsPerInvocation(), 0.001);
+		long expectedBytes = 2 * (APPS.length() + 2 * NO_ROUTES.length());
+		assertThat(statistics.getResponseBytes(), is(expectedBytes));
+		assertThat(tracer.getStatistics().keySet().size(), is(1));
+		assertThat(tracer.getUntracedStatistics().getRequests(), is(0L));
+	}
+
+	@Test
+	public void requestsOutsideTracedClientAreUntraced() {
+		tracer.trace(client);
+		client.getApplications();
+
+		assertThat(tracer.getStatistics("getApplications").getRequests(), is(0L));
+		assertThat(tracer.getUntracedStatistics().getRequests(), is(3L));
+	}
+
+	@Test
+	public void failedRequestsAreCounted() {
+		CloudFoundryOperations traced = tracer.trace(client);
+		try {
+			traced.getApplication("app1");
+			fail("Expected CloudFoundryException");
+		} catch (CloudFoundryException e) {
+			// expected, no response is registered for the query
+		}
+
+		RestCallStatistics statistics = tracer.getStatistics("getApplication");
+		assertThat(statistics.getInvocations(), is(1L));
+		assertThat(statistics.getFailedRequests(), is(1L));
+	}
+
+	@Test
+	public void listenersAreNotifiedPerInvocation() {
+		final List<RestCallStatistics> notified = new ArrayList<RestCallStatistics>();
+		tracer.registerRestCallStatisticsListener(new RestCallStatisticsCallback() {
+			public void onOperationComplete(RestCallStatistics statistics) {
+				notified.add(statistics);
+			}
+		});
+		CloudFoundryOperations traced = tracer.trace(client);
+		traced.getApplications();
+		traced.getApplications();
+
+		assertThat(notified.size(), is(2));
+		assertThat(notified.get(1).getOperation(), is("getApplications"));
+		assertThat(notified.get(1).getInvocations(), is(1L));
+		assertThat(notified.get(1).getRequests(), is(3L));
+		assertTrue(notified.get(1).getDuration() >= 0);
+	}
+
+	@Test
+	public void requestsOnParallelTasksAreAttributedToOperation() {
+		String space = "/v2/spaces/" + SPACE_GUID;
+		requestFactory
+				.respond(HttpMethod.GET, space + "/apps?inline-relations-depth=0&results-per-page=100", page())
+				.respond(HttpMethod.GET, space + "/routes?inline-relations-depth=1&results-per-page=100", page())
+				.respond(HttpMethod.GET, "/v2/domains?results-per-page=100", page())
+				.respond(HttpMethod.GET, space + "/service_instances?inline-relations-depth=2" +
+						"&return_user_provided_service_instances=true&results-per-page=100", page())
+				.respond(HttpMethod.GET, "/v2/stacks", page());
+		CloudSpace sessionSpace = new CloudSpace(new CloudEntity.Meta(UUID.fromString(SPACE_GUID), null, null),
+				"development", null);
+		CloudFoundryOperations traced = tracer.trace(new CloudFoundryClient(requestFactory.createClient(sessionSpace)));
+		traced.getSpaceSnapshot();
+
+		assertThat(tracer.getStatistics("getSpaceSnapshot").getRequests(), is(5L));
+		assertThat(tracer.getUntracedStatistics().getRequests(), is(0L));
+	}
+
+	@Test
+	public void resetDiscardsStatistics() {
+		CloudFoundryOperations traced = tracer.trace(client);
+		traced.getApplications();
+		tracer.reset();
+
+		assertThat(tracer.getStatistics("getApplications").getRequests(), is(0L));
+		assertTrue(tracer.getStatistics().isEmpty());
+	}
+}
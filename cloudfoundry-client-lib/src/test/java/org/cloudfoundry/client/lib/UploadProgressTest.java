@@ -0,0 +1,58 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link UploadProgress}.
+ */
+public class UploadProgressTest {
+
+	@Test
+	public void shouldEstimateTotalFromCompressionRatio() throws Exception {
+		UploadProgress progress = new UploadProgress(1000, 4000, 40000, 2000, 600, false);
+		assertThat(progress.getTotalBytes(), is(10000L));
+		assertThat(progress.getAverageBytesPerSecond(), is(500.0));
+		assertThat(progress.getEstimatedRemainingMillis(), is(18000L));
+	}
+
+	@Test
+	public void shouldNotEstimateBeforeAnythingIsSent() throws Exception {
+		UploadProgress progress = new UploadProgress(0, 0, 40000, 0, 0, false);
+		assertThat(progress.getTotalBytes(), is(-1L));
+		assertThat(progress.getAverageBytesPerSecond(), is(0.0));
+		assertThat(progress.getEstimatedRemainingMillis(), is(-1L));
+	}
+
+	@Test
+	public void shouldEstimateTotalLargerThanAnInt() throws Exception {
+		UploadProgress progress = new UploadProgress(1000, 4000, 8000000000L, 2000, 600, false);
+		assertThat(progress.getTotalBytes(), is(2000000000L));
+	}
+
+	@Test
+	public void shouldReportActualTotalWhenComplete() throws Exception {
+		UploadProgress progress = new UploadProgress(9000, 40000, 40000, 3000, 3000, true);
+		assertThat(progress.getTotalBytes(), is(9000L));
+		assertThat(progress.getEstimatedRemainingMillis(), is(0L));
+	}
+
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.archive;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.cloudfoundry.client.lib.domain.CloudResource;
+import org.cloudfoundry.client.lib.domain.CloudResources;
+import org.cloudfoundry.client.lib.domain.UploadApplicationPayload;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link ArchiveFingerprinter}.
+ */
+public class ArchiveFingerprinterTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldComputeDigestsOfAllFiles() throws Exception {
+        File directory = temporaryFolder.newFolder("app");
+        List<byte[]> contents = new ArrayList<byte[]>();
+        Random random = new Random(42);
+        new File(directory, "lib").mkdir();
+        for (int i = 0; i < 40; i++) {
+            byte[] content = new byte[random.nextInt(20000)];
+            random.nextBytes(content);
+            contents.add(content);
+            FileOutputStream outputStream = new FileOutputStream(new File(directory, "lib/file" + i + ".bin"));
+            try {
+                outputStream.write(content);
+            } finally {
+                outputStream.close();
+            }
+        }
+        ApplicationArchive archive = new DirectoryApplicationArchive(directory);
+
+        new ArchiveFingerprinter().fingerprint(archive);
+
+        int files = 0;
+        for (ApplicationArchive.Entry entry : archive.getEntries()) {
+            if (!entry.isDirectory()) {
+                int index = Integer.parseInt(entry.getName().replaceAll("\\D", ""));
+                assertEquals(contents.get(index).length, entry.getSize());
+                assertArrayEquals(MessageDigest.getInstance("SHA").digest(contents.get(index)), entry.getSha1Digest());
+                files++;
+            }
+        }
+        assertEquals(40, files);
+    }
+
+    @Test
+    public void shouldBoundOpenFilesOnSharedExecutor() throws Exception {
+        CountingArchive archive = new CountingArchive(100);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            new ArchiveFingerprinter(executor, 3).fingerprint(archive);
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(100, archive.opened.get());
+        assertTrue("At most 3 files should be open, was " + archive.maxOpen.get(), archive.maxOpen.get() <= 3);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldFailWhenEntryCannotBeRead() throws Exception {
+        CountingArchive archive = new CountingArchive(10);
+        archive.failing = 7;
+        new ArchiveFingerprinter().fingerprint(archive);
+    }
+
+    @Test
+    public void shouldKeepContentsOfSmallEntries() throws Exception {
+        File directory = temporaryFolder.newFolder("app");
+        byte[] small = write(new File(directory, "small.txt"), 100);
+        write(new File(directory, "large.jar"), ContentCache.DEFAULT_MAX_ENTRY_SIZE + 1);
+        ApplicationArchive archive = new DirectoryApplicationArchive(directory);
+
+        ContentCache contentCache = new ArchiveFingerprinter().fingerprint(archive);
+
+        assertEquals(100, contentCache.getTotalSize());
+        for (ApplicationArchive.Entry entry : archive.getEntries()) {
+            if (entry.getName().equals("small.txt")) {
+                assertArrayEquals(small, contentCache.remove(entry));
+            } else {
+                assertNull(contentCache.remove(entry));
+            }
+        }
+        assertEquals(0, contentCache.getTotalSize());
+    }
+
+    @Test
+    public void shouldNotKeepContentsOfEntriesCopiedRaw() throws Exception {
+        File file = temporaryFolder.newFile("app.zip");
+        ZipOutputStream zipOutputStream = new ZipOutputStream(new FileOutputStream(file));
+        try {
+            zipOutputStream.putNextEntry(new ZipEntry("small.txt"));
+            zipOutputStream.write(new byte[100]);
+            zipOutputStream.closeEntry();
+        } finally {
+            zipOutputStream.close();
+        }
+        ZipFile zipFile = new ZipFile(file);
+        try {
+            ApplicationArchive archive = new ZipApplicationArchive(zipFile);
+
+            ContentCache contentCache = new ArchiveFingerprinter().fingerprint(archive);
+
+            assertEquals(100, archive.getEntries().iterator().next().getSize());
+            assertEquals(0, contentCache.getTotalSize());
+        } finally {
+            zipFile.close();
+        }
+    }
+
+    @Test
+    public void shouldKeepContentsWithinBudget() throws Exception {
+        CountingArchive archive = new CountingArchive(10);
+
+        ContentCache contentCache = new ArchiveFingerprinter(null, 2, 8192, 3 * 8192).fingerprint(archive);
+
+        assertEquals(3 * 8192, contentCache.getTotalSize());
+    }
+
+    @Test
+    public void shouldUploadKeptContentsWithoutReadingAgain() throws Exception {
+        CountingArchive archive = new CountingArchive(10);
+        ContentCache contentCache = new ArchiveFingerprinter().fingerprint(archive);
+        UploadApplicationPayload payload = new UploadApplicationPayload(archive,
+                new CloudResources(Collections.<CloudResource>emptyList()), contentCache);
+
+        InputStream inputStream = payload.getInputStream();
+        while (inputStream.read(new byte[4096]) != -1) {
+            // read the whole payload
+        }
+
+        assertEquals(10, archive.opened.get());
+        assertEquals(0, contentCache.getTotalSize());
+    }
+
+    private byte[] write(File file, int length) throws IOException {
+        byte[] content = new byte[length];
+        new Random(42).nextBytes(content);
+        FileOutputStream outputStream = new FileOutputStream(file);
+        try {
+            outputStream.write(content);
+        } finally {
+            outputStream.close();
+        }
+        return content;
+    }
+
+    private static class CountingArchive implements ApplicationArchive {
+
+        private final List<Entry> entries = new ArrayList<Entry>();
+
+        private final AtomicInteger open = new AtomicInteger();
+
+        private final AtomicInteger maxOpen = new AtomicInteger();
+
+        private final AtomicInteger opened = new AtomicInteger();
+
+        private volatile int failing = -1;
+
+        public CountingArchive(int size) {
+            for (int i = 0; i < size; i++) {
+                entries.add(new CountingEntry(i));
+            }
+        }
+
+        public String getFilename() {
+            return "counting.zip";
+        }
+
+        public Iterable<Entry> getEntries() {
+            return entries;
+        }
+
+        private class CountingEntry extends AbstractApplicationArchiveEntry {
+
+            private final int index;
+
+            public CountingEntry(int index) {
+                this.index = index;
+            }
+
+            public boolean isDirectory() {
+                return false;
+            }
+
+            public String getName() {
+                return "file" + index;
+            }
+
+            public InputStream getInputStream() throws IOException {
+                if (index == failing) {
+                    throw new IOException("Cannot read " + getName());
+                }
+                opened.incrementAndGet();
+                int nowOpen = open.incrementAndGet();
+                while (true) {
+                    int max = maxOpen.get();
+                    if (nowOpen <= max || maxOpen.compareAndSet(max, nowOpen)) {
+                        break;
+                    }
+                }
+                return new ByteArrayInputStream(new byte[8192]) {
+                    @Override
+                    public void close() throws IOException {
+                        open.decrementAndGet();
+                    }
+                };
+            }
+        }
+    }
+
+}
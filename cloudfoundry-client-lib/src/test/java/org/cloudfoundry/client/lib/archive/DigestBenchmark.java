@@ -0,0 +1,113 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.archive;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+
+/**
+ * Compares the throughput of digesting a large file through the {@link FileDigester} large-buffer path used by
+ * {@link DirectoryApplicationArchive} with the stream path of {@link AbstractApplicationArchiveEntry}. Not run as
+ * part of the build; run the main method, optionally passing the file size in MB (default 256).
+ */
+public class DigestBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 3;
+
+    private static final int ITERATIONS = 10;
+
+    public static void main(String[] args) throws Exception {
+        int megabytes = (args.length > 0 ? Integer.parseInt(args[0]) : 256);
+        File directory = File.createTempFile("digest-benchmark", "");
+        directory.delete();
+        directory.mkdir();
+        final File file = new File(directory, "app.jar");
+        try {
+            write(file, megabytes);
+            report("stream", megabytes, new Digest() {
+                public void run() {
+                    new StreamEntry(file).getSha1Digest();
+                }
+            });
+            report("buffered", megabytes, new Digest() {
+                public void run() {
+                    new DirectoryApplicationArchive(file.getParentFile()).getEntries().iterator().next()
+                            .getSha1Digest();
+                }
+            });
+        } finally {
+            file.delete();
+            directory.delete();
+        }
+    }
+
+    private static void report(String name, int megabytes, Digest digest) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            digest.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            digest.run();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.println(String.format("%-8s %8.1f MB/s", name, megabytes * ITERATIONS / seconds));
+    }
+
+    private static void write(File file, int megabytes) throws IOException {
+        byte[] buffer = new byte[1024 * 1024];
+        Random random = new Random(42);
+        FileOutputStream outputStream = new FileOutputStream(file);
+        try {
+            for (int i = 0; i < megabytes; i++) {
+                random.nextBytes(buffer);
+                outputStream.write(buffer);
+            }
+        } finally {
+            outputStream.close();
+        }
+    }
+
+    private interface Digest {
+        void run();
+    }
+
+    private static class StreamEntry extends AbstractApplicationArchiveEntry {
+
+        private final File file;
+
+        public StreamEntry(File file) {
+            this.file = file;
+        }
+
+        public boolean isDirectory() {
+            return false;
+        }
+
+        public String getName() {
+            return file.getName();
+        }
+
+        public InputStream getInputStream() throws IOException {
+            return new FileInputStream(file);
+        }
+    }
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.archive;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link DigestCache}.
+ */
+public class DigestCacheTest {
+
+    private static final byte[] FAKE_DIGEST = new byte[20];
+
+    static {
+        Arrays.fill(FAKE_DIGEST, (byte) 7);
+    }
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File directory;
+
+    private File cacheFile;
+
+    @Before
+    public void setup() throws Exception {
+        directory = temporaryFolder.newFolder("app");
+        cacheFile = new File(temporaryFolder.getRoot(), "target/cf-digests.bin");
+        write(new File(directory, "index.html"), "hello");
+    }
+
+    @Test
+    public void shouldServeUnchangedFileFromCache() throws Exception {
+        File file = new File(directory, "index.html");
+        DigestCache cache = new DigestCache(cacheFile);
+        cache.put("index.html", DigestCache.stamp(file), FAKE_DIGEST);
+        cache.save();
+
+        DirectoryApplicationArchive archive = new DirectoryApplicationArchive(directory, new DigestCache(cacheFile));
+
+        ApplicationArchive.Entry entry = archive.getEntries().iterator().next();
+        assertArrayEquals(FAKE_DIGEST, entry.getSha1Digest());
+        assertEquals(5, entry.getSize());
+    }
+
+    @Test
+    public void shouldReadChangedFile() throws Exception {
+        File file = new File(directory, "index.html");
+        DigestCache cache = new DigestCache(cacheFile);
+        cache.put("index.html", DigestCache.stamp(file), FAKE_DIGEST);
+        cache.save();
+        write(file, "hello world");
+
+        DirectoryApplicationArchive archive = new DirectoryApplicationArchive(directory, new DigestCache(cacheFile));
+
+        ApplicationArchive.Entry entry = archive.getEntries().iterator().next();
+        assertArrayEquals(sha1("hello world"), entry.getSha1Digest());
+        assertEquals(11, entry.getSize());
+    }
+
+    @Test
+    public void shouldSaveComputedDigests() throws Exception {
+        DigestCache cache = new DigestCache(cacheFile);
+        DirectoryApplicationArchive archive = new DirectoryApplicationArchive(directory, cache);
+        archive.getEntries().iterator().next().getSha1Digest();
+        cache.save();
+
+        DigestCache reloaded = new DigestCache(cacheFile);
+
+        assertArrayEquals(sha1("hello"), reloaded.get("index.html", DigestCache.stamp(new File(directory, "index.html"))));
+    }
+
+    @Test
+    public void shouldNotSaveRecentlyModifiedFiles() throws Exception {
+        File file = new File(directory, "index.html");
+        file.setLastModified(System.currentTimeMillis());
+        DigestCache cache = new DigestCache(cacheFile);
+        cache.put("index.html", DigestCache.stamp(file), FAKE_DIGEST);
+        cache.save();
+
+        assertNull(new DigestCache(cacheFile).get("index.html", DigestCache.stamp(file)));
+    }
+
+    @Test
+    public void shouldIgnoreCorruptCacheFile() throws Exception {
+        cacheFile.getParentFile().mkdirs();
+        write(cacheFile, "not a digest cache");
+
+        DirectoryApplicationArchive archive = new DirectoryApplicationArchive(directory, new DigestCache(cacheFile));
+
+        assertArrayEquals(sha1("hello"), archive.getEntries().iterator().next().getSha1Digest());
+    }
+
+    private void write(File file, String content) throws IOException {
+        FileOutputStream outputStream = new FileOutputStream(file);
+        try {
+            outputStream.write(content.getBytes("UTF-8"));
+        } finally {
+            outputStream.close();
+        }
+        // keep the file out of the racy window so that its digest is saved
+        file.setLastModified(System.currentTimeMillis() - 60000);
+    }
+
+    private byte[] sha1(String content) throws Exception {
+        return MessageDigest.getInstance("SHA").digest(content.getBytes("UTF-8"));
+    }
+
+}
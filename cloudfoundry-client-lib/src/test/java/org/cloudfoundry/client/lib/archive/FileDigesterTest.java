@@ -0,0 +1,93 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.archive;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.security.MessageDigest;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link FileDigester}.
+ */
+public class FileDigesterTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldDigestFileLargerThanBuffer() throws Exception {
+        assertDigest(FileDigester.BUFFER_SIZE * 2 + 123);
+    }
+
+    @Test
+    public void shouldDigestEmptyFile() throws Exception {
+        assertDigest(0);
+    }
+
+    @Test
+    public void shouldDigestDirectoryArchiveEntriesThroughLargeBuffer() throws Exception {
+        File directory = temporaryFolder.newFolder("app");
+        byte[] content = write(new File(directory, "app.jar"), FileDigester.BUFFER_SIZE + 1);
+
+        ApplicationArchive.Entry entry = new DirectoryApplicationArchive(directory).getEntries().iterator().next();
+
+        assertEquals(content.length, entry.getSize());
+        assertArrayEquals(MessageDigest.getInstance("SHA").digest(content), entry.getSha1Digest());
+        assertEquals(crc(content), ((AbstractApplicationArchiveEntry) entry).getCrc());
+    }
+
+    private void assertDigest(int length) throws Exception {
+        File file = temporaryFolder.newFile();
+        byte[] content = write(file, length);
+        MessageDigest digest = MessageDigest.getInstance("SHA");
+        CRC32 checksum = new CRC32();
+
+        long byteCount = FileDigester.digest(file, digest, checksum);
+
+        assertEquals(length, byteCount);
+        assertArrayEquals(MessageDigest.getInstance("SHA").digest(content), digest.digest());
+        assertEquals(crc(content), checksum.getValue());
+    }
+
+    private long crc(byte[] content) {
+        CRC32 checksum = new CRC32();
+        checksum.update(content);
+        return checksum.getValue();
+    }
+
+    private byte[] write(File file, int length) throws Exception {
+        byte[] content = new byte[length];
+        new Random(42).nextBytes(content);
+        FileOutputStream outputStream = new FileOutputStream(file);
+        try {
+            outputStream.write(content);
+        } finally {
+            outputStream.close();
+        }
+        return content;
+    }
+
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.archive;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.zip.CRC32;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import org.cloudfoundry.client.lib.domain.CloudResource;
+import org.cloudfoundry.client.lib.domain.CloudResources;
+import org.cloudfoundry.client.lib.domain.UploadApplicationPayload;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.util.StreamUtils;
+
+/**
+ * Tests for {@link ZipLocalHeaders} and the raw entries of {@link ZipApplicationArchive}.
+ */
+public class ZipLocalHeadersTest {
+
+    private static final byte[] DEFLATED = repeat("deflated content ", 1000);
+
+    private static final byte[] STORED = repeat("stored content ", 10);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File file;
+
+    @Before
+    public void setup() throws Exception {
+        file = temporaryFolder.newFile("app.war");
+        ZipOutputStream zipStream = new ZipOutputStream(new FileOutputStream(file));
+        try {
+            zipStream.setComment("source archive");
+            zipStream.putNextEntry(new ZipEntry("WEB-INF/"));
+            zipStream.closeEntry();
+            zipStream.putNextEntry(new ZipEntry("WEB-INF/deflated.txt"));
+            zipStream.write(DEFLATED);
+            zipStream.closeEntry();
+            ZipEntry stored = new ZipEntry("stored.txt");
+            CRC32 crc = new CRC32();
+            crc.update(STORED);
+            stored.setMethod(ZipEntry.STORED);
+            stored.setCrc(crc.getValue());
+            stored.setSize(STORED.length);
+            zipStream.putNextEntry(stored);
+            zipStream.write(STORED);
+            zipStream.closeEntry();
+        } finally {
+            zipStream.close();
+        }
+    }
+
+    @Test
+    public void shouldReadRawContentOfEntries() throws Exception {
+        ZipFile zipFile = new ZipFile(file);
+        try {
+            for (ApplicationArchive.Entry entry : new ZipApplicationArchive(zipFile).getEntries()) {
+                ApplicationArchive.RawEntry rawEntry = (ApplicationArchive.RawEntry) entry;
+                if (entry.isDirectory()) {
+                    assertEquals(-1, rawEntry.getMethod());
+                } else if (entry.getName().equals("stored.txt")) {
+                    assertEquals(ZipEntry.STORED, rawEntry.getMethod());
+                    assertArrayEquals(STORED, readRaw(rawEntry));
+                } else {
+                    assertEquals(ZipEntry.DEFLATED, rawEntry.getMethod());
+                    byte[] raw = readRaw(rawEntry);
+                    assertEquals(rawEntry.getCompressedSize(), raw.length);
+                    InputStream inflated = new InflaterInputStream(new ByteArrayInputStream(raw), new Inflater(true));
+                    assertArrayEquals(DEFLATED, StreamUtils.copyToByteArray(inflated));
+                }
+            }
+        } finally {
+            zipFile.close();
+        }
+    }
+
+    @Test
+    public void shouldUploadRawEntries() throws Exception {
+        ZipFile zipFile = new ZipFile(file);
+        try {
+            UploadApplicationPayload payload = new UploadApplicationPayload(new ZipApplicationArchive(zipFile),
+                    new CloudResources(Collections.<CloudResource>emptyList()));
+
+            ZipInputStream inputStream = new ZipInputStream(payload.getInputStream());
+            assertEquals("WEB-INF/", inputStream.getNextEntry().getName());
+            assertEquals("WEB-INF/deflated.txt", inputStream.getNextEntry().getName());
+            assertArrayEquals(DEFLATED, StreamUtils.copyToByteArray(inputStream));
+            assertEquals("stored.txt", inputStream.getNextEntry().getName());
+            assertArrayEquals(STORED, StreamUtils.copyToByteArray(inputStream));
+            assertNull(inputStream.getNextEntry());
+        } finally {
+            zipFile.close();
+        }
+    }
+
+    private byte[] readRaw(ApplicationArchive.RawEntry entry) throws Exception {
+        InputStream inputStream = entry.getRawInputStream();
+        try {
+            return StreamUtils.copyToByteArray(inputStream);
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    private static byte[] repeat(String text, int count) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            builder.append(text);
+        }
+        return builder.toString().getBytes();
+    }
+
+}
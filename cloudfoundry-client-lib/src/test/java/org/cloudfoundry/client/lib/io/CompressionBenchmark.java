@@ -0,0 +1,143 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.cloudfoundry.client.lib.io.DynamicZipInputStream.Entry;
+import org.cloudfoundry.client.lib.io.DynamicZipInputStream.SizedEntry;
+
+/**
+ * Compares the throughput and output size of the {@link CompressionPolicy} presets on synthetic application
+ * layouts: a Spring Boot style application with a few large jars, and a WAR with many small files. Jars are random
+ * content, as a compressed jar is, and other files are repetitive text. Not run as part of the build; run the main
+ * method, optionally passing the number of compression threads (default 1).
+ */
+public class CompressionBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 3;
+
+    private static final int ITERATIONS = 10;
+
+    private static final String[] WORDS = { "public", "class", "return", "import", "void", "org.springframework",
+            "<bean", "id=", "private", "final", "String", "static", "</div>", "{", "}", ";" };
+
+    public static void main(String[] args) throws Exception {
+        int threads = (args.length > 0 ? Integer.parseInt(args[0]) : 1);
+        Random random = new Random(42);
+        List<Entry> boot = new ArrayList<Entry>();
+        for (int i = 0; i < 20; i++) {
+            boot.add(newEntry("lib/dependency" + i + ".jar", randomBytes(random, 2 * 1024 * 1024)));
+        }
+        for (int i = 0; i < 200; i++) {
+            boot.add(newEntry("classes/Type" + i + ".class", text(random, 4 * 1024)));
+        }
+        List<Entry> war = new ArrayList<Entry>();
+        for (int i = 0; i < 5; i++) {
+            war.add(newEntry("WEB-INF/lib/dependency" + i + ".jar", randomBytes(random, 1024 * 1024)));
+        }
+        for (int i = 0; i < 2000; i++) {
+            war.add(newEntry("static/page" + i + ".html", text(random, 8 * 1024)));
+        }
+        for (int i = 0; i < 200; i++) {
+            war.add(newEntry("static/image" + i + ".png", randomBytes(random, 16 * 1024)));
+        }
+        report("boot", boot, threads);
+        report("war", war, threads);
+    }
+
+    private static void report(String layout, List<Entry> entries, int threads) throws IOException {
+        report(layout, "deflate-all", entries, threads, CompressionPolicy.DEFLATE_ALL);
+        report(layout, "default", entries, threads, CompressionPolicy.DEFAULT);
+        report(layout, "fastest", entries, threads, CompressionPolicy.FASTEST);
+    }
+
+    private static void report(String layout, String policyName, List<Entry> entries, int threads,
+            CompressionPolicy policy) throws IOException {
+        long size = 0;
+        for (Entry entry : entries) {
+            size += entry.getInputStream().available();
+        }
+        long compressedSize = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            compressedSize = drain(new DynamicZipInputStream(entries, threads, policy));
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            drain(new DynamicZipInputStream(entries, threads, policy));
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.println(String.format("%-5s %-12s %8.1f MB/s %8.1f MB -> %8.1f MB", layout, policyName,
+                size * ITERATIONS / seconds / (1024 * 1024), size / (1024.0 * 1024), compressedSize / (1024.0 * 1024)));
+    }
+
+    private static long drain(InputStream inputStream) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long count = 0;
+        try {
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                count += read;
+            }
+        } finally {
+            inputStream.close();
+        }
+        return count;
+    }
+
+    private static byte[] randomBytes(Random random, int length) {
+        byte[] bytes = new byte[length];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+
+    private static byte[] text(Random random, int length) {
+        StringBuilder text = new StringBuilder(length + 32);
+        while (text.length() < length) {
+            text.append(WORDS[random.nextInt(WORDS.length)]).append(random.nextInt(8) == 0 ? '\n' : ' ');
+        }
+        text.setLength(length);
+        return text.toString().getBytes();
+    }
+
+    private static Entry newEntry(final String name, final byte[] content) {
+        return new SizedEntry() {
+
+            public String getName() {
+                return name;
+            }
+
+            public long getSize() {
+                return (content != null ? content.length : 0);
+            }
+
+            public long getCrc() {
+                return -1;
+            }
+
+            public InputStream getInputStream() {
+                return new ByteArrayInputStream(content);
+            }
+        };
+    }
+
+}
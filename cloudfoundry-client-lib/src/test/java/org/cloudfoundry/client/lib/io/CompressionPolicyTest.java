@@ -0,0 +1,67 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.io;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.zip.Deflater;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link CompressionPolicy}.
+ */
+public class CompressionPolicyTest {
+
+    @Test
+    public void shouldStoreByExtension() throws Exception {
+        CompressionPolicy policy = new CompressionPolicy(Deflater.BEST_SPEED, Arrays.asList("jar", "PNG"), false);
+        assertThat(policy.isStored("WEB-INF/lib/spring.jar"), is(true));
+        assertThat(policy.isStored("static/logo.png"), is(true));
+        assertThat(policy.isStored("static/LOGO.Png"), is(true));
+        assertThat(policy.isStored("WEB-INF/web.xml"), is(false));
+        assertThat(policy.isStored("jar"), is(false));
+        assertThat(policy.isStored("lib.jar/README"), is(false));
+    }
+
+    @Test
+    public void shouldStoreRandomContentWhenSampling() throws Exception {
+        byte[] random = new byte[CompressionPolicy.SAMPLE_SIZE];
+        new SecureRandom().nextBytes(random);
+        byte[] text = "<html><body>Hello World</body></html>".getBytes("UTF-8");
+        assertThat(CompressionPolicy.FASTEST.isStored(random, random.length), is(true));
+        assertThat(CompressionPolicy.FASTEST.isStored(text, text.length), is(false));
+        assertThat(CompressionPolicy.FASTEST.isStored(random, 0), is(false));
+        assertThat(CompressionPolicy.DEFAULT.isStored(random, random.length), is(false));
+    }
+
+    @Test
+    public void shouldDeflateEverything() throws Exception {
+        assertThat(CompressionPolicy.DEFLATE_ALL.isStored("a.jar"), is(false));
+        assertThat(CompressionPolicy.DEFAULT.isStored("a.jar"), is(true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectInvalidLevel() throws Exception {
+        new CompressionPolicy(10, Collections.<String>emptySet(), false);
+    }
+
+}
@@ -136,6 +136,39 @@ public class DynamicInputStreamTest {
         assertThat(l, is(0));
     }
 
+    @Test
+    public void shouldWriteStraightToReadBuffer() throws Exception {
+        mockWrite(new byte[] {0x00,0x01});
+        mockWrite(new byte[] {0x02,0x03});
+        byte[] b = readBytes();
+        assertThat(b,is(equalTo(new byte[] {0x00,0x01,0x02,0x03})));
+        assertThat(inputStream.getBytesRead(), is(4L));
+        assertThat(inputStream.getBytesStaged(), is(0L));
+    }
+
+    @Test
+    public void shouldStageDataThatDoesNotFitReadBuffer() throws Exception {
+        byte[] data = new byte[DynamicInputStream.DEFAULT_CAPACITY * 3 + 7];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        mockWrite(data);
+        mockWrite(new byte[] {0x01});
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1000];
+        int count;
+        while ((count = inputStream.read(buffer)) != -1) {
+            bos.write(buffer, 0, count);
+        }
+        byte[] expected = new byte[data.length + 1];
+        System.arraycopy(data, 0, expected, 0, data.length);
+        expected[data.length] = 0x01;
+        assertThat(bos.toByteArray(), is(equalTo(expected)));
+        assertThat(inputStream.getBytesRead(), is((long) expected.length));
+        assertThat(inputStream.getBytesStaged(), is((long) data.length - buffer.length));
+        assertThat(inputStream.getPeakCapacity(), is(DynamicInputStream.DEFAULT_CAPACITY * 4));
+    }
+
     private byte[] readBytes() throws IOException {
         ByteArrayOutputStream bos = new ByteArrayOutputStream();
         FileCopyUtils.copy(inputStream, bos);
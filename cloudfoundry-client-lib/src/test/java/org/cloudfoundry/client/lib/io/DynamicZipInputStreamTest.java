@@ -22,15 +22,22 @@ import static org.junit.Assert.assertThat;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.security.SecureRandom;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
 import org.cloudfoundry.client.lib.io.DynamicZipInputStream.Entry;
+import org.cloudfoundry.client.lib.io.DynamicZipInputStream.SizedEntry;
 import org.junit.Test;
 import org.springframework.util.FileCopyUtils;
+import org.springframework.util.StreamUtils;
 
 /**
  * Tests for {@link DynamicZipInputStream}.
@@ -73,13 +80,143 @@ public class DynamicZipInputStreamTest {
         assertThat(actual, is(equalTo(expected)));
     }
 
+    @Test
+    public void shouldCompressEntriesInParallel() throws Exception {
+        List<byte[]> contents = new ArrayList<byte[]>();
+        List<DynamicZipInputStream.Entry> entries = new ArrayList<DynamicZipInputStream.Entry>();
+        for (int i = 0; i < 50; i++) {
+            byte[] content = newRandomBytes(i == 25 ? DynamicZipInputStream.MAX_PARALLEL_ENTRY_SIZE + 1 : i * 100);
+            contents.add(content);
+            entries.add(newEntry("file" + i, content));
+        }
+        entries.add(newEntry("dir/", null));
+
+        ZipInputStream inputStream = new ZipInputStream(new DynamicZipInputStream(entries, 4));
+
+        for (int i = 0; i < 50; i++) {
+            ZipEntry entry = inputStream.getNextEntry();
+            assertThat(entry.getName(), is("file" + i));
+            assertThat(StreamUtils.copyToByteArray(inputStream), is(equalTo(contents.get(i))));
+        }
+        assertThat(inputStream.getNextEntry().getName(), is("dir/"));
+        assertThat(inputStream.getNextEntry() == null, is(true));
+        inputStream.close();
+    }
+
+    @Test
+    public void shouldReadEachEntryOnce() throws Exception {
+        AtomicInteger opened = new AtomicInteger();
+        List<DynamicZipInputStream.Entry> entries = new ArrayList<DynamicZipInputStream.Entry>();
+        for (int i = 0; i < 4; i++) {
+            byte[] content = newRandomBytes(i == 2 ? DynamicZipInputStream.MAX_PARALLEL_ENTRY_SIZE + 1 : 1000);
+            entries.add(newCountingEntry("sized" + i, content, opened, true, -1));
+            entries.add(newCountingEntry("unsized" + i, content, opened, false, -1));
+        }
+
+        ZipInputStream inputStream = new ZipInputStream(new DynamicZipInputStream(entries, 4));
+        int count = 0;
+        while (inputStream.getNextEntry() != null) {
+            StreamUtils.copyToByteArray(inputStream);
+            count++;
+        }
+        inputStream.close();
+
+        assertThat(count, is(8));
+        assertThat(opened.get(), is(8));
+    }
+
+    @Test
+    public void shouldReadStoredEntryWithKnownCrcOnce() throws Exception {
+        AtomicInteger opened = new AtomicInteger();
+        byte[] jar = newRandomBytes(DynamicZipInputStream.MAX_PARALLEL_ENTRY_SIZE + 1);
+        CRC32 crc = new CRC32();
+        crc.update(jar);
+        List<DynamicZipInputStream.Entry> entries = new ArrayList<DynamicZipInputStream.Entry>();
+        entries.add(newCountingEntry("lib/a.jar", jar, opened, true, crc.getValue()));
+
+        ZipInputStream inputStream = new ZipInputStream(new DynamicZipInputStream(entries, 1));
+        assertEntry(inputStream, "lib/a.jar", ZipEntry.STORED, jar);
+        assertThat(inputStream.getNextEntry() == null, is(true));
+        inputStream.close();
+
+        assertThat(opened.get(), is(1));
+    }
+
+    @Test
+    public void shouldStoreEntriesThatAreAlreadyCompressed() throws Exception {
+        byte[] jar = newRandomBytes(10000);
+        byte[] text = new byte[10000];
+        byte[] random = newRandomBytes(10000);
+        List<DynamicZipInputStream.Entry> entries = new ArrayList<DynamicZipInputStream.Entry>();
+        entries.add(newEntry("lib/a.jar", jar));
+        entries.add(newEntry("a.txt", text));
+        entries.add(newEntry("a.bin", random));
+
+        for (int threads : new int[] { 1, 4 }) {
+            ZipInputStream inputStream = new ZipInputStream(
+                    new DynamicZipInputStream(entries, threads, CompressionPolicy.FASTEST));
+            assertEntry(inputStream, "lib/a.jar", ZipEntry.STORED, jar);
+            assertEntry(inputStream, "a.txt", ZipEntry.DEFLATED, text);
+            assertEntry(inputStream, "a.bin", ZipEntry.STORED, random);
+            assertThat(inputStream.getNextEntry() == null, is(true));
+            inputStream.close();
+        }
+    }
+
+    @Test
+    public void shouldNotGrowBufferForManyEntries() throws Exception {
+        List<DynamicZipInputStream.Entry> entries = new ArrayList<DynamicZipInputStream.Entry>();
+        for (int i = 0; i < 5000; i++) {
+            entries.add(newEntry("some/rather/long/directory/name/file" + i, new byte[] { (byte) i }));
+        }
+        DynamicZipInputStream inputStream = new DynamicZipInputStream(entries);
+        ZipInputStream zipInputStream = new ZipInputStream(inputStream);
+        int count = 0;
+        while (zipInputStream.getNextEntry() != null) {
+            count++;
+        }
+        StreamUtils.copyToByteArray(zipInputStream);
+        zipInputStream.close();
+        assertThat(count, is(5000));
+        assertThat(inputStream.getPeakCapacity(), is(DynamicInputStream.DEFAULT_CAPACITY));
+    }
+
+    @Test
+    public void shouldCountUncompressedBytes() throws Exception {
+        List<DynamicZipInputStream.Entry> entries = new ArrayList<DynamicZipInputStream.Entry>();
+        entries.add(newEntry("a.txt", new byte[10000]));
+        entries.add(newEntry("dir/", null));
+        entries.add(newEntry("b.jar", newRandomBytes(5000)));
+        for (int threads : new int[] { 1, 4 }) {
+            DynamicZipInputStream inputStream = new DynamicZipInputStream(entries, threads);
+            StreamUtils.copyToByteArray(inputStream);
+            inputStream.close();
+            assertThat(inputStream.getUncompressedBytes(), is(15000L));
+        }
+    }
+
+    private void assertEntry(ZipInputStream inputStream, String name, int method, byte[] content) throws Exception {
+        ZipEntry entry = inputStream.getNextEntry();
+        assertThat(entry.getName(), is(name));
+        assertThat(entry.getMethod(), is(method));
+        assertThat(StreamUtils.copyToByteArray(inputStream), is(equalTo(content)));
+    }
+
     private Entry newEntry(final String name, final byte[] content) {
-        return new Entry() {
+        return new SizedEntry() {
 
             public String getName() {
                 return name;
             }
 
+            public long getSize() {
+                return (content != null ? content.length : 0);
+            }
+
+            public long getCrc() {
+                return -1;
+            }
+
             public InputStream getInputStream() {
                 if (content == null) {
                     return null;
@@ -89,6 +226,43 @@ public class DynamicZipInputStreamTest {
         };
     }
 
+    private Entry newCountingEntry(String name, byte[] content, final AtomicInteger opened, boolean sized,
+            final long crc) {
+        final Entry entry = newEntry(name, content);
+        if (sized) {
+            return new SizedEntry() {
+
+                public String getName() {
+                    return entry.getName();
+                }
+
+                public long getSize() {
+                    return ((SizedEntry) entry).getSize();
+                }
+
+                public long getCrc() {
+                    return crc;
+                }
+
+                public InputStream getInputStream() throws IOException {
+                    opened.incrementAndGet();
+                    return entry.getInputStream();
+                }
+            };
+        }
+        return new Entry() {
+
+            public String getName() {
+                return entry.getName();
+            }
+
+            public InputStream getInputStream() throws IOException {
+                opened.incrementAndGet();
+                return entry.getInputStream();
+            }
+        };
+    }
+
     private byte[] newRandomBytes(int len) {
         byte[] bytes = new byte[len];
         RANDOM.nextBytes(bytes);
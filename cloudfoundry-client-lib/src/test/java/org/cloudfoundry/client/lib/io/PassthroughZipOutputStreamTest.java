@@ -0,0 +1,117 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.security.SecureRandom;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipInputStream;
+
+import org.junit.Test;
+import org.springframework.util.StreamUtils;
+
+/**
+ * Tests for {@link PassthroughZipOutputStream}.
+ */
+public class PassthroughZipOutputStreamTest {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    @Test
+    public void shouldWriteRawAndDeflatedEntries() throws Exception {
+        byte[] deflated = newCompressibleBytes(20000);
+        byte[] stored = newCompressibleBytes(300);
+        byte[] plain = newCompressibleBytes(5000);
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        PassthroughZipOutputStream zipStream = new PassthroughZipOutputStream(bos);
+        putRawEntry(zipStream, "a/deflated", deflated, ZipEntry.DEFLATED);
+        putRawEntry(zipStream, "a/stored", stored, ZipEntry.STORED);
+        zipStream.putNextEntry(new UtcAdjustedZipEntry("b/plain"));
+        zipStream.write(plain);
+        zipStream.close();
+
+        ZipInputStream inputStream = new ZipInputStream(new ByteArrayInputStream(bos.toByteArray()));
+        assertEntry(inputStream, "a/deflated", deflated);
+        assertEntry(inputStream, "a/stored", stored);
+        assertEntry(inputStream, "b/plain", plain);
+        assertNull(inputStream.getNextEntry());
+    }
+
+    @Test(expected = ZipException.class)
+    public void shouldRejectTruncatedRawContent() throws Exception {
+        PassthroughZipOutputStream zipStream = new PassthroughZipOutputStream(new ByteArrayOutputStream());
+        ZipEntry entry = new UtcAdjustedZipEntry("a");
+        entry.setMethod(ZipEntry.STORED);
+        entry.setCrc(0);
+        entry.setCompressedSize(10);
+        entry.setSize(10);
+        zipStream.putNextRawEntry(entry);
+        zipStream.write(new byte[5]);
+        zipStream.closeEntry();
+    }
+
+    private void putRawEntry(PassthroughZipOutputStream zipStream, String name, byte[] content, int method)
+            throws Exception {
+        byte[] raw = (method == ZipEntry.DEFLATED ? deflate(content) : content);
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        ZipEntry entry = new UtcAdjustedZipEntry(name);
+        entry.setMethod(method);
+        entry.setCrc(crc.getValue());
+        entry.setCompressedSize(raw.length);
+        entry.setSize(content.length);
+        zipStream.putNextRawEntry(entry);
+        zipStream.write(raw);
+        zipStream.closeEntry();
+    }
+
+    private void assertEntry(ZipInputStream inputStream, String name, byte[] content) throws Exception {
+        assertEquals(name, inputStream.getNextEntry().getName());
+        assertArrayEquals(content, StreamUtils.copyToByteArray(inputStream));
+    }
+
+    private byte[] deflate(byte[] content) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+        deflater.setInput(content);
+        deflater.finish();
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        while (!deflater.finished()) {
+            bos.write(buffer, 0, deflater.deflate(buffer));
+        }
+        deflater.end();
+        return bos.toByteArray();
+    }
+
+    private byte[] newCompressibleBytes(int len) {
+        byte[] bytes = new byte[len];
+        for (int i = 0; i < len; i++) {
+            bytes[i] = (byte) ('a' + RANDOM.nextInt(4));
+        }
+        return bytes;
+    }
+
+}
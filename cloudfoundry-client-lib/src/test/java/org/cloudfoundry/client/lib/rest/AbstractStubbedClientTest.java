@@ -0,0 +1,71 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.rest;
+
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.SPACE_GUID;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import org.cloudfoundry.client.lib.CloudFoundryClient;
+import org.cloudfoundry.client.lib.domain.CloudEntity;
+import org.cloudfoundry.client.lib.domain.CloudSpace;
+import org.junit.Before;
+
+/**
+ * Base class for tests of the requests a {@link CloudFoundryClient} sends to the cloud controller. The client works
+ * in the development space and sends its requests to a {@link StubClientHttpRequestFactory}, with which each test
+ * registers the responses it relies on.
+ */
+public abstract class AbstractStubbedClientTest {
+
+	protected final StubClientHttpRequestFactory requestFactory = new StubClientHttpRequestFactory();
+
+	protected CloudFoundryClient client;
+
+	@Before
+	public void createClient() {
+		client = new CloudFoundryClient(requestFactory.createClient(getSessionSpace()));
+	}
+
+	/**
+	 * Returns the session space of the client, the development space unless overridden.
+	 */
+	protected CloudSpace getSessionSpace() {
+		return cloudSpace(SPACE_GUID, "development");
+	}
+
+	protected static CloudSpace cloudSpace(String guid, String name) {
+		return new CloudSpace(new CloudEntity.Meta(UUID.fromString(guid), null, null), name, null);
+	}
+
+	/**
+	 * Requests sent so far, as "METHOD /path?query".
+	 */
+	protected List<String> getRequests() {
+		return requestFactory.getRequests();
+	}
+
+	/**
+	 * Returns how many times the given request, as "METHOD /path?query", was sent.
+	 */
+	protected int count(String request) {
+		return Collections.frequency(getRequests(), request);
+	}
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.rest;
+
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.SPACE_APPS_URL;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.SPACE_GUID;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.appBinding;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.appWithoutRelations;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.finishedJob;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.page;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.serviceInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+
+import org.cloudfoundry.client.lib.CloudOperationException;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+
+public class BulkDeletionTest extends AbstractStubbedClientTest {
+
+	private static final String APP1_GUID = "7ad7ee5c-5fb5-4a3a-a1b5-0d1c1f7e5e01";
+
+	private static final String APP2_GUID = "7ad7ee5c-5fb5-4a3a-a1b5-0d1c1f7e5e02";
+
+	private static final String APP3_GUID = "7ad7ee5c-5fb5-4a3a-a1b5-0d1c1f7e5e03";
+
+	private static final String SERVICE_GUID = "4d8dbd6b-6ebc-4d80-8c4b-a06f3b5e7d44";
+
+	private static final String BINDING_GUID = "6fa0df8d-80de-4fa2-ae6d-c2815d709f66";
+
+	private static final String SERVICE_INSTANCES_URL = "/v2/spaces/" + SPACE_GUID + "/service_instances" +
+			"?inline-relations-depth=0&return_user_provided_service_instances=true&results-per-page=100";
+
+	@Test
+	public void failedApplicationDeletionsAreAggregated() {
+		requestFactory
+				.respond(HttpMethod.GET, SPACE_APPS_URL, page(appWithoutRelations(APP1_GUID, "app1", "STARTED"),
+						appWithoutRelations(APP2_GUID, "app2", "STOPPED"),
+						appWithoutRelations(APP3_GUID, "app3", "STOPPED")))
+				.respond(HttpMethod.DELETE, "/v2/apps/" + APP1_GUID + "?recursive=true&async=true", finishedJob())
+				.respond(HttpMethod.DELETE, "/v2/apps/" + APP3_GUID + "?recursive=true&async=true", finishedJob());
+
+		try {
+			client.deleteAllApplications();
+			fail("Expected CloudOperationException");
+		} catch (CloudOperationException e) {
+			assertThat(e.getMessage(), is("Failed to delete 1 of 3 applications: app2"));
+			assertThat(e.getSuppressed().length, is(1));
+		}
+		assertThat(count("DELETE /v2/apps/" + APP1_GUID + "?recursive=true&async=true"), is(1));
+		assertThat(count("DELETE /v2/apps/" + APP3_GUID + "?recursive=true&async=true"), is(1));
+	}
+
+	@Test
+	public void servicesAreListedWithoutInlinedRelations() {
+		requestFactory
+				.respond(HttpMethod.GET, SERVICE_INSTANCES_URL, page(serviceInstance(SERVICE_GUID, "mysql")))
+				.respond(HttpMethod.GET, "/v2/service_instances/" + SERVICE_GUID + "/service_bindings",
+						page(appBinding(BINDING_GUID, APP1_GUID)))
+				.respond(HttpMethod.DELETE, "/v2/service_bindings/" + BINDING_GUID, "")
+				.respond(HttpMethod.DELETE, "/v2/service_instances/" + SERVICE_GUID + "?async=true", finishedJob());
+
+		client.deleteAllServices();
+
+		assertThat(getRequests(), is(Arrays.asList(
+				"GET " + SERVICE_INSTANCES_URL,
+				"GET /v2/service_instances/" + SERVICE_GUID + "/service_bindings",
+				"DELETE /v2/service_bindings/" + BINDING_GUID,
+				"DELETE /v2/service_instances/" + SERVICE_GUID + "?async=true")));
+	}
+
+}
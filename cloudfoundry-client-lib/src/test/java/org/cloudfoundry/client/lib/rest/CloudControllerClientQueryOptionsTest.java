@@ -0,0 +1,120 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.rest;
+
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.SPACE_GUID;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.STACK_GUID;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.appWithoutRelations;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.page;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.serviceOfferingWithoutPlans;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.space;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.stack;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.cloudfoundry.client.lib.QueryOptions;
+import org.cloudfoundry.client.lib.domain.CloudApplication;
+import org.cloudfoundry.client.lib.domain.CloudServiceOffering;
+import org.cloudfoundry.client.lib.domain.CloudSpace;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.springframework.http.HttpMethod;
+
+public class CloudControllerClientQueryOptionsTest extends AbstractStubbedClientTest {
+
+	private static final String APP1_GUID = "7ad7ee5c-5fb5-4a3a-a1b5-0d1c1f7e5e01";
+
+	private static final String APP2_GUID = "7ad7ee5c-5fb5-4a3a-a1b5-0d1c1f7e5e02";
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+	@Override
+	protected CloudSpace getSessionSpace() {
+		return null;
+	}
+
+	@Test
+	public void basicInfoUsesDepthZeroAndResolvesSharedRelationsOnce() {
+		requestFactory
+				.respond(HttpMethod.GET, "/v2/apps?inline-relations-depth=0&results-per-page=100",
+						page(appWithoutRelations(APP1_GUID, "app1", "STOPPED"),
+								appWithoutRelations(APP2_GUID, "app2", "STOPPED")))
+				.respond(HttpMethod.GET, "/v2/stacks/" + STACK_GUID, stack())
+				.respond(HttpMethod.GET, "/v2/spaces/" + SPACE_GUID, space());
+
+		List<CloudApplication> apps = client.getApplicationsWithBasicInfo();
+
+		assertThat(apps.size(), is(2));
+		assertThat(apps.get(1).getStaging().getStack(), is("lucid64"));
+		assertThat(apps.get(1).getSpace().getName(), is("development"));
+		assertThat(apps.get(1).getServices().isEmpty(), is(true));
+		assertThat(getRequests(), is(Arrays.asList(
+				"GET /v2/apps?inline-relations-depth=0&results-per-page=100",
+				"GET /v2/stacks/" + STACK_GUID,
+				"GET /v2/spaces/" + SPACE_GUID)));
+	}
+
+	@Test
+	public void unresolvedRelationsAreLeftOut() {
+		requestFactory
+				.respond(HttpMethod.GET, "/v2/apps?inline-relations-depth=0&results-per-page=50",
+						page(appWithoutRelations(APP1_GUID, "app1", "STOPPED")))
+				.respond(HttpMethod.GET, "/v2/apps/" + APP1_GUID + "/routes?inline-relations-depth=1", page());
+
+		List<CloudApplication> apps = client.getApplications(new QueryOptions(0, 50));
+
+		assertThat(apps.size(), is(1));
+		assertThat(apps.get(0).getName(), is("app1"));
+		assertThat(apps.get(0).getStaging().getStack(), is(nullValue()));
+		assertThat(apps.get(0).getSpace(), is(nullValue()));
+		assertThat(getRequests(), is(Arrays.asList(
+				"GET /v2/apps?inline-relations-depth=0&results-per-page=50",
+				"GET /v2/apps/" + APP1_GUID + "/routes?inline-relations-depth=1")));
+	}
+
+	@Test
+	public void serviceOfferingsWithoutPlans() {
+		requestFactory.respond(HttpMethod.GET, "/v2/services?inline-relations-depth=0",
+				page(serviceOfferingWithoutPlans("8b2c1f0e-92ef-4a13-bf7e-d3926e81a077", "mysql", "core")));
+
+		List<CloudServiceOffering> offerings = client.getServiceOfferings(new QueryOptions(0));
+
+		assertThat(offerings.size(), is(1));
+		assertThat(offerings.get(0).getLabel(), is("mysql"));
+		assertThat(offerings.get(0).getCloudServicePlans().isEmpty(), is(true));
+		assertThat(getRequests(), is(Arrays.asList("GET /v2/services?inline-relations-depth=0")));
+	}
+
+	@Test
+	public void depthIsValidated() {
+		thrown.expect(IllegalArgumentException.class);
+		new QueryOptions(3);
+	}
+
+	@Test
+	public void resultsPerPageIsValidated() {
+		thrown.expect(IllegalArgumentException.class);
+		new QueryOptions(1, QueryOptions.MAX_RESULTS_PER_PAGE + 1);
+	}
+
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.rest;
+
+import java.util.UUID;
+
+/**
+ * JSON fixtures of cloud controller v2 resources, for use with {@link StubClientHttpRequestFactory}.
+ */
+public class CloudControllerFixtures {
+
+	public static final String SPACE_GUID = "2b6b9b4f-4c9a-4b6e-8a2f-8e4d1f3c5b22";
+
+	public static final String STACK_GUID = "1a5a8a3e-3b89-4a5d-9f1e-7d3c0e2b4a11";
+
+	/**
+	 * Applications of the session space, as listed at inline-relations-depth 0.
+	 */
+	public static final String SPACE_APPS_URL =
+			"/v2/spaces/" + SPACE_GUID + "/apps?inline-relations-depth=0&results-per-page=100";
+
+	/**
+	 * Routes of the session space with their domains and applications.
+	 */
+	public static final String SPACE_ROUTES_URL =
+			"/v2/spaces/" + SPACE_GUID + "/routes?inline-relations-depth=1&results-per-page=100";
+
+	/**
+	 * Service instances of the session space with their plans, offerings and bindings.
+	 */
+	public static final String SPACE_SERVICES_URL = "/v2/spaces/" + SPACE_GUID + "/service_instances" +
+			"?inline-relations-depth=2&return_user_provided_service_instances=true&results-per-page=100";
+
+	/**
+	 * The service catalog, offerings with their plans.
+	 */
+	public static final String SERVICE_CATALOG_URL = "/v2/services?inline-relations-depth=1&results-per-page=100";
+
+	/**
+	 * The request looking up an application of the session space by name.
+	 */
+	public static String appByNameUrl(String name) {
+		return "/v2/spaces/" + SPACE_GUID + "/apps?inline-relations-depth=1&q=name:" + name;
+	}
+
+	public static String page(String... resources) {
+		return page(resources.length, null, resources);
+	}
+
+	/**
+	 * First page of a listing of {@code totalResults} resources, the next page of which is at {@code nextUrl}.
+	 */
+	public static String page(int totalResults, String nextUrl, String... resources) {
+		StringBuilder json = new StringBuilder("{'total_results':" + totalResults + ",'total_pages':" +
+				(nextUrl != null ? 2 : 1) + ",'next_url':" + (nextUrl != null ? "'" + nextUrl + "'" : "null") +
+				",'resources':[");
+		for (int i = 0; i < resources.length; i++) {
+			if (i > 0) {
+				json.append(',');
+			}
+			json.append(resources[i]);
+		}
+		return json.append("]}").toString();
+	}
+
+	public static String meta(String guid, String path) {
+		return "'metadata':{'guid':'" + guid + "','url':'" + path + "/" + guid + "'," +
+				"'created_at':'2014-06-01T10:00:00+00:00','updated_at':null}";
+	}
+
+	/**
+	 * Resource with metadata only, as returned when a resource is created.
+	 */
+	public static String resource(String guid, String path) {
+		return "{" + meta(guid, path) + ",'entity':{}}";
+	}
+
+	public static String error(int code, String description, String errorCode) {
+		return "{'code':" + code + ",'description':'" + description + "','error_code':'" + errorCode + "'}";
+	}
+
+	public static String finishedJob() {
+		return "{" + meta("9e8f7a6b-1c2d-4e3f-8a9b-0c1d2e3f4a5b", "/v2/jobs") + ",'entity':{'status':'finished'}}";
+	}
+
+	/**
+	 * Instance stats of an application, with one instance per given state.
+	 */
+	public static String instanceStats(String... states) {
+		StringBuilder json = new StringBuilder("{");
+		for (int i = 0; i < states.length; i++) {
+			if (i > 0) {
+				json.append(',');
+			}
+			json.append("'" + i + "':{'state':'" + states[i] + "'}");
+		}
+		return json.append("}").toString();
+	}
+
+	public static String app(String guid, String name, String state) {
+		return "{" + meta(guid, "/v2/apps") + "," +
+				"'entity':{'name':'" + name + "','state':'" + state + "','instances':1,'memory':512," +
+				"'disk_quota':1024,'environment_json':{},'space_guid':'" + SPACE_GUID + "'," +
+				"'service_bindings':[],'service_bindings_url':'/v2/apps/" + guid + "/service_bindings'," +
+				"'routes_url':'/v2/apps/" + guid + "/routes'," +
+				"'stack':" + stack() + ",'space':" + space() + "}}";
+	}
+
+	/**
+	 * Application as returned at inline-relations-depth 0, with relation URLs instead of embedded resources.
+	 */
+	public static String appWithoutRelations(String guid, String name, String state) {
+		return "{" + meta(guid, "/v2/apps") + "," +
+				"'entity':{'name':'" + name + "','state':'" + state + "','instances':1,'memory':512," +
+				"'disk_quota':1024,'environment_json':{},'space_guid':'" + SPACE_GUID + "'," +
+				"'stack_guid':'" + STACK_GUID + "','stack_url':'/v2/stacks/" + STACK_GUID + "'," +
+				"'space_url':'/v2/spaces/" + SPACE_GUID + "'," +
+				"'service_bindings_url':'/v2/apps/" + guid + "/service_bindings'," +
+				"'routes_url':'/v2/apps/" + guid + "/routes'}}";
+	}
+
+	public static String stack() {
+		return "{" + meta(STACK_GUID, "/v2/stacks") + ",'entity':{'name':'lucid64','description':'Ubuntu'}}";
+	}
+
+	public static String space() {
+		return "{" + meta(SPACE_GUID, "/v2/spaces") + ",'entity':{'name':'development'}}";
+	}
+
+	/**
+	 * Space with its organization, as listed at inline-relations-depth 1. The organization guid is derived
+	 * from its name.
+	 */
+	public static String space(String guid, String name, String orgName) {
+		return "{" + meta(guid, "/v2/spaces") + ",'entity':{'name':'" + name + "','organization':{" +
+				meta(UUID.nameUUIDFromBytes(orgName.getBytes()).toString(), "/v2/organizations") +
+				",'entity':{'name':'" + orgName + "','billing_enabled':false}}}}";
+	}
+
+	public static String domain(String guid, String name) {
+		return "{" + meta(guid, "/v2/domains") + ",'entity':{'name':'" + name + "'}}";
+	}
+
+	public static String route(String guid, String host, String domainJson, String... appJson) {
+		StringBuilder apps = new StringBuilder();
+		for (int i = 0; i < appJson.length; i++) {
+			if (i > 0) {
+				apps.append(',');
+			}
+			apps.append(appJson[i]);
+		}
+		return "{" + meta(guid, "/v2/routes") + ",'entity':{'host':'" + host + "','space_guid':'" + SPACE_GUID +
+				"','domain':" + domainJson + ",'apps':[" + apps + "]}}";
+	}
+
+	/**
+	 * Route whose applications are not inlined, and have to be listed from its apps URL.
+	 */
+	public static String routeWithAppsUrl(String guid, String host, String domainJson) {
+		return "{" + meta(guid, "/v2/routes") + ",'entity':{'host':'" + host + "','space_guid':'" + SPACE_GUID +
+				"','domain':" + domainJson + ",'apps_url':'/v2/routes/" + guid + "/apps'}}";
+	}
+
+	/**
+	 * Route as returned at inline-relations-depth 0, with the guid of its domain instead of the domain.
+	 */
+	public static String routeWithoutRelations(String guid, String host, String domainGuid) {
+		return "{" + meta(guid, "/v2/routes") + ",'entity':{'host':'" + host + "','space_guid':'" + SPACE_GUID +
+				"','domain_guid':'" + domainGuid + "','apps_url':'/v2/routes/" + guid + "/apps'}}";
+	}
+
+	/**
+	 * Service instance as returned at inline-relations-depth 0, with the URL of its bindings.
+	 */
+	public static String serviceInstance(String guid, String name) {
+		return "{" + meta(guid, "/v2/service_instances") + ",'entity':{'name':'" + name + "'," +
+				"'space_guid':'" + SPACE_GUID + "','service_bindings_url':'/v2/service_instances/" + guid +
+				"/service_bindings'}}";
+	}
+
+	/**
+	 * Service instance with its plan, the offering of the plan and its bindings, as listed at
+	 * inline-relations-depth 2.
+	 */
+	public static String serviceInstanceWithPlan(String guid, String name, String planGuid, String planName,
+			String offeringGuid, String label, String... bindingJson) {
+		StringBuilder json = new StringBuilder("{" + meta(guid, "/v2/service_instances") + ",'entity':{'name':'" +
+				name + "','service_plan':{" + meta(planGuid, "/v2/service_plans") + ",'entity':{'name':'" + planName +
+				"','service':{" + meta(offeringGuid, "/v2/services") + ",'entity':{'label':'" + label +
+				"','provider':'core'}}}},'service_bindings':[");
+		for (int i = 0; i < bindingJson.length; i++) {
+			if (i > 0) {
+				json.append(',');
+			}
+			json.append(bindingJson[i]);
+		}
+		return json.append("]}}").toString();
+	}
+
+	public static String serviceBinding(String guid, String appGuid, String serviceInstanceJson) {
+		return "{" + meta(guid, "/v2/service_bindings") + ",'entity':{'app_guid':'" + appGuid + "'," +
+				"'service_instance':" + serviceInstanceJson + "}}";
+	}
+
+	public static String serviceInstanceWithBindings(String guid, String name, String... bindingJson) {
+		StringBuilder json = new StringBuilder("{" + meta(guid, "/v2/service_instances") + ",'entity':{'name':'" +
+				name + "','space_guid':'" + SPACE_GUID + "','service_bindings_url':'/v2/service_instances/" + guid +
+				"/service_bindings','service_bindings':[");
+		for (int i = 0; i < bindingJson.length; i++) {
+			if (i > 0) {
+				json.append(',');
+			}
+			json.append(bindingJson[i]);
+		}
+		return json.append("]}}").toString();
+	}
+
+	public static String appBinding(String guid, String appGuid) {
+		return "{" + meta(guid, "/v2/service_bindings") + ",'entity':{'app_guid':'" + appGuid + "'}}";
+	}
+
+	/**
+	 * Service binding as returned at inline-relations-depth 0, with the guids of its application and service
+	 * instance.
+	 */
+	public static String serviceBindingWithoutRelations(String guid, String appGuid, String serviceInstanceGuid) {
+		return "{" + meta(guid, "/v2/service_bindings") + ",'entity':{'app_guid':'" + appGuid + "'," +
+				"'service_instance_guid':'" + serviceInstanceGuid + "'}}";
+	}
+
+	public static String serviceBroker(String guid, String name) {
+		return "{" + meta(guid, "/v2/service_brokers") + ",'entity':{'name':'" + name + "'}}";
+	}
+
+	public static String serviceOffering(String guid, String label, String provider, String... planJson) {
+		StringBuilder json = new StringBuilder("{" + meta(guid, "/v2/services") + ",'entity':{'label':'" + label +
+				"','provider':'" + provider + "','version':null,'description':'" + label + " service'," +
+				"'active':true,'bindable':true,'service_plans':[");
+		for (int i = 0; i < planJson.length; i++) {
+			if (i > 0) {
+				json.append(',');
+			}
+			json.append(planJson[i]);
+		}
+		return json.append("]}}").toString();
+	}
+
+	/**
+	 * Service offering as returned at inline-relations-depth 0, with the URL of its plans.
+	 */
+	public static String serviceOfferingWithoutPlans(String guid, String label, String provider) {
+		return "{" + meta(guid, "/v2/services") + ",'entity':{'label':'" + label + "','provider':'" + provider +
+				"','active':true,'bindable':true,'service_plans_url':'/v2/services/" + guid + "/service_plans'}}";
+	}
+
+	public static String servicePlan(String guid, String name) {
+		return "{" + meta(guid, "/v2/service_plans") + ",'entity':{'name':'" + name + "','free':true," +
+				"'public':false,'description':'" + name + " plan'}}";
+	}
+
+	public static String event(String guid, String type, String acteeGuid, String acteeName, String timestamp) {
+		return "{" + meta(guid, "/v2/events") + ",'entity':{'type':'" + type + "','actor':'uaa-id-1'," +
+				"'actor_type':'user','actor_name':'admin','actee':'" + acteeGuid + "','actee_type':'app'," +
+				"'actee_name':'" + acteeName + "','timestamp':'" + timestamp + "','metadata':{}," +
+				"'space_guid':'" + SPACE_GUID + "'}}";
+	}
+
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.rest;
+
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.SERVICE_CATALOG_URL;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.SPACE_APPS_URL;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.SPACE_GUID;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.SPACE_ROUTES_URL;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.SPACE_SERVICES_URL;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.appWithoutRelations;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.event;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.page;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.stack;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import org.cloudfoundry.client.lib.CloudChangeListener;
+import org.cloudfoundry.client.lib.CloudEventFeed;
+import org.cloudfoundry.client.lib.SpaceSnapshot;
+import org.cloudfoundry.client.lib.domain.CloudChange;
+import org.cloudfoundry.client.lib.util.CloudUtil;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+
+public class CloudEventFeedTest extends AbstractStubbedClientTest {
+
+	private static final String APP1_GUID = "7ad7ee5c-5fb5-4a3a-a1b5-0d1c1f7e5e01";
+
+	private static final String APP2_GUID = "7ad7ee5c-5fb5-4a3a-a1b5-0d1c1f7e5e02";
+
+	private static final String FIRST_EVENT = event("0e2b3c4d-1a2b-4c3d-8e9f-000000000001", "audit.app.create",
+			APP1_GUID, "app1", "2014-06-01T10:00:00+00:00");
+
+	private static final String UPDATE_EVENT = event("0e2b3c4d-1a2b-4c3d-8e9f-000000000002", "audit.app.update",
+			APP2_GUID, "app2", "2014-06-01T10:05:00+00:00");
+
+	private static final String DELETE_EVENT = event("0e2b3c4d-1a2b-4c3d-8e9f-000000000003", "audit.app.delete-request",
+			APP1_GUID, "app1", "2014-06-01T10:05:00+00:00");
+
+	private static final String SPACE_QUERY = "&q=space_guid:" + SPACE_GUID;
+
+	private static final String LATEST_EVENT_URL = "/v2/events?order-direction=desc&results-per-page=1" + SPACE_QUERY;
+
+	private static final String EVENTS_SINCE_URL = "/v2/events?order-direction=asc&results-per-page=100&q=timestamp>=";
+
+	@Before
+	public void setUp() {
+		requestFactory
+				.respond(HttpMethod.GET, LATEST_EVENT_URL, page(FIRST_EVENT))
+				.respond(HttpMethod.GET, EVENTS_SINCE_URL + "2014-06-01T10:00:00Z" + SPACE_QUERY,
+						page(FIRST_EVENT, UPDATE_EVENT, DELETE_EVENT));
+	}
+
+	@Test
+	public void feedStartsAfterLatestEvent() {
+		CloudEventFeed feed = client.getEventFeed();
+		assertThat(CloudUtil.formatTimestamp(feed.getCursor()), is("2014-06-01T10:00:00Z"));
+
+		List<CloudChange> changes = feed.poll();
+		assertThat(changes.size(), is(2));
+		assertThat(changes.get(0).getResourceType(), is(CloudChange.ResourceType.APPLICATION));
+		assertThat(changes.get(0).getAction(), is(CloudChange.Action.UPDATED));
+		assertThat(changes.get(0).getResourceGuid(), is(UUID.fromString(APP2_GUID)));
+		assertThat(changes.get(1).getAction(), is(CloudChange.Action.DELETED));
+		assertThat(CloudUtil.formatTimestamp(feed.getCursor()), is("2014-06-01T10:05:00Z"));
+	}
+
+	@Test
+	public void eventsAtCursorAreNotReportedTwice() {
+		requestFactory.respond(HttpMethod.GET, EVENTS_SINCE_URL + "2014-06-01T10:05:00Z" + SPACE_QUERY,
+				page(UPDATE_EVENT, DELETE_EVENT));
+		CloudEventFeed feed = client.getEventFeed();
+		final List<CloudChange> notified = new ArrayList<CloudChange>();
+		feed.addChangeListener(new CloudChangeListener() {
+			public void onChanges(List<CloudChange> changes) {
+				notified.addAll(changes);
+			}
+		});
+
+		feed.poll();
+		assertThat(feed.poll().isEmpty(), is(true));
+		assertThat(notified.size(), is(2));
+	}
+
+	@Test
+	public void snapshotIsUpdatedFromChanges() {
+		requestFactory
+				.respond(HttpMethod.GET, SPACE_APPS_URL, page(appWithoutRelations(APP1_GUID, "app1", "STOPPED"),
+						appWithoutRelations(APP2_GUID, "app2", "STOPPED")))
+				.respond(HttpMethod.GET, SPACE_ROUTES_URL, page())
+				.respond(HttpMethod.GET, "/v2/domains?results-per-page=100", page())
+				.respond(HttpMethod.GET, SPACE_SERVICES_URL, page())
+				.respond(HttpMethod.GET, "/v2/stacks", page(stack()))
+				.respond(HttpMethod.GET, "/v2/apps/" + APP2_GUID + "?inline-relations-depth=0",
+						appWithoutRelations(APP2_GUID, "app2-renamed", "STOPPED"))
+				.respond(HttpMethod.GET, "/v2/apps/" + APP2_GUID + "/routes?inline-relations-depth=1", page());
+		SpaceSnapshot snapshot = client.getSpaceSnapshot();
+		CloudEventFeed feed = client.getEventFeed();
+		feed.addChangeListener(snapshot);
+		int requests = getRequests().size();
+
+		feed.poll();
+		assertThat(snapshot.getApplication("app1"), is(nullValue()));
+		assertThat(snapshot.getApplication(UUID.fromString(APP2_GUID)).getName(), is("app2-renamed"));
+		assertThat(snapshot.getApplication("app2-renamed").getStaging().getStack(), is("lucid64"));
+		assertThat(snapshot.getApplications().size(), is(1));
+		// one events listing, the updated application and its routes; no full reload of the space
+		assertThat(getRequests().subList(requests, getRequests().size()), is(Arrays.asList(
+				"GET " + EVENTS_SINCE_URL + "2014-06-01T10:00:00Z" + SPACE_QUERY,
+				"GET /v2/apps/" + APP2_GUID + "?inline-relations-depth=0",
+				"GET /v2/apps/" + APP2_GUID + "/routes?inline-relations-depth=1")));
+	}
+
+	@Test
+	public void serviceCatalogIsReloadedAfterOfferingChanges() {
+		requestFactory
+				.respond(HttpMethod.GET, SERVICE_CATALOG_URL, page())
+				.respond(HttpMethod.GET, EVENTS_SINCE_URL + "2014-06-01T10:00:00Z" + SPACE_QUERY,
+						page(FIRST_EVENT, event("0e2b3c4d-1a2b-4c3d-8e9f-000000000004", "audit.service_broker.update",
+								"8b2c1f0e-92ef-4a13-bf7e-d3926e81a077", "broker", "2014-06-01T10:05:00+00:00")));
+		CloudEventFeed feed = client.getEventFeed();
+		client.getServiceOfferings();
+		client.getServiceOfferings();
+
+		assertThat(feed.poll().get(0).getResourceType(), is(CloudChange.ResourceType.SERVICE_OFFERING));
+		client.getServiceOfferings();
+		assertThat(count("GET " + SERVICE_CATALOG_URL), is(2));
+	}
+
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.rest;
+
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.SPACE_GUID;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.event;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.page;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.UUID;
+
+import org.cloudfoundry.client.lib.CloudEventCallback;
+import org.cloudfoundry.client.lib.EventQuery;
+import org.cloudfoundry.client.lib.domain.CloudEvent;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+
+public class CloudEventQueryTest extends AbstractStubbedClientTest {
+
+	private static final String APP_GUID = "7ad7ee5c-5fb5-4a3a-a1b5-0d1c1f7e5e01";
+
+	private static final String EVENT1 = event("0e2b3c4d-1a2b-4c3d-8e9f-000000000001", "audit.app.update",
+			APP_GUID, "app1", "2014-06-01T10:05:00+00:00");
+
+	private static final String EVENT2 = event("0e2b3c4d-1a2b-4c3d-8e9f-000000000002", "audit.app.update",
+			APP_GUID, "app1", "2014-06-01T10:04:00+00:00");
+
+	private static final String EVENT3 = event("0e2b3c4d-1a2b-4c3d-8e9f-000000000003", "audit.app.create",
+			APP_GUID, "app1", "2014-06-01T10:00:00+00:00");
+
+	private static final String LATEST_URL = "/v2/events?order-direction=desc&results-per-page=2&q=actee:" + APP_GUID;
+
+	private static final String NEXT_PAGE_URL = LATEST_URL + "&page=2";
+
+	@Test
+	public void limitStopsAtFirstPage() {
+		respondWithTwoPages(LATEST_URL);
+		List<CloudEvent> events = client.getEvents(EventQuery.latest(UUID.fromString(APP_GUID), 2));
+		assertThat(events.size(), is(2));
+		assertThat(events.get(0).getMeta().getGuid(), is(UUID.fromString("0e2b3c4d-1a2b-4c3d-8e9f-000000000001")));
+		assertThat(getRequests(), is(Arrays.asList("GET " + LATEST_URL)));
+	}
+
+	@Test
+	public void callbackReceivesEventsAcrossPages() {
+		respondWithTwoPages("/v2/events?order-direction=desc&results-per-page=100&q=actee:" + APP_GUID);
+		EventQuery query = new EventQuery();
+		query.setActee(UUID.fromString(APP_GUID));
+		query.setDescending(true);
+		final List<String> types = new ArrayList<String>();
+		client.getEvents(query, new CloudEventCallback() {
+			public boolean onEvent(CloudEvent event) {
+				types.add(event.getType());
+				return false;
+			}
+		});
+		assertThat(types, is(Arrays.asList("audit.app.update", "audit.app.update", "audit.app.create")));
+		assertThat(getRequests().size(), is(2));
+	}
+
+	@Test
+	public void callbackCanStopQuery() {
+		respondWithTwoPages(LATEST_URL);
+		final List<CloudEvent> events = new ArrayList<CloudEvent>();
+		client.getEvents(EventQuery.latest(UUID.fromString(APP_GUID), 2), new CloudEventCallback() {
+			public boolean onEvent(CloudEvent event) {
+				events.add(event);
+				return true;
+			}
+		});
+		assertThat(events.size(), is(1));
+	}
+
+	@Test
+	public void filtersAreSentToCloudController() {
+		Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+		calendar.clear();
+		calendar.set(2014, Calendar.JUNE, 1, 10, 0, 0);
+		EventQuery query = new EventQuery();
+		query.setSince(calendar.getTime());
+		calendar.set(Calendar.HOUR_OF_DAY, 11);
+		query.setUntil(calendar.getTime());
+		query.setTypes("audit.app.update", "audit.app.create");
+		query.setSpace(UUID.fromString(SPACE_GUID));
+		requestFactory.respond(HttpMethod.GET, "/v2/events?order-direction=asc&results-per-page=100" +
+				"&q=timestamp>=2014-06-01T10:00:00Z&q=timestamp<2014-06-01T11:00:00Z" +
+				"&q=type IN audit.app.update,audit.app.create&q=space_guid:" + SPACE_GUID, page(EVENT3, EVENT2, EVENT1));
+
+		assertThat(client.getEvents(query).size(), is(3));
+	}
+
+	private void respondWithTwoPages(String firstPageUrl) {
+		requestFactory
+				.respond(HttpMethod.GET, firstPageUrl, page(3, NEXT_PAGE_URL, EVENT1, EVENT2))
+				.respond(HttpMethod.GET, NEXT_PAGE_URL, page(EVENT3));
+	}
+
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.rest;
+
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.SPACE_APPS_URL;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.SPACE_GUID;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.app;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.appBinding;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.domain;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.instanceStats;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.page;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.route;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.serviceBinding;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.serviceInstance;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.serviceInstanceWithBindings;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.cloudfoundry.client.lib.domain.CloudApplication;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+
+public class LazyApplicationLoadingTest extends AbstractStubbedClientTest {
+
+	private static final String APP1_GUID = "7ad7ee5c-5fb5-4a3a-a1b5-0d1c1f7e5e01";
+
+	private static final String APP2_GUID = "7ad7ee5c-5fb5-4a3a-a1b5-0d1c1f7e5e02";
+
+	private static final String APP1 = app(APP1_GUID, "app1", "STARTED");
+
+	private static final String APP2 = app(APP2_GUID, "app2", "STOPPED");
+
+	private static final String DOMAIN = domain("3c7cac5a-5dab-4c7f-9b3a-9f5e2a4d6c33", "cloud.example.com");
+
+	private static final String ROUTE_GUID = "5e9ece7c-7fcd-4e91-9d5c-b1704c6f8e55";
+
+	private static final String MYSQL_GUID = "4d8dbd6b-6ebc-4d80-8c4b-a06f3b5e7d44";
+
+	private static final String BINDING_GUID = "6fa0df8d-80de-4fa2-ae6d-c2815d709f66";
+
+	private static final String APP1_ROUTES_URL = "/v2/apps/" + APP1_GUID + "/routes?inline-relations-depth=1";
+
+	private static final String APP1_BINDINGS_URL = "/v2/apps/" + APP1_GUID +
+			"/service_bindings?inline-relations-depth=1";
+
+	private static final String APP1_STATS_URL = "/v2/apps/" + APP1_GUID + "/stats";
+
+	private static final String ALL_ROUTES_URL = "/v2/spaces/" + SPACE_GUID + "/routes?inline-relations-depth=1";
+
+	private static final String ALL_SERVICES_URL = "/v2/spaces/" + SPACE_GUID + "/service_instances" +
+			"?inline-relations-depth=1&return_user_provided_service_instances=true";
+
+	@Before
+	public void setUp() {
+		requestFactory
+				.respond(HttpMethod.GET, SPACE_APPS_URL, page(APP1, APP2))
+				.respond(HttpMethod.GET, APP1_STATS_URL, instanceStats("RUNNING"));
+	}
+
+	@Test
+	public void listingDoesNotLoadDetails() {
+		List<CloudApplication> apps = client.getLazyApplications();
+
+		assertThat(apps.size(), is(2));
+		assertThat(apps.get(0).getName(), is("app1"));
+		assertThat(apps.get(0).getState(), is(CloudApplication.AppState.STARTED));
+		assertThat(apps.get(0).getMemory(), is(512));
+		assertThat(apps.get(0).isLoadPending(), is(true));
+		assertThat(getRequests(), is(Arrays.asList("GET " + SPACE_APPS_URL)));
+	}
+
+	@Test
+	public void detailsAreLoadedOnceOnFirstAccess() {
+		requestFactory
+				.respond(HttpMethod.GET, APP1_ROUTES_URL, page(route(ROUTE_GUID, "app1", DOMAIN)))
+				.respond(HttpMethod.GET, APP1_BINDINGS_URL,
+						page(serviceBinding(BINDING_GUID, APP1_GUID, serviceInstance(MYSQL_GUID, "mysql"))));
+		CloudApplication app = client.getLazyApplications().get(0);
+
+		assertThat(app.getUris(), is(Arrays.asList("app1.cloud.example.com")));
+		assertThat(app.getUris(), is(Arrays.asList("app1.cloud.example.com")));
+		assertThat(app.getServices(), is(Arrays.asList("mysql")));
+		assertThat(app.getRunningInstances(), is(1));
+		assertThat(app.getRunningInstances(), is(1));
+		assertThat(app.isLoadPending(), is(false));
+		assertThat(getRequests(), is(Arrays.asList("GET " + SPACE_APPS_URL, "GET " + APP1_ROUTES_URL,
+				"GET " + APP1_BINDINGS_URL, "GET " + APP1_STATS_URL)));
+	}
+
+	@Test
+	public void stoppedApplicationHasNoRunningInstances() {
+		CloudApplication app = client.getLazyApplications().get(1);
+
+		assertThat(app.getRunningInstances(), is(0));
+		assertThat(getRequests().size(), is(1));
+	}
+
+	@Test
+	public void explicitlySetAttributesAreNotLoaded() {
+		CloudApplication app = client.getLazyApplications().get(0);
+		app.setUris(Arrays.asList("other.cloud.example.com"));
+
+		assertThat(app.getUris(), is(Arrays.asList("other.cloud.example.com")));
+		assertThat(getRequests().size(), is(1));
+	}
+
+	@Test
+	public void prefetchLoadsDetailsInBulk() {
+		requestFactory
+				.respond(HttpMethod.GET, ALL_ROUTES_URL, page(route(ROUTE_GUID, "app1", DOMAIN, APP1)))
+				.respond(HttpMethod.GET, ALL_SERVICES_URL,
+						page(serviceInstanceWithBindings(MYSQL_GUID, "mysql", appBinding(BINDING_GUID, APP1_GUID))));
+		List<CloudApplication> apps = client.getLazyApplications();
+		client.prefetchApplicationDetails(apps);
+
+		// one listing each for apps, routes and service instances, plus stats for the started app
+		assertThat(getRequests().size(), is(4));
+		assertThat(count("GET " + ALL_ROUTES_URL), is(1));
+		assertThat(count("GET " + ALL_SERVICES_URL), is(1));
+		assertThat(apps.get(0).getUris(), is(Arrays.asList("app1.cloud.example.com")));
+		assertThat(apps.get(0).getServices(), is(Arrays.asList("mysql")));
+		assertThat(apps.get(0).getRunningInstances(), is(1));
+		assertThat(apps.get(1).getUris().isEmpty(), is(true));
+		assertThat(apps.get(1).getServices().isEmpty(), is(true));
+		assertThat(apps.get(1).getRunningInstances(), is(0));
+		assertThat(getRequests().size(), is(4));
+
+		client.prefetchApplicationDetails(apps);
+		assertThat(getRequests().size(), is(4));
+	}
+
+	@Test
+	public void prefetchFollowsTruncatedServiceBindings() {
+		String instanceGuid = "4d8dbd6b-6ebc-4d80-8c4b-a06f3b5e7d45";
+		String[] bindings = new String[50];
+		for (int i = 0; i < bindings.length; i++) {
+			bindings[i] = appBinding(String.format("6fa0df8d-80de-4fa2-ae6d-%012d", i), APP2_GUID);
+		}
+		requestFactory
+				.respond(HttpMethod.GET, ALL_ROUTES_URL, page())
+				.respond(HttpMethod.GET, ALL_SERVICES_URL, page(serviceInstanceWithBindings(instanceGuid, "redis",
+						bindings)))
+				.respond(HttpMethod.GET, "/v2/service_instances/" + instanceGuid + "/service_bindings",
+						page(appBinding("6fa0df8d-80de-4fa2-ae6d-c2815d709f67", APP1_GUID)));
+		List<CloudApplication> apps = client.getLazyApplications();
+		client.prefetchApplicationDetails(apps);
+
+		assertThat(apps.get(0).getServices(), is(Arrays.asList("redis")));
+		assertThat(getRequests().size(), is(5));
+	}
+
+}
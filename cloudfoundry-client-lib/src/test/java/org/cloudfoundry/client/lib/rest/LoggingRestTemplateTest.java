@@ -0,0 +1,75 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.rest;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.cloudfoundry.client.lib.RestLogCallback;
+import org.cloudfoundry.client.lib.RestLogEntry;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+
+public class LoggingRestTemplateTest {
+
+	@Test
+	public void requestBytesAreCountedFromBody() {
+		StubClientHttpRequestFactory requestFactory = new StubClientHttpRequestFactory()
+				.respond(HttpMethod.PUT, "/v2/apps/1", "{}");
+		LoggingRestTemplate restTemplate = new LoggingRestTemplate();
+		restTemplate.setRequestFactory(requestFactory);
+		final List<RestLogEntry> entries = new ArrayList<RestLogEntry>();
+		restTemplate.registerRestLogListener(new RestLogCallback() {
+			public void onNewLogEntry(RestLogEntry logEntry) {
+				entries.add(logEntry);
+			}
+		});
+
+		restTemplate.put(StubClientHttpRequestFactory.CLOUD_CONTROLLER_URL + "/v2/apps/1",
+				Collections.singletonMap("memory", 512));
+
+		assertThat(entries.size(), is(1));
+		assertThat(entries.get(0).getRequestBytes(), is((long) "{\"memory\":512}".length()));
+	}
+
+	@Test
+	public void listenersCanBeRegisteredWhileEntriesAreLogged() {
+		final LoggingRestTemplate restTemplate = new LoggingRestTemplate();
+		final List<RestLogEntry> entries = new ArrayList<RestLogEntry>();
+		restTemplate.registerRestLogListener(new RestLogCallback() {
+			public void onNewLogEntry(RestLogEntry logEntry) {
+				restTemplate.registerRestLogListener(new RestLogCallback() {
+					public void onNewLogEntry(RestLogEntry logEntry) {
+						entries.add(logEntry);
+					}
+				});
+			}
+		});
+
+		restTemplate.addLogMessage(HttpMethod.GET, URI.create("/v2/apps"), "OK", HttpStatus.OK, "<no data>");
+		restTemplate.addLogMessage(HttpMethod.GET, URI.create("/v2/apps"), "OK", HttpStatus.OK, "<no data>");
+
+		assertThat(entries.size(), is(1));
+	}
+
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.rest;
+
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.SPACE_ROUTES_URL;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.appWithoutRelations;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.domain;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.page;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.route;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.cloudfoundry.client.lib.CloudFoundryException;
+import org.cloudfoundry.client.lib.domain.CloudRoute;
+import org.cloudfoundry.client.lib.domain.RouteDeletionResult;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+
+public class OrphanedRoutesTest extends AbstractStubbedClientTest {
+
+	private static final String DOMAIN = domain("3c7cac5a-5dab-4c7f-9b3a-9f5e2a4d6c33", "cloud.example.com");
+
+	private static final String ORPHAN1_GUID = "5e9ece7c-7fcd-4e91-9d5c-b1704c6f8e56";
+
+	private static final String ORPHAN2_GUID = "5e9ece7c-7fcd-4e91-9d5c-b1704c6f8e57";
+
+	private static final String MISSING_GUID = "5e9ece7c-7fcd-4e91-9d5c-b1704c6f8e58";
+
+	@Before
+	public void setUp() {
+		requestFactory
+				.respond(HttpMethod.GET, SPACE_ROUTES_URL,
+						page(route("5e9ece7c-7fcd-4e91-9d5c-b1704c6f8e55", "app1", DOMAIN,
+										appWithoutRelations("7ad7ee5c-5fb5-4a3a-a1b5-0d1c1f7e5e01", "app1", "STARTED")),
+								route(ORPHAN1_GUID, "unused1", DOMAIN),
+								route(ORPHAN2_GUID, "unused2", DOMAIN)))
+				.respond(HttpMethod.DELETE, "/v2/routes/" + ORPHAN1_GUID, "")
+				.respond(HttpMethod.DELETE, "/v2/routes/" + ORPHAN2_GUID, "");
+	}
+
+	@Test
+	public void dryRunListsSpaceRoutesOnce() {
+		List<CloudRoute> orphans = client.getOrphanedRoutes();
+		assertThat(routeNames(orphans), is(Arrays.asList("unused1.cloud.example.com", "unused2.cloud.example.com")));
+		assertThat(getRequests(), is(Arrays.asList("GET " + SPACE_ROUTES_URL)));
+	}
+
+	@Test
+	public void orphansAreDeletedByGuid() {
+		RouteDeletionResult result = client.deleteOrphanedRoutesWithResult();
+		assertThat(routeNames(result.getDeletedRoutes()),
+				is(Arrays.asList("unused1.cloud.example.com", "unused2.cloud.example.com")));
+		assertThat(result.isSuccessful(), is(true));
+
+		List<String> requests = getRequests();
+		assertThat(requests.get(0), is("GET " + SPACE_ROUTES_URL));
+		List<String> deletions = new ArrayList<String>(requests.subList(1, requests.size()));
+		Collections.sort(deletions);
+		assertThat(deletions, is(Arrays.asList("DELETE /v2/routes/" + ORPHAN1_GUID, "DELETE /v2/routes/" + ORPHAN2_GUID)));
+	}
+
+	@Test
+	public void failedDeletionsAreReportedWithDeletedRoutes() {
+		respondWithMissingOrphan();
+
+		RouteDeletionResult result = client.deleteOrphanedRoutesWithResult();
+
+		assertThat(routeNames(result.getDeletedRoutes()), is(Arrays.asList("unused1.cloud.example.com")));
+		assertThat(result.isSuccessful(), is(false));
+		assertThat(routeNames(new ArrayList<CloudRoute>(result.getFailedRoutes().keySet())),
+				is(Arrays.asList("missing.cloud.example.com")));
+		assertThat(result.getFailedRoutes().values().iterator().next() instanceof CloudFoundryException, is(true));
+		assertThat(count("DELETE /v2/routes/" + MISSING_GUID), is(1));
+	}
+
+	@Test
+	public void deleteOrphanedRoutesFailsIfAnyDeletionFails() {
+		respondWithMissingOrphan();
+
+		try {
+			client.deleteOrphanedRoutes();
+			fail("Expected CloudFoundryException");
+		} catch (CloudFoundryException e) {
+			assertThat(count("DELETE /v2/routes/" + ORPHAN1_GUID), is(1));
+		}
+	}
+
+	/**
+	 * Lists an orphan that is deleted before the client gets to it, so its deletion gets a 404.
+	 */
+	private void respondWithMissingOrphan() {
+		requestFactory.respond(HttpMethod.GET, SPACE_ROUTES_URL,
+				page(route(ORPHAN1_GUID, "unused1", DOMAIN), route(MISSING_GUID, "missing", DOMAIN)));
+	}
+
+	private static List<String> routeNames(List<CloudRoute> routes) {
+		List<String> names = new ArrayList<String>();
+		for (CloudRoute route : routes) {
+			names.add(route.getName());
+		}
+		return names;
+	}
+
+}
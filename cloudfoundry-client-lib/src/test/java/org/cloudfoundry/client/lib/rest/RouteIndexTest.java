@@ -0,0 +1,198 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.rest;
+
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.SPACE_GUID;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.app;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.appByNameUrl;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.domain;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.error;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.page;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.resource;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.route;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.routeWithoutRelations;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudfoundry.client.lib.CloudFoundryException;
+import org.cloudfoundry.client.lib.domain.RouteMappingResult;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+
+public class RouteIndexTest extends AbstractStubbedClientTest {
+
+	private static final String APP_GUID = "7ad7ee5c-5fb5-4a3a-a1b5-0d1c1f7e5e01";
+
+	private static final String DOMAIN_GUID = "3c7cac5a-5dab-4c7f-9b3a-9f5e2a4d6c33";
+
+	private static final String DOMAIN = domain(DOMAIN_GUID, "cloud.example.com");
+
+	private static final String OLD_ROUTE_GUID = "5e9ece7c-7fcd-4e91-9d5c-b1704c6f8e55";
+
+	private static final String EXISTING_ROUTE_GUID = "5e9ece7c-7fcd-4e91-9d5c-b1704c6f8e56";
+
+	private static final String NEW_ROUTE_GUID = "5e9ece7c-7fcd-4e91-9d5c-b1704c6f8e57";
+
+	private static final String ROUTE_NOT_FOUND = error(210002, "The route could not be found", "CF-RouteNotFound");
+
+	private static final String MAP_EXISTING = "/v2/apps/" + APP_GUID + "/routes/" + EXISTING_ROUTE_GUID;
+
+	private static final String MAP_NEW = "/v2/apps/" + APP_GUID + "/routes/" + NEW_ROUTE_GUID;
+
+	private static final String UNMAP_OLD = "/v2/apps/" + APP_GUID + "/routes/" + OLD_ROUTE_GUID;
+
+	@Before
+	public void setUp() {
+		requestFactory
+				.respond(HttpMethod.GET, appByNameUrl("app1"), page(app(APP_GUID, "app1", "STOPPED")))
+				.respond(HttpMethod.GET, "/v2/apps/" + APP_GUID + "/routes?inline-relations-depth=1",
+						page(route(OLD_ROUTE_GUID, "old", DOMAIN)))
+				.respond(HttpMethod.GET, "/v2/spaces/" + SPACE_GUID + "/domains?inline-relations-depth=1", page(DOMAIN))
+				.respond(HttpMethod.GET, "/v2/spaces/" + SPACE_GUID + "/routes?inline-relations-depth=0&results-per-page=100",
+						page(routeWithoutRelations(OLD_ROUTE_GUID, "old", DOMAIN_GUID),
+								routeWithoutRelations(EXISTING_ROUTE_GUID, "existing", DOMAIN_GUID)));
+	}
+
+	@Test
+	public void routesAreResolvedFromSpaceIndex() {
+		respondToRouteCreation();
+		requestFactory
+				.respond(HttpMethod.PUT, MAP_EXISTING, "{}")
+				.respond(HttpMethod.DELETE, UNMAP_OLD, "");
+		client.updateApplicationUris("app1",
+				Arrays.asList("existing.cloud.example.com", "new.cloud.example.com"));
+
+		assertThat(count("DELETE " + UNMAP_OLD), is(1));
+		assertThat(count("PUT " + MAP_EXISTING), is(1));
+		assertThat(count("POST /v2/routes"), is(1));
+		assertThat(count("PUT " + MAP_NEW), is(1));
+		assertThat(countRouteQueries(), is(1));
+	}
+
+	@Test
+	public void indexIsUpdatedByRouteChanges() {
+		respondToRouteCreation();
+		requestFactory.respond(HttpMethod.DELETE, UNMAP_OLD, "");
+		client.updateApplicationUris("app1", Arrays.asList("new.cloud.example.com"));
+		client.updateApplicationUris("app1", Arrays.asList("new.cloud.example.com"));
+
+		assertThat(count("POST /v2/routes"), is(1));
+		assertThat(count("PUT " + MAP_NEW), is(2));
+		assertThat(countRouteQueries(), is(1));
+	}
+
+	@Test
+	public void remapReportsOutcomePerUri() {
+		requestFactory
+				.respond(HttpMethod.PUT, MAP_EXISTING, "{}")
+				.respond(HttpMethod.DELETE, UNMAP_OLD, "");
+		List<RouteMappingResult> results = client.remapApplicationUris("app1",
+				Arrays.asList("existing.cloud.example.com", "app1.unknown.example.org"));
+
+		assertThat(results.size(), is(3));
+		Map<String, RouteMappingResult> resultsByUri = new HashMap<String, RouteMappingResult>();
+		for (RouteMappingResult result : results) {
+			resultsByUri.put(result.getUri(), result);
+		}
+		assertThat(resultsByUri.get("old.cloud.example.com").getOperation(), is(RouteMappingResult.Operation.UNMAP));
+		assertThat(resultsByUri.get("old.cloud.example.com").isSuccessful(), is(true));
+		assertThat(resultsByUri.get("existing.cloud.example.com").isSuccessful(), is(true));
+		assertThat(resultsByUri.get("app1.unknown.example.org").isSuccessful(), is(false));
+		assertThat(resultsByUri.get("app1.unknown.example.org").getError() instanceof IllegalArgumentException, is(true));
+		assertThat(count("PUT " + MAP_EXISTING), is(1));
+	}
+
+	@Test
+	public void urisAreAddedAndRemovedWithoutTouchingOthers() {
+		requestFactory.respond(HttpMethod.PUT, MAP_EXISTING, "{}");
+		List<RouteMappingResult> results = client.remapApplicationUris("app1",
+				Arrays.asList("old.cloud.example.com", "existing.cloud.example.com"),
+				Arrays.asList("unmapped.cloud.example.com"));
+
+		assertThat(results.size(), is(1));
+		assertThat(results.get(0).getUri(), is("existing.cloud.example.com"));
+		assertThat(results.get(0).getOperation(), is(RouteMappingResult.Operation.MAP));
+		assertThat(count("PUT " + MAP_EXISTING), is(1));
+		assertThat(count("DELETE " + UNMAP_OLD), is(0));
+	}
+
+	@Test
+	public void staleRouteIsLookedUpAgainWhenBinding() {
+		requestFactory
+				.respondWithError(HttpMethod.PUT, MAP_EXISTING, HttpStatus.NOT_FOUND, ROUTE_NOT_FOUND)
+				.respond(HttpMethod.PUT, MAP_NEW, "{}")
+				.respond(HttpMethod.GET, "/v2/routes?inline-relations-depth=0&q=host:existing",
+						page(routeWithoutRelations(NEW_ROUTE_GUID, "existing", DOMAIN_GUID)));
+
+		client.updateApplicationUris("app1", Arrays.asList("old.cloud.example.com", "existing.cloud.example.com"));
+
+		assertThat(count("PUT " + MAP_NEW), is(1));
+		assertThat(count("POST /v2/routes"), is(0));
+	}
+
+	@Test
+	public void applicationNotFoundIsNotTreatedAsStaleRoute() {
+		requestFactory.respondWithError(HttpMethod.PUT, MAP_EXISTING, HttpStatus.NOT_FOUND,
+				error(100004, "The app could not be found", "CF-AppNotFound"));
+
+		List<RouteMappingResult> results = client.remapApplicationUris("app1",
+				Arrays.asList("old.cloud.example.com", "existing.cloud.example.com"));
+
+		assertThat(results.size(), is(1));
+		assertThat(results.get(0).isSuccessful(), is(false));
+		assertThat(((CloudFoundryException) results.get(0).getError()).getCloudFoundryErrorCode(), is(100004));
+		assertThat(count("POST /v2/routes"), is(0));
+		assertThat(countRouteQueries(), is(1));
+	}
+
+	@Test
+	public void unbindingDeletedRouteSucceeds() {
+		requestFactory
+				.respondWithError(HttpMethod.DELETE, UNMAP_OLD, HttpStatus.NOT_FOUND, ROUTE_NOT_FOUND)
+				.respond(HttpMethod.GET, "/v2/routes?inline-relations-depth=0&q=host:old", page());
+
+		List<RouteMappingResult> results = client.remapApplicationUris("app1", Arrays.<String>asList());
+
+		assertThat(results.size(), is(1));
+		assertThat(results.get(0).isSuccessful(), is(true));
+		assertThat(count("GET /v2/routes?inline-relations-depth=0&q=host:old"), is(1));
+	}
+
+	private void respondToRouteCreation() {
+		requestFactory
+				.respond(HttpMethod.POST, "/v2/routes", resource(NEW_ROUTE_GUID, "/v2/routes"))
+				.respond(HttpMethod.PUT, MAP_NEW, "{}");
+	}
+
+	private int countRouteQueries() {
+		int count = 0;
+		for (String request : getRequests()) {
+			if (request.startsWith("GET /v2/routes") || request.contains("/routes?inline-relations-depth=0")) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+}
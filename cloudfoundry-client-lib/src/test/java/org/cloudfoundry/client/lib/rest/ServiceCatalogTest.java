@@ -0,0 +1,187 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.rest;
+
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.SERVICE_CATALOG_URL;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.page;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.resource;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.serviceBroker;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.serviceOffering;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.servicePlan;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+import org.cloudfoundry.client.lib.CloudOperationException;
+import org.cloudfoundry.client.lib.domain.CloudEntity;
+import org.cloudfoundry.client.lib.domain.CloudService;
+import org.cloudfoundry.client.lib.domain.CloudServiceOffering;
+import org.cloudfoundry.client.lib.domain.CloudServicePlan;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+
+public class ServiceCatalogTest extends AbstractStubbedClientTest {
+
+	private static final String BROKER_GUID = "0f8d9a6e-2b44-4cf5-8f0b-6a7a1d3c5e01";
+
+	private static final String MYSQL_GUID = "1c2d3e4f-5a6b-4c7d-8e9f-0a1b2c3d4e01";
+
+	private static final String REDIS_GUID = "1c2d3e4f-5a6b-4c7d-8e9f-0a1b2c3d4e02";
+
+	private static final String MYSQL_SMALL_GUID = "2d3e4f5a-6b7c-4d8e-9f0a-1b2c3d4e5f01";
+
+	private static final String MYSQL_LARGE_GUID = "2d3e4f5a-6b7c-4d8e-9f0a-1b2c3d4e5f02";
+
+	private static final String REDIS_SMALL_GUID = "2d3e4f5a-6b7c-4d8e-9f0a-1b2c3d4e5f03";
+
+	private static final String MYSQL = serviceOffering(MYSQL_GUID, "mysql", "core",
+			servicePlan(MYSQL_SMALL_GUID, "small"), servicePlan(MYSQL_LARGE_GUID, "large"));
+
+	private static final String REDIS = serviceOffering(REDIS_GUID, "redis", "labs",
+			servicePlan(REDIS_SMALL_GUID, "small"));
+
+	@Before
+	public void setUp() {
+		requestFactory
+				.respond(HttpMethod.GET, SERVICE_CATALOG_URL, page(MYSQL, REDIS))
+				.respond(HttpMethod.POST, "/v2/service_instances",
+						resource(UUID.randomUUID().toString(), "/v2/service_instances"));
+	}
+
+	@Test
+	public void catalogIsLoadedOnEveryUseWithoutTtl() {
+		client.setServiceCatalogTtl(0);
+		client.getServiceOfferings();
+		client.createService(service("db1", "mysql", "small"));
+
+		assertThat(count("GET " + SERVICE_CATALOG_URL), is(2));
+	}
+
+	@Test
+	public void catalogIsLoadedOnceForManyServices() {
+		client.createService(service("db1", "mysql", "small"));
+		client.createService(service("db2", "mysql", "large"));
+		client.createService(service("cache1", "redis", "small"));
+
+		assertThat(count("GET " + SERVICE_CATALOG_URL), is(1));
+		assertThat(count("POST /v2/service_instances"), is(3));
+	}
+
+	@Test
+	public void catalogIsIndexedByLabelAndProvider() {
+		List<CloudServiceOffering> mysql = client.getServiceOfferingsByLabel("mysql");
+		assertThat(mysql.size(), is(1));
+		assertThat(mysql.get(0).getCloudServicePlans().size(), is(2));
+		assertThat(client.getServiceOfferingsByProvider("labs").get(0).getLabel(), is("redis"));
+		assertThat(client.getServiceOfferingsByLabel("postgres").isEmpty(), is(true));
+		assertThat(client.getServiceOfferings().size(), is(2));
+
+		assertThat(count("GET " + SERVICE_CATALOG_URL), is(1));
+	}
+
+	@Test
+	public void cachedOfferingsAreHandedOutAsCopies() {
+		CloudServiceOffering mysql = client.getServiceOfferingsByLabel("mysql").get(0);
+		mysql.setName("postgres");
+		mysql.getCloudServicePlans().clear();
+
+		CloudServiceOffering cached = client.getServiceOfferingsByLabel("mysql").get(0);
+		assertThat(cached.getCloudServicePlans().size(), is(2));
+		assertSame(cached, cached.getCloudServicePlans().get(0).getServiceOffering());
+		assertThat(client.getServiceOfferingsByLabel("postgres").isEmpty(), is(true));
+		assertThat(count("GET " + SERVICE_CATALOG_URL), is(1));
+	}
+
+	@Test
+	public void unknownPlanDoesNotReloadAFreshCatalog() {
+		assertUnknownPlan(service("db1", "mysql", "huge"));
+
+		assertThat(count("GET " + SERVICE_CATALOG_URL), is(1));
+	}
+
+	@Test
+	public void unknownPlanReloadsCachedCatalogOnceUntilItExpires() {
+		client.getServiceOfferings();
+		assertUnknownPlan(service("db1", "mysql", "huge"));
+		assertUnknownPlan(service("db2", "mysql", "huge"));
+
+		assertThat(count("GET " + SERVICE_CATALOG_URL), is(2));
+	}
+
+	@Test
+	public void offeringsWithoutLabelAreSkipped() {
+		CloudServiceOffering unlabeled = new CloudServiceOffering(CloudEntity.Meta.defaultMeta(), null);
+		CloudServicePlan small = new CloudServicePlan(CloudEntity.Meta.defaultMeta(), "small");
+		small.setServiceOffering(unlabeled);
+		unlabeled.addCloudServicePlan(small);
+		ServiceCatalog catalog = new ServiceCatalog(Arrays.asList(unlabeled), System.currentTimeMillis());
+
+		assertThat(catalog.findPlan("mysql", null, "small"), is(nullValue()));
+		assertSame(small, catalog.findPlan(null, null, "small"));
+	}
+
+	@Test
+	public void visibilityOfAllBrokerPlansIsUpdatedFromOneListing() {
+		requestFactory
+				.respond(HttpMethod.GET, "/v2/service_brokers?q=name:broker1",
+						page(serviceBroker(BROKER_GUID, "broker1")))
+				.respond(HttpMethod.GET, SERVICE_CATALOG_URL + "&q=service_broker_guid:" + BROKER_GUID,
+						page(MYSQL, REDIS))
+				.respond(HttpMethod.PUT, "/v2/service_plans/" + MYSQL_SMALL_GUID, "{}")
+				.respond(HttpMethod.PUT, "/v2/service_plans/" + REDIS_SMALL_GUID, "{}");
+		try {
+			client.updateServicePlanVisibilityForBroker("broker1", true);
+			fail("Expected the update of the large plan to fail");
+		} catch (CloudOperationException e) {
+			assertThat(e.getMessage(), is("Failed to update 1 of 3 service plans: mysql/large"));
+			assertThat(e.getSuppressed().length, is(1));
+		}
+
+		assertThat(new HashSet<String>(getRequests()), is(new HashSet<String>(Arrays.asList(
+				"GET /v2/service_brokers?q=name:broker1",
+				"GET " + SERVICE_CATALOG_URL + "&q=service_broker_guid:" + BROKER_GUID,
+				"PUT /v2/service_plans/" + MYSQL_SMALL_GUID,
+				"PUT /v2/service_plans/" + MYSQL_LARGE_GUID,
+				"PUT /v2/service_plans/" + REDIS_SMALL_GUID))));
+		assertThat(getRequests().size(), is(5));
+	}
+
+	private void assertUnknownPlan(CloudService service) {
+		try {
+			client.createService(service);
+			fail("Expected unknown plan to be rejected");
+		} catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(), is("Service plan " + service.getPlan() + " not found"));
+		}
+	}
+
+	private static CloudService service(String name, String label, String plan) {
+		CloudService service = new CloudService(CloudEntity.Meta.defaultMeta(), name);
+		service.setLabel(label);
+		service.setPlan(plan);
+		return service;
+	}
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.rest;
+
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.SPACE_GUID;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.app;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.appByNameUrl;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.page;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.resource;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.serviceBindingWithoutRelations;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.serviceInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudfoundry.client.lib.CloudFoundryException;
+import org.cloudfoundry.client.lib.domain.ServiceBindingResult;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+
+public class ServiceRebindingTest extends AbstractStubbedClientTest {
+
+	private static final String APP_GUID = "7ad7ee5c-5fb5-4a3a-a1b5-0d1c1f7e5e01";
+
+	private static final String MYSQL_GUID = "4d8dbd6b-6ebc-4d80-8c4b-a06f3b5e7d44";
+
+	private static final String REDIS_GUID = "4d8dbd6b-6ebc-4d80-8c4b-a06f3b5e7d45";
+
+	private static final String BINDING_GUID = "6fa0df8d-80de-4fa2-ae6d-c2815d709f66";
+
+	private static final String SERVICES_URL = "/v2/spaces/" + SPACE_GUID + "/service_instances" +
+			"?inline-relations-depth=0&return_user_provided_service_instances=true&results-per-page=100";
+
+	private static final String BINDINGS_URL = "/v2/apps/" + APP_GUID + "/service_bindings?results-per-page=100";
+
+	@Before
+	public void setUp() {
+		requestFactory
+				.respond(HttpMethod.GET, appByNameUrl("app1"), page(app(APP_GUID, "app1", "STOPPED")))
+				.respond(HttpMethod.GET, SERVICES_URL,
+						page(serviceInstance(MYSQL_GUID, "mysql"), serviceInstance(REDIS_GUID, "redis")))
+				.respond(HttpMethod.GET, BINDINGS_URL,
+						page(serviceBindingWithoutRelations(BINDING_GUID, APP_GUID, MYSQL_GUID)));
+	}
+
+	@Test
+	public void servicesAreResolvedFromOneListing() {
+		requestFactory
+				.respond(HttpMethod.POST, "/v2/service_bindings", resource(BINDING_GUID, "/v2/service_bindings"))
+				.respond(HttpMethod.DELETE, "/v2/service_bindings/" + BINDING_GUID, "");
+		List<ServiceBindingResult> results = client.rebindApplicationServices("app1", Arrays.asList("redis", "missing"));
+
+		Map<String, ServiceBindingResult> resultsByName = new HashMap<String, ServiceBindingResult>();
+		for (ServiceBindingResult result : results) {
+			resultsByName.put(result.getServiceName(), result);
+		}
+		assertThat(results.size(), is(3));
+		assertThat(resultsByName.get("redis").getOperation(), is(ServiceBindingResult.Operation.BIND));
+		assertThat(resultsByName.get("redis").isSuccessful(), is(true));
+		assertThat(resultsByName.get("mysql").getOperation(), is(ServiceBindingResult.Operation.UNBIND));
+		assertThat(resultsByName.get("mysql").isSuccessful(), is(true));
+		assertThat(((CloudFoundryException) resultsByName.get("missing").getError()).getStatusCode(),
+				is(HttpStatus.NOT_FOUND));
+
+		assertThat(getRequests().size(), is(5));
+		assertThat(count("GET " + SERVICES_URL), is(1));
+		assertThat(count("POST /v2/service_bindings"), is(1));
+		assertThat(count("DELETE /v2/service_bindings/" + BINDING_GUID), is(1));
+	}
+
+	@Test
+	public void updateThrowsFirstFailure() {
+		try {
+			client.updateApplicationServices("app1", Arrays.asList("mysql", "missing"));
+			fail("Expected CloudFoundryException");
+		} catch (CloudFoundryException e) {
+			assertThat(e.getStatusCode(), is(HttpStatus.NOT_FOUND));
+		}
+		assertThat(count("DELETE /v2/service_bindings/" + BINDING_GUID), is(0));
+	}
+
+	@Test
+	public void updateValidatesServiceNamesBeforeChangingBindings() {
+		try {
+			client.updateApplicationServices("app1", Arrays.asList("redis", "missing"));
+			fail("Expected CloudFoundryException");
+		} catch (CloudFoundryException e) {
+			assertThat(e.getStatusText(), is("Service with name missing not found in current space development"));
+		}
+		assertThat(count("POST /v2/service_bindings"), is(0));
+		assertThat(count("DELETE /v2/service_bindings/" + BINDING_GUID), is(0));
+	}
+
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.rest;
+
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.SPACE_APPS_URL;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.SPACE_ROUTES_URL;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.SPACE_SERVICES_URL;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.STACK_GUID;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.appBinding;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.appWithoutRelations;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.domain;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.page;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.route;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.routeWithAppsUrl;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.serviceInstanceWithPlan;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.stack;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+import org.cloudfoundry.client.lib.SpaceSnapshot;
+import org.cloudfoundry.client.lib.domain.CloudApplication;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+
+public class SpaceSnapshotTest extends AbstractStubbedClientTest {
+
+	private static final String APP1_GUID = "7ad7ee5c-5fb5-4a3a-a1b5-0d1c1f7e5e01";
+
+	private static final String APP2_GUID = "7ad7ee5c-5fb5-4a3a-a1b5-0d1c1f7e5e02";
+
+	private static final String PLAN_GUID = "9c3d2a1f-a3f0-4b24-8f8e-e4a37f92b188";
+
+	private static final String SERVICE_GUID = "8b2c1f0e-92ef-4a13-bf7e-d3926e81a077";
+
+	private static final String DOMAIN = domain("3c7cac5a-5dab-4c7f-9b3a-9f5e2a4d6c33", "cloud.example.com");
+
+	@Before
+	public void setUp() {
+		requestFactory
+				.respond(HttpMethod.GET, SPACE_APPS_URL, page(appWithoutRelations(APP1_GUID, "app1", "STARTED"),
+						appWithoutRelations(APP2_GUID, "app2", "STOPPED")))
+				.respond(HttpMethod.GET, SPACE_ROUTES_URL,
+						page(route("5e9ece7c-7fcd-4e91-9d5c-b1704c6f8e55", "app1", DOMAIN,
+										appWithoutRelations(APP1_GUID, "app1", "STARTED")),
+								route("5e9ece7c-7fcd-4e91-9d5c-b1704c6f8e56", "unused", DOMAIN)))
+				.respond(HttpMethod.GET, "/v2/domains?results-per-page=100", page(DOMAIN))
+				.respond(HttpMethod.GET, SPACE_SERVICES_URL,
+						page(serviceInstanceWithPlan("4d8dbd6b-6ebc-4d80-8c4b-a06f3b5e7d44", "mysql", PLAN_GUID,
+								"free", SERVICE_GUID, "cleardb",
+								appBinding("6fa0df8d-80de-4fa2-ae6d-c2815d709f66", APP1_GUID))))
+				.respond(HttpMethod.GET, "/v2/stacks", page(stack()));
+	}
+
+	@Test
+	public void snapshotAnswersQueriesInMemory() {
+		SpaceSnapshot snapshot = client.getSpaceSnapshot();
+		assertThat(getRequests().size(), is(5));
+
+		CloudApplication app1 = snapshot.getApplication("app1");
+		assertThat(app1.getUris(), is(Arrays.asList("app1.cloud.example.com")));
+		assertThat(app1.getServices(), is(Arrays.asList("mysql")));
+		assertThat(app1.getStaging().getStack(), is("lucid64"));
+		assertThat(app1.getSpace().getName(), is("development"));
+		assertThat(snapshot.getApplication(UUID.fromString(APP2_GUID)).getName(), is("app2"));
+		assertThat(snapshot.getApplication("app3"), is(nullValue()));
+		assertThat(snapshot.getApplication("app2").getUris().isEmpty(), is(true));
+
+		assertThat(snapshot.getApplicationsBoundToService("mysql").size(), is(1));
+		assertThat(snapshot.getApplicationsBoundToService("mysql").get(0).getName(), is("app1"));
+		assertThat(snapshot.getService("mysql").getLabel(), is("cleardb"));
+		assertThat(snapshot.getService("mysql").getPlan(), is("free"));
+
+		assertThat(snapshot.getRoutes().size(), is(2));
+		assertThat(snapshot.getRoutes("cloud.example.com").size(), is(2));
+		assertThat(snapshot.getApplicationRoutes("app1").get(0).getHost(), is("app1"));
+		assertThat(snapshot.getOrphanedRoutes().size(), is(1));
+		assertThat(snapshot.getOrphanedRoutes().get(0).getHost(), is("unused"));
+
+		assertThat(snapshot.getDomain("cloud.example.com").getName(), is("cloud.example.com"));
+		assertThat(snapshot.getStack("lucid64").getMeta().getGuid(), is(UUID.fromString(STACK_GUID)));
+
+		assertThat(getRequests().size(), is(5));
+	}
+
+	@Test
+	public void applicationsNotInlinedInRoutesAreListed() {
+		String routeGuid = "5e9ece7c-7fcd-4e91-9d5c-b1704c6f8e55";
+		requestFactory
+				.respond(HttpMethod.GET, SPACE_ROUTES_URL, page(routeWithAppsUrl(routeGuid, "app1", DOMAIN)))
+				.respond(HttpMethod.GET, "/v2/routes/" + routeGuid + "/apps",
+						page(appWithoutRelations(APP1_GUID, "app1", "STARTED")));
+
+		SpaceSnapshot snapshot = client.getSpaceSnapshot();
+
+		assertThat(snapshot.getApplication("app1").getUris(), is(Arrays.asList("app1.cloud.example.com")));
+		assertThat(snapshot.getOrphanedRoutes().isEmpty(), is(true));
+		assertThat(getRequests().size(), is(6));
+		assertThat(count("GET /v2/routes/" + routeGuid + "/apps"), is(1));
+	}
+
+	@Test
+	public void refreshReloadsSnapshot() {
+		SpaceSnapshot snapshot = client.getSpaceSnapshot();
+		requestFactory.respond(HttpMethod.GET, SPACE_APPS_URL, page(appWithoutRelations(APP1_GUID, "app1", "STARTED")));
+
+		snapshot.refresh();
+
+		assertThat(snapshot.getApplications().size(), is(1));
+		assertThat(snapshot.getApplication("app2"), is(nullValue()));
+		assertThat(getRequests().size(), is(10));
+		assertThat(count("GET " + SPACE_APPS_URL), is(2));
+	}
+
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.rest;
+
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.SERVICE_CATALOG_URL;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.SPACE_APPS_URL;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.SPACE_GUID;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.app;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.page;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.serviceOffering;
+import static org.cloudfoundry.client.lib.rest.CloudControllerFixtures.space;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+
+import org.cloudfoundry.client.lib.CloudFoundryClient;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+
+public class SpaceViewTest extends AbstractStubbedClientTest {
+
+	private static final String STAGING_GUID = "5e6f7a8b-9c0d-4e1f-a2b3-c4d5e6f7a801";
+
+	private static final String OTHER_ORG_STAGING_GUID = "5e6f7a8b-9c0d-4e1f-a2b3-c4d5e6f7a802";
+
+	private static final String SPACES_URL = "/v2/spaces?inline-relations-depth=1";
+
+	private static final String STAGING_APPS_URL =
+			"/v2/spaces/" + STAGING_GUID + "/apps?inline-relations-depth=0&results-per-page=100";
+
+	@Before
+	public void setUp() {
+		requestFactory.respond(HttpMethod.GET, SPACES_URL, page(
+				space(SPACE_GUID, "development", "acme"),
+				space(STAGING_GUID, "staging", "acme"),
+				space(OTHER_ORG_STAGING_GUID, "staging", "globex")));
+	}
+
+	@Test
+	public void viewWorksInItsOwnSpace() {
+		requestFactory
+				.respond(HttpMethod.GET, SPACE_APPS_URL,
+						page(app("7ad7ee5c-5fb5-4a3a-a1b5-0d1c1f7e5e01", "app1", "STOPPED")))
+				.respond(HttpMethod.GET, STAGING_APPS_URL, page());
+		CloudFoundryClient staging = client.withSpace("acme", "staging");
+
+		assertThat(staging.getLazyApplications().size(), is(0));
+		assertThat(client.getLazyApplications().size(), is(1));
+		assertThat(getRequests(), is(Arrays.asList(
+				"GET " + SPACES_URL,
+				"GET " + STAGING_APPS_URL,
+				"GET " + SPACE_APPS_URL)));
+	}
+
+	@Test
+	public void spacesAreResolvedFromOneListing() {
+		assertThat(client.withSpace("acme", "staging").getCloudControllerUrl(), is(client.getCloudControllerUrl()));
+		client.withSpace("globex", "staging");
+		client.withSpace("acme", "development");
+		client.withSpace(null, "development").withSpace("acme", "staging");
+
+		assertThat(count("GET " + SPACES_URL), is(1));
+	}
+
+	@Test
+	public void unknownSpaceRefreshesTheCacheBeforeFailing() {
+		client.withSpace("acme", "staging");
+		try {
+			client.withSpace("acme", "production");
+			fail("Expected unknown space to be rejected");
+		} catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(), is("No matching organization and space found for org: acme space: production"));
+		}
+
+		assertThat(count("GET " + SPACES_URL), is(2));
+	}
+
+	@Test
+	public void viewsShareTheServiceCatalog() {
+		respondWithServiceCatalog();
+		client.getServiceOfferings();
+		client.forSpace(cloudSpace(STAGING_GUID, "staging")).getServiceOfferingsByLabel("mysql");
+
+		assertThat(getRequests(), is(Arrays.asList("GET " + SERVICE_CATALOG_URL)));
+	}
+
+	@Test
+	public void settingsChangedAfterCreatingAViewApplyToIt() {
+		respondWithServiceCatalog();
+		CloudFoundryClient staging = client.forSpace(cloudSpace(STAGING_GUID, "staging"));
+		client.setServiceCatalogTtl(0);
+		staging.getServiceOfferings();
+		staging.getServiceOfferings();
+
+		assertThat(count("GET " + SERVICE_CATALOG_URL), is(2));
+	}
+
+	@Test
+	public void ambiguousSpaceNameRequiresOrganization() {
+		try {
+			client.withSpace(null, "staging");
+			fail("Expected ambiguous space name to be rejected");
+		} catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(),
+					is("Space staging exists in more than one organization, an organization name is required"));
+		}
+	}
+
+	private void respondWithServiceCatalog() {
+		requestFactory.respond(HttpMethod.GET, SERVICE_CATALOG_URL,
+				page(serviceOffering("1c2d3e4f-5a6b-4c7d-8e9f-0a1b2c3d4e01", "mysql", "core")));
+	}
+
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.client.lib.rest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.cloudfoundry.client.lib.domain.CloudSpace;
+import org.cloudfoundry.client.lib.oauth2.OauthClient;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * {@link ClientHttpRequestFactory} returning canned JSON responses, for exercising the client without
+ * a cloud controller. Responses are keyed by method and path (including the query string) and may be
+ * returned any number of times; requests without a registered response get a 404.
+ */
+public class StubClientHttpRequestFactory implements ClientHttpRequestFactory {
+
+	public static final String CLOUD_CONTROLLER_URL = "http://api.cloud.example.com";
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private final Map<String, String> responses = new ConcurrentHashMap<String, String>();
+
+	private final Map<String, HttpStatus> statuses = new ConcurrentHashMap<String, HttpStatus>();
+
+	private final List<String> requests = Collections.synchronizedList(new ArrayList<String>());
+
+	/**
+	 * Register the JSON to return for the given request. Single quotes in the JSON are converted to
+	 * double quotes to keep the fixtures readable.
+	 */
+	public StubClientHttpRequestFactory respond(HttpMethod method, String pathAndQuery, String json) {
+		responses.put(key(method, pathAndQuery), json.replace('\'', '"'));
+		statuses.remove(key(method, pathAndQuery));
+		return this;
+	}
+
+	/**
+	 * Register an error response for the given request, such as a cloud controller error document.
+	 */
+	public StubClientHttpRequestFactory respondWithError(HttpMethod method, String pathAndQuery, HttpStatus status,
+			String json) {
+		responses.put(key(method, pathAndQuery), json.replace('\'', '"'));
+		statuses.put(key(method, pathAndQuery), status);
+		return this;
+	}
+
+	/**
+	 * Requests received so far, as "METHOD /path?query".
+	 */
+	public List<String> getRequests() {
+		synchronized (requests) {
+			return new ArrayList<String>(requests);
+		}
+	}
+
+	/**
+	 * Create a client for the given session space that sends all requests to this factory.
+	 */
+	public CloudControllerClientImpl createClient(CloudSpace sessionSpace) {
+		URL cloudControllerUrl;
+		try {
+			cloudControllerUrl = new URL(CLOUD_CONTROLLER_URL);
+		} catch (MalformedURLException e) {
+			throw new IllegalStateException(e);
+		}
+		LoggingRestTemplate restTemplate = new LoggingRestTemplate();
+		restTemplate.setRequestFactory(this);
+		restTemplate.setErrorHandler(new CloudControllerResponseErrorHandler());
+		return new CloudControllerClientImpl(cloudControllerUrl, restTemplate,
+				new OauthClient(cloudControllerUrl, restTemplate), null, null, sessionSpace);
+	}
+
+	public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+		return new StubClientHttpRequest(uri, httpMethod);
+	}
+
+	private static String key(HttpMethod method, String pathAndQuery) {
+		return method + " " + pathAndQuery;
+	}
+
+	private class StubClientHttpRequest implements ClientHttpRequest {
+
+		private final URI uri;
+
+		private final HttpMethod method;
+
+		private final HttpHeaders headers = new HttpHeaders();
+
+		private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+		public StubClientHttpRequest(URI uri, HttpMethod method) {
+			this.uri = uri;
+			this.method = method;
+		}
+
+		public ClientHttpResponse execute() throws IOException {
+			if (headers.getContentLength() < 0) {
+				headers.setContentLength(body.size());
+			}
+			String pathAndQuery = uri.getPath() + (uri.getQuery() != null ? "?" + uri.getQuery() : "");
+			String key = key(method, pathAndQuery);
+			requests.add(key);
+			String json = responses.get(key);
+			if (json == null) {
+				return new StubClientHttpResponse(HttpStatus.NOT_FOUND,
+						"{'code':10000,'description':'Unknown request','error_code':'CF-NotFound'}".replace('\'', '"'));
+			}
+			HttpStatus status = statuses.get(key);
+			return new StubClientHttpResponse(status != null ? status : HttpStatus.OK, json);
+		}
+
+		public OutputStream getBody() throws IOException {
+			return body;
+		}
+
+		public HttpMethod getMethod() {
+			return method;
+		}
+
+		public URI getURI() {
+			return uri;
+		}
+
+		public HttpHeaders getHeaders() {
+			return headers;
+		}
+	}
+
+	private static class StubClientHttpResponse implements ClientHttpResponse {
+
+		private final HttpStatus status;
+
+		private final byte[] body;
+
+		private final HttpHeaders headers = new HttpHeaders();
+
+		public StubClientHttpResponse(HttpStatus status, String json) {
+			this.status = status;
+			this.body = json.getBytes(UTF_8);
+			headers.setContentType(MediaType.APPLICATION_JSON);
+			headers.setContentLength(body.length);
+		}
+
+		public HttpStatus getStatusCode() throws IOException {
+			return status;
+		}
+
+		public int getRawStatusCode() throws IOException {
+			return status.value();
+		}
+
+		public String getStatusText() throws IOException {
+			return status.getReasonPhrase();
+		}
+
+		public HttpHeaders getHeaders() {
+			return headers;
+		}
+
+		public InputStream getBody() throws IOException {
+			return new ByteArrayInputStream(body);
+		}
+
+		public void close() {
+		}
+	}
+}
@@ -20,23 +20,30 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.util.List;
 
+import org.cloudfoundry.client.lib.UploadProgress;
+import org.cloudfoundry.client.lib.UploadProgressCallback;
 import org.cloudfoundry.client.lib.domain.UploadApplicationPayload;
 import org.cloudfoundry.client.lib.rest.UploadApplicationPayloadHttpMessageConverter;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpInputMessage;
 import org.springframework.http.HttpOutputMessage;
 import org.springframework.http.MediaType;
+import org.springframework.util.FileCopyUtils;
 
 /**
  * Tests for {@link org.cloudfoundry.client.lib.rest.UploadApplicationPayloadHttpMessageConverter}.
@@ -50,6 +57,9 @@ public class UploadApplicationPayloadHttpMessageConverterTest {
     @Rule
     public ExpectedException thrown = ExpectedException.none();
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     private UploadApplicationPayloadHttpMessageConverter converter = new UploadApplicationPayloadHttpMessageConverter();
 
     @Test
@@ -87,7 +97,50 @@ public class UploadApplicationPayloadHttpMessageConverterTest {
         given(outputMessage.getBody()).willReturn(out);
         converter.write(payload, null, outputMessage);
         verify(headers).setContentType(MediaType.APPLICATION_OCTET_STREAM);
+        verify(payload).getInputStream();
+        assertThat(out.toByteArray(), is(equalTo(CONTENT)));
+    }
+
+    @Test
+    public void shouldReportProgress() throws Exception {
+        UploadApplicationPayload payload = mock(UploadApplicationPayload.class);
+        given(payload.getInputStream()).willReturn(new ByteArrayInputStream(CONTENT));
+        given(payload.getTotalUncompressedBytes()).willReturn(10L);
+        UploadProgressCallback callback = mock(UploadProgressCallback.class);
+        given(payload.getProgressCallback()).willReturn(callback);
+        HttpOutputMessage outputMessage = mock(HttpOutputMessage.class);
+        given(outputMessage.getHeaders()).willReturn(mock(HttpHeaders.class));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        given(outputMessage.getBody()).willReturn(out);
+        converter.write(payload, null, outputMessage);
+        ArgumentCaptor<UploadProgress> progress = ArgumentCaptor.forClass(UploadProgress.class);
+        verify(callback, atLeastOnce()).onUploadProgress(progress.capture());
+        assertThat(progress.getValue().isComplete(), is(true));
+        assertThat(progress.getValue().getBytesSent(), is(2L));
+        assertThat(progress.getValue().getTotalBytes(), is(2L));
+        assertThat(progress.getValue().getTotalUncompressedBytes(), is(10L));
+        assertThat(out.toByteArray(), is(equalTo(CONTENT)));
+    }
+
+    @Test
+    public void shouldCopyUploadToFile() throws Exception {
+        final File file = new File(temporaryFolder.getRoot(), "upload.zip");
+        converter = new UploadApplicationPayloadHttpMessageConverter() {
+            @Override
+            protected String getUploadFilePath() {
+                return file.getPath();
+            }
+        };
+        UploadApplicationPayload payload = mock(UploadApplicationPayload.class);
+        given(payload.getInputStream()).willReturn(new ByteArrayInputStream(CONTENT));
+        HttpOutputMessage outputMessage = mock(HttpOutputMessage.class);
+        given(outputMessage.getHeaders()).willReturn(mock(HttpHeaders.class));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        given(outputMessage.getBody()).willReturn(out);
+        converter.write(payload, null, outputMessage);
+        verify(payload).getInputStream();
         assertThat(out.toByteArray(), is(equalTo(CONTENT)));
+        assertThat(FileCopyUtils.copyToByteArray(file), is(equalTo(CONTENT)));
     }
 
 }
@@ -59,6 +59,8 @@ class CloudFoundryExtension {
 
     boolean useSystemProxy = true
     boolean trustSelfSignedCerts = false;
+    boolean dryRun = false
+    File digestCache
 
     CloudFoundryExtension(Project project) {
         application = project.name
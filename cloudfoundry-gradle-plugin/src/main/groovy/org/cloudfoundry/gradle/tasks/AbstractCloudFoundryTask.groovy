@@ -329,6 +329,11 @@ abstract class AbstractCloudFoundryTask extends DefaultTask {
                 getDefaultArchiveForTask(JavaPlugin.JAR_TASK_NAME))
     }
 
+    File getDigestCache() {
+        def digestCache = propertyOrExtension('digestCache')
+        digestCache ? project.file(digestCache) : new File(project.buildDir, 'cf-digests.bin')
+    }
+
     File getDefaultArchiveForTask(String taskName) {
         project.tasks.findByName(taskName)?.archivePath
     }
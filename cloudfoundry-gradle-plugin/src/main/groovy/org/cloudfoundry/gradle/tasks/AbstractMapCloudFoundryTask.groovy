@@ -15,37 +15,36 @@
 
 package org.cloudfoundry.gradle.tasks
 
-import org.cloudfoundry.client.lib.domain.CloudApplication
+import org.cloudfoundry.client.lib.domain.RouteMappingResult
+import org.gradle.api.GradleException
 
 abstract class AbstractMapCloudFoundryTask extends AbstractCloudFoundryTask {
     AbstractMapCloudFoundryTask() {
         super()
     }
 
-    protected List<String> mapUrisToApplication() {
-        def applicationUris = updateApplicationUris { existingUris, passedUris ->
-            existingUris + passedUris
-        }
-        applicationUris as List<String>
+    protected void mapUrisToApplication() {
+        updateApplicationUris(allUris.collect { it as String }, [])
     }
 
-
-    protected List<String> unmapUrisFromApplication() {
-        def applicationUris = updateApplicationUris { existingUris, passedUris ->
-            existingUris - passedUris
-        }
-        applicationUris as List<String>
+    protected void unmapUrisFromApplication() {
+        updateApplicationUris([], allUris.collect { it as String })
     }
 
-    protected List<String> updateApplicationUris(Closure c) {
-        CloudApplication app = client.getApplication(application)
-        List<String> applicationUris = c.call(app.uris, allUris.collect { it as String }).unique()
-        client.updateApplicationUris(application, applicationUris)
-        applicationUris
+    protected void updateApplicationUris(List<String> addedUris, List<String> removedUris) {
+        List<RouteMappingResult> results = client.remapApplicationUris(application, addedUris, removedUris)
+        List<RouteMappingResult> failures = results.findAll { !it.successful }
+        failures.each { result ->
+            log "Failed to ${result.operation == RouteMappingResult.Operation.MAP ? 'map' : 'unmap'} ${result.uri}: ${result.error.message}"
+        }
+        if (failures) {
+            throw new GradleException("Failed to update ${failures.size()} of ${results.size()} URIs for ${application}")
+        }
     }
 
-    protected void listUriMappings(def uris) {
+    protected void listUriMappings() {
         if (verboseEnabled) {
+            List<String> uris = client.getApplication(application).uris
             StringBuilder sb = new StringBuilder("Current uri mappings for ${application}\n")
 
             if (uris.isEmpty()) {
@@ -16,6 +16,8 @@
 package org.cloudfoundry.gradle.tasks
 
 import org.cloudfoundry.client.lib.domain.CloudRoute
+import org.cloudfoundry.client.lib.domain.RouteDeletionResult
+import org.gradle.api.GradleException
 import org.gradle.api.tasks.TaskAction
 
 /**
@@ -31,10 +33,28 @@ class DeleteOrphanedRoutesCloudFoundryTask extends AbstractCloudFoundryTask {
     void deleteOrphanedRoutes() {
         withCloudFoundryClient {
             log "Getting routes"
-            List<CloudRoute> routes = client.deleteOrphanedRoutes()
-            routes.each { route ->
-                log "Deleted route ${route.name}"
+            if (dryRun) {
+                List<CloudRoute> routes = client.orphanedRoutes
+                routes.each { route ->
+                    log "Orphaned route ${route.name} would be deleted"
+                }
+            } else {
+                RouteDeletionResult result = client.deleteOrphanedRoutesWithResult()
+                result.deletedRoutes.each { route ->
+                    log "Deleted route ${route.name}"
+                }
+                result.failedRoutes.each { route, error ->
+                    log "Failed to delete route ${route.name}: ${error.message}"
+                }
+                if (!result.successful) {
+                    int total = result.deletedRoutes.size() + result.failedRoutes.size()
+                    throw new GradleException("Failed to delete ${result.failedRoutes.size()} of ${total} orphaned routes")
+                }
             }
         }
     }
+
+    boolean getDryRun() {
+        propertyOrExtension('dryRun')
+    }
 }
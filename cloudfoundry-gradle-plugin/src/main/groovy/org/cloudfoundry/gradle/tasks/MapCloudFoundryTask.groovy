@@ -35,9 +35,9 @@ class MapCloudFoundryTask extends AbstractMapCloudFoundryTask {
             log "Mapping uris ${allUris} for ${application}"
 
             withApplication {
-                List<String> applicationUris = mapUrisToApplication()
+                mapUrisToApplication()
 
-                listUriMappings(applicationUris)
+                listUriMappings()
             }
         }
     }
@@ -16,6 +16,8 @@
 package org.cloudfoundry.gradle.tasks
 
 import org.cloudfoundry.client.lib.CloudFoundryException
+import org.cloudfoundry.client.lib.archive.DigestCache
+import org.cloudfoundry.client.lib.archive.DirectoryApplicationArchive
 import org.cloudfoundry.client.lib.domain.CloudApplication
 import org.cloudfoundry.client.lib.domain.Staging
 import org.gradle.api.GradleException
@@ -86,7 +88,18 @@ class PushCloudFoundryHelper {
             log "Uploading file ${file}"
         }
 
-        client.uploadApplication(application, file)
+        if (file.isDirectory()) {
+            DigestCache cache = new DigestCache(digestCache)
+            client.uploadApplication(application, new DirectoryApplicationArchive(file, cache))
+            try {
+                cache.save()
+            } catch (IOException e) {
+                // the upload succeeded, the next one just has to hash the files again
+                logger.warn "Could not save digest cache ${digestCache}", e
+            }
+        } else {
+            client.uploadApplication(application, file)
+        }
     }
 
     void validateApplicationConfig() {
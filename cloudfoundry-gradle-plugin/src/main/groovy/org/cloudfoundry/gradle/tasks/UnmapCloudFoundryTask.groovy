@@ -35,9 +35,9 @@ class UnmapCloudFoundryTask extends AbstractMapCloudFoundryTask {
             log "Unmapping uris ${allUris} for ${application}"
 
             withApplication {
-                List<String> applicationUris = unmapUrisFromApplication()
+                unmapUrisFromApplication()
 
-                listUriMappings(applicationUris)
+                listUriMappings()
             }
         }
     }
@@ -36,6 +36,8 @@ import org.apache.maven.plugin.MojoExecutionException;
 import org.cloudfoundry.client.lib.CloudFoundryClient;
 import org.cloudfoundry.client.lib.CloudFoundryException;
 import org.cloudfoundry.client.lib.StartingInfo;
+import org.cloudfoundry.client.lib.archive.DigestCache;
+import org.cloudfoundry.client.lib.archive.DirectoryApplicationArchive;
 import org.cloudfoundry.client.lib.domain.CloudApplication;
 import org.cloudfoundry.client.lib.domain.CloudDomain;
 import org.cloudfoundry.client.lib.domain.CloudService;
@@ -100,6 +102,14 @@ abstract class AbstractApplicationAwareCloudFoundryMojo extends AbstractCloudFou
 	 */
 	private File path;
 
+	/**
+	 * File in which the digests of the files of an exploded application directory are kept between
+	 * pushes, so that unchanged files are not read again.
+	 *
+	 * @parameter expression = "${cf.digestCache}" default-value="${project.build.directory}/cf-digests.bin"
+	 */
+	private File digestCache;
+
 	/**
 	 * The start command to use for the application.
 	 *
@@ -569,7 +579,18 @@ abstract class AbstractApplicationAwareCloudFoundryMojo extends AbstractCloudFou
 		}
 
 		try {
-			client.uploadApplication(appName, file);
+			if (isDirectory && digestCache != null) {
+				DigestCache cache = new DigestCache(digestCache);
+				client.uploadApplication(appName, new DirectoryApplicationArchive(file, cache));
+				try {
+					cache.save();
+				} catch (IOException e) {
+					// the upload succeeded, the next one just has to hash the files again
+					getLog().warn(String.format("Could not save digest cache %s", digestCache), e);
+				}
+			} else {
+				client.uploadApplication(appName, file);
+			}
 		} catch (IOException e) {
 			throw new IllegalStateException("Error while uploading application.", e);
 		}
@@ -19,8 +19,10 @@ package org.cloudfoundry.maven;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.cloudfoundry.client.lib.domain.CloudRoute;
+import org.cloudfoundry.client.lib.domain.RouteDeletionResult;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Delete routes that do not have any application which is assigned to them.
@@ -30,12 +32,34 @@ import java.util.List;
  * @since 1.0.4
  */
 public class OrphanedRoutesDeletion extends AbstractApplicationAwareCloudFoundryMojo {
+
+	/**
+	 * Only report the orphaned routes, without deleting them.
+	 * @parameter expression="${cf.dryRun}" default-value="false"
+	 */
+	private boolean dryRun;
+
 	@Override
 	protected void doExecute() throws MojoExecutionException, MojoFailureException {
 		getLog().info("Getting routes");
-		List<CloudRoute> routes = getClient().deleteOrphanedRoutes();
-		for (CloudRoute route : routes) {
+		if (dryRun) {
+			List<CloudRoute> routes = getClient().getOrphanedRoutes();
+			for (CloudRoute route : routes) {
+				getLog().info(String.format("Orphaned route '%s' would be deleted", route.getName()));
+			}
+			return;
+		}
+		RouteDeletionResult result = getClient().deleteOrphanedRoutesWithResult();
+		for (CloudRoute route : result.getDeletedRoutes()) {
 			getLog().info(String.format("Deleted route '%s'", route.getName()));
 		}
+		for (Map.Entry<CloudRoute, RuntimeException> failure : result.getFailedRoutes().entrySet()) {
+			getLog().error(String.format("Failed to delete route '%s': %s", failure.getKey().getName(),
+					failure.getValue().getMessage()));
+		}
+		if (!result.isSuccessful()) {
+			throw new MojoExecutionException(String.format("Failed to delete %d of %d orphaned routes",
+					result.getFailedRoutes().size(), result.getDeletedRoutes().size() + result.getFailedRoutes().size()));
+		}
 	}
 }
\ No newline at end of file